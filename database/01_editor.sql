@@ -38,7 +38,30 @@ CREATE TABLE dlc (
     CONSTRAINT fk_dlc_game FOREIGN KEY (game_id) REFERENCES game(id)
 );
 
+-- Table: text_blob
+-- Content-addressed store of long texts (patch notes of at least text.blob.min.length characters,
+-- shorter ones stay inline in patch.modifications): the key is the first 128 bits of the SHA-256
+-- of the UTF-8 text, so a text shared by several rows (the per-platform rows of one release) is stored
+-- once and referenced by hash. toast_tuple_target is lowered so that bodies of a few hundred bytes are
+-- already compressed (pglz; ALTER COLUMN body SET COMPRESSION lz4 on servers built with lz4).
+CREATE TABLE text_blob (
+    hash UUID PRIMARY KEY,
+    body TEXT NOT NULL
+) WITH (toast_tuple_target = 128);
+
+-- Hash of a text, as computed by the loader (sinks.TextStore)
+CREATE FUNCTION text_hash(body TEXT) RETURNS UUID AS $$
+    SELECT encode(substr(sha256(convert_to(body, 'UTF8')), 1, 16), 'hex')::uuid;
+$$ LANGUAGE sql IMMUTABLE STRICT;
+
+-- Store a text unless already there, return its hash
+CREATE FUNCTION text_blob_put(body TEXT) RETURNS UUID AS $$
+    INSERT INTO text_blob (hash, body) VALUES (text_hash(body), body) ON CONFLICT (hash) DO NOTHING;
+    SELECT text_hash(body);
+$$ LANGUAGE sql STRICT;
+
 -- Table: patch
+-- modifications (up to 10000 characters) are stored inline when short, in text_blob otherwise
 CREATE TABLE patch (
     id UUID PRIMARY KEY,
     is_patch_of_game BOOLEAN,
@@ -48,10 +71,19 @@ CREATE TABLE patch (
     new_version FLOAT,
     comment VARCHAR(2000),
     modifications VARCHAR(10000),
+    modifications_hash UUID,
     is_publish BOOLEAN,
-    CONSTRAINT fk_patch_game FOREIGN KEY (game_id) REFERENCES game(id)
+    CONSTRAINT fk_patch_game FOREIGN KEY (game_id) REFERENCES game(id),
+    CONSTRAINT fk_patch_modifications FOREIGN KEY (modifications_hash) REFERENCES text_blob(hash),
+    CONSTRAINT chk_patch_modifications CHECK (modifications IS NULL OR modifications_hash IS NULL)
 );
 
+-- Patches with their modifications text, inline or stored
+CREATE VIEW patch_with_text AS
+SELECT p.id, p.is_patch_of_game, p.game_id, p.platform, p.old_version, p.new_version, p.comment,
+       coalesce(p.modifications, b.body) AS modifications, p.modifications_hash, p.is_publish
+FROM patch p LEFT JOIN text_blob b ON b.hash = p.modifications_hash;
+
 -- Table: bug_report (Synced from Platform)
 CREATE TABLE bug_report (
     id_game UUID,
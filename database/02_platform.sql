@@ -16,15 +16,33 @@ CREATE TABLE editor (
 );
 
 -- Table: game
+-- platform_mask and genre_mask denormalize game_platforms and game_genres (the source of truth)
+-- into one bit per enum value, in enum order (PC = 1, XBOX = 2, PS5 = 4, SWITCH = 8;
+-- ACTION = 1, RPG = 2, STRATEGY = 4, SPORTS = 8). They are written by the sync from editor_db,
+-- so that catalog filters are bitwise predicates on game instead of joins.
 CREATE TABLE game (
     id UUID PRIMARY KEY,
     editor_id UUID,
     name VARCHAR(200),
     price FLOAT,
     num_version FLOAT,
+    platform_mask SMALLINT NOT NULL DEFAULT 0,
+    genre_mask SMALLINT NOT NULL DEFAULT 0,
     CONSTRAINT fk_plat_editor FOREIGN KEY (editor_id) REFERENCES editor(id)
 );
 
+-- Mask of a set of platforms / genres, e.g. PS5 and (RPG or STRATEGY):
+-- WHERE platform_mask & platform_bits('PS5') <> 0 AND genre_mask & genre_bits('RPG', 'STRATEGY') <> 0
+CREATE FUNCTION platform_bits(VARIADIC platforms platform_enum[]) RETURNS SMALLINT AS $$
+    SELECT coalesce(bit_or(1 << (array_position(enum_range(NULL::platform_enum), p) - 1)), 0)::smallint
+    FROM unnest(platforms) AS p;
+$$ LANGUAGE sql IMMUTABLE;
+
+CREATE FUNCTION genre_bits(VARIADIC genres genre_enum[]) RETURNS SMALLINT AS $$
+    SELECT coalesce(bit_or(1 << (array_position(enum_range(NULL::genre_enum), g) - 1)), 0)::smallint
+    FROM unnest(genres) AS g;
+$$ LANGUAGE sql IMMUTABLE;
+
 -- Game platforms list
 CREATE TABLE game_platforms (
     game_id UUID,
@@ -41,6 +59,19 @@ CREATE TABLE game_genres (
     CONSTRAINT fk_plat_game_g FOREIGN KEY (game_id) REFERENCES game(id)
 );
 
+-- Recompute the masks from the join tables, after they were changed outside of the sync
+CREATE FUNCTION game_refresh_masks() RETURNS BIGINT AS $$
+    WITH updated AS (
+        UPDATE game g SET
+            platform_mask = coalesce((SELECT platform_bits(VARIADIC array_agg(gp.platform))
+                                      FROM game_platforms gp WHERE gp.game_id = g.id), 0),
+            genre_mask = coalesce((SELECT genre_bits(VARIADIC array_agg(gg.genre))
+                                   FROM game_genres gg WHERE gg.game_id = g.id), 0)
+        RETURNING 1
+    )
+    SELECT count(*) FROM updated;
+$$ LANGUAGE sql;
+
 -- Table: dlc
 CREATE TABLE dlc (
     id UUID PRIMARY KEY,
@@ -52,7 +83,31 @@ CREATE TABLE dlc (
     CONSTRAINT fk_plat_dlc_game FOREIGN KEY (game_id) REFERENCES game(id)
 );
 
+-- Table: text_blob
+-- Content-addressed store of long texts (patch notes of at least text.blob.min.length characters,
+-- shorter ones stay inline in patch.description): the key is the first 128 bits of the SHA-256
+-- of the UTF-8 text, so a text shared by several rows (the per-platform rows of one release) is stored
+-- once and referenced by hash. toast_tuple_target is lowered so that bodies of a few hundred bytes are
+-- already compressed (pglz; ALTER COLUMN body SET COMPRESSION lz4 on servers built with lz4).
+CREATE TABLE text_blob (
+    hash UUID PRIMARY KEY,
+    body TEXT NOT NULL
+) WITH (toast_tuple_target = 128);
+
+-- Hash of a text, as computed by the loader (sinks.TextStore)
+CREATE FUNCTION text_hash(body TEXT) RETURNS UUID AS $$
+    SELECT encode(substr(sha256(convert_to(body, 'UTF8')), 1, 16), 'hex')::uuid;
+$$ LANGUAGE sql IMMUTABLE STRICT;
+
+-- Store a text unless already there, return its hash
+CREATE FUNCTION text_blob_put(body TEXT) RETURNS UUID AS $$
+    INSERT INTO text_blob (hash, body) VALUES (text_hash(body), body) ON CONFLICT (hash) DO NOTHING;
+    SELECT text_hash(body);
+$$ LANGUAGE sql STRICT;
+
 -- Table: patch
+-- description (the modifications of editor_db) is stored as in editor_db: inline when short,
+-- in text_blob under the same hash otherwise
 CREATE TABLE patch (
     id UUID PRIMARY KEY,
     is_patch_of_game BOOLEAN,
@@ -61,9 +116,18 @@ CREATE TABLE patch (
     old_version FLOAT,
     new_version FLOAT,
     comment VARCHAR(2000),
-    description VARCHAR(10000)
+    description VARCHAR(10000),
+    description_hash UUID,
+    CONSTRAINT fk_plat_patch_description FOREIGN KEY (description_hash) REFERENCES text_blob(hash),
+    CONSTRAINT chk_plat_patch_description CHECK (description IS NULL OR description_hash IS NULL)
 );
 
+-- Patches with their description text, inline or stored
+CREATE VIEW patch_with_text AS
+SELECT p.id, p.is_patch_of_game, p.game_id, p.platform, p.old_version, p.new_version, p.comment,
+       coalesce(p.description, b.body) AS description, p.description_hash
+FROM patch p LEFT JOIN text_blob b ON b.hash = p.description_hash;
+
 -- Table: player
 CREATE TABLE player (
     id UUID PRIMARY KEY,
@@ -111,29 +175,340 @@ CREATE TABLE player_follows (
 );
 
 -- Table: evaluation
+-- Largest table: hash-partitioned by game, so that the reviews of a game sit in one partition
+-- and maintenance (VACUUM, reindex) works on 1/8 of the table at a time.
+-- Reviews older than archive.age.days move to Avro files (java Main archive, DatabaseLoader)
 CREATE TABLE evaluation (
     id_game UUID NOT NULL,
     player_id UUID NOT NULL,
     description TEXT,
     plateforme platform_enum,
     note INT CHECK (note >= 0 AND note <= 10),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     PRIMARY KEY (id_game, player_id, plateforme),
     CONSTRAINT fk_evaluation_game FOREIGN KEY (id_game) REFERENCES game(id),
     CONSTRAINT fk_evaluation_player FOREIGN KEY (player_id) REFERENCES player(id)
+) PARTITION BY HASH (id_game);
+
+CREATE TABLE evaluation_p0 PARTITION OF evaluation FOR VALUES WITH (MODULUS 8, REMAINDER 0);
+CREATE TABLE evaluation_p1 PARTITION OF evaluation FOR VALUES WITH (MODULUS 8, REMAINDER 1);
+CREATE TABLE evaluation_p2 PARTITION OF evaluation FOR VALUES WITH (MODULUS 8, REMAINDER 2);
+CREATE TABLE evaluation_p3 PARTITION OF evaluation FOR VALUES WITH (MODULUS 8, REMAINDER 3);
+CREATE TABLE evaluation_p4 PARTITION OF evaluation FOR VALUES WITH (MODULUS 8, REMAINDER 4);
+CREATE TABLE evaluation_p5 PARTITION OF evaluation FOR VALUES WITH (MODULUS 8, REMAINDER 5);
+CREATE TABLE evaluation_p6 PARTITION OF evaluation FOR VALUES WITH (MODULUS 8, REMAINDER 6);
+CREATE TABLE evaluation_p7 PARTITION OF evaluation FOR VALUES WITH (MODULUS 8, REMAINDER 7);
+
+-- Table: game_rating_summary
+-- Rollup of evaluation per game and platform, so that a score or a rating chart reads one row per
+-- platform instead of every review: ratings (reviews with a note), note_sum, and histogram[n + 1] =
+-- reviews with note n (0-10). Kept up to date by statement triggers on every insert, update and
+-- delete of evaluation; rebuilt by game_rating_summary_rebuild (java Main ratings, in parallel).
+CREATE TABLE game_rating_summary (
+    id_game UUID NOT NULL,
+    platform platform_enum NOT NULL,
+    ratings INT NOT NULL,
+    note_sum INT NOT NULL,
+    histogram INT[] NOT NULL,
+    average DOUBLE PRECISION GENERATED ALWAYS AS (note_sum::double precision / nullif(ratings, 0)) STORED,
+    PRIMARY KEY (id_game, platform),
+    CONSTRAINT fk_rating_summary_game FOREIGN KEY (id_game) REFERENCES game(id)
+);
+
+-- Histogram of notes 0-10: rating_histogram(note, weight) adds weight to bucket note + 1
+CREATE FUNCTION rating_histogram_step(histogram INT[], note INT, weight INT) RETURNS INT[] AS $$
+BEGIN
+    histogram[note + 1] := histogram[note + 1] + weight;
+    RETURN histogram;
+END;
+$$ LANGUAGE plpgsql IMMUTABLE STRICT;
+
+CREATE AGGREGATE rating_histogram(note INT, weight INT) (
+    SFUNC = rating_histogram_step,
+    STYPE = INT[],
+    INITCOND = '{0,0,0,0,0,0,0,0,0,0,0}'
+);
+
+-- Element-wise sum of two histograms
+CREATE FUNCTION rating_histogram_add(a INT[], b INT[]) RETURNS INT[] AS $$
+    SELECT array_agg(x + y ORDER BY i) FROM unnest(a, b) WITH ORDINALITY AS u(x, y, i);
+$$ LANGUAGE sql IMMUTABLE;
+
+-- Statement trigger: one upsert per (game, platform) touched by the statement, from its transition
+-- tables (new rows count +1, old rows -1; an update leaving the notes as they were writes nothing). Rows are upserted in key order, so that concurrent
+-- statements lock the summary rows in the same order. Bulk loads skip it with
+-- SET LOCAL rating_summary.deferred = on, then call game_rating_summary_rebuild.
+CREATE FUNCTION game_rating_summary_apply() RETURNS trigger AS $$
+DECLARE
+    delta TEXT := CASE TG_OP
+        WHEN 'INSERT' THEN 'SELECT id_game, plateforme, note, 1 AS sign FROM new_rows'
+        WHEN 'DELETE' THEN 'SELECT id_game, plateforme, note, -1 AS sign FROM old_rows'
+        ELSE 'SELECT id_game, plateforme, note, 1 AS sign FROM new_rows ' ||
+             'UNION ALL SELECT id_game, plateforme, note, -1 FROM old_rows'
+    END;
+BEGIN
+    IF current_setting('rating_summary.deferred', true) = 'on' THEN
+        RETURN NULL;
+    END IF;
+    EXECUTE 'INSERT INTO game_rating_summary AS s (id_game, platform, ratings, note_sum, histogram) ' ||
+            'SELECT id_game, plateforme, sum(sign), sum(sign * note), rating_histogram(note, sign) ' ||
+            'FROM (' || delta || ') d WHERE note IS NOT NULL AND plateforme IS NOT NULL ' ||
+            'GROUP BY 1, 2 HAVING rating_histogram(note, sign) <> ''{0,0,0,0,0,0,0,0,0,0,0}'' ORDER BY 1, 2 ' ||
+            'ON CONFLICT (id_game, platform) DO UPDATE SET ratings = s.ratings + excluded.ratings, ' ||
+            'note_sum = s.note_sum + excluded.note_sum, ' ||
+            'histogram = rating_histogram_add(s.histogram, excluded.histogram)';
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Statement triggers only fire for the table named in the statement: they are installed on
+-- evaluation and on each of its partitions (the loader writes into the partitions directly)
+CREATE FUNCTION game_rating_summary_install(target REGCLASS) RETURNS VOID AS $$
+BEGIN
+    EXECUTE format('CREATE TRIGGER rating_summary_insert AFTER INSERT ON %s REFERENCING NEW TABLE AS new_rows ' ||
+                   'FOR EACH STATEMENT EXECUTE FUNCTION game_rating_summary_apply()', target);
+    EXECUTE format('CREATE TRIGGER rating_summary_update AFTER UPDATE ON %s ' ||
+                   'REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows ' ||
+                   'FOR EACH STATEMENT EXECUTE FUNCTION game_rating_summary_apply()', target);
+    EXECUTE format('CREATE TRIGGER rating_summary_delete AFTER DELETE ON %s REFERENCING OLD TABLE AS old_rows ' ||
+                   'FOR EACH STATEMENT EXECUTE FUNCTION game_rating_summary_apply()', target);
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT game_rating_summary_install(c.oid::regclass) FROM pg_class c
+WHERE c.oid = 'evaluation'::regclass OR c.oid IN (SELECT inhrelid FROM pg_inherits WHERE inhparent = 'evaluation'::regclass);
+
+-- Recompute the summaries of the games of one evaluation partition (or of all games for evaluation
+-- itself). The partition is locked against writers meanwhile, so that no trigger delta is lost;
+-- the partitions can be rebuilt in parallel, a game lives in exactly one. Returns the summary rows.
+CREATE FUNCTION game_rating_summary_rebuild(source REGCLASS) RETURNS BIGINT AS $$
+DECLARE
+    bound TEXT[] := regexp_match(pg_get_expr((SELECT relpartbound FROM pg_class WHERE oid = source), source),
+                                 'modulus (\d+), remainder (\d+)');
+    rebuilt BIGINT;
+BEGIN
+    EXECUTE format('LOCK TABLE %s IN SHARE MODE', source);
+    IF bound IS NULL THEN
+        DELETE FROM game_rating_summary;
+    ELSE
+        DELETE FROM game_rating_summary
+        WHERE satisfies_hash_partition('evaluation'::regclass, bound[1]::int, bound[2]::int, id_game);
+    END IF;
+    EXECUTE format('INSERT INTO game_rating_summary (id_game, platform, ratings, note_sum, histogram) ' ||
+                   'SELECT id_game, plateforme, count(*), sum(note), rating_histogram(note, 1) FROM %s ' ||
+                   'WHERE note IS NOT NULL AND plateforme IS NOT NULL GROUP BY 1, 2', source);
+    GET DIAGNOSTICS rebuilt = ROW_COUNT;
+    RETURN rebuilt;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Table: game_page
+-- Read model of the player's game page: one JSONB document per game with its editor, platforms,
+-- genres, DLCs, latest patch per platform (with its notes) and rating summary, so that a page view is
+-- one primary-key lookup instead of five queries. Kept up to date by statement triggers on each source
+-- table; bulk loads skip them with SET LOCAL game_page.deferred = on, then call game_page_refresh(NULL).
+CREATE TABLE game_page (
+    id_game UUID PRIMARY KEY,
+    document JSONB NOT NULL,
+    refreshed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_game_page_game FOREIGN KEY (id_game) REFERENCES game(id) ON DELETE CASCADE
 );
 
+-- Ratings section of a document, also patched alone when only the rating summary changed.
+-- The document functions are plpgsql so that their plans are cached: a refresh after a single review
+-- or catalog change does not pay for planning them again.
+CREATE FUNCTION game_page_ratings(game_id UUID) RETURNS JSONB AS $$
+BEGIN
+    RETURN (SELECT coalesce(jsonb_agg(jsonb_build_object('platform', s.platform, 'ratings', s.ratings,
+                                                         'average', round(s.average::numeric, 2),
+                                                         'histogram', to_jsonb(s.histogram))
+                                      ORDER BY s.platform), '[]')
+            FROM game_rating_summary s WHERE s.id_game = game_id);
+END;
+$$ LANGUAGE plpgsql STABLE;
+
+-- Document of one game, from the source tables
+CREATE FUNCTION game_page_document(game_id UUID) RETURNS JSONB AS $$
+BEGIN
+    RETURN (SELECT jsonb_build_object(
+            'id', g.id, 'name', g.name, 'price', g.price, 'version', g.num_version,
+            'editor', jsonb_build_object('id', e.id, 'name', e.name),
+            'platforms', coalesce((SELECT jsonb_agg(gp.platform ORDER BY gp.platform)
+                                   FROM game_platforms gp WHERE gp.game_id = g.id), '[]'),
+            'genres', coalesce((SELECT jsonb_agg(gg.genre ORDER BY gg.genre)
+                                FROM game_genres gg WHERE gg.game_id = g.id), '[]'),
+            'dlcs', coalesce((SELECT jsonb_agg(jsonb_build_object('id', d.id, 'name', d.name, 'price', d.price,
+                                                                  'version', d.num_version) ORDER BY d.name, d.id)
+                              FROM dlc d WHERE d.game_id = g.id), '[]'),
+            'latest_patches', coalesce((SELECT jsonb_agg(jsonb_build_object('id', p.id, 'platform', p.platform,
+                                                                            'old_version', p.old_version,
+                                                                            'version', p.new_version,
+                                                                            'notes', coalesce(p.description, b.body))
+                                                         ORDER BY p.platform)
+                                        FROM (SELECT DISTINCT ON (platform) * FROM patch
+                                              WHERE patch.game_id = g.id
+                                              ORDER BY platform, new_version DESC, id) p
+                                        LEFT JOIN text_blob b ON b.hash = p.description_hash), '[]'),
+            'ratings', game_page_ratings(g.id))
+        FROM game g LEFT JOIN editor e ON e.id = g.editor_id
+        WHERE g.id = game_id);
+END;
+$$ LANGUAGE plpgsql STABLE;
+
+-- Rebuild the documents of some games (of all games for NULL); returns the documents written.
+-- section 'ratings' only replaces that section of the existing documents (a new review), games
+-- without a document yet get a whole one. The game rows are locked first, in key order: two
+-- transactions changing sources of the same game refresh it one after the other, the second from a
+-- snapshot taken once the first committed (READ COMMITTED), so the last document written sees both
+-- changes. Unchanged documents are not rewritten.
+CREATE FUNCTION game_page_refresh(game_ids UUID[], section TEXT DEFAULT NULL) RETURNS BIGINT AS $$
+DECLARE
+    refreshed BIGINT := 0;
+    written BIGINT;
+BEGIN
+    IF game_ids IS NULL THEN
+        game_ids := array(SELECT id FROM game ORDER BY id FOR NO KEY UPDATE);
+        section := NULL;
+    ELSE
+        PERFORM 1 FROM game WHERE id = ANY(game_ids) ORDER BY id FOR NO KEY UPDATE;
+    END IF;
+    IF section = 'ratings' THEN
+        UPDATE game_page page SET document = jsonb_set(page.document, '{ratings}', game_page_ratings(page.id_game)),
+                                  refreshed_at = CURRENT_TIMESTAMP
+        WHERE page.id_game = ANY(game_ids)
+          AND page.document -> 'ratings' IS DISTINCT FROM game_page_ratings(page.id_game);
+        GET DIAGNOSTICS refreshed = ROW_COUNT;
+        IF (SELECT count(*) FROM game_page WHERE id_game = ANY(game_ids)) = cardinality(game_ids) THEN
+            RETURN refreshed;
+        END IF;
+    END IF;
+    INSERT INTO game_page AS page (id_game, document)
+    SELECT g.id, game_page_document(g.id) FROM game g
+    WHERE g.id = ANY(game_ids) ORDER BY g.id
+    ON CONFLICT (id_game) DO UPDATE SET document = excluded.document, refreshed_at = CURRENT_TIMESTAMP
+    WHERE page.document IS DISTINCT FROM excluded.document;
+    GET DIAGNOSTICS written = ROW_COUNT;
+    RETURN refreshed + written;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Statement trigger: refresh the games touched by the statement. TG_ARGV[0] is the column holding
+-- the game id (for editor, the games of the changed editors), TG_ARGV[1] the only section to refresh
+-- if any. Pages of deleted games go by cascade.
+CREATE FUNCTION game_page_touch() RETURNS trigger AS $$
+DECLARE
+    changed TEXT := CASE TG_OP
+        WHEN 'INSERT' THEN format('SELECT %I FROM new_rows', TG_ARGV[0])
+        WHEN 'DELETE' THEN format('SELECT %I FROM old_rows', TG_ARGV[0])
+        ELSE format('SELECT %I FROM new_rows UNION SELECT %I FROM old_rows', TG_ARGV[0], TG_ARGV[0])
+    END;
+    game_ids UUID[];
+BEGIN
+    IF current_setting('game_page.deferred', true) = 'on' THEN
+        RETURN NULL;
+    END IF;
+    IF TG_TABLE_NAME = 'editor' THEN
+        changed := 'SELECT id FROM game WHERE editor_id IN (' || changed || ')';
+    END IF;
+    EXECUTE 'SELECT array_agg(DISTINCT k) FROM (' || changed || ') c(k) WHERE k IS NOT NULL' INTO game_ids;
+    IF game_ids IS NOT NULL THEN
+        PERFORM game_page_refresh(game_ids, TG_ARGV[1]);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION game_page_install(target REGCLASS, game_column TEXT, section TEXT DEFAULT NULL) RETURNS VOID AS $$
+DECLARE
+    args TEXT := quote_literal(game_column) || coalesce(', ' || quote_literal(section), '');
+BEGIN
+    EXECUTE format('CREATE TRIGGER game_page_insert AFTER INSERT ON %s REFERENCING NEW TABLE AS new_rows ' ||
+                   'FOR EACH STATEMENT EXECUTE FUNCTION game_page_touch(%s)', target, args);
+    EXECUTE format('CREATE TRIGGER game_page_update AFTER UPDATE ON %s ' ||
+                   'REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows ' ||
+                   'FOR EACH STATEMENT EXECUTE FUNCTION game_page_touch(%s)', target, args);
+    EXECUTE format('CREATE TRIGGER game_page_delete AFTER DELETE ON %s REFERENCING OLD TABLE AS old_rows ' ||
+                   'FOR EACH STATEMENT EXECUTE FUNCTION game_page_touch(%s)', target, args);
+END;
+$$ LANGUAGE plpgsql;
+
+-- text_blob needs none: a text never changes under its hash
+SELECT game_page_install('editor', 'id'), game_page_install('game', 'id'),
+       game_page_install('game_platforms', 'game_id'), game_page_install('game_genres', 'game_id'),
+       game_page_install('dlc', 'game_id'), game_page_install('patch', 'game_id'),
+       game_page_install('game_rating_summary', 'id_game', 'ratings');
+
 -- Table: bug_report
+-- Range-partitioned by month of created_at (bug_report_yYYYYmMM): old months are archived to Avro
+-- files (java Main archive) or dropped as a whole instead of DELETEd. The primary key has to contain
+-- the partition key.
 CREATE TABLE bug_report (
+    id UUID NOT NULL DEFAULT gen_random_uuid(),
     id_game UUID NOT NULL,
     id_patch UUID,
     player_id UUID NOT NULL,
     description TEXT,
     plateforme platform_enum,
-    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, created_at),
     CONSTRAINT fk_bug_game FOREIGN KEY (id_game) REFERENCES game(id),
     CONSTRAINT fk_bug_patch FOREIGN KEY (id_patch) REFERENCES patch(id),
     CONSTRAINT fk_bug_player FOREIGN KEY (player_id) REFERENCES player(id)
-);
+) PARTITION BY RANGE (created_at);
+
+-- Create the missing monthly partitions from the month of from_date to the month of to_date.
+-- There is no default partition: a row outside every month fails instead of landing in a
+-- partition that would later block the creation of its month.
+CREATE FUNCTION bug_report_create_partitions(from_date DATE, to_date DATE) RETURNS INT AS $$
+DECLARE
+    month DATE := date_trunc('month', from_date);
+    created INT := 0;
+    partition TEXT;
+BEGIN
+    WHILE month <= to_date LOOP
+        partition := 'bug_report_' || to_char(month, '"y"YYYY"m"MM');
+        IF to_regclass(partition) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF bug_report FOR VALUES FROM (%L) TO (%L)',
+                partition, month::timestamp, (month + INTERVAL '1 month')::timestamp);
+            created := created + 1;
+        END IF;
+        month := month + INTERVAL '1 month';
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Retention: drop the partitions whose whole month is before the month of before_date
+CREATE FUNCTION bug_report_drop_partitions(before_date DATE) RETURNS INT AS $$
+DECLARE
+    partition RECORD;
+    dropped INT := 0;
+BEGIN
+    FOR partition IN
+        SELECT c.oid::regclass AS name
+        FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'bug_report'::regclass
+          AND c.relname ~ '^bug_report_y[0-9]{4}m[0-9]{2}$'
+          AND to_date(substring(c.relname FROM 12), '"y"YYYY"m"MM') + INTERVAL '1 month'
+              <= date_trunc('month', before_date)
+    LOOP
+        EXECUTE format('DROP TABLE %s', partition.name);
+        dropped := dropped + 1;
+    END LOOP;
+    RETURN dropped;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Daily maintenance: months ahead are created before rows arrive, expired months are dropped.
+-- Run by "java Main partitions" (DatabaseLoader) or scheduled in the database, e.g. with pg_cron:
+-- SELECT cron.schedule('bug_report_partitions', '0 3 * * *', 'SELECT bug_report_maintain_partitions(3, 24)');
+CREATE FUNCTION bug_report_maintain_partitions(premake_months INT, retention_months INT)
+RETURNS TABLE (created INT, dropped INT) AS $$
+    SELECT bug_report_create_partitions(CURRENT_DATE, (CURRENT_DATE + make_interval(months => premake_months))::date),
+           bug_report_drop_partitions((CURRENT_DATE - make_interval(months => retention_months))::date);
+$$ LANGUAGE sql;
+
+SELECT * FROM bug_report_maintain_partitions(3, 24);
 
 -- Table: publication_event_editeur
 CREATE TABLE publication_event_editeur (
@@ -0,0 +1,49 @@
+-- Secondary indexes of editor_db and platform_db
+-- Run after 01_editor.sql and 02_platform.sql. Benchmarked with "java Main indexes"
+-- (database/DatabaseLoader, see "Index Benchmark" in its README): read gain and load cost.
+-- Primary keys already serve lookups on their leading column: possession_game(player_id),
+-- possession_dlc(player_id), player_follows(id_player), evaluation(id_game) in platform_db.
+
+-- Database: editor_db
+\c editor_db;
+
+-- "Mes créations" and the editor -> game foreign key
+CREATE INDEX game_editor_id_idx ON game (editor_id);
+
+-- Sync to platform_db reads only published rows: partial indexes stay small, and the game one
+-- covers the synced columns so that the published catalog is an index-only scan
+CREATE INDEX game_published_idx ON game (id) INCLUDE (editor_id, name, price, num_version) WHERE is_publish;
+CREATE INDEX dlc_published_game_id_idx ON dlc (game_id) WHERE is_publish;
+CREATE INDEX patch_published_game_id_idx ON patch (game_id) WHERE is_publish;
+
+-- Children of a game (game page of the editor UI, foreign keys)
+CREATE INDEX dlc_game_id_idx ON dlc (game_id);
+CREATE INDEX patch_game_id_idx ON patch (game_id);
+CREATE INDEX evaluation_id_game_idx ON evaluation (id_game);
+CREATE INDEX bug_report_id_game_idx ON bug_report (id_game);
+
+-- Database: platform_db
+\c platform_db;
+
+-- Catalog: pages ordered by name (covering, no sort and no heap access for the listed columns);
+-- the platform / genre masks are included so that filtered pages stay index-only
+CREATE INDEX game_name_idx ON game (name, id) INCLUDE (editor_id, price, num_version, platform_mask, genre_mask);
+-- Catalog filtered by genre / platform (the primary keys lead with game_id)
+CREATE INDEX game_genres_genre_idx ON game_genres (genre, game_id);
+CREATE INDEX game_platforms_platform_idx ON game_platforms (platform, game_id);
+
+-- "Mes créations" of an editor (covering)
+CREATE INDEX game_editor_id_idx ON game (editor_id) INCLUDE (name, price, num_version);
+
+-- Game page: DLCs (covering) and patches, newest first
+CREATE INDEX dlc_game_id_idx ON dlc (game_id) INCLUDE (name, price, num_version);
+CREATE INDEX patch_game_id_idx ON patch (game_id, new_version DESC);
+
+-- Reviews of a game, best first: top-N without a sort; the player and platform make the order
+-- total, so that the keyset pages of the repository seek into it (note, player_id, plateforme) < (...)
+CREATE INDEX evaluation_game_note_idx ON evaluation (id_game, note DESC, player_id DESC, plateforme DESC);
+-- Reviews written by a player
+CREATE INDEX evaluation_player_id_idx ON evaluation (player_id);
+
+-- Bug reports of a game
+CREATE INDEX bug_report_id_game_idx ON bug_report (id_game);
@@ -0,0 +1,43 @@
+#!/usr/bin/env bash
+# Build and run the DatabaseLoader JMH benchmarks (gc profiler on).
+# JMH is downloaded from Maven Central into bench/lib on first use.
+#
+# Usage (from any directory):
+#   bench/run-benchmarks.sh                         # all benchmarks
+#   bench/run-benchmarks.sh GeneratorBenchmark.bug  # benchmarks matching a regex
+#   bench/run-benchmarks.sh -f 2 -wi 5              # any other JMH option
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+JMH_VERSION=1.37
+MAVEN=https://repo1.maven.org/maven2
+BENCH_LIB=bench/lib
+OUT=bench/out
+
+mkdir -p "$BENCH_LIB"
+for artifact in \
+    "org/openjdk/jmh/jmh-core/$JMH_VERSION/jmh-core-$JMH_VERSION.jar" \
+    "org/openjdk/jmh/jmh-generator-annprocess/$JMH_VERSION/jmh-generator-annprocess-$JMH_VERSION.jar" \
+    "net/sf/jopt-simple/jopt-simple/5.0.4/jopt-simple-5.0.4.jar" \
+    "org/apache/commons/commons-math3/3.6.1/commons-math3-3.6.1.jar"; do
+    jar="$BENCH_LIB/$(basename "$artifact")"
+    if [ ! -f "$jar" ]; then
+        echo "Downloading $(basename "$artifact")"
+        curl -fsSL -o "$jar" "$MAVEN/$artifact"
+    fi
+done
+
+# javac does not expand wildcards in -processorpath
+PROCESSOR_PATH=$(find "$BENCH_LIB" -name '*.jar' | tr '\n' ':')
+
+rm -rf "$OUT"
+mkdir -p "$OUT"
+javac -encoding UTF-8 -cp "lib/*:$BENCH_LIB/*" -processorpath "$PROCESSOR_PATH" -d "$OUT" \
+    $(find src bench/src -name '*.java')
+cp config.properties "$OUT/"
+
+# Compact dictionary, for runs with fast.start=true
+java -cp "$OUT:lib/*" utils.DictionaryCompiler "$OUT/faker-dictionary.bin" > /dev/null
+
+java -cp "$OUT:lib/*:$BENCH_LIB/*" org.openjdk.jmh.Main -prof gc "$@"
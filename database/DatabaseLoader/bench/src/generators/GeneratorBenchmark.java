@@ -0,0 +1,97 @@
+package generators;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.FakerProvider;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Row production cost of the generators, with no database attached.
+ * Run with bench/run-benchmarks.sh (gc profiler on: gc.alloc.rate.norm is the allocation per row).
+ * The *Append benchmarks measure the reusable-builder path used by the loaders.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class GeneratorBenchmark {
+    private GameGenerator gameGenerator;
+    private BugReportGenerator bugReportGenerator;
+    private EvaluationGenerator evaluationGenerator;
+    private PatchGenerator patchGenerator;
+    private FakerProvider fakerProvider;
+    private final StringBuilder buffer = new StringBuilder(1024);
+
+    @Setup
+    public void setup() {
+        fakerProvider = FakerProvider.getInstance();
+        gameGenerator = new GameGenerator();
+        bugReportGenerator = new BugReportGenerator();
+        evaluationGenerator = new EvaluationGenerator();
+        patchGenerator = new PatchGenerator();
+    }
+
+    @Benchmark
+    public String gameName() {
+        return gameGenerator.generateGameName();
+    }
+
+    @Benchmark
+    public String bugDescription() {
+        return bugReportGenerator.generateBugDescription();
+    }
+
+    @Benchmark
+    public String reviewDescription() {
+        return evaluationGenerator.generateReviewDescription(evaluationGenerator.generateRealisticRating());
+    }
+
+    @Benchmark
+    public String patchModifications() {
+        return patchGenerator.generatePatchModifications();
+    }
+
+    @Benchmark
+    public int randomInt() {
+        return fakerProvider.randomInt(1, 100);
+    }
+
+    @Benchmark
+    public int gameNameAppend() {
+        buffer.setLength(0);
+        gameGenerator.appendGameName(buffer);
+        return buffer.length();
+    }
+
+    @Benchmark
+    public int bugDescriptionAppend() {
+        buffer.setLength(0);
+        bugReportGenerator.appendBugDescription(buffer);
+        return buffer.length();
+    }
+
+    @Benchmark
+    public int reviewDescriptionAppend() {
+        buffer.setLength(0);
+        evaluationGenerator.appendReviewDescription(buffer, evaluationGenerator.generateRealisticRating());
+        return buffer.length();
+    }
+
+    @Benchmark
+    public int patchModificationsAppend() {
+        buffer.setLength(0);
+        patchGenerator.appendPatchModifications(buffer);
+        return buffer.length();
+    }
+}
@@ -1,17 +1,64 @@
 import config.DatabaseConfig;
 import connection.DatabaseConnection;
+import connection.StatementStats;
+import loaders.ColdArchiver;
+import loaders.DatasetExporter;
+import loaders.DatasetReplayLoader;
 import loaders.EditorDbLoader;
+import loaders.IndexBenchmark;
+import loaders.LoadBenchmark;
+import loaders.LoadReport;
+import loaders.PartitionMaintenance;
 import loaders.PlatformDbLoader;
+import loaders.QueryPlanTracker;
+import loaders.RatingSummaryBackfill;
+import loaders.RegressionTracker;
+import loaders.ShardRebalancer;
+import profile.DatasetProfiler;
+import repository.PaginationBenchmark;
+import simulation.ReadWorkload;
+import simulation.TrafficSimulator;
+import utils.FakerProvider;
+import utils.MetricsServer;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.sql.SQLException;
+import java.util.UUID;
 
 /**
  * Main entry point for the Database Loader application.
  * Loads test data into editor_db and platform_db using Datafaker.
+ *
+ * Usage: java Main [mode] [args]
+ *   load             generate and load a new dataset (default)
+ *   export [dir]     export both databases into dataset files
+ *   replay [dir]     load previously exported dataset files
+ *   profile [file]   fit a dataset profile (profile.file) from the existing databases
+ *   simulate [sec]   run a continuous insert/update workload on an existing editor_db
+ *   reads [sec]      run a concurrent read workload on platform_db and report latency percentiles
+ *   benchmark [file] compare load strategies and sync modes on a seeded dataset (JSON results)
+ *   regression [baseline] [--update]
+ *                    run a seeded load and fail (exit code 2) if it regressed against the baseline
+ *   indexes [file]   benchmark reads and load time without then with the secondary indexes (03_indexes.sql)
+ *   pages [file]     benchmark the catalog, reviews and library pages by depth, OFFSET against keyset
+ *   plans [baseline] [--update]
+ *                    explain the canonical platform queries on a seeded dataset and fail (exit code 2)
+ *                    if a plan changed or its buffers blew up against the baseline
+ *   partitions       create the upcoming bug_report partitions and drop the expired ones (run daily)
+ *   ratings          rebuild the per-game rating summaries of platform_db from the evaluations, in parallel
+ *   archive [days]   move the reviews and bug reports older than archive.age.days to compressed Avro files
+ *   archive-read table game
+ *                    print the archived rows (evaluation or bug_report) of a game
+ *   rebalance [--dry-run]
+ *                    move the players to their platform_db shard (platform.shards) after adding one
  */
 public class Main {
     public static void main(String[] args) {
+        String mode = args.length > 0 ? args[0] : "load";
         DatabaseConnection dbConnection = null;
+        boolean regressed = false;
+        MetricsServer metricsServer = null;
         
         try {
             // Load and print configuration
@@ -21,31 +68,53 @@ public class Main {
             System.out.println("=".repeat(60) + "\n");
             
             config.printConfig();
+            metricsServer = MetricsServer.start(config.getMetricsPort());
+            if (metricsServer != null && config.isVerbose()) {
+                System.out.println("Live metrics: http://localhost:" + config.getMetricsPort() + "/metrics\n");
+            }
 
             // Initialize database connections
             dbConnection = new DatabaseConnection();
             dbConnection.connect();
 
-            // Clear tables if configured
-            dbConnection.clearAllTables();
-
-            // Load data into editor_db
-            EditorDbLoader editorDbLoader = new EditorDbLoader(dbConnection);
-            editorDbLoader.loadData();
-
-            // Sync published data to platform_db
-            PlatformDbLoader platformDbLoader = new PlatformDbLoader(dbConnection);
-            platformDbLoader.loadData(
-                editorDbLoader.getGameGenerator(),
-                editorDbLoader.getDlcGenerator(),
-                editorDbLoader.getPatchGenerator()
-            );
+            switch (mode) {
+                case "load" -> runLoad(dbConnection, config);
+                case "export" -> new DatasetExporter(dbConnection).export(datasetDir(args, config));
+                case "replay" -> new DatasetReplayLoader(dbConnection).replay(datasetDir(args, config));
+                case "profile" -> new DatasetProfiler(dbConnection).profile(profileFile(args, config));
+                case "simulate" -> new TrafficSimulator(dbConnection).run(
+                    args.length > 1 ? Integer.parseInt(args[1]) : config.getSimulatorDurationSeconds());
+                case "reads" -> new ReadWorkload(dbConnection).run(
+                    args.length > 1 ? Integer.parseInt(args[1]) : config.getReadsDurationSeconds());
+                case "benchmark" -> new LoadBenchmark().run(
+                    Path.of(args.length > 1 ? args[1] : config.getBenchmarkOutput()));
+                case "regression" -> regressed = !runRegression(dbConnection, config, args);
+                case "plans" -> regressed = !runPlans(dbConnection, config, args);
+                case "indexes" -> new IndexBenchmark(dbConnection).run(
+                    Path.of(args.length > 1 ? args[1] : config.getIndexesFile()), Path.of(config.getIndexesOutput()));
+                case "pages" -> new PaginationBenchmark(dbConnection).run(
+                    Path.of(args.length > 1 ? args[1] : config.getPagesOutput()));
+                case "partitions" -> new PartitionMaintenance(dbConnection).run();
+                case "ratings" -> new RatingSummaryBackfill(dbConnection).run();
+                case "archive" -> new ColdArchiver(dbConnection).archive(
+                    args.length > 1 ? Integer.parseInt(args[1]) : config.getArchiveAgeDays());
+                case "archive-read" -> {
+                    if (args.length < 3) {
+                        throw new IllegalArgumentException("Usage: archive-read <evaluation|bug_report> <game id>");
+                    }
+                    new ColdArchiver(dbConnection).read(args[1], UUID.fromString(args[2]));
+                }
+                case "rebalance" -> new ShardRebalancer(dbConnection).run(
+                    args.length > 1 && args[1].equals("--dry-run"));
+                default -> throw new IllegalArgumentException("Unknown mode: " + mode);
+            }
 
             // Commit all transactions
             dbConnection.commitAll();
 
-            // Print summary
-            printSummary(config);
+            if (config.isJdbcTiming()) {
+                StatementStats.getInstance().printReport(config.getJdbcReportTop());
+            }
 
             System.out.println("\n" + "=".repeat(60));
             System.out.println("DATABASE LOADER - Completed Successfully!");
@@ -80,37 +149,91 @@ public class Main {
             if (dbConnection != null) {
                 dbConnection.closeAll();
             }
+            if (metricsServer != null) {
+                metricsServer.close();
+            }
+        }
+        if (regressed) {
+            System.exit(2);
         }
     }
 
     /**
-     * Print a summary of what was loaded
+     * Generate data into editor_db and sync the published part to platform_db
      */
-    private static void printSummary(DatabaseConfig config) {
-        System.out.println("=".repeat(60));
-        System.out.println("DATA LOADING SUMMARY");
-        System.out.println("=".repeat(60));
-        
-        int numEditors = config.getNumEditors();
-        int avgGamesPerEditor = (config.getNumGamesPerEditorMin() + config.getNumGamesPerEditorMax()) / 2;
-        int estimatedGames = numEditors * avgGamesPerEditor;
-        int avgDlcsPerGame = (config.getNumDlcPerGameMin() + config.getNumDlcPerGameMax()) / 2;
-        int estimatedDlcs = estimatedGames * avgDlcsPerGame;
-        int avgPatchesPerGame = (config.getNumPatchesPerGameMin() + config.getNumPatchesPerGameMax()) / 2;
-        int estimatedPatches = estimatedGames * avgPatchesPerGame;
-        int avgBugReportsPerGame = (config.getNumBugReportsPerGameMin() + config.getNumBugReportsPerGameMax()) / 2;
-        int estimatedBugReports = estimatedGames * avgBugReportsPerGame;
-        int avgEvaluationsPerGame = (config.getNumEvaluationsPerGameMin() + config.getNumEvaluationsPerGameMax()) / 2;
-        int estimatedEvaluations = estimatedGames * avgEvaluationsPerGame;
-
-        System.out.println("Editors:         ~" + numEditors);
-        System.out.println("Games:           ~" + estimatedGames);
-        System.out.println("DLCs:            ~" + estimatedDlcs);
-        System.out.println("Patches:         ~" + estimatedPatches);
-        System.out.println("Bug Reports:     ~" + estimatedBugReports);
-        System.out.println("Evaluations:     ~" + estimatedEvaluations);
-        System.out.println();
-        System.out.println("Published to platform_db: ~" + config.getPublishPercentage() + "% of games/dlcs/patches");
-        System.out.println("=".repeat(60) + "\n");
+    private static void runLoad(DatabaseConnection dbConnection, DatabaseConfig config)
+            throws SQLException, IOException {
+        // Clear tables if configured
+        dbConnection.clearAllTables();
+        long start = System.nanoTime();
+
+        // Load data into editor_db
+        EditorDbLoader editorDbLoader = new EditorDbLoader(dbConnection);
+        editorDbLoader.loadData();
+
+        // Sync published data to platform_db
+        PlatformDbLoader platformDbLoader = new PlatformDbLoader(dbConnection);
+        platformDbLoader.loadData(
+            editorDbLoader.getGameGenerator(),
+            editorDbLoader.getDlcGenerator(),
+            editorDbLoader.getPatchGenerator()
+        );
+
+        // Report what was actually loaded
+        LoadReport report = new LoadReport(dbConnection).collect(System.nanoTime() - start);
+        report.print();
+        report.write(Path.of(config.getReportOutput()));
+        FakerProvider.getInstance().printStartupReport();
+    }
+
+    /**
+     * Run the performance regression check: "regression [baseline] [--update]"
+     */
+    private static boolean runRegression(DatabaseConnection dbConnection, DatabaseConfig config, String[] args)
+            throws Exception {
+        Path baseline = Path.of(config.getRegressionBaseline());
+        boolean update = false;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--update")) {
+                update = true;
+            } else {
+                baseline = Path.of(args[i]);
+            }
+        }
+        return new RegressionTracker(dbConnection).run(baseline, update);
+    }
+
+    /**
+     * Run the query plan check: "plans [baseline] [--update]"
+     */
+    private static boolean runPlans(DatabaseConnection dbConnection, DatabaseConfig config, String[] args)
+            throws Exception {
+        Path baseline = Path.of(config.getPlansBaseline());
+        boolean update = false;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--update")) {
+                update = true;
+            } else {
+                baseline = Path.of(args[i]);
+            }
+        }
+        return new QueryPlanTracker(dbConnection).run(baseline, update);
+    }
+
+    /**
+     * Resolve the dataset directory from the command line, falling back to the configuration
+     */
+    private static Path datasetDir(String[] args, DatabaseConfig config) {
+        return Path.of(args.length > 1 ? args[1] : config.getDatasetDir());
+    }
+
+    /**
+     * Resolve the profile output file from the command line, falling back to the configuration
+     */
+    private static Path profileFile(String[] args, DatabaseConfig config) {
+        if (args.length > 1) {
+            return Path.of(args[1]);
+        }
+        return Path.of(config.getProfileFile().isEmpty() ? "dataset-profile.properties" : config.getProfileFile());
     }
 }
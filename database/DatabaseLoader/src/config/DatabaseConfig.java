@@ -1,8 +1,15 @@
 package config;
 
+import loaders.SyncMode;
+import profile.DatasetProfile;
+import sinks.LoadStrategy;
+
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Properties;
 
 /**
@@ -19,13 +26,15 @@ public class DatabaseConfig {
     private final String dbPassword;
 
     // Data generation volumes
-    private final int numEditors;
+    private int numEditors;
     private final int numGamesPerEditorMin;
     private final int numGamesPerEditorMax;
     private final int numDlcPerGameMin;
     private final int numDlcPerGameMax;
     private final int numPatchesPerGameMin;
     private final int numPatchesPerGameMax;
+    private final int patchMultiplatformPercentage;
+    private final int textBlobMinLength;
     private final int numBugReportsPerGameMin;
     private final int numBugReportsPerGameMax;
     private final int numEvaluationsPerGameMin;
@@ -38,6 +47,103 @@ public class DatabaseConfig {
     // Loader settings
     private final boolean clearTablesBeforeLoad;
     private final boolean verbose;
+    private LoadStrategy loadStrategy;
+    private final int loadBatchSize;
+    private final int loadCopyBufferKb;
+    private SyncMode syncMode;
+    private final Long randomSeed;
+    private final String benchmarkOutput;
+    private final String regressionBaseline;
+    private final String regressionOutput;
+    private final long regressionSeed;
+    private final int regressionNumEditors;
+    private final double regressionTolerancePercent;
+    private final int regressionMinStageMs;
+
+    // Query plan regression harness settings
+    private final String plansBaseline;
+    private final String plansOutput;
+    private final long plansSeed;
+    private final int plansNumEditors;
+    private final int plansNumPlayers;
+    private final double plansBufferTolerancePercent;
+
+    // Index benchmark settings
+    private final String indexesFile;
+    private final String indexesOutput;
+    private final int indexesNumEditors;
+    private final int indexesReadSeconds;
+
+    // Text dictionary settings
+    private final boolean fastStart;
+    private final String dictionaryFile;
+
+    // Dataset export/replay settings
+    private final String datasetDir;
+    private final int replayThreads;
+
+    // Dataset profile settings
+    private final String profileFile;
+    private final double profileScale;
+    private final int profileSampleSize;
+    private final int profileTextBucket;
+    private DatasetProfile datasetProfile;
+
+    // Read workload settings
+    private int numPlayers;
+    private final int numGamesPerPlayerMin;
+    private final int numGamesPerPlayerMax;
+    private final int playerReviewPercentage;
+    private final int playerBugReportPercentage;
+    private final int readsClients;
+    private final int readsDurationSeconds;
+    private final int readsWarmupSeconds;
+    private final String readsMix;
+    private final int readsPageSize;
+    private final String readsOutputDir;
+    private final int readsReportSeconds;
+
+    // Partition settings
+    private final int bugReportSpanDays;
+    private final int bugReportPremakeMonths;
+    private final int bugReportRetentionMonths;
+
+    // Rating summary settings
+    private final int ratingsBackfillThreads;
+
+    // Cold archive settings
+    private final int archiveAgeDays;
+    private final String archiveDir;
+    private final int archiveBlockRows;
+
+    // Pagination benchmark settings
+    private final int pagesSize;
+    private final int pagesRounds;
+    private final int pagesListRows;
+    private final String pagesOutput;
+
+    // Player sharding settings
+    private final List<String> platformShards;
+    private final int shardVnodes;
+    private final int rebalanceBatchPlayers;
+
+    // Traffic simulator settings
+    private final double simulatorRate;
+    private final int simulatorDurationSeconds;
+    private final int simulatorThreads;
+    private final String simulatorMix;
+    private final int simulatorReportSeconds;
+
+    // Live metrics endpoint
+    private final int metricsPort;
+
+    // Post-load report
+    private final String reportOutput;
+
+    // JDBC statement timing
+    private final boolean jdbcTiming;
+    private final long jdbcSlowStatementMs;
+    private final int jdbcReportTop;
 
     private DatabaseConfig() throws IOException {
         properties = new Properties();
@@ -68,6 +174,8 @@ public class DatabaseConfig {
         this.numDlcPerGameMax = Integer.parseInt(properties.getProperty("num.dlc.per.game.max", "3"));
         this.numPatchesPerGameMin = Integer.parseInt(properties.getProperty("num.patches.per.game.min", "2"));
         this.numPatchesPerGameMax = Integer.parseInt(properties.getProperty("num.patches.per.game.max", "5"));
+        this.patchMultiplatformPercentage = Integer.parseInt(properties.getProperty("patch.multiplatform.percentage", "0"));
+        this.textBlobMinLength = Integer.parseInt(properties.getProperty("text.blob.min.length", "512"));
         this.numBugReportsPerGameMin = Integer.parseInt(properties.getProperty("num.bug.reports.per.game.min", "1"));
         this.numBugReportsPerGameMax = Integer.parseInt(properties.getProperty("num.bug.reports.per.game.max", "10"));
         this.numEvaluationsPerGameMin = Integer.parseInt(properties.getProperty("num.evaluations.per.game.min", "5"));
@@ -80,6 +188,110 @@ public class DatabaseConfig {
         // Loader settings
         this.clearTablesBeforeLoad = Boolean.parseBoolean(properties.getProperty("clear.tables.before.load", "true"));
         this.verbose = Boolean.parseBoolean(properties.getProperty("verbose", "true"));
+        this.loadStrategy = LoadStrategy.fromKey(properties.getProperty("load.strategy", "copy"));
+        this.loadBatchSize = Integer.parseInt(properties.getProperty("load.batch.size", "1000"));
+        this.loadCopyBufferKb = Integer.parseInt(properties.getProperty("load.copy.buffer.kb", "256"));
+        this.syncMode = SyncMode.fromKey(properties.getProperty("sync.mode", "row"));
+        String seed = properties.getProperty("random.seed", "").trim();
+        this.randomSeed = seed.isEmpty() ? null : Long.parseLong(seed);
+        this.benchmarkOutput = properties.getProperty("benchmark.output", "benchmark-results.json");
+
+        // Performance regression tracker settings
+        this.regressionBaseline = properties.getProperty("regression.baseline", "regression-baseline.properties");
+        this.regressionOutput = properties.getProperty("regression.output", "regression-results.json");
+        this.regressionSeed = Long.parseLong(properties.getProperty("regression.seed", "42"));
+        this.regressionNumEditors = Integer.parseInt(properties.getProperty("regression.num.editors", "50"));
+        this.regressionTolerancePercent = Double.parseDouble(properties.getProperty("regression.tolerance.percent", "20"));
+        this.regressionMinStageMs = Integer.parseInt(properties.getProperty("regression.min.stage.ms", "250"));
+
+        // Query plan regression harness settings
+        this.plansBaseline = properties.getProperty("plans.baseline", "query-plans-baseline.properties");
+        this.plansOutput = properties.getProperty("plans.output", "query-plans");
+        this.plansSeed = Long.parseLong(properties.getProperty("plans.seed", "42"));
+        this.plansNumEditors = Integer.parseInt(properties.getProperty("plans.num.editors", "200"));
+        this.plansNumPlayers = Integer.parseInt(properties.getProperty("plans.num.players", "20000"));
+        this.plansBufferTolerancePercent = Double.parseDouble(properties.getProperty("plans.buffer.tolerance.percent", "50"));
+
+        // Index benchmark settings
+        this.indexesFile = properties.getProperty("indexes.file", "../03_indexes.sql");
+        this.indexesOutput = properties.getProperty("indexes.output", "index-benchmark.json");
+        this.indexesNumEditors = Integer.parseInt(properties.getProperty("indexes.num.editors", "2000"));
+        this.indexesReadSeconds = Integer.parseInt(properties.getProperty("indexes.read.seconds", "20"));
+
+        // Text dictionary settings
+        this.fastStart = Boolean.parseBoolean(properties.getProperty("fast.start", "false"));
+        this.dictionaryFile = properties.getProperty("dictionary.file", "").trim();
+
+        // Dataset export/replay settings
+        this.datasetDir = properties.getProperty("dataset.dir", "dataset");
+        this.replayThreads = Integer.parseInt(properties.getProperty("replay.threads",
+            String.valueOf(Runtime.getRuntime().availableProcessors())));
+
+        // Cold archive settings
+        this.archiveAgeDays = Integer.parseInt(properties.getProperty("archive.age.days", "365"));
+        this.archiveDir = properties.getProperty("archive.dir", "archive");
+        this.archiveBlockRows = Integer.parseInt(properties.getProperty("archive.block.rows", "1000"));
+
+        // Pagination benchmark settings
+        this.pagesSize = Integer.parseInt(properties.getProperty("pages.size", "20"));
+        this.pagesRounds = Integer.parseInt(properties.getProperty("pages.rounds", "5"));
+        this.pagesListRows = Integer.parseInt(properties.getProperty("pages.list.rows", "10000"));
+        this.pagesOutput = properties.getProperty("pages.output", "pagination-benchmark.json");
+
+        // Player sharding settings
+        this.platformShards = Arrays.stream(properties.getProperty("platform.shards", "platform_db").split(","))
+            .map(String::trim).filter(shard -> !shard.isEmpty()).toList();
+        this.shardVnodes = Integer.parseInt(properties.getProperty("shard.vnodes", "128"));
+        this.rebalanceBatchPlayers = Integer.parseInt(properties.getProperty("rebalance.batch.players", "1000"));
+
+        // Dataset profile settings
+        this.profileFile = properties.getProperty("profile.file", "").trim();
+        this.profileScale = Double.parseDouble(properties.getProperty("profile.scale", "1.0"));
+        this.profileSampleSize = Integer.parseInt(properties.getProperty("profile.sample.size", "10000"));
+        this.profileTextBucket = Integer.parseInt(properties.getProperty("profile.text.bucket", "20"));
+
+        // Read workload settings
+        this.numPlayers = Integer.parseInt(properties.getProperty("num.players", "1000"));
+        this.numGamesPerPlayerMin = Integer.parseInt(properties.getProperty("num.games.per.player.min", "0"));
+        this.numGamesPerPlayerMax = Integer.parseInt(properties.getProperty("num.games.per.player.max", "20"));
+        this.playerReviewPercentage = Integer.parseInt(properties.getProperty("player.review.percentage", "30"));
+        this.playerBugReportPercentage = Integer.parseInt(properties.getProperty("player.bug.report.percentage", "5"));
+        this.readsClients = Integer.parseInt(properties.getProperty("reads.clients", "8"));
+        this.readsDurationSeconds = Integer.parseInt(properties.getProperty("reads.duration.seconds", "30"));
+        this.readsWarmupSeconds = Integer.parseInt(properties.getProperty("reads.warmup.seconds", "5"));
+        this.readsMix = properties.getProperty("reads.mix",
+            "catalog=20,catalog_filter=10,game_page=30,reviews=20,library=15,creations=5");
+        this.readsPageSize = Integer.parseInt(properties.getProperty("reads.page.size", "20"));
+        this.readsOutputDir = properties.getProperty("reads.output.dir", "read-latency");
+        this.readsReportSeconds = Integer.parseInt(properties.getProperty("reads.report.seconds", "10"));
+
+        // Partition settings
+        this.bugReportSpanDays = Integer.parseInt(properties.getProperty("bug_report.span.days", "730"));
+        this.bugReportPremakeMonths = Integer.parseInt(properties.getProperty("bug_report.premake.months", "3"));
+        this.bugReportRetentionMonths = Integer.parseInt(properties.getProperty("bug_report.retention.months", "24"));
+
+        // Rating summary settings
+        this.ratingsBackfillThreads = Integer.parseInt(properties.getProperty("ratings.backfill.threads",
+            String.valueOf(Runtime.getRuntime().availableProcessors())));
+
+        // Traffic simulator settings
+        this.simulatorRate = Double.parseDouble(properties.getProperty("simulator.rate", "200"));
+        this.simulatorDurationSeconds = Integer.parseInt(properties.getProperty("simulator.duration.seconds", "60"));
+        this.simulatorThreads = Integer.parseInt(properties.getProperty("simulator.threads", "8"));
+        this.simulatorMix = properties.getProperty("simulator.mix",
+            "patch=5,version=5,publish=2,evaluation=60,bug_report=28");
+        this.simulatorReportSeconds = Integer.parseInt(properties.getProperty("simulator.report.seconds", "10"));
+
+        // Live metrics endpoint
+        this.metricsPort = Integer.parseInt(properties.getProperty("metrics.port", "9404"));
+
+        // Post-load report
+        this.reportOutput = properties.getProperty("report.output", "load-report.json");
+
+        // JDBC statement timing
+        this.jdbcTiming = Boolean.parseBoolean(properties.getProperty("jdbc.timing", "false"));
+        this.jdbcSlowStatementMs = Long.parseLong(properties.getProperty("jdbc.slow.statement.ms", "200"));
+        this.jdbcReportTop = Integer.parseInt(properties.getProperty("jdbc.report.top", "15"));
     }
 
     /**
@@ -107,6 +319,8 @@ public class DatabaseConfig {
     public int getNumDlcPerGameMax() { return numDlcPerGameMax; }
     public int getNumPatchesPerGameMin() { return numPatchesPerGameMin; }
     public int getNumPatchesPerGameMax() { return numPatchesPerGameMax; }
+    public int getPatchMultiplatformPercentage() { return patchMultiplatformPercentage; }
+    public int getTextBlobMinLength() { return textBlobMinLength; }
     public int getNumBugReportsPerGameMin() { return numBugReportsPerGameMin; }
     public int getNumBugReportsPerGameMax() { return numBugReportsPerGameMax; }
     public int getNumEvaluationsPerGameMin() { return numEvaluationsPerGameMin; }
@@ -115,6 +329,106 @@ public class DatabaseConfig {
     public int getPublishPercentage() { return publishPercentage; }
     public boolean isClearTablesBeforeLoad() { return clearTablesBeforeLoad; }
     public boolean isVerbose() { return verbose; }
+    public LoadStrategy getLoadStrategy() { return loadStrategy; }
+    public int getLoadBatchSize() { return loadBatchSize; }
+    public int getLoadCopyBufferKb() { return loadCopyBufferKb; }
+    public SyncMode getSyncMode() { return syncMode; }
+    public Long getRandomSeed() { return randomSeed; }
+    public String getBenchmarkOutput() { return benchmarkOutput; }
+    public String getRegressionBaseline() { return regressionBaseline; }
+    public String getRegressionOutput() { return regressionOutput; }
+    public long getRegressionSeed() { return regressionSeed; }
+    public int getRegressionNumEditors() { return regressionNumEditors; }
+    public double getRegressionTolerancePercent() { return regressionTolerancePercent; }
+    public int getRegressionMinStageMs() { return regressionMinStageMs; }
+    public String getPlansBaseline() { return plansBaseline; }
+    public String getPlansOutput() { return plansOutput; }
+    public long getPlansSeed() { return plansSeed; }
+    public int getPlansNumEditors() { return plansNumEditors; }
+    public int getPlansNumPlayers() { return plansNumPlayers; }
+    public double getPlansBufferTolerancePercent() { return plansBufferTolerancePercent; }
+    public String getIndexesFile() { return indexesFile; }
+    public String getIndexesOutput() { return indexesOutput; }
+    public int getIndexesNumEditors() { return indexesNumEditors; }
+    public int getIndexesReadSeconds() { return indexesReadSeconds; }
+
+    /**
+     * Override the number of editors (the regression tracker pins the scale of the baseline)
+     */
+    public void setNumEditors(int numEditors) { this.numEditors = numEditors; }
+
+    /**
+     * Override the number of players (the query plan tracker pins the scale of the baseline)
+     */
+    public void setNumPlayers(int numPlayers) { this.numPlayers = numPlayers; }
+
+    /**
+     * Override the load strategy (the load benchmark switches strategies between runs)
+     */
+    public void setLoadStrategy(LoadStrategy loadStrategy) { this.loadStrategy = loadStrategy; }
+
+    /**
+     * Override the platform_db sync mode (the load benchmark switches modes between runs)
+     */
+    public void setSyncMode(SyncMode syncMode) { this.syncMode = syncMode; }
+    public boolean isFastStart() { return fastStart; }
+    public String getDictionaryFile() { return dictionaryFile; }
+    public String getDatasetDir() { return datasetDir; }
+    public int getReplayThreads() { return replayThreads; }
+    public String getProfileFile() { return profileFile; }
+    public double getProfileScale() { return profileScale; }
+    public int getProfileSampleSize() { return profileSampleSize; }
+    public int getProfileTextBucket() { return profileTextBucket; }
+    public int getNumPlayers() { return numPlayers; }
+    public int getNumGamesPerPlayerMin() { return numGamesPerPlayerMin; }
+    public int getNumGamesPerPlayerMax() { return numGamesPerPlayerMax; }
+    public int getPlayerReviewPercentage() { return playerReviewPercentage; }
+    public int getPlayerBugReportPercentage() { return playerBugReportPercentage; }
+    public int getReadsClients() { return readsClients; }
+    public int getReadsDurationSeconds() { return readsDurationSeconds; }
+    public int getReadsWarmupSeconds() { return readsWarmupSeconds; }
+    public String getReadsMix() { return readsMix; }
+    public int getReadsPageSize() { return readsPageSize; }
+    public String getReadsOutputDir() { return readsOutputDir; }
+    public int getReadsReportSeconds() { return readsReportSeconds; }
+    public int getBugReportSpanDays() { return bugReportSpanDays; }
+    public int getBugReportPremakeMonths() { return bugReportPremakeMonths; }
+    public int getBugReportRetentionMonths() { return bugReportRetentionMonths; }
+    public int getRatingsBackfillThreads() { return ratingsBackfillThreads; }
+    public int getArchiveAgeDays() { return archiveAgeDays; }
+    public String getArchiveDir() { return archiveDir; }
+    public int getArchiveBlockRows() { return archiveBlockRows; }
+    public int getPagesSize() { return pagesSize; }
+    public int getPagesRounds() { return pagesRounds; }
+    public int getPagesListRows() { return pagesListRows; }
+    public String getPagesOutput() { return pagesOutput; }
+    public List<String> getPlatformShards() { return platformShards; }
+    public int getShardVnodes() { return shardVnodes; }
+    public int getRebalanceBatchPlayers() { return rebalanceBatchPlayers; }
+    public double getSimulatorRate() { return simulatorRate; }
+    public int getSimulatorDurationSeconds() { return simulatorDurationSeconds; }
+    public int getSimulatorThreads() { return simulatorThreads; }
+    public String getSimulatorMix() { return simulatorMix; }
+    public int getSimulatorReportSeconds() { return simulatorReportSeconds; }
+    public int getMetricsPort() { return metricsPort; }
+    public String getReportOutput() { return reportOutput; }
+    public boolean isJdbcTiming() { return jdbcTiming; }
+    public long getJdbcSlowStatementMs() { return jdbcSlowStatementMs; }
+    public int getJdbcReportTop() { return jdbcReportTop; }
+
+    /**
+     * Get the dataset profile the generators should follow, or null if none is configured
+     */
+    public DatasetProfile getDatasetProfile() {
+        if (datasetProfile == null && !profileFile.isEmpty()) {
+            try {
+                datasetProfile = DatasetProfile.load(Path.of(profileFile));
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to load dataset profile " + profileFile, e);
+            }
+        }
+        return datasetProfile;
+    }
 
     /**
      * Print configuration summary
@@ -131,6 +445,20 @@ public class DatabaseConfig {
         System.out.println("Enterprise percentage: " + editorEnterprisePercentage + "%");
         System.out.println("Publish percentage: " + publishPercentage + "%");
         System.out.println("Clear tables before load: " + clearTablesBeforeLoad);
+        System.out.println("Load strategy: " + loadStrategy.getKey() + ", sync mode: " + syncMode.getKey());
+        if (platformShards.size() > 1) {
+            System.out.println("platform_db shards: " + String.join(", ", platformShards));
+        }
+        if (randomSeed != null) {
+            System.out.println("Random seed: " + randomSeed);
+        }
+        System.out.println("Fast start (compact dictionary): " + fastStart);
+        if (jdbcTiming) {
+            System.out.println("JDBC statement timing: on (slow statements over " + jdbcSlowStatementMs + " ms)");
+        }
+        if (!profileFile.isEmpty()) {
+            System.out.println("Dataset profile: " + profileFile + " (scale " + profileScale + ")");
+        }
         System.out.println("=====================================\n");
     }
 }
@@ -1,22 +1,35 @@
 package connection;
 
 import config.DatabaseConfig;
+import events.TransactionEvent;
+import sinks.LoadStrategy;
+import utils.LoadMetrics;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
 
 /**
  * Manages database connections and provides utility methods for database operations.
+ * platform_db may be split into shards (platform.shards): one connection is kept per shard, the
+ * first one being the platform_db connection of the single-database tools, and {@link ShardRing}
+ * routes each player to its shard.
  */
 public class DatabaseConnection {
     private final DatabaseConfig config;
+    private final ShardRing shardRing;
+    private final List<Connection> shardConnections = new ArrayList<>();
     private Connection editorDbConnection;
     private Connection platformDbConnection;
 
     public DatabaseConnection() {
         this.config = DatabaseConfig.getInstance();
+        this.shardRing = new ShardRing(config.getPlatformShards(), config.getShardVnodes());
     }
 
     /**
@@ -32,29 +45,44 @@ public class DatabaseConnection {
             }
 
             // Connect to editor_db
-            editorDbConnection = DriverManager.getConnection(
-                config.getDbUrl() + "editor_db",
-                config.getDbUser(),
-                config.getDbPassword()
-            );
-            editorDbConnection.setAutoCommit(false);
-
-            // Connect to platform_db
-            platformDbConnection = DriverManager.getConnection(
-                config.getDbUrl() + "platform_db",
-                config.getDbUser(),
-                config.getDbPassword()
-            );
-            platformDbConnection.setAutoCommit(false);
+            editorDbConnection = openConnection("editor_db");
+
+            // Connect to platform_db, one connection per shard
+            for (String shard : shardRing.getShards()) {
+                shardConnections.add(openConnection(shard));
+            }
+            platformDbConnection = shardConnections.get(0);
 
             if (config.isVerbose()) {
-                System.out.println("Connected to editor_db and platform_db successfully!\n");
+                System.out.println("Connected to editor_db and " + String.join(", ", shardRing.getShards()) +
+                    " successfully!\n");
             }
         } catch (ClassNotFoundException e) {
             throw new SQLException("PostgreSQL JDBC Driver not found", e);
         }
     }
 
+    /**
+     * Open a new dedicated connection to the given database (used by parallel workers).
+     * The caller owns the connection and must close it.
+     * With jdbc.timing=true the connection is a TimingConnection feeding StatementStats.
+     */
+    public Connection openConnection(String database) throws SQLException {
+        Properties properties = new Properties();
+        properties.setProperty("user", config.getDbUser());
+        properties.setProperty("password", config.getDbPassword());
+        if (config.getLoadStrategy() == LoadStrategy.REWRITE_BATCH) {
+            properties.setProperty("reWriteBatchedInserts", "true");
+        }
+        Connection connection = DriverManager.getConnection(config.getDbUrl() + database, properties);
+        connection.setAutoCommit(false);
+        if (config.isJdbcTiming()) {
+            StatementStats.getInstance().setSlowThresholdMillis(config.getJdbcSlowStatementMs());
+            return TimingConnection.wrap(connection);
+        }
+        return connection;
+    }
+
     /**
      * Close all database connections
      */
@@ -66,10 +94,13 @@ public class DatabaseConnection {
                     System.out.println("Closed editor_db connection");
                 }
             }
-            if (platformDbConnection != null && !platformDbConnection.isClosed()) {
-                platformDbConnection.close();
-                if (config.isVerbose()) {
-                    System.out.println("Closed platform_db connection");
+            for (int shard = 0; shard < shardConnections.size(); shard++) {
+                Connection connection = shardConnections.get(shard);
+                if (!connection.isClosed()) {
+                    connection.close();
+                    if (config.isVerbose()) {
+                        System.out.println("Closed " + shardRing.getShardName(shard) + " connection");
+                    }
                 }
             }
         } catch (SQLException e) {
@@ -82,10 +113,10 @@ public class DatabaseConnection {
      */
     public void commitAll() throws SQLException {
         if (editorDbConnection != null) {
-            editorDbConnection.commit();
+            commit(editorDbConnection);
         }
-        if (platformDbConnection != null) {
-            platformDbConnection.commit();
+        for (Connection connection : shardConnections) {
+            commit(connection);
         }
         if (config.isVerbose()) {
             System.out.println("Committed all transactions\n");
@@ -98,10 +129,10 @@ public class DatabaseConnection {
     public void rollbackAll() {
         try {
             if (editorDbConnection != null) {
-                editorDbConnection.rollback();
+                rollback(editorDbConnection);
             }
-            if (platformDbConnection != null) {
-                platformDbConnection.rollback();
+            for (Connection connection : shardConnections) {
+                rollback(connection);
             }
             System.err.println("Rolled back all transactions");
         } catch (SQLException e) {
@@ -109,6 +140,39 @@ public class DatabaseConnection {
         }
     }
 
+    /**
+     * Commit a connection, timed in LoadMetrics and traced as events.TransactionEvent
+     */
+    public static void commit(Connection connection) throws SQLException {
+        TransactionEvent event = new TransactionEvent();
+        event.begin();
+        long start = System.nanoTime();
+        connection.commit();
+        transactionDone(event, connection, "commit", start);
+    }
+
+    /**
+     * Roll back a connection, timed in LoadMetrics and traced as events.TransactionEvent
+     */
+    public static void rollback(Connection connection) throws SQLException {
+        TransactionEvent event = new TransactionEvent();
+        event.begin();
+        long start = System.nanoTime();
+        connection.rollback();
+        transactionDone(event, connection, "rollback", start);
+    }
+
+    private static void transactionDone(TransactionEvent event, Connection connection, String action, long start)
+            throws SQLException {
+        String database = connection.getCatalog();
+        LoadMetrics.getInstance().recordCommit(database, System.nanoTime() - start);
+        if (event.shouldCommit()) {
+            event.database = database;
+            event.action = action;
+            event.commit();
+        }
+    }
+
     /**
      * Clear all tables in both databases (if configured)
      */
@@ -116,7 +180,13 @@ public class DatabaseConnection {
         if (!config.isClearTablesBeforeLoad()) {
             return;
         }
+        truncateAllTables();
+    }
 
+    /**
+     * Clear all tables in both databases, whatever the configuration
+     */
+    public void truncateAllTables() throws SQLException {
         if (config.isVerbose()) {
             System.out.println("Clearing all tables...");
         }
@@ -124,8 +194,10 @@ public class DatabaseConnection {
         // Clear editor_db tables
         clearEditorDbTables();
 
-        // Clear platform_db tables
-        clearPlatformDbTables();
+        // Clear platform_db tables, on every shard
+        for (Connection connection : shardConnections) {
+            clearPlatformDbTables(connection);
+        }
 
         if (config.isVerbose()) {
             System.out.println("All tables cleared successfully!\n");
@@ -143,6 +215,7 @@ public class DatabaseConnection {
             stmt.executeUpdate("TRUNCATE TABLE game_genres CASCADE");
             stmt.executeUpdate("TRUNCATE TABLE game_platforms CASCADE");
             stmt.executeUpdate("TRUNCATE TABLE patch CASCADE");
+            stmt.executeUpdate("TRUNCATE TABLE text_blob CASCADE");
             stmt.executeUpdate("TRUNCATE TABLE dlc CASCADE");
             stmt.executeUpdate("TRUNCATE TABLE game CASCADE");
             stmt.executeUpdate("TRUNCATE TABLE editor CASCADE");
@@ -154,20 +227,23 @@ public class DatabaseConnection {
     }
 
     /**
-     * Clear all tables in platform_db
+     * Clear all tables in platform_db (one shard)
      */
-    private void clearPlatformDbTables() throws SQLException {
-        try (Statement stmt = platformDbConnection.createStatement()) {
+    private void clearPlatformDbTables(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
             // Order matters due to foreign key constraints
+            // Players (generated by the read workload) and their libraries go with the games they own
+            stmt.executeUpdate("TRUNCATE TABLE player CASCADE");
             stmt.executeUpdate("TRUNCATE TABLE game_genres CASCADE");
             stmt.executeUpdate("TRUNCATE TABLE game_platforms CASCADE");
             stmt.executeUpdate("TRUNCATE TABLE patch CASCADE");
+            stmt.executeUpdate("TRUNCATE TABLE text_blob CASCADE");
             stmt.executeUpdate("TRUNCATE TABLE dlc CASCADE");
             stmt.executeUpdate("TRUNCATE TABLE game CASCADE");
             stmt.executeUpdate("TRUNCATE TABLE editor CASCADE");
             
             if (config.isVerbose()) {
-                System.out.println("  - Cleared platform_db tables");
+                System.out.println("  - Cleared " + connection.getCatalog() + " tables");
             }
         }
     }
@@ -180,4 +256,22 @@ public class DatabaseConnection {
     public Connection getPlatformDbConnection() {
         return platformDbConnection;
     }
+
+    /**
+     * Connections of the platform_db shards, in platform.shards order
+     */
+    public List<Connection> getShardConnections() {
+        return shardConnections;
+    }
+
+    public ShardRing getShardRing() {
+        return shardRing;
+    }
+
+    /**
+     * Connection of the shard holding a player
+     */
+    public Connection getShardConnection(UUID playerId) {
+        return shardConnections.get(shardRing.shardOf(playerId));
+    }
 }
@@ -0,0 +1,85 @@
+package connection;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Consistent-hash ring placing players on the shards of platform_db (platform.shards).
+ * Each shard owns shard.vnodes points of a 64-bit ring, hashed from its database name; a player
+ * belongs to the shard of the first point at or after the hash of its id. The points of a shard only
+ * depend on its name, so adding a shard only moves the players that fall on its new points (about
+ * 1 / (N + 1) of them), each from the shard that owned the point before.
+ */
+public final class ShardRing {
+    private final List<String> shards;
+    private final long[] points;
+    private final int[] owners;
+
+    public ShardRing(List<String> shards, int vnodes) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one platform_db shard is needed");
+        }
+        if (shards.stream().distinct().count() != shards.size()) {
+            throw new IllegalArgumentException("Duplicate platform_db shard: " + shards);
+        }
+        this.shards = List.copyOf(shards);
+
+        // Points sorted by hash, each packed with its shard to sort them together
+        long[][] ring = new long[shards.size() * vnodes][];
+        for (int shard = 0; shard < shards.size(); shard++) {
+            for (int v = 0; v < vnodes; v++) {
+                ring[shard * vnodes + v] = new long[] {hash(shards.get(shard) + "#" + v), shard};
+            }
+        }
+        Arrays.sort(ring, (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        this.points = new long[ring.length];
+        this.owners = new int[ring.length];
+        for (int i = 0; i < ring.length; i++) {
+            points[i] = ring[i][0];
+            owners[i] = (int) ring[i][1];
+        }
+    }
+
+    /**
+     * Index in platform.shards of the shard holding a player
+     */
+    public int shardOf(UUID playerId) {
+        if (shards.size() == 1) {
+            return 0;
+        }
+        int i = Arrays.binarySearch(points, mix(playerId.getMostSignificantBits() ^ mix(playerId.getLeastSignificantBits())));
+        if (i < 0) {
+            i = -i - 1;
+        }
+        return owners[i == points.length ? 0 : i];
+    }
+
+    public String getShardName(int shard) {
+        return shards.get(shard);
+    }
+
+    public List<String> getShards() {
+        return shards;
+    }
+
+    public int size() {
+        return shards.size();
+    }
+
+    // FNV-1a over the UTF-8 bytes, then the splitmix64 finalizer to spread the bits
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h = (h ^ (b & 0xFF)) * 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
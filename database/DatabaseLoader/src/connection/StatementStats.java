@@ -0,0 +1,271 @@
+package connection;
+
+import utils.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statement timings collected by TimingConnection, aggregated per operation and SQL shape.
+ * The shape is the statement with its literals replaced by ? and the repeated VALUES tuples
+ * and IN lists folded, so that every multi-row INSERT of a table lands in the same entry.
+ * Shapes are computed by hand-written scans: a multi-row INSERT can hold thousands of tuples,
+ * too many for backtracking regular expressions.
+ * Calls slower than the threshold are logged with their row and bind counts.
+ */
+public final class StatementStats {
+    private static final int MAX_LOGGED_SQL = 300;
+
+    private static StatementStats instance;
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private volatile long slowThresholdNanos = Long.MAX_VALUE;
+
+    /**
+     * Timed JDBC operations; FETCH is the time spent in ResultSet.next over a whole result set
+     */
+    public enum Operation {
+        PREPARE("prepare"),
+        EXECUTE("execute"),
+        BATCH("executeBatch"),
+        FETCH("fetch"),
+        COMMIT("commit"),
+        ROLLBACK("rollback");
+
+        private final String label;
+
+        Operation(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private record Key(Operation operation, String shape) {
+    }
+
+    private StatementStats() {
+    }
+
+    public static synchronized StatementStats getInstance() {
+        if (instance == null) {
+            instance = new StatementStats();
+        }
+        return instance;
+    }
+
+    /**
+     * Log the calls slower than this many milliseconds (0 or less disables the log)
+     */
+    public void setSlowThresholdMillis(long millis) {
+        slowThresholdNanos = millis > 0 ? millis * 1_000_000L : Long.MAX_VALUE;
+    }
+
+    /**
+     * SQL shape of a statement: whitespace collapsed, literals replaced and repetitions folded
+     */
+    public static String shape(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        return foldRepeatedGroups(replaceLiterals(sql.trim()));
+    }
+
+    /**
+     * Collapse whitespace and replace string and numeric literals by ?
+     */
+    private static String replaceLiterals(String sql) {
+        StringBuilder sb = new StringBuilder(sql.length());
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                while (i < sql.length() && Character.isWhitespace(sql.charAt(i))) {
+                    i++;
+                }
+                sb.append(' ');
+            } else if (c == '\'') {
+                i++;
+                while (i < sql.length()) {
+                    if (sql.charAt(i) == '\'' && (i + 1 >= sql.length() || sql.charAt(i + 1) != '\'')) {
+                        break;
+                    }
+                    i += sql.charAt(i) == '\'' ? 2 : 1;
+                }
+                i++;
+                sb.append('?');
+            } else if (Character.isDigit(c) && !continuesIdentifier(sb)) {
+                while (i < sql.length() && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                sb.append('?');
+            } else {
+                sb.append(c);
+                i++;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static boolean continuesIdentifier(StringBuilder sb) {
+        if (sb.isEmpty()) {
+            return false;
+        }
+        char previous = sb.charAt(sb.length() - 1);
+        return Character.isLetterOrDigit(previous) || previous == '_' || previous == '$' || previous == '.';
+    }
+
+    /**
+     * Keep one of consecutive identical parenthesized groups ("(?, ?), (?, ?)" becomes "(?, ?), ...")
+     * and fold IN lists of placeholders into "IN (?, ...)"
+     */
+    private static String foldRepeatedGroups(String sql) {
+        StringBuilder sb = new StringBuilder(Math.min(sql.length(), 1024));
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c != '(') {
+                sb.append(c);
+                i++;
+                continue;
+            }
+            int close = sql.indexOf(')', i);
+            String group = close < 0 ? "" : sql.substring(i, close + 1);
+            if (close < 0 || group.indexOf('(', 1) >= 0) {
+                sb.append(c);
+                i++;
+                continue;
+            }
+            if (group.startsWith("(?,") && endsWithIn(sb) && group.substring(1, group.length() - 1).replace("?", "").replace(",", "").isBlank()) {
+                sb.append("(?, ...)");
+                i = close + 1;
+                continue;
+            }
+            sb.append(group);
+            int next = close + 1;
+            boolean repeated = false;
+            while (true) {
+                int start = next;
+                if (start < sql.length() && sql.charAt(start) == ',') {
+                    start++;
+                    if (start < sql.length() && sql.charAt(start) == ' ') {
+                        start++;
+                    }
+                    if (sql.startsWith(group, start)) {
+                        next = start + group.length();
+                        repeated = true;
+                        continue;
+                    }
+                }
+                break;
+            }
+            if (repeated) {
+                sb.append(", ...");
+            }
+            i = next;
+        }
+        return sb.toString();
+    }
+
+    private static boolean endsWithIn(StringBuilder sb) {
+        int end = sb.length();
+        while (end > 0 && sb.charAt(end - 1) == ' ') {
+            end--;
+        }
+        return end >= 2 && sb.substring(end - 2, end).equalsIgnoreCase("in")
+            && (end == 2 || !Character.isLetterOrDigit(sb.charAt(end - 3)));
+    }
+
+    /**
+     * Record one call of an operation on a statement shape
+     *
+     * @param rows  rows sent (batch size) or fetched, 1 for a single execution
+     * @param binds bound parameters sent with the call
+     */
+    public void record(Operation operation, String database, String shape, long nanos, long rows, long binds) {
+        Entry entry = entries.computeIfAbsent(new Key(operation, shape), key -> new Entry(operation, shape));
+        entry.latency.record(nanos);
+        entry.rows.add(rows);
+        entry.binds.add(binds);
+        if (nanos >= slowThresholdNanos) {
+            String sql = shape.length() > MAX_LOGGED_SQL ? shape.substring(0, MAX_LOGGED_SQL) + "..." : shape;
+            System.err.printf("Slow statement: %.1f ms %s on %s (%d rows, %d binds)%s%n", nanos / 1e6,
+                operation.getLabel(), database, rows, binds, sql.isEmpty() ? "" : ": " + sql);
+        }
+    }
+
+    /**
+     * Aggregated entries, most total time first
+     */
+    public List<Entry> getEntries() {
+        List<Entry> sorted = new ArrayList<>(entries.values());
+        sorted.sort(Comparator.comparingLong((Entry entry) -> entry.latency.getTotalNanos()).reversed());
+        return sorted;
+    }
+
+    public void reset() {
+        entries.clear();
+    }
+
+    /**
+     * Print the entries that took the most time
+     */
+    public void printReport(int limit) {
+        List<Entry> sorted = getEntries();
+        if (sorted.isEmpty()) {
+            return;
+        }
+        System.out.println("\n=== JDBC Statement Timings (top " + Math.min(limit, sorted.size()) + " by total time) ===");
+        System.out.printf("%-12s %9s %11s %9s %9s %9s %11s  %s%n",
+            "operation", "calls", "total ms", "mean ms", "p99 ms", "max ms", "rows", "statement");
+        for (Entry entry : sorted.subList(0, Math.min(limit, sorted.size()))) {
+            LatencyHistogram latency = entry.latency;
+            String sql = entry.shape.length() > 100 ? entry.shape.substring(0, 100) + "..." : entry.shape;
+            System.out.printf("%-12s %9d %11.1f %9.3f %9.3f %9.3f %11d  %s%n", entry.operation.getLabel(),
+                latency.getCount(), latency.getTotalNanos() / 1e6, latency.getMeanNanos() / 1e6,
+                latency.percentile(99) / 1e6, latency.getMaxNanos() / 1e6, entry.getRows(), sql);
+        }
+    }
+
+    /**
+     * Calls of one operation on one statement shape
+     */
+    public static final class Entry {
+        private final Operation operation;
+        private final String shape;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder binds = new LongAdder();
+
+        private Entry(Operation operation, String shape) {
+            this.operation = operation;
+            this.shape = shape;
+        }
+
+        public Operation getOperation() {
+            return operation;
+        }
+
+        public String getShape() {
+            return shape;
+        }
+
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        public long getRows() {
+            return rows.sum();
+        }
+
+        public long getBinds() {
+            return binds.sum();
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package connection;
+
+import connection.StatementStats.Operation;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Connection wrapper timing every statement it hands out, into StatementStats.
+ * The connection, its statements and their result sets are dynamic proxies: prepareStatement,
+ * execute*, executeBatch, commit, rollback and the ResultSet.next calls of a result set are timed,
+ * every other call goes straight to the driver. unwrap still reaches the driver connection, so COPY
+ * (CopyManager) keeps working but is not timed here.
+ */
+public final class TimingConnection {
+    private static final StatementStats STATS = StatementStats.getInstance();
+
+    private TimingConnection() {
+    }
+
+    /**
+     * Wrap a driver connection; the proxy owns it (closing the proxy closes it)
+     */
+    public static Connection wrap(Connection connection) throws SQLException {
+        ConnectionHandler handler = new ConnectionHandler(connection, connection.getCatalog());
+        Connection proxy = proxy(Connection.class, handler);
+        handler.proxy = proxy;
+        return proxy;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(TimingConnection.class.getClassLoader(), new Class<?>[] {type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection connection;
+        private final String database;
+        private Connection proxy;
+
+        private ConnectionHandler(Connection connection, String database) {
+            this.connection = connection;
+            this.database = database;
+        }
+
+        @Override
+        public Object invoke(Object self, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "prepareStatement", "prepareCall" -> {
+                    String shape = StatementStats.shape((String) args[0]);
+                    long start = System.nanoTime();
+                    Object statement = TimingConnection.invoke(connection, method, args);
+                    STATS.record(Operation.PREPARE, database, shape, System.nanoTime() - start, 0, 0);
+                    return wrapStatement(method.getReturnType(), (Statement) statement, shape);
+                }
+                case "createStatement" -> {
+                    return wrapStatement(Statement.class, (Statement) TimingConnection.invoke(connection, method, args), null);
+                }
+                case "commit", "rollback" -> {
+                    Operation operation = method.getName().equals("commit") ? Operation.COMMIT : Operation.ROLLBACK;
+                    long start = System.nanoTime();
+                    Object result = TimingConnection.invoke(connection, method, args);
+                    STATS.record(operation, database, "", System.nanoTime() - start, 0, 0);
+                    return result;
+                }
+                case "unwrap" -> {
+                    return ((Class<?>) args[0]).isInstance(self) ? self : connection.unwrap((Class<?>) args[0]);
+                }
+                case "isWrapperFor" -> {
+                    return ((Class<?>) args[0]).isInstance(self) || connection.isWrapperFor((Class<?>) args[0]);
+                }
+                case "equals" -> {
+                    return self == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(self);
+                }
+                default -> {
+                    return TimingConnection.invoke(connection, method, args);
+                }
+            }
+        }
+
+        private Object wrapStatement(Class<?> type, Statement statement, String shape) {
+            return proxy(type, new StatementHandler(this, statement, shape));
+        }
+    }
+
+    /**
+     * Statement or PreparedStatement: times executions and counts the bound parameters.
+     * A plain Statement has no shape of its own, it is computed from the SQL of each execution.
+     */
+    private static final class StatementHandler implements InvocationHandler {
+        private final ConnectionHandler connection;
+        private final Statement statement;
+        private final String shape;
+        private int parameters;
+        private long batchRows;
+
+        private StatementHandler(ConnectionHandler connection, Statement statement, String shape) {
+            this.connection = connection;
+            this.statement = statement;
+            this.shape = shape;
+        }
+
+        @Override
+        public Object invoke(Object self, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index
+                    && statement instanceof PreparedStatement) {
+                parameters = Math.max(parameters, index);
+                return TimingConnection.invoke(statement, method, args);
+            }
+            switch (name) {
+                case "execute", "executeQuery", "executeUpdate", "executeLargeUpdate" -> {
+                    String executed = shape != null ? shape : StatementStats.shape((String) args[0]);
+                    long start = System.nanoTime();
+                    Object result = TimingConnection.invoke(statement, method, args);
+                    STATS.record(Operation.EXECUTE, connection.database, executed, System.nanoTime() - start, 1,
+                        shape != null ? parameters : 0);
+                    return result instanceof ResultSet resultSet ? wrapResultSet(resultSet, executed) : result;
+                }
+                case "addBatch" -> {
+                    batchRows++;
+                    return TimingConnection.invoke(statement, method, args);
+                }
+                case "clearBatch" -> {
+                    batchRows = 0;
+                    return TimingConnection.invoke(statement, method, args);
+                }
+                case "executeBatch", "executeLargeBatch" -> {
+                    long rows = batchRows;
+                    batchRows = 0;
+                    long start = System.nanoTime();
+                    Object result = TimingConnection.invoke(statement, method, args);
+                    STATS.record(Operation.BATCH, connection.database, shape != null ? shape : "(statement batch)",
+                        System.nanoTime() - start, rows, rows * parameters);
+                    return result;
+                }
+                case "getResultSet", "getGeneratedKeys" -> {
+                    Object result = TimingConnection.invoke(statement, method, args);
+                    return result == null ? null : wrapResultSet((ResultSet) result, shape != null ? shape : "");
+                }
+                case "getConnection" -> {
+                    return connection.proxy;
+                }
+                case "unwrap" -> {
+                    return ((Class<?>) args[0]).isInstance(self) ? self : statement.unwrap((Class<?>) args[0]);
+                }
+                case "equals" -> {
+                    return self == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(self);
+                }
+                default -> {
+                    return TimingConnection.invoke(statement, method, args);
+                }
+            }
+        }
+
+        private ResultSet wrapResultSet(ResultSet resultSet, String executed) {
+            return proxy(ResultSet.class, new ResultSetHandler(connection.database, resultSet, executed));
+        }
+    }
+
+    /**
+     * Result set summing the time spent in next(), recorded once when it is exhausted or closed
+     */
+    private static final class ResultSetHandler implements InvocationHandler {
+        private final String database;
+        private final ResultSet resultSet;
+        private final String shape;
+        private long fetchNanos;
+        private long rows;
+        private boolean recorded;
+
+        private ResultSetHandler(String database, ResultSet resultSet, String shape) {
+            this.database = database;
+            this.resultSet = resultSet;
+            this.shape = shape;
+        }
+
+        @Override
+        public Object invoke(Object self, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "next" -> {
+                    long start = System.nanoTime();
+                    boolean hasRow = resultSet.next();
+                    fetchNanos += System.nanoTime() - start;
+                    if (hasRow) {
+                        rows++;
+                    } else {
+                        record();
+                    }
+                    return hasRow;
+                }
+                case "close" -> {
+                    record();
+                    resultSet.close();
+                    return null;
+                }
+                case "equals" -> {
+                    return self == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(self);
+                }
+                default -> {
+                    return TimingConnection.invoke(resultSet, method, args);
+                }
+            }
+        }
+
+        private void record() {
+            if (!recorded) {
+                recorded = true;
+                STATS.record(Operation.FETCH, database, shape, fetchNanos, rows, 0);
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package events;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event spanning one round trip of a row sink: a COPY, a JDBC batch,
+ * a multi-row INSERT or a single-row INSERT.
+ */
+@Name("databaseloader.Batch")
+@Label("Row Batch")
+@Category("Database Loader")
+@Description("Rows sent to the database by a row sink in one flush")
+public class BatchEvent extends Event {
+    @Label("Table")
+    public String table;
+
+    @Label("Row Sink")
+    public String sink;
+
+    @Label("Rows")
+    public long rows;
+
+    @Label("Bytes")
+    @DataAmount
+    @Description("Encoded size of the rows, 0 when the driver does the encoding (JDBC strategies)")
+    public long bytes;
+}
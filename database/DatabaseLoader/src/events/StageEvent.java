@@ -0,0 +1,26 @@
+package events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event spanning one load stage (one generator or sync step), emitted by StageMetrics.
+ */
+@Name("databaseloader.Stage")
+@Label("Load Stage")
+@Category("Database Loader")
+@Description("One generator or sync step of a load")
+public class StageEvent extends Event {
+    @Label("Database")
+    public String database;
+
+    @Label("Stage")
+    public String stage;
+
+    @Label("Tables")
+    @Description("Tables written by the stage, comma separated")
+    public String tables;
+}
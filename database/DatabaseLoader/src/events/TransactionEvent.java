@@ -0,0 +1,23 @@
+package events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event spanning one commit or rollback.
+ */
+@Name("databaseloader.Transaction")
+@Label("Commit / Rollback")
+@Category("Database Loader")
+@Description("End of a loader transaction")
+public class TransactionEvent extends Event {
+    @Label("Database")
+    public String database;
+
+    @Label("Action")
+    @Description("commit or rollback")
+    public String action;
+}
@@ -1,11 +1,14 @@
 package generators;
 
 import config.DatabaseConfig;
-import net.datafaker.Faker;
+import profile.DatasetProfile;
+import sinks.RowSink;
+import sinks.RowSinks;
+import utils.AllocationMeter;
 import utils.FakerProvider;
+import utils.TextDictionary;
 
 import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.UUID;
@@ -15,15 +18,16 @@ import java.util.UUID;
  * Creates bug reports for games (simulating sync from platform).
  */
 public class BugReportGenerator {
-    private final Faker faker;
+    private final TextDictionary dictionary;
     private final FakerProvider fakerProvider;
     private final DatabaseConfig config;
+    private final StringBuilder description = new StringBuilder(512);
 
     private static final String[] PLATFORMS = {"PC", "XBOX", "PS5", "SWITCH"};
 
     public BugReportGenerator() {
         this.fakerProvider = FakerProvider.getInstance();
-        this.faker = fakerProvider.getFaker();
+        this.dictionary = fakerProvider.getDictionary();
         this.config = DatabaseConfig.getInstance();
     }
 
@@ -37,93 +41,114 @@ public class BugReportGenerator {
         }
 
         int totalReports = 0;
-
-        for (UUID gameId : gameIds) {
-            int numReports = fakerProvider.randomInt(
-                config.getNumBugReportsPerGameMin(),
-                config.getNumBugReportsPerGameMax()
-            );
-
-            generateBugReportsForGame(connection, gameId, patchIds, numReports);
-            totalReports += numReports;
+        AllocationMeter allocation = AllocationMeter.start();
+
+        try (RowSink sink = RowSinks.open(connection, "bug_report", "id_game", "id_patch", "description", "plateforme")) {
+            for (UUID gameId : gameIds) {
+                int numReports = fakerProvider.randomCount(
+                    DatasetProfile.BUG_REPORTS_PER_GAME,
+                    config.getNumBugReportsPerGameMin(),
+                    config.getNumBugReportsPerGameMax()
+                );
+
+                generateBugReportsForGame(sink, gameId, patchIds, numReports);
+                totalReports += numReports;
+            }
         }
 
         if (config.isVerbose()) {
-            System.out.println("Successfully generated " + totalReports + " bug reports\n");
+            System.out.println("Successfully generated " + totalReports + " bug reports (" +
+                allocation.perRow(totalReports) + ")\n");
         }
     }
 
     /**
      * Generate bug reports for a specific game
      */
-    private void generateBugReportsForGame(Connection connection, UUID gameId, List<UUID> patchIds, 
-                                           int numReports) throws SQLException {
-        String sql = "INSERT INTO bug_report (id_game, id_patch, description, plateforme) " +
-                     "VALUES (?, ?, ?, ?::platform_enum)";
-
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            for (int i = 0; i < numReports; i++) {
-                // Some bug reports are associated with patches (50%), others just with games
-                UUID patchId = null;
-                if (!patchIds.isEmpty() && fakerProvider.randomBooleanWithProbability(50)) {
-                    patchId = patchIds.get(fakerProvider.getRandom().nextInt(patchIds.size()));
-                }
-
-                String platform = fakerProvider.randomElement(PLATFORMS);
-                String description = generateBugDescription();
-
-                pstmt.setObject(1, gameId);
-                pstmt.setObject(2, patchId); // Can be null
-                pstmt.setString(3, description);
-                pstmt.setString(4, platform);
-                pstmt.executeUpdate();
+    private void generateBugReportsForGame(RowSink sink, UUID gameId, List<UUID> patchIds, int numReports)
+            throws SQLException {
+        for (int i = 0; i < numReports; i++) {
+            // Some bug reports are associated with patches (50%), others just with games
+            UUID patchId = null;
+            if (!patchIds.isEmpty() && fakerProvider.randomBooleanWithProbability(50)) {
+                patchId = patchIds.get(fakerProvider.getRandom().nextInt(patchIds.size()));
             }
+
+            String platform = fakerProvider.randomElement(PLATFORMS);
+            description.setLength(0);
+            appendBugDescription(description);
+            fakerProvider.fitTextLength(DatasetProfile.BUG_REPORT_DESCRIPTION_LENGTH, description);
+
+            sink.uuid(gameId).uuid(patchId).text(description).enumValue(platform).endRow();
         }
     }
 
     /**
      * Generate a realistic bug description
      */
-    private String generateBugDescription() {
-        int variant = fakerProvider.getRandom().nextInt(15);
-        
-        String[] bugTemplates = {
-            "Game crashes when entering %s. Error code: %s. This happens consistently on %s.",
-            "Severe performance drop in %s area. FPS drops from 60 to 15-20. Tested on %s.",
-            "Audio completely cuts out during %s. Requires game restart to fix. Platform: %s.",
-            "Character gets stuck in %s geometry. Cannot move or respawn. Affected area: %s.",
-            "Quest '%s' cannot be completed. NPC doesn't spawn after %s. Blocking progression.",
-            "Visual glitch in %s. Textures appear distorted or missing. Reproducible on %s.",
-            "Multiplayer desync issue during %s. Players experience lag and disconnections on %s.",
-            "Save file corruption after %s. Lost %s hours of progress. Critical issue.",
-            "Controls become unresponsive in %s. Affects %s functionality. Requires restart.",
-            "Memory leak detected during %s. RAM usage climbs to %s GB after extended play.",
-            "Collision detection broken in %s. Can walk through walls near %s area.",
-            "Achievement '%s' doesn't unlock despite meeting requirements. Tried %s times.",
-            "UI elements overlapping in %s menu. Text unreadable on %s resolution.",
-            "Incorrect damage calculation for %s. Should be %s but shows different value.",
-            "Loading screen freeze when accessing %s. Game becomes unresponsive for %s minutes."
-        };
-
-        String[] gameAreas = {
-            "the main menu", "inventory screen", "character customization", "multiplayer lobby",
-            "final boss arena", "tutorial section", "cutscenes", "level 5", "the marketplace",
-            "skill tree menu", "settings page", "quest log", "map screen", "crafting menu"
-        };
-
-        String[] values = {
-            "0x8007045D", "multiple platforms", "high settings", "low graphics mode",
-            "completing mission", "3-4", "1920x1080", "critical hits", "2-3", "V1.2.3"
-        };
-
-        String template = bugTemplates[variant];
-        String area1 = fakerProvider.randomElement(gameAreas);
-        String area2 = fakerProvider.randomElement(gameAreas);
-        String value = fakerProvider.randomElement(values);
+    public String generateBugDescription() {
+        StringBuilder sb = new StringBuilder(256);
+        appendBugDescription(sb);
+        return sb.toString();
+    }
+
+    /**
+     * Append a realistic bug description to a builder
+     */
+    public void appendBugDescription(StringBuilder sb) {
+        String[] template = BUG_TEMPLATES[fakerProvider.getRandom().nextInt(BUG_TEMPLATES.length)];
+        String area1 = fakerProvider.randomElement(GAME_AREAS);
+        String area2 = fakerProvider.randomElement(GAME_AREAS);
+        String value = fakerProvider.randomElement(VALUES);
+
+        // Template parts are separated by the placeholders, filled with area1, value and area2 in order
+        sb.append(template[0]);
+        for (int i = 1; i < template.length; i++) {
+            sb.append(i == 1 ? area1 : i == 2 ? value : area2).append(template[i]);
+        }
 
         // Add some additional context
-        String additionalContext = faker.lorem().sentence(15);
-        
-        return String.format(template, area1, value, area2) + " " + additionalContext;
+        sb.append(' ');
+        dictionary.appendSentence(sb, 15);
+    }
+
+    private static final String[][] BUG_TEMPLATES = splitTemplates(
+        "Game crashes when entering %s. Error code: %s. This happens consistently on %s.",
+        "Severe performance drop in %s area. FPS drops from 60 to 15-20. Tested on %s.",
+        "Audio completely cuts out during %s. Requires game restart to fix. Platform: %s.",
+        "Character gets stuck in %s geometry. Cannot move or respawn. Affected area: %s.",
+        "Quest '%s' cannot be completed. NPC doesn't spawn after %s. Blocking progression.",
+        "Visual glitch in %s. Textures appear distorted or missing. Reproducible on %s.",
+        "Multiplayer desync issue during %s. Players experience lag and disconnections on %s.",
+        "Save file corruption after %s. Lost %s hours of progress. Critical issue.",
+        "Controls become unresponsive in %s. Affects %s functionality. Requires restart.",
+        "Memory leak detected during %s. RAM usage climbs to %s GB after extended play.",
+        "Collision detection broken in %s. Can walk through walls near %s area.",
+        "Achievement '%s' doesn't unlock despite meeting requirements. Tried %s times.",
+        "UI elements overlapping in %s menu. Text unreadable on %s resolution.",
+        "Incorrect damage calculation for %s. Should be %s but shows different value.",
+        "Loading screen freeze when accessing %s. Game becomes unresponsive for %s minutes."
+    );
+
+    private static final String[] GAME_AREAS = {
+        "the main menu", "inventory screen", "character customization", "multiplayer lobby",
+        "final boss arena", "tutorial section", "cutscenes", "level 5", "the marketplace",
+        "skill tree menu", "settings page", "quest log", "map screen", "crafting menu"
+    };
+
+    private static final String[] VALUES = {
+        "0x8007045D", "multiple platforms", "high settings", "low graphics mode",
+        "completing mission", "3-4", "1920x1080", "critical hits", "2-3", "V1.2.3"
+    };
+
+    /**
+     * Split "%s" templates once so that descriptions are assembled without String.format
+     */
+    private static String[][] splitTemplates(String... templates) {
+        String[][] parts = new String[templates.length][];
+        for (int i = 0; i < templates.length; i++) {
+            parts[i] = templates[i].split("%s", -1);
+        }
+        return parts;
     }
 }
@@ -1,11 +1,15 @@
 package generators;
 
 import config.DatabaseConfig;
-import net.datafaker.Faker;
+import profile.DatasetProfile;
+import sinks.RowSink;
+import sinks.RowSinks;
+import utils.AllocationMeter;
+import utils.DictionaryKey;
 import utils.FakerProvider;
+import utils.TextDictionary;
 
 import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.*;
 
@@ -14,15 +18,20 @@ import java.util.*;
  * Creates DLCs for games with appropriate naming and pricing.
  */
 public class DLCGenerator {
-    private final Faker faker;
+    private final TextDictionary dictionary;
     private final FakerProvider fakerProvider;
     private final DatabaseConfig config;
     private final Map<UUID, Boolean> dlcPublishStatus; // Tracks if DLC is published
     private final List<UUID> allDlcIds;
+    private final StringBuilder dlcName = new StringBuilder(64);
+
+    // Adjectives for DLC names
+    private static final String[] ADJECTIVES = {"Epic", "Ultimate", "Legendary", "Supreme", "Dark", "Golden",
+                                                "Royal", "Ancient", "Mystic", "Shadow", "Divine"};
 
     public DLCGenerator() {
         this.fakerProvider = FakerProvider.getInstance();
-        this.faker = fakerProvider.getFaker();
+        this.dictionary = fakerProvider.getDictionary();
         this.config = DatabaseConfig.getInstance();
         this.dlcPublishStatus = new HashMap<>();
         this.allDlcIds = new ArrayList<>();
@@ -38,89 +47,81 @@ public class DLCGenerator {
         }
 
         int totalDlcs = 0;
-
-        for (Map.Entry<UUID, List<UUID>> entry : editorGamesMap.entrySet()) {
-            UUID editorId = entry.getKey();
-            List<UUID> gameIds = entry.getValue();
-
-            for (UUID gameId : gameIds) {
-                int numDlcs = fakerProvider.randomInt(
-                    config.getNumDlcPerGameMin(),
-                    config.getNumDlcPerGameMax()
-                );
-
-                if (numDlcs > 0) {
-                    generateDLCsForGame(connection, gameId, editorId, numDlcs);
-                    totalDlcs += numDlcs;
+        AllocationMeter allocation = AllocationMeter.start();
+
+        try (RowSink sink = RowSinks.open(connection, "dlc",
+                 "id", "game_id", "editor_id", "name", "price", "num_version", "is_publish")) {
+            for (Map.Entry<UUID, List<UUID>> entry : editorGamesMap.entrySet()) {
+                UUID editorId = entry.getKey();
+                List<UUID> gameIds = entry.getValue();
+
+                for (UUID gameId : gameIds) {
+                    int numDlcs = fakerProvider.randomCount(
+                        DatasetProfile.DLCS_PER_GAME,
+                        config.getNumDlcPerGameMin(),
+                        config.getNumDlcPerGameMax()
+                    );
+
+                    if (numDlcs > 0) {
+                        generateDLCsForGame(sink, gameId, editorId, numDlcs);
+                        totalDlcs += numDlcs;
+                    }
                 }
             }
         }
 
         if (config.isVerbose()) {
-            System.out.println("Successfully generated " + totalDlcs + " DLCs\n");
+            System.out.println("Successfully generated " + totalDlcs + " DLCs (" +
+                allocation.perRow(totalDlcs) + ")\n");
         }
     }
 
     /**
      * Generate DLCs for a specific game
      */
-    private void generateDLCsForGame(Connection connection, UUID gameId, UUID editorId, int numDlcs) 
-            throws SQLException {
-        String sql = "INSERT INTO dlc (id, game_id, editor_id, name, price, num_version, is_publish) " +
-                     "VALUES (?, ?, ?, ?, ?, ?, ?)";
-
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            for (int i = 0; i < numDlcs; i++) {
-                UUID dlcId = UUID.randomUUID();
-                allDlcIds.add(dlcId);
-
-                String dlcName = generateDLCName();
-                double price = fakerProvider.round(fakerProvider.randomDouble(2.99, 29.99), 2);
-                double numVersion = fakerProvider.round(fakerProvider.randomDouble(1.0, 5.0), 1);
-                boolean isPublish = fakerProvider.randomBooleanWithProbability(config.getPublishPercentage());
-
-                dlcPublishStatus.put(dlcId, isPublish);
-
-                pstmt.setObject(1, dlcId);
-                pstmt.setObject(2, gameId);
-                pstmt.setObject(3, editorId);
-                pstmt.setString(4, dlcName);
-                pstmt.setDouble(5, price);
-                pstmt.setDouble(6, numVersion);
-                pstmt.setBoolean(7, isPublish);
-                pstmt.executeUpdate();
-            }
+    private void generateDLCsForGame(RowSink sink, UUID gameId, UUID editorId, int numDlcs) throws SQLException {
+        for (int i = 0; i < numDlcs; i++) {
+            UUID dlcId = fakerProvider.randomUuid();
+            allDlcIds.add(dlcId);
+
+            dlcName.setLength(0);
+            appendDLCName(dlcName);
+            double price = fakerProvider.round(fakerProvider.randomDouble(2.99, 29.99), 2);
+            double numVersion = fakerProvider.round(fakerProvider.randomDouble(1.0, 5.0), 1);
+            boolean isPublish = fakerProvider.randomWithRatio(
+                DatasetProfile.DLC_PUBLISH, config.getPublishPercentage());
+
+            dlcPublishStatus.put(dlcId, isPublish);
+
+            sink.uuid(dlcId).uuid(gameId).uuid(editorId).text(dlcName).float8(price).float8(numVersion)
+                .bool(isPublish).endRow();
         }
     }
 
     /**
-     * Generate a realistic DLC name
+     * Append a realistic DLC name to a builder
      */
-    private String generateDLCName() {
+    private void appendDLCName(StringBuilder sb) {
         int variant = fakerProvider.getRandom().nextInt(15);
-        
-        // Adjectives for DLC names
-        String[] adjectives = {"Epic", "Ultimate", "Legendary", "Supreme", "Dark", "Golden", 
-                               "Royal", "Ancient", "Mystic", "Shadow", "Divine"};
-        
-        return switch (variant) {
-            case 0 -> "Season Pass";
-            case 1 -> fakerProvider.randomElement(adjectives) + " Expansion";
-            case 2 -> "Deluxe Edition Content";
-            case 3 -> faker.color().name() + " Pack";
-            case 4 -> faker.ancient().primordial() + " DLC";
-            case 5 -> faker.music().genre() + " Collection";
-            case 6 -> faker.space().planet() + " Expansion Pack";
-            case 7 -> "Ultimate Edition Upgrade";
-            case 8 -> faker.animal().name() + " Skin Pack";
-            case 9 -> "Premium " + fakerProvider.randomElement(adjectives) + " Bundle";
-            case 10 -> faker.superhero().name() + " Character Pack";
-            case 11 -> "Map Pack: " + faker.elderScrolls().city();
-            case 12 -> faker.ancient().god() + "'s Blessing";
-            case 13 -> "Weapon Pack: " + faker.ancient().hero();
-            case 14 -> "Story Extension: " + faker.book().title();
-            default -> "Expansion Pack";
-        };
+
+        switch (variant) {
+            case 0 -> sb.append("Season Pass");
+            case 1 -> sb.append(fakerProvider.randomElement(ADJECTIVES)).append(" Expansion");
+            case 2 -> sb.append("Deluxe Edition Content");
+            case 3 -> sb.append(dictionary.get(DictionaryKey.COLOR_NAME)).append(" Pack");
+            case 4 -> sb.append(dictionary.get(DictionaryKey.ANCIENT_PRIMORDIAL)).append(" DLC");
+            case 5 -> sb.append(dictionary.get(DictionaryKey.MUSIC_GENRE)).append(" Collection");
+            case 6 -> sb.append(dictionary.get(DictionaryKey.SPACE_PLANET)).append(" Expansion Pack");
+            case 7 -> sb.append("Ultimate Edition Upgrade");
+            case 8 -> sb.append(dictionary.get(DictionaryKey.ANIMAL_NAME)).append(" Skin Pack");
+            case 9 -> sb.append("Premium ").append(fakerProvider.randomElement(ADJECTIVES)).append(" Bundle");
+            case 10 -> sb.append(dictionary.get(DictionaryKey.SUPERHERO_NAME)).append(" Character Pack");
+            case 11 -> sb.append("Map Pack: ").append(dictionary.get(DictionaryKey.ELDER_SCROLLS_CITY));
+            case 12 -> sb.append(dictionary.get(DictionaryKey.ANCIENT_GOD)).append("'s Blessing");
+            case 13 -> sb.append("Weapon Pack: ").append(dictionary.get(DictionaryKey.ANCIENT_HERO));
+            case 14 -> sb.append("Story Extension: ").append(dictionary.get(DictionaryKey.BOOK_TITLE));
+            default -> sb.append("Expansion Pack");
+        }
     }
 
     /**
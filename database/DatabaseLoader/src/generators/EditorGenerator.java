@@ -1,11 +1,14 @@
 package generators;
 
 import config.DatabaseConfig;
-import net.datafaker.Faker;
+import profile.DatasetProfile;
+import sinks.RowSink;
+import sinks.RowSinks;
+import utils.DictionaryKey;
 import utils.FakerProvider;
+import utils.TextDictionary;
 
 import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
@@ -16,37 +19,50 @@ import java.util.UUID;
  * Creates editors with realistic company/person names and descriptions.
  */
 public class EditorGenerator {
-    private final Faker faker;
+    private final TextDictionary dictionary;
     private final FakerProvider fakerProvider;
     private final DatabaseConfig config;
     private final List<UUID> editorIds;
+    private final StringBuilder description = new StringBuilder(512);
+
+    // editor.description is VARCHAR(2000)
+    private static final int DESCRIPTION_MAX_LENGTH = 2000;
 
     public EditorGenerator() {
         this.fakerProvider = FakerProvider.getInstance();
-        this.faker = fakerProvider.getFaker();
+        this.dictionary = fakerProvider.getDictionary();
         this.config = DatabaseConfig.getInstance();
         this.editorIds = new ArrayList<>();
     }
 
+    /**
+     * Number of editors to generate: num.editors, or the profiled cardinality with a dataset profile
+     */
+    public int countEditors() {
+        DatasetProfile profile = config.getDatasetProfile();
+        return profile != null
+            ? profile.scaledCardinality("editor_db.editor", config.getProfileScale())
+            : config.getNumEditors();
+    }
+
     /**
      * Generate and insert editors into the database
      */
     public List<UUID> generateEditors(Connection connection) throws SQLException {
-        int numEditors = config.getNumEditors();
+        int numEditors = countEditors();
         
         if (config.isVerbose()) {
             System.out.println("Generating " + numEditors + " editors...");
         }
 
-        String sql = "INSERT INTO editor (id, name, password, type, description) VALUES (?, ?, ?, ?::type_editor_enum, ?)";
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (RowSink sink = RowSinks.open(connection, "editor", "id", "name", "password", "type", "description")) {
             for (int i = 0; i < numEditors; i++) {
-                UUID editorId = UUID.randomUUID();
+                UUID editorId = fakerProvider.randomUuid();
                 editorIds.add(editorId);
 
                 // Determine if entreprise or particulier
-                boolean isEnterprise = fakerProvider.randomBooleanWithProbability(
+                boolean isEnterprise = fakerProvider.randomWithRatio(
+                    DatasetProfile.EDITOR_ENTERPRISE,
                     config.getEditorEnterprisePercentage()
                 );
                 String type = isEnterprise ? "entreprise" : "particulier";
@@ -57,17 +73,14 @@ public class EditorGenerator {
                     : generatePersonName();
 
                 // Generate password (hashed in real scenario)
-                String password = faker.internet().password(8, 20);
+                String password = dictionary.password(8, 20);
 
                 // Generate description
-                String description = generateDescription(isEnterprise);
+                description.setLength(0);
+                appendDescription(description, isEnterprise);
+                fakerProvider.fitTextLength(DatasetProfile.EDITOR_DESCRIPTION_LENGTH, description, DESCRIPTION_MAX_LENGTH);
 
-                pstmt.setObject(1, editorId);
-                pstmt.setString(2, name);
-                pstmt.setString(3, password);
-                pstmt.setString(4, type);
-                pstmt.setString(5, description);
-                pstmt.executeUpdate();
+                sink.uuid(editorId).text(name).text(password).enumValue(type).text(description).endRow();
 
                 if (config.isVerbose() && (i + 1) % 10 == 0) {
                     System.out.println("  - Generated " + (i + 1) + "/" + numEditors + " editors");
@@ -89,12 +102,12 @@ public class EditorGenerator {
         int variant = fakerProvider.getRandom().nextInt(5);
         
         return switch (variant) {
-            case 0 -> faker.company().name() + " Games";
-            case 1 -> faker.company().name() + " Entertainment";
-            case 2 -> faker.company().name() + " Studios";
-            case 3 -> faker.name().lastName() + " Interactive";
-            case 4 -> faker.ancient().god() + " Games";
-            default -> faker.company().name();
+            case 0 -> dictionary.get(DictionaryKey.COMPANY_NAME) + " Games";
+            case 1 -> dictionary.get(DictionaryKey.COMPANY_NAME) + " Entertainment";
+            case 2 -> dictionary.get(DictionaryKey.COMPANY_NAME) + " Studios";
+            case 3 -> dictionary.get(DictionaryKey.LAST_NAME) + " Interactive";
+            case 4 -> dictionary.get(DictionaryKey.ANCIENT_GOD) + " Games";
+            default -> dictionary.get(DictionaryKey.COMPANY_NAME);
         };
     }
 
@@ -102,23 +115,23 @@ public class EditorGenerator {
      * Generate a realistic person name for individual editors
      */
     private String generatePersonName() {
-        return faker.name().fullName();
+        return dictionary.get(DictionaryKey.FULL_NAME);
     }
 
     /**
-     * Generate a description for the editor
+     * Append a description for the editor to a builder
      */
-    private String generateDescription(boolean isEnterprise) {
+    private void appendDescription(StringBuilder sb, boolean isEnterprise) {
         if (isEnterprise) {
             // Company description
-            return faker.company().catchPhrase() + ". " + 
-                   faker.lorem().sentence(15) + " " +
-                   faker.company().bs();
+            sb.append(dictionary.get(DictionaryKey.COMPANY_CATCH_PHRASE)).append(". ");
+            dictionary.appendSentence(sb, 15);
+            sb.append(' ').append(dictionary.get(DictionaryKey.COMPANY_BS));
         } else {
             // Individual description
-            return "Independent game developer. " + 
-                   faker.lorem().sentence(10) + " " +
-                   faker.hobbit().quote();
+            sb.append("Independent game developer. ");
+            dictionary.appendSentence(sb, 10);
+            sb.append(' ').append(dictionary.get(DictionaryKey.HOBBIT_QUOTE));
         }
     }
 
@@ -1,11 +1,15 @@
 package generators;
 
 import config.DatabaseConfig;
-import net.datafaker.Faker;
+import profile.DatasetProfile;
+import sinks.RowSink;
+import sinks.RowSinks;
+import utils.AllocationMeter;
+import utils.DictionaryKey;
 import utils.FakerProvider;
+import utils.TextDictionary;
 
 import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.*;
 
@@ -14,18 +18,27 @@ import java.util.*;
  * Creates games with platforms and genres.
  */
 public class GameGenerator {
-    private final Faker faker;
+    private final TextDictionary dictionary;
     private final FakerProvider fakerProvider;
     private final DatabaseConfig config;
     private final Map<UUID, List<UUID>> editorGamesMap; // Maps editor ID to list of game IDs
     private final Map<UUID, Boolean> gamePublishStatus; // Tracks if game is published
+    private final StringBuilder gameName = new StringBuilder(64);
 
     private static final String[] PLATFORMS = {"PC", "XBOX", "PS5", "SWITCH"};
     private static final String[] GENRES = {"ACTION", "RPG", "STRATEGY", "SPORTS"};
 
+    // Gerund verbs (ing form) for game titles
+    private static final String[] VERBS = {"Fighting", "Racing", "Building", "Exploring", "Hunting",
+                                           "Conquering", "Defending", "Surviving", "Crafting", "Rising"};
+
+    // Bitmasks over PLATFORMS/GENRES indexes, grouped by number of bits set:
+    // a random subset of size k is one array lookup instead of a shuffle
+    private static final int[][] SUBSETS_BY_SIZE = subsetsBySize(4);
+
     public GameGenerator() {
         this.fakerProvider = FakerProvider.getInstance();
-        this.faker = fakerProvider.getFaker();
+        this.dictionary = fakerProvider.getDictionary();
         this.config = DatabaseConfig.getInstance();
         this.editorGamesMap = new HashMap<>();
         this.gamePublishStatus = new HashMap<>();
@@ -40,56 +53,58 @@ public class GameGenerator {
         }
 
         int totalGames = 0;
-
-        for (UUID editorId : editorIds) {
-            int numGames = fakerProvider.randomInt(
-                config.getNumGamesPerEditorMin(),
-                config.getNumGamesPerEditorMax()
-            );
-
-            List<UUID> gameIds = generateGamesForEditor(connection, editorId, numGames);
-            editorGamesMap.put(editorId, gameIds);
-            totalGames += numGames;
+        AllocationMeter allocation = AllocationMeter.start();
+
+        // Platforms and genres reference the game: their sinks flush the game sink first
+        try (RowSink games = RowSinks.open(connection, "game",
+                 "id", "editor_id", "name", "price", "num_version", "is_publish");
+             RowSink platforms = RowSinks.open(connection, games, "game_platforms", "game_id", "platform");
+             RowSink genres = RowSinks.open(connection, games, "game_genres", "game_id", "genre")) {
+            for (UUID editorId : editorIds) {
+                int numGames = fakerProvider.randomCount(
+                    DatasetProfile.GAMES_PER_EDITOR,
+                    config.getNumGamesPerEditorMin(),
+                    config.getNumGamesPerEditorMax()
+                );
+
+                List<UUID> gameIds = generateGamesForEditor(games, platforms, genres, editorId, numGames);
+                editorGamesMap.put(editorId, gameIds);
+                totalGames += numGames;
+            }
         }
 
         if (config.isVerbose()) {
-            System.out.println("Successfully generated " + totalGames + " games\n");
+            System.out.println("Successfully generated " + totalGames + " games (" +
+                allocation.perRow(totalGames) + ")\n");
         }
     }
 
     /**
      * Generate games for a specific editor
      */
-    private List<UUID> generateGamesForEditor(Connection connection, UUID editorId, int numGames) 
-            throws SQLException {
-        List<UUID> gameIds = new ArrayList<>();
-
-        String gameSql = "INSERT INTO game (id, editor_id, name, price, num_version, is_publish) VALUES (?, ?, ?, ?, ?, ?)";
-        
-        try (PreparedStatement gamePstmt = connection.prepareStatement(gameSql)) {
-            for (int i = 0; i < numGames; i++) {
-                UUID gameId = UUID.randomUUID();
-                gameIds.add(gameId);
-
-                String gameName = generateGameName();
-                double price = fakerProvider.round(fakerProvider.randomDouble(5.99, 79.99), 2);
-                double numVersion = fakerProvider.round(fakerProvider.randomDouble(1.0, 10.0), 1);
-                boolean isPublish = fakerProvider.randomBooleanWithProbability(config.getPublishPercentage());
-
-                gamePublishStatus.put(gameId, isPublish);
-
-                gamePstmt.setObject(1, gameId);
-                gamePstmt.setObject(2, editorId);
-                gamePstmt.setString(3, gameName);
-                gamePstmt.setDouble(4, price);
-                gamePstmt.setDouble(5, numVersion);
-                gamePstmt.setBoolean(6, isPublish);
-                gamePstmt.executeUpdate();
-
-                // Generate platforms and genres for this game
-                insertGamePlatforms(connection, gameId);
-                insertGameGenres(connection, gameId);
-            }
+    private List<UUID> generateGamesForEditor(RowSink games, RowSink platforms, RowSink genres,
+                                              UUID editorId, int numGames) throws SQLException {
+        List<UUID> gameIds = new ArrayList<>(numGames);
+
+        for (int i = 0; i < numGames; i++) {
+            UUID gameId = fakerProvider.randomUuid();
+            gameIds.add(gameId);
+
+            gameName.setLength(0);
+            appendGameName(gameName);
+            double price = fakerProvider.round(fakerProvider.randomDouble(5.99, 79.99), 2);
+            double numVersion = fakerProvider.round(fakerProvider.randomDouble(1.0, 10.0), 1);
+            boolean isPublish = fakerProvider.randomWithRatio(
+                DatasetProfile.GAME_PUBLISH, config.getPublishPercentage());
+
+            gamePublishStatus.put(gameId, isPublish);
+
+            games.uuid(gameId).uuid(editorId).text(gameName).float8(price).float8(numVersion).bool(isPublish)
+                .endRow();
+
+            // Generate platforms (1-4) and genres (1-3) for this game
+            insertSubset(platforms, gameId, PLATFORMS, fakerProvider.randomInt(1, 4));
+            insertSubset(genres, gameId, GENRES, fakerProvider.randomInt(1, 3));
         }
 
         return gameIds;
@@ -98,68 +113,67 @@ public class GameGenerator {
     /**
      * Generate a realistic game name
      */
-    private String generateGameName() {
+    public String generateGameName() {
+        StringBuilder sb = new StringBuilder(64);
+        appendGameName(sb);
+        return sb.toString();
+    }
+
+    /**
+     * Append a realistic game name to a builder
+     */
+    public void appendGameName(StringBuilder sb) {
         int variant = fakerProvider.getRandom().nextInt(10);
-        
-        // Gerund verbs (ing form) for game titles
-        String[] verbs = {"Fighting", "Racing", "Building", "Exploring", "Hunting", 
-                         "Conquering", "Defending", "Surviving", "Crafting", "Rising"};
-        
-        return switch (variant) {
-            case 0 -> faker.videoGame().title();
-            case 1 -> faker.ancient().hero() + ": " + faker.ancient().primordial();
-            case 2 -> faker.elderScrolls().city() + " Chronicles";
-            case 3 -> "The Legend of " + faker.name().firstName();
-            case 4 -> faker.space().galaxy() + " Warriors";
-            case 5 -> faker.animal().name() + " Simulator";
-            case 6 -> faker.superhero().name() + ": The Game";
-            case 7 -> faker.esports().game();
-            case 8 -> faker.ancient().god() + "'s " + fakerProvider.randomElement(verbs);
-            case 9 -> faker.music().genre() + " Fighter";
-            default -> faker.app().name() + " Adventure";
-        };
+
+        switch (variant) {
+            case 0 -> sb.append(dictionary.get(DictionaryKey.VIDEO_GAME_TITLE));
+            case 1 -> sb.append(dictionary.get(DictionaryKey.ANCIENT_HERO)).append(": ")
+                .append(dictionary.get(DictionaryKey.ANCIENT_PRIMORDIAL));
+            case 2 -> sb.append(dictionary.get(DictionaryKey.ELDER_SCROLLS_CITY)).append(" Chronicles");
+            case 3 -> sb.append("The Legend of ").append(dictionary.get(DictionaryKey.FIRST_NAME));
+            case 4 -> sb.append(dictionary.get(DictionaryKey.SPACE_GALAXY)).append(" Warriors");
+            case 5 -> sb.append(dictionary.get(DictionaryKey.ANIMAL_NAME)).append(" Simulator");
+            case 6 -> sb.append(dictionary.get(DictionaryKey.SUPERHERO_NAME)).append(": The Game");
+            case 7 -> sb.append(dictionary.get(DictionaryKey.ESPORTS_GAME));
+            case 8 -> sb.append(dictionary.get(DictionaryKey.ANCIENT_GOD)).append("'s ")
+                .append(fakerProvider.randomElement(VERBS));
+            case 9 -> sb.append(dictionary.get(DictionaryKey.MUSIC_GENRE)).append(" Fighter");
+            default -> sb.append(dictionary.get(DictionaryKey.APP_NAME)).append(" Adventure");
+        }
     }
 
     /**
-     * Insert random platforms for a game (1-4 platforms)
+     * Insert a random subset of the given values (size distinct values) for a game
      */
-    private void insertGamePlatforms(Connection connection, UUID gameId) throws SQLException {
-        String sql = "INSERT INTO game_platforms (game_id, platform) VALUES (?, ?::platform_enum)";
-        
-        // Shuffle platforms and select random number
-        List<String> shuffledPlatforms = new ArrayList<>(Arrays.asList(PLATFORMS));
-        Collections.shuffle(shuffledPlatforms, fakerProvider.getRandom());
-        
-        int numPlatforms = fakerProvider.randomInt(1, 4);
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            for (int i = 0; i < numPlatforms; i++) {
-                pstmt.setObject(1, gameId);
-                pstmt.setString(2, shuffledPlatforms.get(i));
-                pstmt.executeUpdate();
-            }
+    private void insertSubset(RowSink sink, UUID gameId, String[] values, int size) throws SQLException {
+        int[] masks = SUBSETS_BY_SIZE[size];
+        for (int mask = masks[fakerProvider.getRandom().nextInt(masks.length)]; mask != 0; mask &= mask - 1) {
+            sink.uuid(gameId).enumValue(values[Integer.numberOfTrailingZeros(mask)]).endRow();
         }
     }
 
     /**
-     * Insert random genres for a game (1-3 genres)
+     * All bitmasks of n bits, grouped by number of bits set
      */
-    private void insertGameGenres(Connection connection, UUID gameId) throws SQLException {
-        String sql = "INSERT INTO game_genres (game_id, genre) VALUES (?, ?::genre_enum)";
-        
-        // Shuffle genres and select random number
-        List<String> shuffledGenres = new ArrayList<>(Arrays.asList(GENRES));
-        Collections.shuffle(shuffledGenres, fakerProvider.getRandom());
-        
-        int numGenres = fakerProvider.randomInt(1, 3);
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            for (int i = 0; i < numGenres; i++) {
-                pstmt.setObject(1, gameId);
-                pstmt.setString(2, shuffledGenres.get(i));
-                pstmt.executeUpdate();
+    private static int[][] subsetsBySize(int n) {
+        int[][] subsets = new int[n + 1][];
+        int[] filled = new int[n + 1];
+        for (int mask = 0; mask < (1 << n); mask++) {
+            int size = Integer.bitCount(mask);
+            if (subsets[size] == null) {
+                subsets[size] = new int[binomial(n, size)];
             }
+            subsets[size][filled[size]++] = mask;
+        }
+        return subsets;
+    }
+
+    private static int binomial(int n, int k) {
+        int result = 1;
+        for (int i = 1; i <= k; i++) {
+            result = result * (n - k + i) / i;
         }
+        return result;
     }
 
     /**
@@ -1,30 +1,41 @@
 package generators;
 
 import config.DatabaseConfig;
-import net.datafaker.Faker;
+import profile.DatasetProfile;
+import sinks.RowSink;
+import sinks.RowSinks;
+import sinks.TextStore;
+import utils.AllocationMeter;
 import utils.FakerProvider;
+import utils.TextDictionary;
 
 import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.*;
 
 /**
  * Generator for Patch entities.
  * Creates patches for games with version progression and realistic descriptions.
+ * A release often ships on several platforms: a patch may repeat the previous release of its game
+ * on another platform (patch.multiplatform.percentage, off by default), with the same versions and
+ * notes. Notes go to the content-addressed text store, so a release's notes are stored once.
  */
 public class PatchGenerator {
-    private final Faker faker;
+    private final TextDictionary dictionary;
     private final FakerProvider fakerProvider;
     private final DatabaseConfig config;
     private final Map<UUID, Boolean> patchPublishStatus;
     private final List<UUID> allPatchIds;
+    private final StringBuilder modifications = new StringBuilder(512);
 
     private static final String[] PLATFORMS = {"PC", "XBOX", "PS5", "SWITCH"};
 
+    // Patch notes are up to 10000 characters (01_editor.sql)
+    private static final int MODIFICATIONS_MAX_LENGTH = 10000;
+
     public PatchGenerator() {
         this.fakerProvider = FakerProvider.getInstance();
-        this.faker = fakerProvider.getFaker();
+        this.dictionary = fakerProvider.getDictionary();
         this.config = DatabaseConfig.getInstance();
         this.patchPublishStatus = new HashMap<>();
         this.allPatchIds = new ArrayList<>();
@@ -39,72 +50,85 @@ public class PatchGenerator {
         }
 
         int totalPatches = 0;
-
-        for (UUID gameId : gameIds) {
-            int numPatches = fakerProvider.randomInt(
-                config.getNumPatchesPerGameMin(),
-                config.getNumPatchesPerGameMax()
-            );
-
-            generatePatchesForGame(connection, gameId, numPatches);
-            totalPatches += numPatches;
+        long storedTexts;
+        AllocationMeter allocation = AllocationMeter.start();
+
+        try (TextStore texts = TextStore.open(connection, null, config.getTextBlobMinLength());
+             RowSink sink = RowSinks.open(connection, texts.sink(), "patch", "id", "is_patch_of_game", "game_id",
+                 "platform", "old_version", "new_version", "comment", "modifications", "modifications_hash",
+                 "is_publish")) {
+            for (UUID gameId : gameIds) {
+                int numPatches = fakerProvider.randomCount(
+                    DatasetProfile.PATCHES_PER_GAME,
+                    config.getNumPatchesPerGameMin(),
+                    config.getNumPatchesPerGameMax()
+                );
+
+                generatePatchesForGame(sink, texts, gameId, numPatches);
+                totalPatches += numPatches;
+            }
+            storedTexts = texts.getStoredCount();
         }
 
         if (config.isVerbose()) {
-            System.out.println("Successfully generated " + totalPatches + " patches\n");
+            System.out.println("Successfully generated " + totalPatches + " patches with " + storedTexts +
+                " distinct notes in text_blob (" + allocation.perRow(totalPatches) + ")\n");
         }
     }
 
     /**
      * Generate patches for a specific game
      */
-    private void generatePatchesForGame(Connection connection, UUID gameId, int numPatches) 
+    private void generatePatchesForGame(RowSink sink, TextStore texts, UUID gameId, int numPatches)
             throws SQLException {
-        String sql = "INSERT INTO patch (id, is_patch_of_game, game_id, platform, old_version, " +
-                     "new_version, comment, modifications, is_publish) " +
-                     "VALUES (?, ?, ?, ?::platform_enum, ?, ?, ?, ?, ?)";
-
         // Start with initial version
         double currentVersion = 1.0;
-
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            for (int i = 0; i < numPatches; i++) {
-                UUID patchId = UUID.randomUUID();
-                allPatchIds.add(patchId);
-
-                boolean isPatchOfGame = fakerProvider.randomBooleanWithProbability(90); // 90% are game patches
-                String platform = fakerProvider.randomElement(PLATFORMS);
-                
-                double oldVersion = currentVersion;
+        double oldVersion = currentVersion;
+        String comment = null;
+        // Notes of the current release: inline text (the builder, written out before it is refilled),
+        // or hash of the text in the store
+        CharSequence inlineNotes = null;
+        UUID notes = null;
+
+        for (int i = 0; i < numPatches; i++) {
+            UUID patchId = fakerProvider.randomUuid();
+            allPatchIds.add(patchId);
+
+            boolean isPatchOfGame = fakerProvider.randomBooleanWithProbability(90); // 90% are game patches
+            String platform = fakerProvider.randomElement(PLATFORMS);
+
+            // Same release on another platform, or a new release
+            // (nothing is drawn when off, so that the default dataset is the one of distinct releases)
+            int multiplatform = config.getPatchMultiplatformPercentage();
+            if (i == 0 || multiplatform == 0 || !fakerProvider.randomBooleanWithProbability(multiplatform)) {
+                oldVersion = currentVersion;
                 // Increment version by 0.1 to 1.0
                 double versionIncrement = fakerProvider.round(fakerProvider.randomDouble(0.1, 1.0), 1);
-                double newVersion = fakerProvider.round(oldVersion + versionIncrement, 1);
-                currentVersion = newVersion;
-
-                String comment = generatePatchComment();
-                String modifications = generatePatchModifications();
-                boolean isPublish = fakerProvider.randomBooleanWithProbability(config.getPublishPercentage());
-
-                patchPublishStatus.put(patchId, isPublish);
-
-                pstmt.setObject(1, patchId);
-                pstmt.setBoolean(2, isPatchOfGame);
-                pstmt.setObject(3, gameId);
-                pstmt.setString(4, platform);
-                pstmt.setDouble(5, oldVersion);
-                pstmt.setDouble(6, newVersion);
-                pstmt.setString(7, comment);
-                pstmt.setString(8, modifications);
-                pstmt.setBoolean(9, isPublish);
-                pstmt.executeUpdate();
+                currentVersion = fakerProvider.round(oldVersion + versionIncrement, 1);
+
+                comment = generatePatchComment();
+                modifications.setLength(0);
+                appendPatchModifications(modifications);
+                fakerProvider.fitTextLength(DatasetProfile.PATCH_MODIFICATIONS_LENGTH, modifications, MODIFICATIONS_MAX_LENGTH);
+                boolean stored = texts.holds(modifications);
+                inlineNotes = stored ? null : modifications;
+                notes = stored ? texts.put(modifications) : null;
             }
+            boolean isPublish = fakerProvider.randomWithRatio(
+                DatasetProfile.PATCH_PUBLISH, config.getPublishPercentage());
+
+            patchPublishStatus.put(patchId, isPublish);
+
+            sink.uuid(patchId).bool(isPatchOfGame).uuid(gameId).enumValue(platform)
+                .float8(oldVersion).float8(currentVersion).text(comment).text(inlineNotes).uuid(notes)
+                .bool(isPublish).endRow();
         }
     }
 
     /**
      * Generate a realistic patch comment
      */
-    private String generatePatchComment() {
+    public String generatePatchComment() {
         int variant = fakerProvider.getRandom().nextInt(10);
         
         return switch (variant) {
@@ -118,46 +142,56 @@ public class PatchGenerator {
             case 7 -> "Updated graphics and UI improvements";
             case 8 -> "Multiplayer fixes and network optimization";
             case 9 -> "Seasonal update with new content";
-            default -> faker.lorem().sentence(10);
+            default -> dictionary.sentence(10);
         };
     }
 
     /**
      * Generate realistic patch modifications list
      */
-    private String generatePatchModifications() {
-        StringBuilder modifications = new StringBuilder();
-        int numModifications = fakerProvider.randomInt(3, 8);
-
-        String[] modificationTypes = {
-            "Fixed crash when %s",
-            "Improved performance in %s",
-            "Added new %s feature",
-            "Balanced %s mechanics",
-            "Fixed audio glitches in %s",
-            "Updated %s textures",
-            "Optimized %s loading times",
-            "Fixed multiplayer issue with %s",
-            "Adjusted %s difficulty",
-            "Enhanced %s visual effects"
-        };
+    public String generatePatchModifications() {
+        StringBuilder sb = new StringBuilder(256);
+        appendPatchModifications(sb);
+        return sb.toString();
+    }
 
-        String[] gameElements = {
-            "main menu", "inventory system", "combat system", "character creation",
-            "boss fights", "cutscenes", "level transitions", "save system",
-            "skill tree", "quest log", "map interface", "settings menu",
-            "multiplayer lobby", "chat system", "achievements", "tutorials"
-        };
+    /**
+     * Append a realistic patch modifications list (one "- ..." line per modification) to a builder
+     */
+    public void appendPatchModifications(StringBuilder sb) {
+        int numModifications = fakerProvider.randomInt(3, 8);
 
         for (int i = 0; i < numModifications; i++) {
-            String modType = fakerProvider.randomElement(modificationTypes);
-            String element = fakerProvider.randomElement(gameElements);
-            modifications.append("- ").append(String.format(modType, element)).append("\n");
+            String[] modType = fakerProvider.randomElement(MODIFICATION_TYPES);
+            String element = fakerProvider.randomElement(GAME_ELEMENTS);
+            if (i > 0) {
+                sb.append('\n');
+            }
+            sb.append("- ").append(modType[0]).append(element).append(modType[1]);
         }
-
-        return modifications.toString().trim();
     }
 
+    // Modification types as {prefix, suffix} around the game element
+    private static final String[][] MODIFICATION_TYPES = {
+        {"Fixed crash when ", ""},
+        {"Improved performance in ", ""},
+        {"Added new ", " feature"},
+        {"Balanced ", " mechanics"},
+        {"Fixed audio glitches in ", ""},
+        {"Updated ", " textures"},
+        {"Optimized ", " loading times"},
+        {"Fixed multiplayer issue with ", ""},
+        {"Adjusted ", " difficulty"},
+        {"Enhanced ", " visual effects"}
+    };
+
+    private static final String[] GAME_ELEMENTS = {
+        "main menu", "inventory system", "combat system", "character creation",
+        "boss fights", "cutscenes", "level transitions", "save system",
+        "skill tree", "quest log", "map interface", "settings menu",
+        "multiplayer lobby", "chat system", "achievements", "tutorials"
+    };
+
     /**
      * Check if a patch is published
      */
@@ -0,0 +1,291 @@
+package generators;
+
+import config.DatabaseConfig;
+import connection.ShardRing;
+import profile.DatasetProfile;
+import sinks.PartitionedRowSinks;
+import sinks.RowSink;
+import sinks.RowSinks;
+import utils.AllocationMeter;
+import utils.DictionaryKey;
+import utils.FakerProvider;
+import utils.TextDictionary;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Generator for Player entities of platform_db.
+ * Creates players with their game library (possession_game), reviews of some owned games
+ * (evaluation) and bug reports (bug_report), so that the player-side reads have data to work on.
+ * Reviews and bug reports are written straight into the partitions of their table: evaluation by
+ * hash of the game, bug_report by month of created_at. Both are dated over bug_report.span.days,
+ * so that the cold archive (java Main archive) has old rows to move.
+ * The rating summary triggers are deferred for the transaction: the summaries are rebuilt once
+ * after the reviews are written, instead of by every COPY flush, then the game pages once.
+ * With a sharded platform_db, each player and everything it owns goes to the shard of its id.
+ */
+public class PlayerGenerator {
+    private final TextDictionary dictionary;
+    private final FakerProvider fakerProvider;
+    private final DatabaseConfig config;
+    private final EvaluationGenerator evaluationGenerator;
+    private final BugReportGenerator bugReportGenerator;
+    private final StringBuilder pseudo = new StringBuilder(64);
+    private final StringBuilder email = new StringBuilder(96);
+    private final StringBuilder description = new StringBuilder(512);
+
+    private static final String[] DEFAULT_PLATFORMS = {"PC"};
+    private static final LocalDate OLDEST_BIRTHDAY = LocalDate.of(1960, 1, 1);
+    private static final int BIRTHDAY_RANGE_DAYS = 50 * 365;
+
+    public PlayerGenerator() {
+        this.fakerProvider = FakerProvider.getInstance();
+        this.dictionary = fakerProvider.getDictionary();
+        this.config = DatabaseConfig.getInstance();
+        this.evaluationGenerator = new EvaluationGenerator();
+        this.bugReportGenerator = new BugReportGenerator();
+    }
+
+    /**
+     * Generate players, their libraries, reviews and bug reports into a single platform_db.
+     * gamePlatforms maps every published game to the platforms it is available on.
+     */
+    public void generatePlayers(Connection connection, Map<UUID, String[]> gamePlatforms) throws SQLException {
+        generatePlayers(List.of(connection), new ShardRing(List.of(connection.getCatalog()), 1), gamePlatforms);
+    }
+
+    /**
+     * Generate players into the shards of platform_db: each player and its rows go to the shard of
+     * its id (see {@link ShardRing}), every shard has its own sinks
+     */
+    public void generatePlayers(List<Connection> shards, ShardRing ring, Map<UUID, String[]> gamePlatforms)
+            throws SQLException {
+        int numPlayers = config.getNumPlayers();
+        if (config.isVerbose()) {
+            System.out.println("Generating " + numPlayers + " players with their libraries" +
+                (shards.size() > 1 ? " into " + shards.size() + " shards" : "") + "...");
+        }
+
+        UUID[] gameIds = gamePlatforms.keySet().toArray(new UUID[0]);
+        int maxLibrary = Math.min(config.getNumGamesPerPlayerMax(), gameIds.length);
+        int minLibrary = Math.min(config.getNumGamesPerPlayerMin(), maxLibrary);
+        int[] library = new int[maxLibrary];
+        long possessions = 0;
+        long reviews = 0;
+        long bugReports = 0;
+        AllocationMeter allocation = AllocationMeter.start();
+
+        // Reviews and bug reports are dated over the span ending now: its bug_report months must exist first
+        LocalDateTime spanEnd = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        long spanSeconds = Math.max(1, config.getBugReportSpanDays() * 86_400L);
+        for (Connection connection : shards) {
+            PartitionedRowSinks.createRangePartitions(connection, "bug_report", spanEnd.minusSeconds(spanSeconds),
+                spanEnd.plusMonths(config.getBugReportPremakeMonths()));
+            setRatingSummaryDeferred(connection, true);
+        }
+
+        List<ShardSinks> shardSinks = new ArrayList<>(shards.size());
+        try {
+            for (Connection connection : shards) {
+                shardSinks.add(ShardSinks.open(connection, gameIds));
+            }
+            for (int i = 0; i < numPlayers; i++) {
+                UUID playerId = fakerProvider.randomUuid();
+                ShardSinks sinks = shardSinks.get(ring.shardOf(playerId));
+                String firstName = dictionary.get(DictionaryKey.FIRST_NAME);
+                String lastName = dictionary.get(DictionaryKey.LAST_NAME);
+
+                // The index keeps pseudos unique
+                pseudo.setLength(0);
+                appendLowerLetters(pseudo, firstName);
+                pseudo.append('_');
+                appendLowerLetters(pseudo, lastName);
+                pseudo.append(i);
+                email.setLength(0);
+                email.append(pseudo).append("@example.com");
+                LocalDate birthday = OLDEST_BIRTHDAY.plusDays(fakerProvider.getRandom().nextInt(BIRTHDAY_RANGE_DAYS));
+
+                sinks.players.uuid(playerId).text(pseudo).text(dictionary.password(8, 20))
+                    .text(firstName).text(lastName).date(birthday).text(email).endRow();
+
+                int size = pickLibrary(library, fakerProvider.randomInt(minLibrary, maxLibrary), gameIds.length);
+                for (int g = 0; g < size; g++) {
+                    UUID gameId = gameIds[library[g]];
+                    String[] platforms = gamePlatforms.get(gameId);
+                    String platform = fakerProvider.randomElement(platforms.length == 0 ? DEFAULT_PLATFORMS : platforms);
+                    double hoursPlayed = fakerProvider.round(fakerProvider.randomDouble(0, 500), 1);
+                    sinks.owned.uuid(playerId).float8(hoursPlayed).uuid(gameId).enumValue(platform).endRow();
+                    possessions++;
+
+                    if (fakerProvider.randomBooleanWithProbability(config.getPlayerReviewPercentage())) {
+                        int note = evaluationGenerator.generateRealisticRating();
+                        LocalDateTime createdAt = spanEnd.minusSeconds(
+                            (long) (fakerProvider.getRandom().nextDouble() * spanSeconds));
+                        description.setLength(0);
+                        evaluationGenerator.appendReviewDescription(description, note);
+                        sinks.evaluations.forHashKey(gameId).uuid(gameId).uuid(playerId).text(description)
+                            .enumValue(platform).int4(note).timestamp(createdAt).endRow();
+                        reviews++;
+                    }
+
+                    if (fakerProvider.randomBooleanWithProbability(config.getPlayerBugReportPercentage())) {
+                        LocalDateTime createdAt = spanEnd.minusSeconds(
+                            (long) (fakerProvider.getRandom().nextDouble() * spanSeconds));
+                        description.setLength(0);
+                        bugReportGenerator.appendBugDescription(description);
+                        fakerProvider.fitTextLength(DatasetProfile.BUG_REPORT_DESCRIPTION_LENGTH, description);
+                        sinks.reports.forTimestamp(createdAt).uuid(fakerProvider.randomUuid()).uuid(gameId).uuid(playerId)
+                            .text(description).enumValue(platform).timestamp(createdAt).endRow();
+                        bugReports++;
+                    }
+                }
+
+                if (config.isVerbose() && (i + 1) % 1000 == 0) {
+                    System.out.println("  - Generated " + (i + 1) + "/" + numPlayers + " players");
+                }
+            }
+        } finally {
+            closeAll(shardSinks);
+        }
+        for (Connection connection : shards) {
+            setRatingSummaryDeferred(connection, false);
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("SELECT game_rating_summary_rebuild('evaluation')");
+                stmt.execute("SELECT game_page_refresh(NULL)");
+            }
+        }
+
+        if (config.isVerbose()) {
+            System.out.println("Successfully generated " + numPlayers + " players, " + possessions +
+                " owned games, " + reviews + " reviews and " + bugReports + " bug reports (" +
+                allocation.perRow(numPlayers + possessions + reviews + bugReports) + ")\n");
+        }
+    }
+
+    /**
+     * Sinks of the player tables of one shard; closing flushes them, children first
+     */
+    private record ShardSinks(RowSink players, RowSink owned, PartitionedRowSinks evaluations,
+                              PartitionedRowSinks reports) implements AutoCloseable {
+        static ShardSinks open(Connection connection, UUID[] gameIds) throws SQLException {
+            RowSink players = RowSinks.open(connection, "player",
+                "id", "pseudo", "password", "first_name", "last_name", "birthday", "email");
+            RowSink owned = null;
+            PartitionedRowSinks evaluations = null;
+            try {
+                owned = RowSinks.open(connection, players, "possession_game", "player_id", "temp", "game_id", "platform");
+                evaluations = PartitionedRowSinks.open(connection, owned, "evaluation",
+                    "id_game", "player_id", "description", "plateforme", "note", "created_at");
+                evaluations.resolveHashKeys(Arrays.asList(gameIds));
+                PartitionedRowSinks reports = PartitionedRowSinks.open(connection, owned, "bug_report",
+                    "id", "id_game", "player_id", "description", "plateforme", "created_at");
+                return new ShardSinks(players, owned, evaluations, reports);
+            } catch (SQLException | RuntimeException e) {
+                closeQuietly(e, evaluations, owned, players);
+                throw e;
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            // Closed in reverse order, as the resources of a try: bug reports, reviews, libraries, players
+            try (players; owned; evaluations; reports) {
+            }
+        }
+    }
+
+    private static void closeAll(List<ShardSinks> shardSinks) throws SQLException {
+        SQLException failure = null;
+        for (ShardSinks sinks : shardSinks) {
+            try {
+                sinks.close();
+            } catch (SQLException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static void closeQuietly(Exception failure, AutoCloseable... sinks) {
+        for (AutoCloseable sink : sinks) {
+            if (sink != null) {
+                try {
+                    sink.close();
+                } catch (Exception e) {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Skip (or resume) the rating summary triggers of evaluation until the end of the transaction,
+     * and the game page triggers of the summaries
+     */
+    private static void setRatingSummaryDeferred(Connection connection, boolean deferred) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("SET LOCAL rating_summary.deferred = " + (deferred ? "on" : "off"));
+            stmt.execute("SET LOCAL game_page.deferred = " + (deferred ? "on" : "off"));
+        }
+    }
+
+    /**
+     * Draw size distinct game indexes into library (size is small, a linear duplicate check is enough)
+     */
+    private int pickLibrary(int[] library, int size, int gameCount) {
+        for (int picked = 0; picked < size; ) {
+            int candidate = fakerProvider.getRandom().nextInt(gameCount);
+            boolean duplicate = false;
+            for (int i = 0; i < picked && !duplicate; i++) {
+                duplicate = library[i] == candidate;
+            }
+            if (!duplicate) {
+                library[picked++] = candidate;
+            }
+        }
+        return size;
+    }
+
+    private static void appendLowerLetters(StringBuilder sb, String name) {
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isLetter(c)) {
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+    }
+
+    /**
+     * Load the platforms of every game of platform_db
+     */
+    public static Map<UUID, String[]> loadGamePlatforms(Connection connection) throws SQLException {
+        Map<UUID, String[]> gamePlatforms = new LinkedHashMap<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(
+                 "SELECT g.id, array(SELECT gp.platform::text FROM game_platforms gp WHERE gp.game_id = g.id " +
+                 "ORDER BY gp.platform) FROM game g ORDER BY g.id")) {
+            while (rs.next()) {
+                gamePlatforms.put((UUID) rs.getObject(1), (String[]) rs.getArray(2).getArray());
+            }
+        }
+        return gamePlatforms;
+    }
+}
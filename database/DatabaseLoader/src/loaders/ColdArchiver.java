@@ -0,0 +1,503 @@
+package loaders;
+
+import config.DatabaseConfig;
+import connection.DatabaseConnection;
+import sinks.PartitionedRowSinks;
+import utils.AvroFileReader;
+import utils.AvroFileWriter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Cold tier of platform_db: reviews and bug reports older than archive.age.days move out of the hot
+ * tables into deflate-compressed Avro files (archive.dir/table/), sorted by game then date, each with
+ * a small index file: row count, game and date ranges, and the first and last game of every block.
+ * Reading the archived rows of a game only decodes the blocks whose game range holds it.
+ *
+ * The records follow evaluation_archive.avsc and bug_report_archive.avsc, next to this class: the
+ * columns of the rows as they are in platform_db, nullable ones as ["null", type] unions, with what
+ * is needed to restore a row (player_id, created_at, id). They are not the Evaluation and BugReport
+ * schemas of schema-lib, which declare those columns non-null. A written file is read back and compared with its rows before they are
+ * removed. A file and its index are synced and renamed into place before the rows
+ * are deleted (evaluation) or their monthly partitions dropped (bug_report) in the same transaction:
+ * a crash in between leaves the rows in both tiers, never in neither.
+ */
+public class ColdArchiver {
+    // Symbols of the ArchivedPlateforme enum of the schemas; platform_enum values map by name
+    private static final String[] PLATFORMES = {"PC", "XBOX", "PS5", "SWITCH", "MOBILE"};
+
+    private static final DateTimeFormatter FILE_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final Pattern RANGE_UPPER = Pattern.compile("TO \\('([^']+)'\\)");
+    private static final String INDEX_EXTENSION = ".index";
+    private static final String NULL_TEXT = "\\N";
+
+    /**
+     * Archived tables: schema file, archived columns (created_at last), sort order and record encoding
+     */
+    enum ArchivedTable {
+        EVALUATION("evaluation", "evaluation_archive.avsc", "id_game, created_at, player_id",
+            "note  plateforme  created_at           player_id                             description",
+            "id_game", "description", "plateforme", "note", "player_id", "created_at") {
+            @Override
+            void encode(ResultSet rs, AvroFileWriter writer) throws SQLException {
+                writer.string(rs.getString(1)).nullableString(rs.getString(2)).enumIndex(platformeIndex(rs.getString(3)))
+                    .nullableInt4(rs.getObject(4, Integer.class)).string(rs.getString(5))
+                    .int8(micros(rs.getObject(6, LocalDateTime.class)));
+            }
+
+            @Override
+            Object[] decode(AvroFileReader reader) throws IOException {
+                return new Object[] {reader.string(), reader.nullableString(), PLATFORMES[reader.enumIndex()],
+                    reader.nullableInt4(), reader.string(), reader.int8()};
+            }
+
+            @Override
+            String format(Object[] values) {
+                return String.format("%4s  %-10s  %-19s  %s  %s", values[3] == null ? "-" : values[3], values[2],
+                    timestamp((Long) values[5]), values[4], values[1] == null ? "" : values[1]);
+            }
+        },
+        BUG_REPORT("bug_report", "bug_report_archive.avsc", "id_game, created_at, id",
+            "plateforme  created_at           player_id                             description",
+            "id_game", "id_patch", "description", "plateforme", "id", "player_id", "created_at") {
+            @Override
+            void encode(ResultSet rs, AvroFileWriter writer) throws SQLException {
+                String platforme = rs.getString(4);
+                writer.string(rs.getString(1)).nullableString(rs.getString(2)).nullableString(rs.getString(3));
+                if (platforme == null) {
+                    writer.unionIndex(0);
+                } else {
+                    writer.unionIndex(1).enumIndex(platformeIndex(platforme));
+                }
+                writer.string(rs.getString(5)).string(rs.getString(6)).int8(micros(rs.getObject(7, LocalDateTime.class)));
+            }
+
+            @Override
+            Object[] decode(AvroFileReader reader) throws IOException {
+                return new Object[] {reader.string(), reader.nullableString(), reader.nullableString(),
+                    reader.unionIndex() == 0 ? null : PLATFORMES[reader.enumIndex()], reader.string(), reader.string(),
+                    reader.int8()};
+            }
+
+            @Override
+            String format(Object[] values) {
+                return String.format("%-10s  %-19s  %s  %s", values[3] == null ? "-" : values[3],
+                    timestamp((Long) values[6]), values[5], values[2] == null ? "" : values[2]);
+            }
+        };
+
+        private final String table;
+        private final String schemaFile;
+        private final String selectSql;
+        private final String checkSql;
+        private final String header;
+
+        ArchivedTable(String table, String schemaFile, String order, String header, String... columns) {
+            this.table = table;
+            this.schemaFile = schemaFile;
+            this.header = header;
+            String from = " FROM " + table + " WHERE created_at < ? ORDER BY " + order;
+            this.selectSql = "SELECT " + String.join(", ", columns) + from;
+            // The same rows as text, built by the server: a file is checked against them, not against
+            // the values the encoder read through JDBC
+            StringJoiner text = new StringJoiner(", ", "SELECT concat_ws('|', ", ")");
+            for (String column : columns) {
+                text.add(column.equals("created_at") ? "(extract(epoch FROM created_at) * 1000000)::bigint"
+                    : "coalesce(" + column + "::text, '" + NULL_TEXT + "')");
+            }
+            this.checkSql = text + from;
+        }
+
+        /**
+         * Writer schema, from the .avsc file next to this class
+         */
+        String schema() throws IOException {
+            try (InputStream in = ColdArchiver.class.getResourceAsStream(schemaFile)) {
+                if (in == null) {
+                    throw new IOException("Schema " + schemaFile + " not found on the classpath (copy src/loaders/*.avsc " +
+                        "next to the compiled classes)");
+                }
+                return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+        }
+
+        /**
+         * Encode the current row of the source query
+         */
+        abstract void encode(ResultSet rs, AvroFileWriter writer) throws SQLException;
+
+        /**
+         * Decode the next record: UUIDs, texts and enums as strings, created_at as micros, game first
+         */
+        abstract Object[] decode(AvroFileReader reader) throws IOException;
+
+        /**
+         * Printable row of decoded values
+         */
+        abstract String format(Object[] values);
+
+        /**
+         * Decoded values in the form of the check query
+         */
+        static String text(Object[] values) {
+            StringJoiner text = new StringJoiner("|");
+            for (Object value : values) {
+                text.add(value == null ? NULL_TEXT : value.toString());
+            }
+            return text.toString();
+        }
+
+        static ArchivedTable of(String table) {
+            for (ArchivedTable archived : values()) {
+                if (archived.table.equals(table)) {
+                    return archived;
+                }
+            }
+            throw new IllegalArgumentException("Not an archived table: " + table + " (evaluation or bug_report)");
+        }
+    }
+
+    /**
+     * Contents of an index file
+     */
+    private record FileIndex(Path file, long rows, String minGame, String maxGame, List<AvroFileWriter.Block> blocks) {
+    }
+
+    private final DatabaseConfig config;
+    private final DatabaseConnection dbConnection;
+
+    public ColdArchiver(DatabaseConnection dbConnection) {
+        this.config = DatabaseConfig.getInstance();
+        this.dbConnection = dbConnection;
+    }
+
+    /**
+     * Move the rows older than ageDays into new archive files.
+     * bug_report is archived by whole months (the partitions before the month of the cutoff are dropped).
+     */
+    public void archive(int ageDays) throws SQLException, IOException {
+        LocalDateTime cutoff = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).minusDays(ageDays);
+        LocalDateTime monthCutoff = cutoff.toLocalDate().withDayOfMonth(1).atStartOfDay();
+        System.out.println("Archiving platform_db rows older than " + ageDays + " days to " +
+            Path.of(config.getArchiveDir()).toAbsolutePath() + "\n");
+        System.out.printf("%-12s %-20s %10s %10s %12s %12s %10s%n", "table", "cutoff", "rows", "file MB",
+            "hot MB before", "hot MB after", "seconds");
+
+        archiveTable(ArchivedTable.EVALUATION, cutoff);
+        archiveTable(ArchivedTable.BUG_REPORT, monthCutoff);
+        System.out.println();
+    }
+
+    private void archiveTable(ArchivedTable archived, LocalDateTime cutoff) throws SQLException, IOException {
+        long start = System.nanoTime();
+        Path dir = Path.of(config.getArchiveDir(), archived.table);
+        Files.createDirectories(dir);
+        String base = archived.table + "-" + LocalDateTime.now().format(FILE_STAMP);
+        Path file = dir.resolve(base + ".avro");
+        Path index = dir.resolve(base + INDEX_EXTENSION);
+        Path fileTmp = dir.resolve(base + ".avro.tmp");
+        Path indexTmp = dir.resolve(base + INDEX_EXTENSION + ".tmp");
+
+        try (Connection connection = dbConnection.openConnection(DatasetLayout.PLATFORM_DB)) {
+            List<String> expired = archived == ArchivedTable.BUG_REPORT ? expiredMonths(connection, cutoff) : List.of();
+            connection.commit();
+            // Rows written and rows removed must be the same set: one snapshot for both, taken by the
+            // first query after the expired months are locked against writers
+            connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            try (Statement stmt = connection.createStatement()) {
+                for (String partition : expired) {
+                    stmt.execute("LOCK TABLE " + partition + " IN SHARE MODE");
+                }
+            }
+            long hotBefore = hotBytes(connection, archived.table);
+
+            AvroFileWriter writer = new AvroFileWriter(fileTmp, archived.schema(), config.getArchiveBlockRows());
+            LocalDateTime minCreated = null;
+            LocalDateTime maxCreated = null;
+            try {
+                try (PreparedStatement stmt = connection.prepareStatement(archived.selectSql)) {
+                    stmt.setFetchSize(config.getArchiveBlockRows());
+                    stmt.setObject(1, cutoff);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            archived.encode(rs, writer);
+                            writer.endRecord(rs.getString(1));
+                            LocalDateTime createdAt = rs.getObject("created_at", LocalDateTime.class);
+                            if (minCreated == null || createdAt.isBefore(minCreated)) {
+                                minCreated = createdAt;
+                            }
+                            if (maxCreated == null || createdAt.isAfter(maxCreated)) {
+                                maxCreated = createdAt;
+                            }
+                        }
+                    }
+                }
+                writer.close();
+                if (writer.getRowCount() > 0) {
+                    checkFile(connection, archived, fileTmp, writer, cutoff);
+                }
+
+                long removed;
+                if (writer.getRowCount() == 0) {
+                    removed = 0;
+                } else if (archived == ArchivedTable.BUG_REPORT) {
+                    // Rows of the partitions about to be dropped: any not archived is lost with them
+                    removed = 0;
+                    for (String partition : expired) {
+                        removed += count(connection, "SELECT count(*) FROM " + partition);
+                    }
+                    try (PreparedStatement stmt = connection.prepareStatement("SELECT bug_report_drop_partitions(?::date)")) {
+                        stmt.setObject(1, cutoff.toLocalDate());
+                        stmt.executeQuery().close();
+                    }
+                } else {
+                    try (PreparedStatement stmt = connection.prepareStatement(
+                             "DELETE FROM " + archived.table + " WHERE created_at < ?")) {
+                        stmt.setObject(1, cutoff);
+                        removed = stmt.executeUpdate();
+                    }
+                }
+                if (removed != writer.getRowCount()) {
+                    throw new SQLException("Archived " + writer.getRowCount() + " rows of " + archived.table +
+                        " but removed " + removed + ", rolled back");
+                }
+
+                if (writer.getRowCount() == 0) {
+                    Files.delete(fileTmp);
+                } else {
+                    writeIndex(indexTmp, archived, writer, minCreated, maxCreated);
+                    Files.move(fileTmp, file, StandardCopyOption.ATOMIC_MOVE);
+                    Files.move(indexTmp, index, StandardCopyOption.ATOMIC_MOVE);
+                }
+                DatabaseConnection.commit(connection);
+            } catch (SQLException | IOException | RuntimeException e) {
+                connection.rollback();
+                writer.close();
+                Files.deleteIfExists(fileTmp);
+                Files.deleteIfExists(indexTmp);
+                throw e;
+            }
+
+            // The deleted evaluations are reclaimed now rather than by the next autovacuum
+            connection.setAutoCommit(true);
+            if (archived == ArchivedTable.EVALUATION && writer.getRowCount() > 0) {
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.execute("VACUUM ANALYZE " + archived.table);
+                }
+            }
+            System.out.printf("%-12s %-20s %10d %10.2f %12.2f %12.2f %10.2f%n", archived.table, cutoff,
+                writer.getRowCount(), writer.getPosition() / (1024.0 * 1024.0), hotBefore / (1024.0 * 1024.0),
+                hotBytes(connection, archived.table) / (1024.0 * 1024.0), (System.nanoTime() - start) / 1e9);
+            if (!expired.isEmpty() && writer.getRowCount() > 0) {
+                System.out.println("  dropped partitions: " + String.join(", ", expired));
+            }
+        }
+    }
+
+    /**
+     * Read the written file back and compare every record with its row, as text built by the server,
+     * before the rows are removed: a value lost by the encoding (a NULL read as 0) fails the archive
+     */
+    private void checkFile(Connection connection, ArchivedTable archived, Path path, AvroFileWriter writer,
+                           LocalDateTime cutoff) throws SQLException, IOException {
+        long row = 0;
+        try (AvroFileReader reader = new AvroFileReader(path);
+             PreparedStatement stmt = connection.prepareStatement(archived.checkSql)) {
+            stmt.setFetchSize(config.getArchiveBlockRows());
+            stmt.setObject(1, cutoff);
+            try (ResultSet rs = stmt.executeQuery()) {
+                for (AvroFileWriter.Block block : writer.getBlocks()) {
+                    reader.readBlock(block.offset());
+                    while (reader.hasNext()) {
+                        String record = ArchivedTable.text(archived.decode(reader));
+                        row++;
+                        if (!rs.next()) {
+                            throw new SQLException("Archive of " + archived.table + " holds more records than rows (" +
+                                row + "), rolled back");
+                        }
+                        if (!record.equals(rs.getString(1))) {
+                            throw new SQLException("Archive of " + archived.table + " does not read back as its rows, " +
+                                "rolled back (record " + row + ": " + record + ", row: " + rs.getString(1) + ")");
+                        }
+                    }
+                }
+                if (rs.next()) {
+                    throw new SQLException("Archive of " + archived.table + " holds fewer records than rows (" + row +
+                        "), rolled back");
+                }
+            }
+        }
+    }
+
+    /**
+     * Monthly partitions of bug_report ending before the cutoff
+     */
+    private static List<String> expiredMonths(Connection connection, LocalDateTime cutoff) throws SQLException {
+        List<String> expired = new ArrayList<>();
+        for (Map.Entry<String, String> partition : PartitionedRowSinks.partitions(connection, "bug_report").entrySet()) {
+            Matcher upper = RANGE_UPPER.matcher(partition.getValue());
+            if (upper.find() && !LocalDateTime.parse(upper.group(1).replace(' ', 'T')).isAfter(cutoff)) {
+                expired.add(partition.getKey());
+            }
+        }
+        return expired;
+    }
+
+    private void writeIndex(Path path, ArchivedTable archived, AvroFileWriter writer, LocalDateTime minCreated,
+                            LocalDateTime maxCreated) throws IOException {
+        List<AvroFileWriter.Block> blocks = writer.getBlocks();
+        StringBuilder index = new StringBuilder()
+            .append("# ").append(archived.table).append(" archive index: rows, game and created_at ranges, ")
+            .append("then per block: offset, rows, first and last game\n")
+            .append("table=").append(archived.table).append('\n')
+            .append("rows=").append(writer.getRowCount()).append('\n')
+            .append("games=").append(blocks.get(0).firstKey()).append(' ')
+            .append(blocks.get(blocks.size() - 1).lastKey()).append('\n')
+            .append("created_at=").append(minCreated).append(" / ").append(maxCreated).append('\n');
+        for (AvroFileWriter.Block block : blocks) {
+            index.append("block ").append(block.offset()).append(' ').append(block.rows()).append(' ')
+                .append(block.firstKey()).append(' ').append(block.lastKey()).append('\n');
+        }
+        Files.writeString(path, index);
+    }
+
+    /**
+     * Print the archived rows of a game: files whose game range excludes it are skipped,
+     * and only the blocks whose game range holds it are read and decoded
+     */
+    public void read(String table, UUID gameId) throws IOException {
+        ArchivedTable archived = ArchivedTable.of(table);
+        String game = gameId.toString();
+        Path dir = Path.of(config.getArchiveDir(), archived.table);
+        List<Path> indexes = new ArrayList<>();
+        if (Files.isDirectory(dir)) {
+            try (Stream<Path> files = Files.list(dir)) {
+                files.filter(p -> p.getFileName().toString().endsWith(INDEX_EXTENSION)).sorted().forEach(indexes::add);
+            }
+        }
+
+        long start = System.nanoTime();
+        int filesRead = 0;
+        long blocks = 0;
+        long blocksRead = 0;
+        long rows = 0;
+        List<String> matches = new ArrayList<>();
+        for (Path indexFile : indexes) {
+            FileIndex index = readIndex(indexFile);
+            blocks += index.blocks().size();
+            if (game.compareTo(index.minGame()) < 0 || game.compareTo(index.maxGame()) > 0) {
+                continue;
+            }
+            filesRead++;
+            try (AvroFileReader reader = new AvroFileReader(index.file())) {
+                for (AvroFileWriter.Block block : index.blocks()) {
+                    if (game.compareTo(block.firstKey()) < 0 || game.compareTo(block.lastKey()) > 0) {
+                        continue;
+                    }
+                    blocksRead++;
+                    reader.readBlock(block.offset());
+                    while (reader.hasNext()) {
+                        rows++;
+                        Object[] values = archived.decode(reader);
+                        if (values[0].equals(game)) {
+                            matches.add(archived.format(values));
+                        }
+                    }
+                }
+            }
+        }
+
+        System.out.println("Archived " + archived.table + " rows of game " + game + ":\n");
+        System.out.println(archived.header);
+        matches.forEach(System.out::println);
+        System.out.printf("%n%d rows, from %d of %d blocks in %d of %d files (%d records decoded) in %.1f ms%n%n",
+            matches.size(), blocksRead, blocks, filesRead, indexes.size(), rows, (System.nanoTime() - start) / 1e6);
+    }
+
+    private static FileIndex readIndex(Path indexFile) throws IOException {
+        String name = indexFile.getFileName().toString();
+        Path file = indexFile.resolveSibling(name.substring(0, name.length() - INDEX_EXTENSION.length()) + ".avro");
+        long rows = 0;
+        String minGame = null;
+        String maxGame = null;
+        List<AvroFileWriter.Block> blocks = new ArrayList<>();
+        for (String line : Files.readAllLines(indexFile)) {
+            String[] parts = line.split(" ");
+            if (line.startsWith("rows=")) {
+                rows = Long.parseLong(line.substring(5));
+            } else if (line.startsWith("games=")) {
+                minGame = parts[0].substring(6);
+                maxGame = parts[1];
+            } else if (line.startsWith("block ")) {
+                blocks.add(new AvroFileWriter.Block(Long.parseLong(parts[1]), Integer.parseInt(parts[2]), parts[3], parts[4]));
+            }
+        }
+        if (minGame == null) {
+            throw new IOException("Archive index without a game range: " + indexFile);
+        }
+        return new FileIndex(file, rows, minGame, maxGame, blocks);
+    }
+
+    private static long count(Connection connection, String sql) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    /**
+     * On-disk size of a table with its partitions and indexes
+     */
+    private static long hotBytes(Connection connection, String table) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                 "SELECT coalesce(sum(pg_total_relation_size(relid)), 0) FROM pg_partition_tree(?::regclass)")) {
+            stmt.setString(1, table);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    private static int platformeIndex(String platform) {
+        for (int i = 0; i < PLATFORMES.length; i++) {
+            if (PLATFORMES[i].equals(platform)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Platform without a PlatformeEnum symbol: " + platform);
+    }
+
+    // local-timestamp-micros: microseconds from 1970-01-01T00:00, no time zone
+    private static long micros(LocalDateTime value) {
+        return value.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + value.getNano() / 1_000;
+    }
+
+    private static LocalDateTime timestamp(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+            (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,79 @@
+package loaders;
+
+import config.DatabaseConfig;
+import connection.DatabaseConnection;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import sinks.PartitionedRowSinks;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Exports the content of editor_db and platform_db into dataset files.
+ * Every table is dumped with COPY TO STDOUT so the files can be replayed as-is
+ * by {@link DatasetReplayLoader}.
+ */
+public class DatasetExporter {
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 20;
+
+    private final DatabaseConfig config;
+    private final DatabaseConnection dbConnection;
+
+    public DatasetExporter(DatabaseConnection dbConnection) {
+        this.config = DatabaseConfig.getInstance();
+        this.dbConnection = dbConnection;
+    }
+
+    /**
+     * Export both databases into the given directory
+     */
+    public void export(Path datasetDir) throws SQLException, IOException {
+        if (config.isVerbose()) {
+            System.out.println("==================================================");
+            System.out.println("Exporting dataset to " + datasetDir.toAbsolutePath() + "...");
+            System.out.println("==================================================\n");
+        }
+
+        long start = System.nanoTime();
+        long totalBytes = exportDatabase(dbConnection.getEditorDbConnection(), DatasetLayout.EDITOR_DB, datasetDir)
+            + exportDatabase(dbConnection.getPlatformDbConnection(), DatasetLayout.PLATFORM_DB, datasetDir);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("Exported %.1f MB in %.2f s%n%n", totalBytes / 1e6, seconds);
+    }
+
+    /**
+     * Export every table of a database, returns the number of bytes written
+     */
+    private long exportDatabase(Connection connection, String database, Path datasetDir)
+            throws SQLException, IOException {
+        Files.createDirectories(datasetDir.resolve(database));
+        CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+
+        long totalBytes = 0;
+        for (String[] wave : DatasetLayout.wavesFor(database)) {
+            for (String table : wave) {
+                Path file = DatasetLayout.tableFile(datasetDir, database, table);
+                long rows;
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), OUTPUT_BUFFER_SIZE)) {
+                    // A partitioned table can only be copied out through a query over its partitions
+                    String source = PartitionedRowSinks.isPartitioned(connection, table) ? "(TABLE " + table + ")" : table;
+                    rows = copyManager.copyOut("COPY " + source + " TO STDOUT", out);
+                }
+                long bytes = Files.size(file);
+                totalBytes += bytes;
+
+                if (config.isVerbose()) {
+                    System.out.println("  - " + database + "." + table + ": " + rows + " rows (" + bytes + " bytes)");
+                }
+            }
+        }
+        return totalBytes;
+    }
+}
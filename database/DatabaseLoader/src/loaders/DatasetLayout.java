@@ -0,0 +1,46 @@
+package loaders;
+
+import java.nio.file.Path;
+
+/**
+ * On-disk layout of an exported dataset.
+ * Each table is stored as one PostgreSQL COPY text file: {@code <dir>/<database>/<table>.copy}.
+ * Tables are grouped in waves following foreign key dependencies: all tables of a wave
+ * can be loaded in parallel once the previous waves are loaded.
+ */
+public final class DatasetLayout {
+    public static final String EDITOR_DB = "editor_db";
+    public static final String PLATFORM_DB = "platform_db";
+    public static final String FILE_EXTENSION = ".copy";
+
+    // editor_db: bug_report and evaluation have no foreign keys; text_blob holds the patch notes
+    public static final String[][] EDITOR_DB_WAVES = {
+        {"editor", "text_blob"},
+        {"game"},
+        {"dlc", "patch", "game_platforms", "game_genres", "bug_report", "evaluation"}
+    };
+
+    public static final String[][] PLATFORM_DB_WAVES = {
+        {"editor", "player", "text_blob"},
+        {"game", "player_follows", "publication_event_editeur"},
+        {"dlc", "patch", "game_platforms", "game_genres"},
+        {"possession_game", "possession_dlc", "evaluation", "bug_report"}
+    };
+
+    private DatasetLayout() {
+    }
+
+    /**
+     * Get the load waves of a database
+     */
+    public static String[][] wavesFor(String database) {
+        return EDITOR_DB.equals(database) ? EDITOR_DB_WAVES : PLATFORM_DB_WAVES;
+    }
+
+    /**
+     * Get the file holding the rows of a table
+     */
+    public static Path tableFile(Path datasetDir, String database, String table) {
+        return datasetDir.resolve(database).resolve(table + FILE_EXTENSION);
+    }
+}
@@ -0,0 +1,257 @@
+package loaders;
+
+import config.DatabaseConfig;
+import connection.DatabaseConnection;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import utils.LoadMetrics;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Replays previously exported dataset files into editor_db and platform_db.
+ * Files are memory-mapped and streamed straight into COPY FROM STDIN, one connection
+ * per file, so rebuilding a benchmark environment is bound by disk bandwidth instead
+ * of generator CPU. Tables of the same wave are loaded in parallel. If a file fails, the tables
+ * of its database are cleared again (clear.tables.before.load), so that no half-loaded dataset is
+ * left behind to fail the next replay on duplicate keys.
+ */
+public class DatasetReplayLoader {
+    // Size of a single mapping window (files larger than this are mapped in several windows)
+    private static final long MAP_WINDOW_SIZE = 64L << 20;
+    private static final int COPY_CHUNK_SIZE = 1 << 20;
+
+    private final DatabaseConfig config;
+    private final DatabaseConnection dbConnection;
+
+    private long totalRows;
+    private long totalBytes;
+
+    public DatasetReplayLoader(DatabaseConnection dbConnection) {
+        this.config = DatabaseConfig.getInstance();
+        this.dbConnection = dbConnection;
+    }
+
+    /**
+     * Replay both databases from the given directory
+     */
+    public void replay(Path datasetDir) throws SQLException, IOException {
+        if (!Files.isDirectory(datasetDir)) {
+            throw new IOException("Dataset directory not found: " + datasetDir.toAbsolutePath());
+        }
+
+        if (config.isVerbose()) {
+            System.out.println("==================================================");
+            System.out.println("Replaying dataset from " + datasetDir.toAbsolutePath()
+                + " (" + config.getReplayThreads() + " threads)...");
+            System.out.println("==================================================\n");
+        }
+
+        long start = System.nanoTime();
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) Executors.newFixedThreadPool(config.getReplayThreads());
+        LoadMetrics.getInstance().gauge("databaseloader_replay_files_queued",
+            "Dataset files waiting for a replay worker", () -> executor.getQueue().size());
+        try {
+            replayDatabase(executor, dbConnection.getEditorDbConnection(), DatasetLayout.EDITOR_DB, datasetDir);
+            replayDatabase(executor, dbConnection.getPlatformDbConnection(), DatasetLayout.PLATFORM_DB, datasetDir);
+        } finally {
+            executor.shutdownNow();
+            LoadMetrics.getInstance().removeGauge("databaseloader_replay_files_queued");
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println("=".repeat(60));
+        System.out.println("REPLAY SUMMARY");
+        System.out.println("=".repeat(60));
+        System.out.printf("Rows:        %d%n", totalRows);
+        System.out.printf("Data:        %.1f MB%n", totalBytes / 1e6);
+        System.out.printf("Wall time:   %.2f s%n", seconds);
+        System.out.printf("Throughput:  %.1f MB/s, %.0f rows/s%n", totalBytes / 1e6 / seconds, totalRows / seconds);
+        System.out.println("=".repeat(60) + "\n");
+    }
+
+    /**
+     * Replay all tables of one database, wave after wave
+     */
+    private void replayDatabase(ExecutorService executor, Connection connection, String database, Path datasetDir)
+            throws SQLException, IOException {
+        String[][] waves = DatasetLayout.wavesFor(database);
+        List<String> presentTables = new ArrayList<>();
+        for (String[] wave : waves) {
+            for (String table : wave) {
+                if (Files.exists(DatasetLayout.tableFile(datasetDir, database, table))) {
+                    presentTables.add(table);
+                }
+            }
+        }
+        if (presentTables.isEmpty()) {
+            System.out.println("No dataset files found for " + database + ", skipping\n");
+            return;
+        }
+
+        if (config.isClearTablesBeforeLoad()) {
+            // Must be committed before the workers start, TRUNCATE holds an exclusive lock
+            try (Statement stmt = connection.createStatement()) {
+                stmt.executeUpdate("TRUNCATE TABLE " + String.join(", ", presentTables) + " CASCADE");
+            }
+            DatabaseConnection.commit(connection);
+        }
+
+        try {
+            for (String[] wave : waves) {
+                replayWave(executor, database, wave, datasetDir);
+            }
+        } catch (SQLException | IOException | RuntimeException e) {
+            discardReplay(connection, database, presentTables, e);
+            throw e;
+        }
+
+        if (config.isVerbose()) {
+            System.out.println("Replayed " + database + "\n");
+        }
+    }
+
+    /**
+     * Replay the tables of one wave in parallel; on a failure, the other files of the wave are
+     * waited for before it is reported, so that no worker is still writing
+     */
+    private void replayWave(ExecutorService executor, String database, String[] wave, Path datasetDir)
+            throws SQLException, IOException {
+        List<Future<FileResult>> futures = new ArrayList<>();
+        for (String table : wave) {
+            Path file = DatasetLayout.tableFile(datasetDir, database, table);
+            if (Files.exists(file)) {
+                futures.add(executor.submit(() -> replayFile(database, table, file)));
+            }
+        }
+
+        Exception failure = null;
+        for (Future<FileResult> future : futures) {
+            FileResult result;
+            try {
+                result = awaitResult(future);
+            } catch (SQLException | IOException | RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+                continue;
+            }
+            totalRows += result.rows;
+            totalBytes += result.bytes;
+
+            if (config.isVerbose()) {
+                double seconds = Math.max(result.nanos, 1) / 1e9;
+                System.out.printf("  - %s.%s: %d rows, %.1f MB in %.2f s (%.1f MB/s, %.0f rows/s)%n",
+                    database, result.table, result.rows, result.bytes / 1e6, seconds,
+                    result.bytes / 1e6 / seconds, result.rows / seconds);
+            }
+        }
+        if (failure instanceof SQLException sqlException) {
+            throw sqlException;
+        }
+        if (failure instanceof IOException ioException) {
+            throw ioException;
+        }
+        if (failure != null) {
+            throw (RuntimeException) failure;
+        }
+    }
+
+    /**
+     * Every file commits on its own connection, so a failed replay leaves the earlier tables loaded.
+     * When the tables were cleared first, they are cleared again so that the database is left empty
+     * and a new replay starts clean; otherwise the rows that were there before cannot be told apart.
+     */
+    private void discardReplay(Connection connection, String database, List<String> tables, Exception failure) {
+        if (!config.isClearTablesBeforeLoad()) {
+            System.err.println("Replay of " + database + " failed: its tables are partially loaded, clear them " +
+                "before replaying again");
+            return;
+        }
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("TRUNCATE TABLE " + String.join(", ", tables) + " CASCADE");
+            DatabaseConnection.commit(connection);
+            System.err.println("Replay of " + database + " failed: its tables were cleared");
+        } catch (SQLException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    /**
+     * Stream one memory-mapped file into COPY FROM STDIN on a dedicated connection
+     */
+    private FileResult replayFile(String database, String table, Path file) throws SQLException, IOException {
+        long start = System.nanoTime();
+        byte[] chunk = new byte[COPY_CHUNK_SIZE];
+
+        try (Connection connection = dbConnection.openConnection(database);
+             FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI()
+                .copyIn("COPY " + table + " FROM STDIN");
+            long rows;
+            long size = channel.size();
+            try {
+                for (long position = 0; position < size; position += MAP_WINDOW_SIZE) {
+                    MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(MAP_WINDOW_SIZE, size - position));
+                    while (window.hasRemaining()) {
+                        int length = Math.min(window.remaining(), chunk.length);
+                        window.get(chunk, 0, length);
+                        copyIn.writeToCopy(chunk, 0, length);
+                    }
+                }
+                rows = copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+            DatabaseConnection.commit(connection);
+            LoadMetrics.TableMetrics metrics = LoadMetrics.getInstance().table(database, table);
+            metrics.rowsGenerated(rows);
+            metrics.written(rows, size, System.nanoTime() - start);
+            return new FileResult(table, rows, size, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Wait for a worker and unwrap its failure
+     */
+    private static FileResult awaitResult(Future<FileResult> future) throws SQLException, IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Replay interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new SQLException("Replay worker failed", cause);
+        }
+    }
+
+    private record FileResult(String table, long rows, long bytes, long nanos) {
+    }
+}
@@ -3,6 +3,10 @@ package loaders;
 import config.DatabaseConfig;
 import connection.DatabaseConnection;
 import generators.*;
+import profile.DatasetProfile;
+import utils.FakerProvider;
+import utils.LoadMetrics;
+import utils.StageMetrics;
 
 import java.sql.Connection;
 import java.sql.SQLException;
@@ -41,6 +45,7 @@ public class EditorDbLoader {
     /**
      * Load all data into editor_db
      */
+    @SuppressWarnings("try") // the stage timers are only closed, never referenced
     public void loadData() throws SQLException {
         if (config.isVerbose()) {
             System.out.println("==================================================");
@@ -49,24 +54,42 @@ public class EditorDbLoader {
         }
 
         try {
+            int numEditors = editorGenerator.countEditors();
+            expectRows(numEditors, numEditors * FakerProvider.getInstance().meanCount(DatasetProfile.GAMES_PER_EDITOR,
+                config.getNumGamesPerEditorMin(), config.getNumGamesPerEditorMax()));
+
             // Step 1: Generate editors
-            List<UUID> editorIds = editorGenerator.generateEditors(connection);
+            List<UUID> editorIds;
+            try (StageMetrics.Timer timer = stage("editor", "editor")) {
+                editorIds = editorGenerator.generateEditors(connection);
+            }
 
             // Step 2: Generate games (with platforms and genres)
-            gameGenerator.generateGames(connection, editorIds);
+            try (StageMetrics.Timer timer = stage("game", "game", "game_platforms", "game_genres")) {
+                gameGenerator.generateGames(connection, editorIds);
+            }
             List<UUID> allGameIds = gameGenerator.getAllGameIds();
+            expectRows(editorIds.size(), allGameIds.size());
 
             // Step 3: Generate DLCs
-            dlcGenerator.generateDLCs(connection, gameGenerator.getEditorGamesMap());
+            try (StageMetrics.Timer timer = stage("dlc", "dlc")) {
+                dlcGenerator.generateDLCs(connection, gameGenerator.getEditorGamesMap());
+            }
 
             // Step 4: Generate patches
-            patchGenerator.generatePatches(connection, allGameIds);
+            try (StageMetrics.Timer timer = stage("patch", "patch", "text_blob")) {
+                patchGenerator.generatePatches(connection, allGameIds);
+            }
 
             // Step 5: Generate bug reports (simulating sync from platform)
-            bugReportGenerator.generateBugReports(connection, allGameIds, patchGenerator.getAllPatchIds());
+            try (StageMetrics.Timer timer = stage("bug_report", "bug_report")) {
+                bugReportGenerator.generateBugReports(connection, allGameIds, patchGenerator.getAllPatchIds());
+            }
 
             // Step 6: Generate evaluations (simulating sync from platform)
-            evaluationGenerator.generateEvaluations(connection, allGameIds);
+            try (StageMetrics.Timer timer = stage("evaluation", "evaluation")) {
+                evaluationGenerator.generateEvaluations(connection, allGameIds);
+            }
 
             if (config.isVerbose()) {
                 System.out.println("==================================================");
@@ -80,6 +103,34 @@ public class EditorDbLoader {
         }
     }
 
+    /**
+     * Declare the rows each step should write, from the configured (or profiled) mean counts,
+     * so that the metrics endpoint can report progress and ETA (refined once the games are known)
+     */
+    private void expectRows(int editors, double games) {
+        FakerProvider fakerProvider = FakerProvider.getInstance();
+        LoadMetrics metrics = LoadMetrics.getInstance();
+        metrics.expect(DatasetLayout.EDITOR_DB, "editor", editors);
+        metrics.expect(DatasetLayout.EDITOR_DB, "game", Math.round(games));
+        metrics.expect(DatasetLayout.EDITOR_DB, "dlc", Math.round(games * fakerProvider.meanCount(
+            DatasetProfile.DLCS_PER_GAME, config.getNumDlcPerGameMin(), config.getNumDlcPerGameMax())));
+        metrics.expect(DatasetLayout.EDITOR_DB, "patch", Math.round(games * fakerProvider.meanCount(
+            DatasetProfile.PATCHES_PER_GAME, config.getNumPatchesPerGameMin(), config.getNumPatchesPerGameMax())));
+        metrics.expect(DatasetLayout.EDITOR_DB, "bug_report", Math.round(games * fakerProvider.meanCount(
+            DatasetProfile.BUG_REPORTS_PER_GAME, config.getNumBugReportsPerGameMin(),
+            config.getNumBugReportsPerGameMax())));
+        metrics.expect(DatasetLayout.EDITOR_DB, "evaluation", Math.round(games * fakerProvider.meanCount(
+            DatasetProfile.EVALUATIONS_PER_GAME, config.getNumEvaluationsPerGameMin(),
+            config.getNumEvaluationsPerGameMax())));
+    }
+
+    /**
+     * Time one generation step (see {@link StageMetrics})
+     */
+    private StageMetrics.Timer stage(String name, String... tables) {
+        return StageMetrics.getInstance().start(DatasetLayout.EDITOR_DB, name, tables);
+    }
+
     /**
      * Get the editor generator (for accessing generated data)
      */
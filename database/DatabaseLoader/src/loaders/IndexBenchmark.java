@@ -0,0 +1,272 @@
+package loaders;
+
+import config.DatabaseConfig;
+import connection.DatabaseConnection;
+import generators.PlayerGenerator;
+import simulation.ReadWorkload;
+import utils.FakerProvider;
+import utils.JsonWriter;
+import utils.LatencyHistogram;
+import utils.LoadMetrics;
+import utils.StageMetrics;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Benchmark of the secondary index set (indexes.file, database/03_indexes.sql).
+ * The seeded dataset is loaded twice, without then with the indexes: load stages and player
+ * generation show the index maintenance cost, then the read workload (reads.*) runs on the vacuumed
+ * and analyzed databases to show the read gain. The indexes are left in place.
+ */
+public class IndexBenchmark {
+    private static final Pattern CREATE_INDEX = Pattern.compile("(?i)CREATE\\s+(?:UNIQUE\\s+)?INDEX\\s+(\\w+)");
+
+    private final DatabaseConfig config;
+    private final DatabaseConnection dbConnection;
+
+    /**
+     * Measurements of one variant (with or without the index set)
+     */
+    private static final class Variant {
+        final String name;
+        final Map<String, Double> loadSeconds = new LinkedHashMap<>();
+        final Map<ReadWorkload.QueryType, LatencyHistogram> reads = new LinkedHashMap<>();
+        double readSeconds;
+        long indexBytes;
+
+        Variant(String name) {
+            this.name = name;
+        }
+    }
+
+    public IndexBenchmark(DatabaseConnection dbConnection) {
+        this.config = DatabaseConfig.getInstance();
+        this.dbConnection = dbConnection;
+    }
+
+    public void run(Path indexFile, Path outputFile) throws SQLException, IOException {
+        Map<String, List<String>> statements = parseIndexFile(indexFile);
+        System.out.println("==================================================");
+        System.out.println("Index benchmark: " + indexFile + ", seed " + config.getRegressionSeed() + ", " +
+            config.getIndexesNumEditors() + " editors, reads " + config.getIndexesReadSeconds() + " s");
+        System.out.println("==================================================\n");
+
+        // Unmeasured load first, so that the first variant does not pay for class loading and JIT
+        System.out.println(">>> Warm-up load");
+        load(new Variant("warm-up"));
+
+        List<Variant> variants = new ArrayList<>();
+        variants.add(measure("without", statements, false));
+        variants.add(measure("with", statements, true));
+
+        printResults(variants);
+        writeJson(outputFile, indexFile, variants);
+        System.out.println("Index benchmark results written to " + outputFile.toAbsolutePath() + "\n");
+    }
+
+    /**
+     * CREATE INDEX statements of the file, per database ("\c database;" switches database)
+     */
+    private Map<String, List<String>> parseIndexFile(Path file) throws IOException {
+        Map<String, List<String>> statements = new LinkedHashMap<>();
+        String database = null;
+        StringBuilder current = new StringBuilder();
+        for (String line : Files.readAllLines(file)) {
+            String trimmed = line.trim();
+            if (trimmed.startsWith("\\c ")) {
+                database = trimmed.substring(3).replace(";", "").trim();
+                continue;
+            }
+            int comment = trimmed.indexOf("--");
+            current.append(comment >= 0 ? trimmed.substring(0, comment) : trimmed).append(' ');
+            if (current.toString().contains(";")) {
+                String statement = current.toString().trim();
+                current.setLength(0);
+                if (database == null) {
+                    throw new IOException("Statement before any \\c line in " + file + ": " + statement);
+                }
+                statements.computeIfAbsent(database, key -> new ArrayList<>()).add(statement);
+            }
+        }
+        return statements;
+    }
+
+    private Variant measure(String name, Map<String, List<String>> statements, boolean withIndexes)
+            throws SQLException, IOException {
+        System.out.println(">>> Variant: " + name + " indexes");
+        Variant variant = new Variant(name);
+        for (Map.Entry<String, List<String>> entry : statements.entrySet()) {
+            Connection connection = connectionFor(entry.getKey());
+            try (Statement stmt = connection.createStatement()) {
+                for (String statement : entry.getValue()) {
+                    Matcher matcher = CREATE_INDEX.matcher(statement);
+                    if (matcher.find()) {
+                        stmt.execute("DROP INDEX IF EXISTS " + matcher.group(1));
+                    }
+                    if (withIndexes) {
+                        stmt.execute(statement);
+                    }
+                }
+            }
+            connection.commit();
+        }
+
+        // Load: the indexes are maintained row by row while the tables fill up
+        load(variant);
+
+        // Steady state for the reads: visibility map set (index-only scans) and fresh statistics
+        Connection platform = dbConnection.getPlatformDbConnection();
+        for (Connection connection : new Connection[] {dbConnection.getEditorDbConnection(), platform}) {
+            connection.setAutoCommit(true);
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("VACUUM ANALYZE");
+            } finally {
+                connection.setAutoCommit(false);
+            }
+        }
+        variant.indexBytes = indexBytes(dbConnection.getEditorDbConnection()) + indexBytes(platform);
+
+        ReadWorkload reads = new ReadWorkload(dbConnection);
+        reads.run(config.getIndexesReadSeconds());
+        for (ReadWorkload.QueryType type : ReadWorkload.QueryType.values()) {
+            variant.reads.put(type, reads.getLatency(type));
+        }
+        variant.readSeconds = config.getIndexesReadSeconds();
+        return variant;
+    }
+
+    /**
+     * Seeded load of both databases and the players, timed per stage into the variant
+     */
+    private void load(Variant variant) throws SQLException {
+        config.setNumEditors(config.getIndexesNumEditors());
+        FakerProvider.getInstance().reseed(config.getRegressionSeed());
+        dbConnection.truncateAllTables();
+        dbConnection.commitAll();
+        StageMetrics.getInstance().reset();
+        LoadMetrics.getInstance().reset();
+
+        long start = System.nanoTime();
+        EditorDbLoader editorDbLoader = new EditorDbLoader(dbConnection);
+        editorDbLoader.loadData();
+        PlatformDbLoader platformDbLoader = new PlatformDbLoader(dbConnection);
+        platformDbLoader.loadData(
+            editorDbLoader.getGameGenerator(),
+            editorDbLoader.getDlcGenerator(),
+            editorDbLoader.getPatchGenerator()
+        );
+        dbConnection.commitAll();
+        variant.loadSeconds.put("load", (System.nanoTime() - start) / 1e9);
+        for (StageMetrics.Stage stage : StageMetrics.getInstance().getStages()) {
+            variant.loadSeconds.put(stage.key(), stage.nanos() / 1e9);
+        }
+
+        Connection platform = dbConnection.getPlatformDbConnection();
+        start = System.nanoTime();
+        new PlayerGenerator().generatePlayers(platform, PlayerGenerator.loadGamePlatforms(platform));
+        platform.commit();
+        variant.loadSeconds.put("platform_db.players", (System.nanoTime() - start) / 1e9);
+    }
+
+    private Connection connectionFor(String database) {
+        return DatasetLayout.EDITOR_DB.equals(database)
+            ? dbConnection.getEditorDbConnection() : dbConnection.getPlatformDbConnection();
+    }
+
+    /**
+     * Size of the secondary indexes of a database (primary keys excluded)
+     */
+    private long indexBytes(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT coalesce(sum(pg_relation_size(i.indexrelid)), 0) " +
+                 "FROM pg_index i JOIN pg_class c ON c.oid = i.indrelid " +
+                 "JOIN pg_namespace n ON n.oid = c.relnamespace " +
+                 "WHERE n.nspname = 'public' AND NOT i.indisprimary AND NOT i.indisunique")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private void printResults(List<Variant> variants) {
+        Variant without = variants.get(0);
+        Variant with = variants.get(1);
+        System.out.println("=".repeat(84));
+        System.out.println("INDEX BENCHMARK");
+        System.out.println("=".repeat(84));
+        System.out.printf("%-36s %14s %14s %9s%n", "metric", "without", "with", "change");
+        for (String key : with.loadSeconds.keySet()) {
+            printLine(key + " (s)", without.loadSeconds.getOrDefault(key, Double.NaN), with.loadSeconds.get(key), "%.3f");
+        }
+        printLine("secondary index size (MB)", without.indexBytes / (1024.0 * 1024.0),
+            with.indexBytes / (1024.0 * 1024.0), "%.2f");
+        for (ReadWorkload.QueryType type : ReadWorkload.QueryType.values()) {
+            LatencyHistogram before = without.reads.get(type);
+            LatencyHistogram after = with.reads.get(type);
+            if (before.getCount() == 0 && after.getCount() == 0) {
+                continue;
+            }
+            printLine("reads." + type.getKey() + " queries/s", before.getCount() / without.readSeconds,
+                after.getCount() / with.readSeconds, "%.1f");
+            printLine("reads." + type.getKey() + " p50 (ms)", before.percentile(50) / 1e6,
+                after.percentile(50) / 1e6, "%.3f");
+            printLine("reads." + type.getKey() + " p99 (ms)", before.percentile(99) / 1e6,
+                after.percentile(99) / 1e6, "%.3f");
+        }
+        System.out.println();
+    }
+
+    private static void printLine(String name, double without, double with, String format) {
+        String change = without == 0 || Double.isNaN(without) ? "-" : String.format("%+.1f%%", (with - without) / without * 100);
+        System.out.printf("%-36s %14s %14s %9s%n", name, String.format(format, without), String.format(format, with), change);
+    }
+
+    private void writeJson(Path outputFile, Path indexFile, List<Variant> variants) throws IOException {
+        JsonWriter json = new JsonWriter().beginObject()
+            .name("generated_at").value(Instant.now().toString())
+            .name("index_file").value(indexFile.toString())
+            .name("seed").value(config.getRegressionSeed())
+            .name("num_editors").value(config.getIndexesNumEditors())
+            .name("load_strategy").value(config.getLoadStrategy().getKey())
+            .name("sync_mode").value(config.getSyncMode().getKey())
+            .name("variants").beginArray();
+        for (Variant variant : variants) {
+            json.beginObject()
+                .name("name").value(variant.name)
+                .name("secondary_index_bytes").value(variant.indexBytes)
+                .name("load_seconds").beginObject();
+            variant.loadSeconds.forEach((key, value) -> json.name(key).value(value));
+            json.endObject().name("reads").beginArray();
+            for (Map.Entry<ReadWorkload.QueryType, LatencyHistogram> entry : variant.reads.entrySet()) {
+                LatencyHistogram latency = entry.getValue();
+                json.beginObject()
+                    .name("query").value(entry.getKey().getKey())
+                    .name("queries_per_second").value(latency.getCount() / variant.readSeconds)
+                    .name("p50_ms").value(latency.percentile(50) / 1e6)
+                    .name("p99_ms").value(latency.percentile(99) / 1e6)
+                    .name("max_ms").value(latency.getMaxNanos() / 1e6)
+                    .endObject();
+            }
+            json.endArray().endObject();
+        }
+        json.endArray().endObject();
+
+        Path parent = outputFile.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.writeString(outputFile, json + "\n");
+    }
+}
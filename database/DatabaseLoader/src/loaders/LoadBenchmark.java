@@ -0,0 +1,325 @@
+package loaders;
+
+import config.DatabaseConfig;
+import connection.DatabaseConnection;
+import generators.BugReportGenerator;
+import generators.DLCGenerator;
+import generators.EditorGenerator;
+import generators.EvaluationGenerator;
+import generators.GameGenerator;
+import generators.PatchGenerator;
+import sinks.LoadStrategy;
+import utils.FakerProvider;
+import utils.JsonWriter;
+import utils.LoadMetrics;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Loads the same seeded dataset with every load strategy, then syncs it to platform_db with
+ * every sync variant, measuring wall time, rows/s and WAL bytes per stage.
+ * Results are printed and written as JSON (benchmark.output).
+ */
+public class LoadBenchmark {
+    private static final long DEFAULT_SEED = 42;
+
+    private final DatabaseConfig config;
+    private boolean checkpointWarned;
+
+    public LoadBenchmark() {
+        this.config = DatabaseConfig.getInstance();
+    }
+
+    /**
+     * Run every load strategy and sync variant and write the results to the given file
+     */
+    public void run(Path outputFile) throws SQLException, IOException {
+        LoadStrategy configuredStrategy = config.getLoadStrategy();
+        SyncMode configuredSyncMode = config.getSyncMode();
+        long seed = config.getRandomSeed() != null ? config.getRandomSeed() : DEFAULT_SEED;
+
+        List<RunResult> loads = new ArrayList<>();
+        List<RunResult> syncs = new ArrayList<>();
+        try {
+            // Unrecorded first load, so that the first strategy does not pay for class loading and JIT
+            runLoad("warm-up", seed);
+            for (LoadStrategy strategy : LoadStrategy.values()) {
+                config.setLoadStrategy(strategy);
+                loads.add(runLoad(strategy.getKey(), seed));
+            }
+
+            // editor_db now holds the seeded dataset; platform_db is rebuilt by each variant
+            config.setSyncMode(SyncMode.ROW);
+            syncs.add(runSync(SyncMode.ROW.getKey()));
+            config.setSyncMode(SyncMode.COPY_STREAM);
+            syncs.add(runSync(SyncMode.COPY_STREAM.getKey()));
+            config.setSyncMode(SyncMode.SINK);
+            for (LoadStrategy strategy : LoadStrategy.values()) {
+                config.setLoadStrategy(strategy);
+                syncs.add(runSync(SyncMode.SINK.getKey() + ":" + strategy.getKey()));
+            }
+        } finally {
+            config.setLoadStrategy(configuredStrategy);
+            config.setSyncMode(configuredSyncMode);
+        }
+
+        printResults("editor_db load", loads);
+        printResults("platform_db sync", syncs);
+        writeJson(outputFile, seed, loads, syncs);
+        System.out.println("Benchmark results written to " + outputFile.toAbsolutePath() + "\n");
+    }
+
+    /**
+     * Generate the seeded dataset into an empty editor_db with the current load strategy
+     */
+    private RunResult runLoad(String name, long seed) throws SQLException {
+        System.out.println(">>> Load benchmark: " + name);
+        DatabaseConnection run = new DatabaseConnection();
+        run.connect();
+        try {
+            truncate(run.getEditorDbConnection(), DatasetLayout.EDITOR_DB);
+            truncate(run.getPlatformDbConnection(), DatasetLayout.PLATFORM_DB);
+            FakerProvider.getInstance().reseed(seed);
+            LoadMetrics.getInstance().reset();
+
+            Connection editor = run.getEditorDbConnection();
+            EditorGenerator editorGenerator = new EditorGenerator();
+            GameGenerator gameGenerator = new GameGenerator();
+            DLCGenerator dlcGenerator = new DLCGenerator();
+            PatchGenerator patchGenerator = new PatchGenerator();
+            BugReportGenerator bugReportGenerator = new BugReportGenerator();
+            EvaluationGenerator evaluationGenerator = new EvaluationGenerator();
+
+            RunResult result = new RunResult(name);
+            long start = System.nanoTime();
+            result.stages.add(measure(editor, "editor", new String[] {"editor"},
+                () -> editorGenerator.generateEditors(editor)));
+            result.stages.add(measure(editor, "game", new String[] {"game", "game_platforms", "game_genres"},
+                () -> gameGenerator.generateGames(editor, editorGenerator.getEditorIds())));
+            result.stages.add(measure(editor, "dlc", new String[] {"dlc"},
+                () -> dlcGenerator.generateDLCs(editor, gameGenerator.getEditorGamesMap())));
+            List<UUID> gameIds = gameGenerator.getAllGameIds();
+            result.stages.add(measure(editor, "patch", new String[] {"patch", "text_blob"},
+                () -> patchGenerator.generatePatches(editor, gameIds)));
+            result.stages.add(measure(editor, "bug_report", new String[] {"bug_report"},
+                () -> bugReportGenerator.generateBugReports(editor, gameIds, patchGenerator.getAllPatchIds())));
+            result.stages.add(measure(editor, "evaluation", new String[] {"evaluation"},
+                () -> evaluationGenerator.generateEvaluations(editor, gameIds)));
+            result.totalNanos = System.nanoTime() - start;
+            return result;
+        } finally {
+            run.closeAll();
+        }
+    }
+
+    /**
+     * Rebuild platform_db from editor_db with the current sync mode and load strategy
+     */
+    private RunResult runSync(String name) throws SQLException {
+        System.out.println(">>> Sync benchmark: " + name);
+        DatabaseConnection run = new DatabaseConnection();
+        run.connect();
+        try {
+            Connection platform = run.getPlatformDbConnection();
+            truncate(platform, DatasetLayout.PLATFORM_DB);
+            PlatformDbLoader loader = new PlatformDbLoader(run);
+
+            RunResult result = new RunResult(name);
+            long start = System.nanoTime();
+            result.stages.add(measure(platform, "editor", new String[] {"editor"}, loader::syncEditors));
+            result.stages.add(measure(platform, "game", new String[] {"game", "game_platforms", "game_genres"},
+                loader::syncPublishedGames));
+            result.stages.add(measure(platform, "dlc", new String[] {"dlc"}, loader::syncPublishedDLCs));
+            result.stages.add(measure(platform, "patch", new String[] {"patch", "text_blob"}, loader::syncPublishedPatches));
+            result.totalNanos = System.nanoTime() - start;
+            run.getEditorDbConnection().commit();
+            return result;
+        } finally {
+            run.closeAll();
+        }
+    }
+
+    /**
+     * Run one stage and commit it, recording wall time, WAL volume and resulting row counts.
+     * The connection is the one written to; WAL is cluster-wide so stages must run alone.
+     */
+    private StageResult measure(Connection connection, String stage, String[] tables, SqlTask task)
+            throws SQLException {
+        checkpoint(connection);
+        String startLsn = queryString(connection, "SELECT pg_current_wal_insert_lsn()::text");
+        long start = System.nanoTime();
+        task.run();
+        connection.commit();
+        long nanos = System.nanoTime() - start;
+
+        StageResult result = new StageResult(stage, nanos);
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT pg_wal_lsn_diff(pg_current_wal_insert_lsn(), ?::pg_lsn)::bigint")) {
+            stmt.setString(1, startLsn);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                result.walBytes = rs.getLong(1);
+            }
+        }
+        for (String table : tables) {
+            result.tableRows.put(table, Long.parseLong(queryString(connection, "SELECT count(*) FROM " + table)));
+        }
+        connection.commit();
+        return result;
+    }
+
+    /**
+     * Start every stage from a checkpoint so that full-page writes are comparable between runs
+     */
+    private void checkpoint(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CHECKPOINT");
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            if (!checkpointWarned) {
+                System.err.println("CHECKPOINT not allowed (" + e.getMessage().trim() +
+                    "), WAL bytes include full-page writes of the previous run");
+                checkpointWarned = true;
+            }
+        }
+    }
+
+    private void truncate(Connection connection, String database) throws SQLException {
+        List<String> tables = new ArrayList<>();
+        for (String[] wave : DatasetLayout.wavesFor(database)) {
+            tables.addAll(List.of(wave));
+        }
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("TRUNCATE TABLE " + String.join(", ", tables) + " CASCADE");
+        }
+        connection.commit();
+    }
+
+    private String queryString(Connection connection, String sql) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getString(1);
+        }
+    }
+
+    private void printResults(String title, List<RunResult> runs) {
+        System.out.println("=".repeat(78));
+        System.out.println("BENCHMARK - " + title);
+        System.out.println("=".repeat(78));
+        System.out.printf("%-22s %-12s %10s %10s %12s %10s%n", "variant", "stage", "rows", "seconds", "rows/s", "WAL MB");
+        for (RunResult run : runs) {
+            for (StageResult stage : run.stages) {
+                System.out.printf("%-22s %-12s %10d %10.3f %12.0f %10.2f%n", run.name, stage.stage, stage.rows(),
+                    stage.nanos / 1e9, stage.rowsPerSecond(), stage.walBytes / (1024.0 * 1024.0));
+            }
+            System.out.printf("%-22s %-12s %10d %10.3f %12.0f %10.2f%n%n", run.name, "total", run.rows(),
+                run.totalNanos / 1e9, run.rows() / (run.totalNanos / 1e9), run.walBytes() / (1024.0 * 1024.0));
+        }
+    }
+
+    private void writeJson(Path outputFile, long seed, List<RunResult> loads, List<RunResult> syncs)
+            throws IOException {
+        JsonWriter json = new JsonWriter().beginObject()
+            .name("generated_at").value(Instant.now().toString())
+            .name("database_url").value(config.getDbUrl())
+            .name("seed").value(seed)
+            .name("num_editors").value(config.getNumEditors())
+            .name("batch_size").value(config.getLoadBatchSize())
+            .name("copy_buffer_kb").value(config.getLoadCopyBufferKb());
+        json.name("load");
+        writeRuns(json, loads);
+        json.name("sync");
+        writeRuns(json, syncs);
+        json.endObject();
+
+        Path parent = outputFile.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.writeString(outputFile, json + "\n");
+    }
+
+    private void writeRuns(JsonWriter json, List<RunResult> runs) {
+        json.beginArray();
+        for (RunResult run : runs) {
+            json.beginObject()
+                .name("variant").value(run.name)
+                .name("rows").value(run.rows())
+                .name("seconds").value(run.totalNanos / 1e9)
+                .name("rows_per_second").value(run.rows() / (run.totalNanos / 1e9))
+                .name("wal_bytes").value(run.walBytes())
+                .name("stages").beginArray();
+            for (StageResult stage : run.stages) {
+                json.beginObject()
+                    .name("stage").value(stage.stage)
+                    .name("rows").value(stage.rows())
+                    .name("seconds").value(stage.nanos / 1e9)
+                    .name("rows_per_second").value(stage.rowsPerSecond())
+                    .name("wal_bytes").value(stage.walBytes)
+                    .name("tables").beginObject();
+                stage.tableRows.forEach((table, rows) -> json.name(table).value(rows));
+                json.endObject().endObject();
+            }
+            json.endArray().endObject();
+        }
+        json.endArray();
+    }
+
+    @FunctionalInterface
+    private interface SqlTask {
+        void run() throws SQLException;
+    }
+
+    private static class RunResult {
+        final String name;
+        final List<StageResult> stages = new ArrayList<>();
+        long totalNanos;
+
+        RunResult(String name) {
+            this.name = name;
+        }
+
+        long rows() {
+            return stages.stream().mapToLong(StageResult::rows).sum();
+        }
+
+        long walBytes() {
+            return stages.stream().mapToLong(stage -> stage.walBytes).sum();
+        }
+    }
+
+    private static class StageResult {
+        final String stage;
+        final long nanos;
+        final Map<String, Long> tableRows = new LinkedHashMap<>();
+        long walBytes;
+
+        StageResult(String stage, long nanos) {
+            this.stage = stage;
+            this.nanos = nanos;
+        }
+
+        long rows() {
+            return tableRows.values().stream().mapToLong(Long::longValue).sum();
+        }
+
+        double rowsPerSecond() {
+            return rows() / (nanos / 1e9);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package loaders;
+
+import config.DatabaseConfig;
+import connection.DatabaseConnection;
+import sinks.PartitionedRowSinks;
+import utils.JsonWriter;
+import utils.LoadMetrics;
+import utils.StageMetrics;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Post-load report built from what was actually loaded: exact row count, on-disk size and index
+ * size of every table (catalog functions), and the throughput of the load stages that wrote it.
+ * Rows/s counts the rows written during this run (LoadMetrics) over the wall time of the stages
+ * writing the table; MB/s is the on-disk size of those rows (their share of pg_total_relation_size)
+ * over the same time. Printed and written as JSON (report.output).
+ */
+public class LoadReport {
+    private static final double MB = 1024.0 * 1024.0;
+
+    private final DatabaseConnection dbConnection;
+    private final DatabaseConfig config;
+    private final List<TableReport> tables = new ArrayList<>();
+    private long wallNanos;
+
+    /**
+     * One table of the report
+     */
+    private record TableReport(String database, String table, long rows, long loadedRows, long totalBytes,
+                               long indexBytes, long stageNanos) {
+        double seconds() {
+            return stageNanos / 1e9;
+        }
+
+        /**
+         * On-disk bytes of the rows loaded by this run
+         */
+        double loadedBytes() {
+            return rows == 0 ? 0 : totalBytes * ((double) Math.min(loadedRows, rows) / rows);
+        }
+
+        double rowsPerSecond() {
+            return stageNanos == 0 ? 0 : loadedRows / seconds();
+        }
+
+        double mbPerSecond() {
+            return stageNanos == 0 ? 0 : loadedBytes() / MB / seconds();
+        }
+    }
+
+    public LoadReport(DatabaseConnection dbConnection) {
+        this.dbConnection = dbConnection;
+        this.config = DatabaseConfig.getInstance();
+    }
+
+    /**
+     * Query the catalog of both databases; wallNanos is the duration of the whole load
+     */
+    public LoadReport collect(long wallNanos) throws SQLException {
+        this.wallNanos = wallNanos;
+        tables.clear();
+        Map<String, Long> stageNanos = new HashMap<>();
+        for (StageMetrics.Stage stage : StageMetrics.getInstance().getStages()) {
+            for (String table : stage.tables()) {
+                stageNanos.merge(stage.database() + "." + table, stage.nanos(), Long::sum);
+            }
+        }
+        collect(DatasetLayout.EDITOR_DB, dbConnection.getEditorDbConnection(), stageNanos);
+        collect(DatasetLayout.PLATFORM_DB, dbConnection.getPlatformDbConnection(), stageNanos);
+        return this;
+    }
+
+    private void collect(String database, Connection connection, Map<String, Long> stageNanos) throws SQLException {
+        LoadMetrics metrics = LoadMetrics.getInstance();
+        for (String[] wave : DatasetLayout.wavesFor(database)) {
+            for (String table : wave) {
+                long rows;
+                long totalBytes;
+                long indexBytes;
+                // Sizes of a partitioned table are the sums over its partitions
+                try (Statement stmt = connection.createStatement();
+                     ResultSet rs = stmt.executeQuery("SELECT (SELECT count(*) FROM " + table + "), " +
+                         "coalesce(sum(pg_total_relation_size(relid)), pg_total_relation_size('" + table + "')), " +
+                         "coalesce(sum(pg_indexes_size(relid)), pg_indexes_size('" + table + "')) " +
+                         "FROM pg_partition_tree('" + table + "')")) {
+                    rs.next();
+                    rows = rs.getLong(1);
+                    totalBytes = rs.getLong(2);
+                    indexBytes = rs.getLong(3);
+                }
+                // Rows synced with sync.mode=row bypass the sinks: fall back to the count when tables were cleared
+                long written = metrics.table(database, table).getWritten();
+                for (String partition : PartitionedRowSinks.partitions(connection, table).keySet()) {
+                    written += metrics.table(database, partition).getWritten();
+                }
+                long loaded = written > 0 ? written : config.isClearTablesBeforeLoad() ? rows : 0;
+                tables.add(new TableReport(database, table, rows, loaded, totalBytes, indexBytes,
+                    stageNanos.getOrDefault(database + "." + table, 0L)));
+            }
+        }
+    }
+
+    /**
+     * Print one line per table and a total per database
+     */
+    public void print() {
+        System.out.println("=".repeat(112));
+        System.out.printf("LOAD REPORT - %.2f s, strategy %s, sync mode %s%n", wallNanos / 1e9,
+            config.getLoadStrategy().getKey(), config.getSyncMode().getKey());
+        System.out.println("=".repeat(112));
+        System.out.printf("%-40s %11s %11s %10s %10s %9s %11s %9s%n",
+            "table", "rows", "loaded", "total MB", "index MB", "stage s", "rows/s", "MB/s");
+        String database = null;
+        for (TableReport table : tables) {
+            if (!table.database().equals(database)) {
+                if (database != null) {
+                    printTotal(database);
+                }
+                database = table.database();
+            }
+            System.out.printf("%-40s %11d %11d %10.2f %10.2f %9s %11s %9s%n",
+                table.database() + "." + table.table(), table.rows(), table.loadedRows(),
+                table.totalBytes() / MB, table.indexBytes() / MB,
+                table.stageNanos() == 0 ? "-" : String.format("%.2f", table.seconds()),
+                table.stageNanos() == 0 ? "-" : String.format("%.0f", table.rowsPerSecond()),
+                table.stageNanos() == 0 ? "-" : String.format("%.2f", table.mbPerSecond()));
+        }
+        if (database != null) {
+            printTotal(database);
+        }
+        long loaded = tables.stream().mapToLong(TableReport::loadedRows).sum();
+        double loadedMb = tables.stream().mapToDouble(TableReport::loadedBytes).sum() / MB;
+        System.out.printf("Overall: %d rows, %.1f MB in %.2f s (%.0f rows/s, %.2f MB/s)%n", loaded, loadedMb,
+            wallNanos / 1e9, loaded / (wallNanos / 1e9), loadedMb / (wallNanos / 1e9));
+        System.out.println("=".repeat(112) + "\n");
+    }
+
+    private void printTotal(String database) {
+        long rows = 0;
+        long loaded = 0;
+        long totalBytes = 0;
+        long indexBytes = 0;
+        for (TableReport table : tables) {
+            if (table.database().equals(database)) {
+                rows += table.rows();
+                loaded += table.loadedRows();
+                totalBytes += table.totalBytes();
+                indexBytes += table.indexBytes();
+            }
+        }
+        System.out.printf("%-40s %11d %11d %10.2f %10.2f%n%n", database + " total", rows, loaded,
+            totalBytes / MB, indexBytes / MB);
+    }
+
+    /**
+     * Write the report as JSON
+     */
+    public void write(Path outputFile) throws IOException {
+        JsonWriter json = new JsonWriter().beginObject()
+            .name("generated_at").value(Instant.now().toString())
+            .name("wall_seconds").value(wallNanos / 1e9)
+            .name("load_strategy").value(config.getLoadStrategy().getKey())
+            .name("sync_mode").value(config.getSyncMode().getKey())
+            .name("tables").beginArray();
+        for (TableReport table : tables) {
+            json.beginObject()
+                .name("database").value(table.database())
+                .name("table").value(table.table())
+                .name("rows").value(table.rows())
+                .name("loaded_rows").value(table.loadedRows())
+                .name("total_bytes").value(table.totalBytes())
+                .name("index_bytes").value(table.indexBytes())
+                .name("stage_seconds").value(table.seconds())
+                .name("rows_per_second").value(table.rowsPerSecond())
+                .name("mb_per_second").value(table.mbPerSecond())
+                .endObject();
+        }
+        json.endArray().endObject();
+
+        Path parent = outputFile.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.writeString(outputFile, json + "\n");
+    }
+}
@@ -0,0 +1,67 @@
+package loaders;
+
+import config.DatabaseConfig;
+import connection.DatabaseConnection;
+import sinks.PartitionedRowSinks;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+/**
+ * Partition maintenance of platform_db: creates the monthly bug_report partitions ahead of time
+ * (bug_report.premake.months) and drops the ones past retention (bug_report.retention.months),
+ * through bug_report_maintain_partitions (02_platform.sql). Meant to run daily, then prints the
+ * partitions of bug_report and evaluation with their row count and size. Every shard of platform_db
+ * is maintained.
+ */
+public class PartitionMaintenance {
+    private final DatabaseConfig config;
+    private final DatabaseConnection dbConnection;
+
+    public PartitionMaintenance(DatabaseConnection dbConnection) {
+        this.config = DatabaseConfig.getInstance();
+        this.dbConnection = dbConnection;
+    }
+
+    public void run() throws SQLException {
+        for (Connection connection : dbConnection.getShardConnections()) {
+            maintain(connection);
+        }
+    }
+
+    private void maintain(Connection connection) throws SQLException {
+        String shard = dbConnection.getShardConnections().size() > 1 ? connection.getCatalog() + " " : "";
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT * FROM bug_report_maintain_partitions(?, ?)")) {
+            stmt.setInt(1, config.getBugReportPremakeMonths());
+            stmt.setInt(2, config.getBugReportRetentionMonths());
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                System.out.println(shard + "bug_report partitions: " + rs.getInt(1) + " created (" +
+                    config.getBugReportPremakeMonths() + " months ahead), " + rs.getInt(2) + " dropped (retention " +
+                    config.getBugReportRetentionMonths() + " months)\n");
+            }
+        }
+        connection.commit();
+
+        printPartitions(connection, "bug_report");
+        printPartitions(connection, "evaluation");
+    }
+
+    private void printPartitions(Connection connection, String table) throws SQLException {
+        System.out.printf("%-24s %-72s %10s %10s%n", table, "bound", "rows", "MB");
+        for (Map.Entry<String, String> partition : PartitionedRowSinks.partitions(connection, table).entrySet()) {
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT (SELECT count(*) FROM " + partition.getKey() + "), " +
+                     "pg_total_relation_size('" + partition.getKey() + "')")) {
+                rs.next();
+                System.out.printf("%-24s %-72s %10d %10.2f%n", partition.getKey(), partition.getValue(),
+                    rs.getLong(1), rs.getLong(2) / (1024.0 * 1024.0));
+            }
+        }
+        System.out.println();
+    }
+}
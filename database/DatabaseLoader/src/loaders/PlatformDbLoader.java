@@ -5,69 +5,338 @@ import connection.DatabaseConnection;
 import generators.DLCGenerator;
 import generators.GameGenerator;
 import generators.PatchGenerator;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyOut;
+import profile.DatasetProfile;
+import sinks.RowSink;
+import sinks.RowSinks;
+import utils.FakerProvider;
+import utils.LoadMetrics;
+import utils.StageMetrics;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.List;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.UUID;
 
 /**
  * Loader for platform_db database.
  * Syncs published data from editor_db to platform_db (simulating Kafka sync).
+ * The transfer method follows sync.mode (see {@link SyncMode}).
+ * The game page triggers are deferred for the transaction: the documents are built once after the
+ * sync, instead of once per game for every synced table (and per row in row mode).
+ * The catalog is replicated: with several shards (platform.shards), each one is synced in turn, in
+ * its own transaction, and its stages are reported under its database name.
  */
 public class PlatformDbLoader {
+    // Bitmasks of the platforms / genres of game g, one bit per enum value in enum order (see 02_platform.sql)
+    static final String PLATFORM_MASK_SQL =
+        "(SELECT coalesce(bit_or(1 << (array_position(enum_range(NULL::platform_enum), gp.platform) - 1)), 0) " +
+        "FROM game_platforms gp WHERE gp.game_id = g.id)::smallint";
+    static final String GENRE_MASK_SQL =
+        "(SELECT coalesce(bit_or(1 << (array_position(enum_range(NULL::genre_enum), gg.genre) - 1)), 0) " +
+        "FROM game_genres gg WHERE gg.game_id = g.id)::smallint";
+
+    // Published rows of each synced table, as read from editor_db
+    static final TableSync EDITORS = new TableSync("editor",
+        "SELECT id, name, password, type, description FROM editor",
+        new String[] {"id", "name", "password", "type", "description"},
+        new ColumnKind[] {ColumnKind.UUID, ColumnKind.TEXT, ColumnKind.TEXT, ColumnKind.ENUM, ColumnKind.TEXT});
+    static final TableSync GAMES = new TableSync("game",
+        "SELECT g.id, g.editor_id, g.name, g.price, g.num_version, " + PLATFORM_MASK_SQL + ", " + GENRE_MASK_SQL +
+        " FROM game g WHERE g.is_publish = true",
+        new String[] {"id", "editor_id", "name", "price", "num_version", "platform_mask", "genre_mask"},
+        new ColumnKind[] {ColumnKind.UUID, ColumnKind.UUID, ColumnKind.TEXT, ColumnKind.FLOAT8, ColumnKind.FLOAT8,
+                          ColumnKind.INT2, ColumnKind.INT2});
+    static final TableSync GAME_PLATFORMS = new TableSync("game_platforms",
+        "SELECT gp.game_id, gp.platform FROM game_platforms gp " +
+        "INNER JOIN game g ON gp.game_id = g.id WHERE g.is_publish = true",
+        new String[] {"game_id", "platform"},
+        new ColumnKind[] {ColumnKind.UUID, ColumnKind.ENUM});
+    static final TableSync GAME_GENRES = new TableSync("game_genres",
+        "SELECT gg.game_id, gg.genre FROM game_genres gg " +
+        "INNER JOIN game g ON gg.game_id = g.id WHERE g.is_publish = true",
+        new String[] {"game_id", "genre"},
+        new ColumnKind[] {ColumnKind.UUID, ColumnKind.ENUM});
+    static final TableSync DLCS = new TableSync("dlc",
+        "SELECT d.id, d.game_id, d.editor_id, d.name, d.price, d.num_version " +
+        "FROM dlc d INNER JOIN game g ON d.game_id = g.id WHERE d.is_publish = true AND g.is_publish = true",
+        new String[] {"id", "game_id", "editor_id", "name", "price", "num_version"},
+        new ColumnKind[] {ColumnKind.UUID, ColumnKind.UUID, ColumnKind.UUID, ColumnKind.TEXT,
+                          ColumnKind.FLOAT8, ColumnKind.FLOAT8});
+    // Stored notes of the published patches, each distinct text once (synced before the patches)
+    static final TableSync TEXT_BLOBS = new TableSync("text_blob",
+        "SELECT b.hash, b.body FROM text_blob b WHERE EXISTS (SELECT 1 FROM patch p " +
+        "INNER JOIN game g ON p.game_id = g.id " +
+        "WHERE p.modifications_hash = b.hash AND p.is_publish = true AND g.is_publish = true)",
+        new String[] {"hash", "body"},
+        new ColumnKind[] {ColumnKind.UUID, ColumnKind.TEXT});
+    static final TableSync PATCHES = new TableSync("patch",
+        "SELECT p.id, p.is_patch_of_game, p.game_id, p.platform, p.old_version, p.new_version, " +
+        "p.modifications, p.modifications_hash " +
+        "FROM patch p INNER JOIN game g ON p.game_id = g.id WHERE p.is_publish = true AND g.is_publish = true",
+        new String[] {"id", "is_patch_of_game", "game_id", "platform", "old_version", "new_version",
+                      "description", "description_hash"},
+        new ColumnKind[] {ColumnKind.UUID, ColumnKind.BOOL, ColumnKind.UUID, ColumnKind.ENUM,
+                          ColumnKind.FLOAT8, ColumnKind.FLOAT8, ColumnKind.TEXT, ColumnKind.UUID});
+
     private final DatabaseConfig config;
+    private final DatabaseConnection dbConnection;
     private final Connection editorConnection;
-    private final Connection platformConnection;
+    // Shard being synced (the first one outside loadData)
+    private Connection platformConnection;
+    private String database;
 
     public PlatformDbLoader(DatabaseConnection dbConnection) {
         this.config = DatabaseConfig.getInstance();
+        this.dbConnection = dbConnection;
         this.editorConnection = dbConnection.getEditorDbConnection();
         this.platformConnection = dbConnection.getPlatformDbConnection();
+        this.database = dbConnection.getShardRing().getShardName(0);
     }
 
     /**
-     * Load published data from editor_db into platform_db
+     * Load published data from editor_db into platform_db, every shard in turn
      */
     public void loadData(GameGenerator gameGenerator, DLCGenerator dlcGenerator, 
                         PatchGenerator patchGenerator) throws SQLException {
+        for (int shard = 0; shard < dbConnection.getShardConnections().size(); shard++) {
+            platformConnection = dbConnection.getShardConnections().get(shard);
+            database = dbConnection.getShardRing().getShardName(shard);
+            syncShard();
+        }
+    }
+
+    @SuppressWarnings("try") // the stage timers are only closed, never referenced
+    private void syncShard() throws SQLException {
         if (config.isVerbose()) {
             System.out.println("==================================================");
-            System.out.println("Syncing published data to platform_db...");
+            System.out.println("Syncing published data to " + database + "...");
             System.out.println("==================================================\n");
         }
 
         try {
+            expectRows();
+            setGamePagesDeferred(true);
+
             // Step 1: Sync editors (copy all editors)
-            syncEditors();
+            try (StageMetrics.Timer timer = stage("editor", "editor")) {
+                syncEditors();
+            }
 
             // Step 2: Sync published games only
-            syncPublishedGames(gameGenerator);
+            try (StageMetrics.Timer timer = stage("game", "game", "game_platforms", "game_genres")) {
+                syncPublishedGames();
+            }
 
             // Step 3: Sync published DLCs only
-            syncPublishedDLCs(dlcGenerator);
+            try (StageMetrics.Timer timer = stage("dlc", "dlc")) {
+                syncPublishedDLCs();
+            }
 
             // Step 4: Sync published patches only (without is_publish field)
-            syncPublishedPatches(patchGenerator);
+            try (StageMetrics.Timer timer = stage("patch", "patch", "text_blob")) {
+                syncPublishedPatches();
+            }
+
+            // Step 5: Build the game page documents of the synced games
+            try (StageMetrics.Timer timer = stage("game_page", "game_page")) {
+                refreshGamePages();
+            }
 
             if (config.isVerbose()) {
                 System.out.println("==================================================");
-                System.out.println("platform_db synced successfully!");
+                System.out.println(database + " synced successfully!");
                 System.out.println("==================================================\n");
             }
 
         } catch (SQLException e) {
-            System.err.println("Error syncing data to platform_db: " + e.getMessage());
+            System.err.println("Error syncing data to " + database + ": " + e.getMessage());
             throw e;
         }
     }
 
+    /**
+     * Time one sync step (see {@link StageMetrics})
+     */
+    private StageMetrics.Timer stage(String name, String... tables) {
+        return StageMetrics.getInstance().start(database, name, tables);
+    }
+
+    /**
+     * Declare the rows each step should write: what editor_db received, times the publish ratios
+     */
+    private void expectRows() {
+        FakerProvider fakerProvider = FakerProvider.getInstance();
+        LoadMetrics metrics = LoadMetrics.getInstance();
+        double games = fakerProvider.meanRatio(DatasetProfile.GAME_PUBLISH, config.getPublishPercentage());
+        double dlcs = fakerProvider.meanRatio(DatasetProfile.DLC_PUBLISH, config.getPublishPercentage());
+        double patches = fakerProvider.meanRatio(DatasetProfile.PATCH_PUBLISH, config.getPublishPercentage());
+        metrics.expect(database, "editor", written(metrics, "editor"));
+        metrics.expect(database, "game", Math.round(written(metrics, "game") * games));
+        metrics.expect(database, "dlc", Math.round(written(metrics, "dlc") * dlcs * games));
+        metrics.expect(database, "patch", Math.round(written(metrics, "patch") * patches * games));
+    }
+
+    private static long written(LoadMetrics metrics, String table) {
+        return metrics.table(DatasetLayout.EDITOR_DB, table).getWritten();
+    }
+
     /**
      * Sync all editors from editor_db to platform_db
      */
-    private void syncEditors() throws SQLException {
+    void syncEditors() throws SQLException {
+        if (config.getSyncMode() == SyncMode.ROW) {
+            syncEditorsByRow();
+        } else {
+            syncTable(EDITORS, "editors");
+        }
+    }
+
+    /**
+     * Sync only published games, with their platforms and genres
+     */
+    void syncPublishedGames() throws SQLException {
+        if (config.getSyncMode() == SyncMode.ROW) {
+            syncPublishedGamesByRow();
+        } else {
+            syncTable(GAMES, "published games");
+            syncTable(GAME_PLATFORMS, "game platforms");
+            syncTable(GAME_GENRES, "game genres");
+        }
+    }
+
+    /**
+     * Sync only published DLCs whose parent game is also published
+     */
+    void syncPublishedDLCs() throws SQLException {
+        if (config.getSyncMode() == SyncMode.ROW) {
+            syncPublishedDLCsByRow();
+        } else {
+            syncTable(DLCS, "published DLCs");
+        }
+    }
+
+    /**
+     * Sync only published patches whose parent game is also published, with their notes
+     */
+    void syncPublishedPatches() throws SQLException {
+        if (config.getSyncMode() == SyncMode.ROW) {
+            syncPublishedPatchesByRow();
+        } else {
+            syncTable(TEXT_BLOBS, "patch notes");
+            syncTable(PATCHES, "published patches");
+        }
+    }
+
+    /**
+     * Build the game page documents of all games (game_page, 02_platform.sql); the triggers take
+     * over from here for the rest of the transaction
+     */
+    void refreshGamePages() throws SQLException {
+        if (config.isVerbose()) {
+            System.out.println("Building game pages in " + database + "...");
+        }
+
+        setGamePagesDeferred(false);
+        long count;
+        try (Statement stmt = platformConnection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT game_page_refresh(NULL)")) {
+            rs.next();
+            count = rs.getLong(1);
+        }
+
+        if (config.isVerbose()) {
+            System.out.println("Built " + count + " game pages\n");
+        }
+    }
+
+    /**
+     * Skip (or resume) the game page triggers until the end of the transaction
+     */
+    private void setGamePagesDeferred(boolean deferred) throws SQLException {
+        try (Statement stmt = platformConnection.createStatement()) {
+            stmt.execute("SET LOCAL game_page.deferred = " + (deferred ? "on" : "off"));
+        }
+    }
+
+    /**
+     * Copy the rows of one table with a single query, in SINK or COPY_STREAM mode
+     */
+    private void syncTable(TableSync sync, String label) throws SQLException {
+        if (config.isVerbose()) {
+            System.out.println("Syncing " + label + " to platform_db...");
+        }
+
+        long count = config.getSyncMode() == SyncMode.COPY_STREAM ? copyStream(sync) : copyThroughSink(sync);
+
+        if (config.isVerbose()) {
+            System.out.println("Synced " + count + " " + label + "\n");
+        }
+    }
+
+    /**
+     * Stream the query result row by row into a sink using the configured load strategy
+     */
+    private long copyThroughSink(TableSync sync) throws SQLException {
+        try (PreparedStatement selectStmt = editorConnection.prepareStatement(sync.selectSql())) {
+            // Cursor-based fetch: editor_db connections are not in autocommit mode
+            selectStmt.setFetchSize(1000);
+            try (ResultSet rs = selectStmt.executeQuery();
+                 RowSink sink = RowSinks.open(platformConnection, sync.table(), sync.columns())) {
+                while (rs.next()) {
+                    for (int i = 0; i < sync.kinds().length; i++) {
+                        sync.kinds()[i].write(rs, i + 1, sink);
+                    }
+                    sink.endRow();
+                }
+                sink.flush();
+                return sink.getRowCount();
+            }
+        }
+    }
+
+    /**
+     * Pipe COPY TO STDOUT on editor_db into COPY FROM STDIN on platform_db, rows stay in text format
+     */
+    private long copyStream(TableSync sync) throws SQLException {
+        CopyOut copyOut = editorConnection.unwrap(PGConnection.class).getCopyAPI()
+            .copyOut("COPY (" + sync.selectSql() + ") TO STDOUT");
+        CopyIn copyIn = null;
+        try {
+            copyIn = platformConnection.unwrap(PGConnection.class).getCopyAPI()
+                .copyIn("COPY " + sync.table() + " (" + String.join(", ", sync.columns()) + ") FROM STDIN");
+            long start = System.nanoTime();
+            long bytes = 0;
+            byte[] row;
+            while ((row = copyOut.readFromCopy()) != null) {
+                copyIn.writeToCopy(row, 0, row.length);
+                bytes += row.length;
+            }
+            long rows = copyIn.endCopy();
+            LoadMetrics.TableMetrics metrics = LoadMetrics.getInstance().table(database, sync.table());
+            metrics.rowsGenerated(rows);
+            metrics.written(rows, bytes, System.nanoTime() - start);
+            return rows;
+        } finally {
+            if (copyOut.isActive()) {
+                copyOut.cancelCopy();
+            }
+            if (copyIn != null && copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    /**
+     * Sync all editors, one INSERT per row
+     */
+    private void syncEditorsByRow() throws SQLException {
         if (config.isVerbose()) {
             System.out.println("Syncing editors to platform_db...");
         }
@@ -97,16 +366,19 @@ public class PlatformDbLoader {
     }
 
     /**
-     * Sync only published games from editor_db to platform_db
+     * Sync only published games, one INSERT per row and one query per game for platforms and genres
      */
-    private void syncPublishedGames(GameGenerator gameGenerator) throws SQLException {
+    private void syncPublishedGamesByRow() throws SQLException {
         if (config.isVerbose()) {
             System.out.println("Syncing published games to platform_db...");
         }
 
-        // Sync games
-        String selectGameSql = "SELECT id, editor_id, name, price, num_version FROM game WHERE is_publish = true";
-        String insertGameSql = "INSERT INTO game (id, editor_id, name, price, num_version) VALUES (?, ?, ?, ?, ?)";
+        // Sync games, with the masks of their platforms and genres
+        String selectGameSql = "SELECT g.id, g.editor_id, g.name, g.price, g.num_version, " +
+                              PLATFORM_MASK_SQL + " AS platform_mask, " + GENRE_MASK_SQL + " AS genre_mask " +
+                              "FROM game g WHERE g.is_publish = true";
+        String insertGameSql = "INSERT INTO game (id, editor_id, name, price, num_version, platform_mask, genre_mask) " +
+                              "VALUES (?, ?, ?, ?, ?, ?, ?)";
 
         int gameCount = 0;
         try (PreparedStatement selectStmt = editorConnection.prepareStatement(selectGameSql);
@@ -121,6 +393,8 @@ public class PlatformDbLoader {
                 insertStmt.setString(3, rs.getString("name"));
                 insertStmt.setDouble(4, rs.getDouble("price"));
                 insertStmt.setDouble(5, rs.getDouble("num_version"));
+                insertStmt.setShort(6, rs.getShort("platform_mask"));
+                insertStmt.setShort(7, rs.getShort("genre_mask"));
                 insertStmt.executeUpdate();
                 gameCount++;
 
@@ -178,10 +452,10 @@ public class PlatformDbLoader {
     }
 
     /**
-     * Sync only published DLCs from editor_db to platform_db
+     * Sync only published DLCs from editor_db to platform_db, one INSERT per row
      * Only syncs DLCs whose parent game is also published
      */
-    private void syncPublishedDLCs(DLCGenerator dlcGenerator) throws SQLException {
+    private void syncPublishedDLCsByRow() throws SQLException {
         if (config.isVerbose()) {
             System.out.println("Syncing published DLCs to platform_db...");
         }
@@ -216,30 +490,43 @@ public class PlatformDbLoader {
     }
 
     /**
-     * Sync only published patches from editor_db to platform_db
+     * Sync only published patches from editor_db to platform_db, one INSERT per row
      * Only syncs patches whose parent game is also published
      * Note: platform_db doesn't have is_publish field
+     * Short notes are copied inline; stored ones go to text_blob first, once even when shared by several patches
      */
-    private void syncPublishedPatches(PatchGenerator patchGenerator) throws SQLException {
+    private void syncPublishedPatchesByRow() throws SQLException {
         if (config.isVerbose()) {
             System.out.println("Syncing published patches to platform_db...");
         }
 
         // Join with game table to ensure parent game is published
         // Note: platform_db has 'description' instead of 'modifications', and no 'is_publish' or 'comment'
-        String selectSql = "SELECT p.id, p.is_patch_of_game, p.game_id, p.platform, p.old_version, p.new_version, p.modifications " +
+        String selectSql = "SELECT p.id, p.is_patch_of_game, p.game_id, p.platform, p.old_version, p.new_version, " +
+                          "p.modifications, p.modifications_hash, b.body " +
                           "FROM patch p " +
                           "INNER JOIN game g ON p.game_id = g.id " +
+                          "LEFT JOIN text_blob b ON b.hash = p.modifications_hash " +
                           "WHERE p.is_publish = true AND g.is_publish = true";
-        String insertSql = "INSERT INTO patch (id, is_patch_of_game, game_id, platform, old_version, new_version, description) " +
-                          "VALUES (?, ?, ?, ?::platform_enum, ?, ?, ?)";
+        String insertBlobSql = "INSERT INTO text_blob (hash, body) VALUES (?, ?) ON CONFLICT (hash) DO NOTHING";
+        String insertSql = "INSERT INTO patch (id, is_patch_of_game, game_id, platform, old_version, new_version, " +
+                          "description, description_hash) VALUES (?, ?, ?, ?::platform_enum, ?, ?, ?, ?)";
 
         int count = 0;
+        Set<UUID> syncedNotes = new HashSet<>();
         try (PreparedStatement selectStmt = editorConnection.prepareStatement(selectSql);
+             PreparedStatement insertBlobStmt = platformConnection.prepareStatement(insertBlobSql);
              PreparedStatement insertStmt = platformConnection.prepareStatement(insertSql);
              ResultSet rs = selectStmt.executeQuery()) {
 
             while (rs.next()) {
+                UUID notes = (UUID) rs.getObject("modifications_hash");
+                if (notes != null && syncedNotes.add(notes)) {
+                    insertBlobStmt.setObject(1, notes);
+                    insertBlobStmt.setString(2, rs.getString("body"));
+                    insertBlobStmt.executeUpdate();
+                }
+
                 insertStmt.setObject(1, rs.getObject("id"));
                 insertStmt.setBoolean(2, rs.getBoolean("is_patch_of_game"));
                 insertStmt.setObject(3, rs.getObject("game_id"));
@@ -247,6 +534,7 @@ public class PlatformDbLoader {
                 insertStmt.setDouble(5, rs.getDouble("old_version"));
                 insertStmt.setDouble(6, rs.getDouble("new_version"));
                 insertStmt.setString(7, rs.getString("modifications")); // Map to description
+                insertStmt.setObject(8, notes);
                 insertStmt.executeUpdate();
                 count++;
             }
@@ -256,4 +544,42 @@ public class PlatformDbLoader {
             System.out.println("Synced " + count + " published patches\n");
         }
     }
+
+    /**
+     * How a selected column is read from editor_db and written to a sink
+     */
+    enum ColumnKind {
+        UUID, TEXT, ENUM, FLOAT8, INT2, BOOL;
+
+        void write(ResultSet rs, int index, RowSink sink) throws SQLException {
+            switch (this) {
+                case UUID -> sink.uuid((java.util.UUID) rs.getObject(index));
+                case TEXT -> sink.text(rs.getString(index));
+                case ENUM -> sink.enumValue(rs.getString(index));
+                case FLOAT8 -> {
+                    double value = rs.getDouble(index);
+                    if (rs.wasNull()) {
+                        sink.nullValue();
+                    } else {
+                        sink.float8(value);
+                    }
+                }
+                case INT2 -> sink.int2(rs.getShort(index));
+                case BOOL -> {
+                    boolean value = rs.getBoolean(index);
+                    if (rs.wasNull()) {
+                        sink.nullValue();
+                    } else {
+                        sink.bool(value);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Source query and destination columns of one synced table
+     */
+    record TableSync(String table, String selectSql, String[] columns, ColumnKind[] kinds) {
+    }
 }
@@ -0,0 +1,431 @@
+package loaders;
+
+import config.DatabaseConfig;
+import connection.DatabaseConnection;
+import generators.PlayerGenerator;
+import utils.FakerProvider;
+import utils.JsonWriter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Query plan regression harness for the canonical platform_db queries.
+ * Loads a seeded dataset (editors, published games, players with libraries and reviews), analyzes it,
+ * and runs every canonical query under EXPLAIN (ANALYZE, BUFFERS, FORMAT JSON). The plan shape (node
+ * types, indexes and relations) and the shared buffers touched are compared against a baseline
+ * properties file: a different shape, or buffers growing past plans.buffer.tolerance.percent, fail the run.
+ * Bind values are the heaviest entity of each query (most reviewed game, largest library...), so that a
+ * lost index shows up as a buffer blow-up even when the planner keeps the same shape.
+ */
+public class QueryPlanTracker {
+    // Buffer growth below this many blocks never fails, whatever the percentage
+    private static final long BUFFER_SLACK = 16;
+    // EXPLAIN ANALYZE runs per query; the last one (warm cache) is kept
+    private static final int RUNS = 3;
+
+    private static final String[] SETTINGS = {"seed", "num.editors", "num.players"};
+
+    /**
+     * The canonical queries; params is a query returning the bind values (as text) of the query
+     */
+    private enum CanonicalQuery {
+        CATALOG_BY_GENRE_PLATFORM("catalog_by_genre_platform",
+            "SELECT g.id, g.name, g.price FROM game g " +
+            "WHERE g.genre_mask & genre_bits(?::genre_enum) <> 0 AND g.platform_mask & platform_bits(?::platform_enum) <> 0 " +
+            "ORDER BY g.name, g.id LIMIT 20",
+            "SELECT 'ACTION', 'PC'"),
+        REVIEWS_BY_GAME("reviews_by_game",
+            "SELECT p.pseudo, ev.note, ev.plateforme, ev.description FROM evaluation ev " +
+            "JOIN player p ON p.id = ev.player_id WHERE ev.id_game = ?::uuid ORDER BY ev.note DESC LIMIT 20",
+            "SELECT id_game::text FROM evaluation GROUP BY id_game ORDER BY count(*) DESC, id_game LIMIT 1"),
+        RATING_BY_GAME("rating_by_game",
+            "SELECT platform, ratings, average, histogram FROM game_rating_summary WHERE id_game = ?::uuid",
+            "SELECT id_game::text FROM evaluation GROUP BY id_game ORDER BY count(*) DESC, id_game LIMIT 1"),
+        GAME_PAGE_BY_ID("game_page_by_id",
+            "SELECT document FROM game_page WHERE id_game = ?::uuid",
+            "SELECT id_game::text FROM game_page ORDER BY pg_column_size(document) DESC, id_game LIMIT 1"),
+        LIBRARY_BY_PLAYER("library_by_player",
+            "SELECT g.id, g.name, pg.platform, pg.temp FROM possession_game pg " +
+            "JOIN game g ON g.id = pg.game_id WHERE pg.player_id = ?::uuid ORDER BY g.name",
+            "SELECT player_id::text FROM possession_game GROUP BY player_id ORDER BY count(*) DESC, player_id LIMIT 1"),
+        PATCHES_BY_GAME("patches_by_game",
+            "SELECT id, platform, old_version, new_version, comment FROM patch " +
+            "WHERE game_id = ?::uuid ORDER BY new_version DESC",
+            "SELECT game_id::text FROM patch GROUP BY game_id ORDER BY count(*) DESC, game_id LIMIT 1");
+
+        private final String key;
+        private final String sql;
+        private final String params;
+
+        CanonicalQuery(String key, String sql, String params) {
+            this.key = key;
+            this.sql = sql;
+            this.params = params;
+        }
+    }
+
+    private enum Status { NEW, OK, PLAN_CHANGED, BUFFERS, MISMATCH }
+
+    /**
+     * Plan of one query and its comparison with the baseline
+     */
+    private static final class PlanResult {
+        final CanonicalQuery query;
+        final String shape;
+        final long buffers;
+        final long rows;
+        final double executionMs;
+        final String explain;
+        String baselineShape;
+        long baselineBuffers = -1;
+        Status status = Status.NEW;
+
+        PlanResult(CanonicalQuery query, String shape, long buffers, long rows, double executionMs, String explain) {
+            this.query = query;
+            this.shape = shape;
+            this.buffers = buffers;
+            this.rows = rows;
+            this.executionMs = executionMs;
+            this.explain = explain;
+        }
+    }
+
+    private final DatabaseConfig config;
+    private final DatabaseConnection dbConnection;
+
+    public QueryPlanTracker(DatabaseConnection dbConnection) {
+        this.config = DatabaseConfig.getInstance();
+        this.dbConnection = dbConnection;
+    }
+
+    /**
+     * Load the seeded dataset, explain the canonical queries, compare them with the baseline and
+     * write the results (plans.output). When the baseline does not exist or update is set, the run
+     * becomes the new baseline.
+     *
+     * @return false if a plan changed, buffers blew up or the run cannot be compared with the baseline
+     */
+    public boolean run(Path baselineFile, boolean update) throws SQLException, IOException {
+        Properties baseline = Files.exists(baselineFile) ? loadBaseline(baselineFile) : null;
+        long seed = baseline != null ? Long.parseLong(baseline.getProperty("seed")) : config.getPlansSeed();
+        int numEditors = baseline != null
+            ? Integer.parseInt(baseline.getProperty("num.editors")) : config.getPlansNumEditors();
+        int numPlayers = baseline != null
+            ? Integer.parseInt(baseline.getProperty("num.players")) : config.getPlansNumPlayers();
+
+        Map<String, String> settings = new LinkedHashMap<>();
+        settings.put("seed", String.valueOf(seed));
+        settings.put("num.editors", String.valueOf(numEditors));
+        settings.put("num.players", String.valueOf(numPlayers));
+
+        loadDataset(seed, numEditors, numPlayers);
+        List<PlanResult> results = new ArrayList<>();
+        for (CanonicalQuery query : CanonicalQuery.values()) {
+            results.add(explain(dbConnection.getPlatformDbConnection(), query));
+        }
+        dbConnection.getPlatformDbConnection().commit();
+
+        boolean passed = true;
+        List<String> mismatches = new ArrayList<>();
+        if (baseline != null) {
+            for (String setting : SETTINGS) {
+                String expected = baseline.getProperty(setting, "");
+                if (!expected.equals(settings.get(setting))) {
+                    mismatches.add(setting + ": baseline " + expected + ", run " + settings.get(setting));
+                }
+            }
+            for (PlanResult result : results) {
+                compare(result, baseline);
+                passed &= result.status == Status.OK || result.status == Status.NEW;
+            }
+            passed &= mismatches.isEmpty();
+        }
+
+        printResults(baselineFile, results, mismatches);
+        Path output = Path.of(config.getPlansOutput());
+        writeResults(output, baselineFile, settings, results, passed);
+        System.out.println("Plans written to " + output.toAbsolutePath());
+
+        if (baseline == null || update) {
+            writeBaseline(baselineFile, settings, results);
+            System.out.println("Baseline written to " + baselineFile.toAbsolutePath() + " (commit it)\n");
+            return true;
+        }
+        System.out.println(passed ? "No query plan regression\n" : "QUERY PLAN REGRESSION DETECTED\n");
+        return passed;
+    }
+
+    /**
+     * Truncate both databases, load the seeded dataset with its players, and refresh the statistics
+     */
+    private void loadDataset(long seed, int numEditors, int numPlayers) throws SQLException {
+        config.setNumEditors(numEditors);
+        config.setNumPlayers(numPlayers);
+        FakerProvider.getInstance().reseed(seed);
+        dbConnection.truncateAllTables();
+        dbConnection.commitAll();
+
+        EditorDbLoader editorDbLoader = new EditorDbLoader(dbConnection);
+        editorDbLoader.loadData();
+        PlatformDbLoader platformDbLoader = new PlatformDbLoader(dbConnection);
+        platformDbLoader.loadData(
+            editorDbLoader.getGameGenerator(),
+            editorDbLoader.getDlcGenerator(),
+            editorDbLoader.getPatchGenerator()
+        );
+        Connection platform = dbConnection.getPlatformDbConnection();
+        new PlayerGenerator().generatePlayers(platform, PlayerGenerator.loadGamePlatforms(platform));
+        dbConnection.commitAll();
+
+        try (Statement stmt = platform.createStatement()) {
+            stmt.execute("ANALYZE");
+        }
+        platform.commit();
+    }
+
+    private PlanResult explain(Connection connection, CanonicalQuery query) throws SQLException {
+        List<String> params = new ArrayList<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(query.params)) {
+            if (rs.next()) {
+                for (int i = 1; i <= rs.getMetaData().getColumnCount(); i++) {
+                    params.add(rs.getString(i));
+                }
+            }
+        }
+        if (params.isEmpty()) {
+            throw new SQLException("No data to bind " + query.key + ", the seeded dataset is empty");
+        }
+
+        String explain = null;
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "EXPLAIN (ANALYZE, BUFFERS, FORMAT JSON) " + query.sql)) {
+            for (int i = 0; i < params.size(); i++) {
+                stmt.setString(i + 1, params.get(i));
+            }
+            for (int run = 0; run < RUNS; run++) {
+                try (ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    explain = rs.getString(1);
+                }
+            }
+        }
+
+        long buffers;
+        long rows;
+        double executionMs;
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT (p->'Plan'->>'Shared Hit Blocks')::bigint + (p->'Plan'->>'Shared Read Blocks')::bigint, " +
+                "(p->'Plan'->>'Actual Rows')::bigint, (p->>'Execution Time')::float8 " +
+                "FROM (SELECT (?::jsonb)->0 AS p) explain")) {
+            stmt.setString(1, explain);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                buffers = rs.getLong(1);
+                rows = rs.getLong(2);
+                executionMs = rs.getDouble(3);
+            }
+        }
+        return new PlanResult(query, planShape(connection, explain), buffers, rows, executionMs, explain);
+    }
+
+    /**
+     * Shape of a JSON plan: node types with their index and relation, children in brackets.
+     * The plan tree is flattened in pre-order by the server (recursive CTE over the plan JSON).
+     * Partitions and their indexes are named after their partitioned table and index: which hash
+     * partition holds the bound game depends on the data, not on the plan.
+     */
+    private String planShape(Connection connection, String explain) throws SQLException {
+        List<Integer> depths = new ArrayList<>();
+        List<String> labels = new ArrayList<>();
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "WITH RECURSIVE node(plan, path) AS (" +
+                "  SELECT (?::jsonb)->0->'Plan', ARRAY[1]" +
+                "  UNION ALL" +
+                "  SELECT child.plan, node.path || child.n::int" +
+                "  FROM node, jsonb_array_elements(node.plan->'Plans') WITH ORDINALITY AS child(plan, n)" +
+                ") SELECT cardinality(path), plan->>'Node Type', " +
+                "coalesce(pg_partition_root(to_regclass(plan->>'Index Name'))::text, plan->>'Index Name'), " +
+                "coalesce(pg_partition_root(to_regclass(plan->>'Relation Name'))::text, plan->>'Relation Name') " +
+                "FROM node ORDER BY path")) {
+            stmt.setString(1, explain);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    String label = rs.getString(2);
+                    if (rs.getString(3) != null) {
+                        label += " using " + rs.getString(3);
+                    }
+                    if (rs.getString(4) != null) {
+                        label += " on " + rs.getString(4);
+                    }
+                    depths.add(rs.getInt(1));
+                    labels.add(label);
+                }
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        appendNode(sb, depths, labels, 0);
+        return sb.toString();
+    }
+
+    /**
+     * Append the node at index and its subtree
+     */
+    private static void appendNode(StringBuilder sb, List<Integer> depths, List<String> labels, int index) {
+        sb.append(labels.get(index));
+        int depth = depths.get(index);
+        int next = index + 1;
+        List<Integer> children = new ArrayList<>();
+        while (next < depths.size() && depths.get(next) > depth) {
+            children.add(next);
+            next = skipSubtree(depths, next);
+        }
+        if (children.size() == 1) {
+            sb.append(" > ");
+            appendNode(sb, depths, labels, children.get(0));
+        } else if (!children.isEmpty()) {
+            sb.append(" [");
+            for (int i = 0; i < children.size(); i++) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                appendNode(sb, depths, labels, children.get(i));
+            }
+            sb.append(']');
+        }
+    }
+
+    private static int skipSubtree(List<Integer> depths, int index) {
+        int depth = depths.get(index);
+        int next = index + 1;
+        while (next < depths.size() && depths.get(next) > depth) {
+            next++;
+        }
+        return next;
+    }
+
+    private void compare(PlanResult result, Properties baseline) {
+        String key = result.query.key;
+        result.baselineShape = baseline.getProperty(key + ".plan");
+        if (result.baselineShape == null) {
+            return;
+        }
+        result.baselineBuffers = Long.parseLong(baseline.getProperty(key + ".buffers", "-1"));
+        long baselineRows = Long.parseLong(baseline.getProperty(key + ".rows", "-1"));
+        long allowed = Math.max((long) (result.baselineBuffers * config.getPlansBufferTolerancePercent() / 100), BUFFER_SLACK);
+        if (baselineRows != result.rows) {
+            result.status = Status.MISMATCH;
+        } else if (!result.baselineShape.equals(result.shape)) {
+            result.status = Status.PLAN_CHANGED;
+        } else if (result.buffers - result.baselineBuffers > allowed) {
+            result.status = Status.BUFFERS;
+        } else {
+            result.status = Status.OK;
+        }
+    }
+
+    private Properties loadBaseline(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        }
+        return properties;
+    }
+
+    /**
+     * Write the baseline as sorted "key=value" lines so that updates diff cleanly
+     */
+    private void writeBaseline(Path file, Map<String, String> settings, List<PlanResult> results)
+            throws IOException, SQLException {
+        Map<String, String> values = new TreeMap<>(settings);
+        for (PlanResult result : results) {
+            values.put(result.query.key + ".plan", result.shape);
+            values.put(result.query.key + ".buffers", String.valueOf(result.buffers));
+            values.put(result.query.key + ".rows", String.valueOf(result.rows));
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("# Canonical query plans of platform_db, recorded by \"java Main plans --update\"\n");
+        sb.append("# ").append(Instant.now()).append(", PostgreSQL ")
+            .append(dbConnection.getPlatformDbConnection().getMetaData().getDatabaseProductVersion().split(" ")[0])
+            .append('\n');
+        values.forEach((key, value) -> sb.append(key).append('=').append(value).append('\n'));
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.writeString(file, sb);
+    }
+
+    private void printResults(Path baselineFile, List<PlanResult> results, List<String> mismatches) {
+        System.out.println("=".repeat(96));
+        System.out.println("QUERY PLAN CHECK - baseline " + baselineFile + ", buffer tolerance " +
+            config.getPlansBufferTolerancePercent() + "%");
+        System.out.println("=".repeat(96));
+        for (String mismatch : mismatches) {
+            System.out.println("Settings differ from the baseline - " + mismatch);
+        }
+        System.out.printf("%-28s %10s %10s %8s %10s  %s%n", "query", "buffers", "baseline", "rows", "exec ms", "status");
+        for (PlanResult result : results) {
+            System.out.printf("%-28s %10d %10s %8d %10.3f  %s%n", result.query.key, result.buffers,
+                result.baselineBuffers < 0 ? "-" : String.valueOf(result.baselineBuffers), result.rows,
+                result.executionMs, result.status.name().toLowerCase());
+            System.out.println("    plan:     " + result.shape);
+            if (result.status == Status.PLAN_CHANGED) {
+                System.out.println("    baseline: " + result.baselineShape);
+            }
+        }
+        if (results.stream().anyMatch(result -> result.status == Status.MISMATCH)) {
+            System.out.println("Row counts differ from the baseline: the seeded dataset changed, " +
+                "record a new baseline with --update");
+        }
+        System.out.println();
+    }
+
+    /**
+     * Write results.json and the raw EXPLAIN output of every query (<key>.json) into the output directory
+     */
+    private void writeResults(Path directory, Path baselineFile, Map<String, String> settings,
+                              List<PlanResult> results, boolean passed) throws IOException {
+        Files.createDirectories(directory);
+        JsonWriter json = new JsonWriter().beginObject()
+            .name("generated_at").value(Instant.now().toString())
+            .name("baseline").value(baselineFile.toString())
+            .name("buffer_tolerance_percent").value(config.getPlansBufferTolerancePercent())
+            .name("passed").value(passed)
+            .name("settings").beginObject();
+        settings.forEach((key, value) -> json.name(key).value(value));
+        json.endObject().name("queries").beginArray();
+        for (PlanResult result : results) {
+            json.beginObject()
+                .name("query").value(result.query.key)
+                .name("sql").value(result.query.sql)
+                .name("plan").value(result.shape)
+                .name("baseline_plan").value(result.baselineShape == null ? "" : result.baselineShape)
+                .name("buffers").value(result.buffers)
+                .name("baseline_buffers").value(result.baselineBuffers)
+                .name("rows").value(result.rows)
+                .name("execution_ms").value(result.executionMs)
+                .name("status").value(result.status.name().toLowerCase())
+                .endObject();
+            Files.writeString(directory.resolve(result.query.key + ".json"), result.explain + "\n");
+        }
+        json.endArray().endObject();
+        Files.writeString(directory.resolve("results.json"), json + "\n");
+    }
+}
@@ -0,0 +1,112 @@
+package loaders;
+
+import config.DatabaseConfig;
+import connection.DatabaseConnection;
+import sinks.PartitionedRowSinks;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Backfill of platform_db.game_rating_summary from the existing evaluations (02_platform.sql).
+ * The triggers keep the summary up to date from then on; the backfill is for data loaded before
+ * them, or to repair the summary. Each evaluation partition is rebuilt by game_rating_summary_rebuild
+ * on its own connection (ratings.backfill.threads at a time): a game lives in one partition, so the
+ * workers never touch the same summary rows, and a partition only blocks its own writers meanwhile.
+ * The partitions of every shard of platform_db are rebuilt.
+ */
+public class RatingSummaryBackfill {
+    private final DatabaseConfig config;
+    private final DatabaseConnection dbConnection;
+
+    public RatingSummaryBackfill(DatabaseConnection dbConnection) {
+        this.config = DatabaseConfig.getInstance();
+        this.dbConnection = dbConnection;
+    }
+
+    public void run() throws SQLException {
+        // Every partition of every shard: the summaries of a shard cover the reviews it holds
+        List<String[]> sources = new ArrayList<>();
+        for (int shard = 0; shard < dbConnection.getShardConnections().size(); shard++) {
+            String database = dbConnection.getShardRing().getShardName(shard);
+            Connection connection = dbConnection.getShardConnections().get(shard);
+            List<String> partitions = new ArrayList<>(PartitionedRowSinks.partitions(connection, "evaluation").keySet());
+            if (partitions.isEmpty()) {
+                partitions.add("evaluation");
+            }
+            for (String partition : partitions) {
+                sources.add(new String[] {database, partition});
+            }
+        }
+        int threads = Math.min(config.getRatingsBackfillThreads(), sources.size());
+        System.out.println("Rebuilding game_rating_summary from " + sources.size() + " evaluation partitions, " +
+            threads + " at a time\n");
+
+        boolean sharded = dbConnection.getShardConnections().size() > 1;
+        long start = System.nanoTime();
+        long total = 0;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Rebuilt>> futures = new ArrayList<>();
+            for (String[] source : sources) {
+                futures.add(executor.submit(() -> rebuild(source[0], source[1])));
+            }
+            System.out.printf("%-36s %12s %10s%n", "partition", "summaries", "seconds");
+            for (Future<Rebuilt> future : futures) {
+                Rebuilt rebuilt = awaitResult(future);
+                total += rebuilt.rows();
+                String name = sharded ? rebuilt.database() + "." + rebuilt.source() : rebuilt.source();
+                System.out.printf("%-36s %12d %10.2f%n", name, rebuilt.rows(), rebuilt.nanos() / 1e9);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        System.out.printf("%nRebuilt %d summary rows in %.2f s%n%n", total, (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Rebuild the summaries of one partition in its own transaction
+     */
+    private Rebuilt rebuild(String database, String source) throws SQLException {
+        long start = System.nanoTime();
+        try (Connection connection = dbConnection.openConnection(database);
+             PreparedStatement stmt = connection.prepareStatement("SELECT game_rating_summary_rebuild(?::regclass)")) {
+            stmt.setString(1, source);
+            long rows;
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                rows = rs.getLong(1);
+            }
+            DatabaseConnection.commit(connection);
+            return new Rebuilt(database, source, rows, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Wait for a worker and unwrap its failure
+     */
+    private static Rebuilt awaitResult(Future<Rebuilt> future) throws SQLException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Rating summary backfill interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            throw new SQLException("Rating summary backfill worker failed", e.getCause());
+        }
+    }
+
+    private record Rebuilt(String database, String source, long rows, long nanos) {
+    }
+}
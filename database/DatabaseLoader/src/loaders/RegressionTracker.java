@@ -0,0 +1,325 @@
+package loaders;
+
+import config.DatabaseConfig;
+import connection.DatabaseConnection;
+import utils.FakerProvider;
+import utils.JsonWriter;
+import utils.LoadMetrics;
+import utils.ProcessMetrics;
+import utils.StageMetrics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * End-to-end performance regression tracker. Runs the full load (editor_db generation then
+ * platform_db sync, as "java Main load" does) at a fixed seed and scale, and compares wall time,
+ * rows/s per stage, peak RSS and GC time against a baseline properties file.
+ * A metric fails when it is worse than the baseline by more than regression.tolerance.percent
+ * (and by more than a small absolute slack, so that tiny values do not flap).
+ * Must run in a fresh JVM: peak RSS and GC time are process-wide.
+ */
+public class RegressionTracker {
+    private static final double WALL_SLACK_SECONDS = 0.25;
+    private static final double GC_SLACK_SECONDS = 0.05;
+    private static final double RSS_SLACK_MB = 16;
+
+    // Settings that must match the baseline for the comparison to make sense
+    private static final String[] SETTINGS = {"seed", "num.editors", "load.strategy", "sync.mode", "fast.start", "profile.file"};
+
+    private final DatabaseConfig config;
+    private final DatabaseConnection dbConnection;
+
+    public RegressionTracker(DatabaseConnection dbConnection) {
+        this.config = DatabaseConfig.getInstance();
+        this.dbConnection = dbConnection;
+    }
+
+    /**
+     * Run the load, compare it with the baseline and write the results (regression.output).
+     * When the baseline does not exist or update is set, the run becomes the new baseline.
+     *
+     * @return false if a metric regressed or the run cannot be compared with the baseline
+     */
+    public boolean run(Path baselineFile, boolean update) throws SQLException, IOException {
+        Properties baseline = Files.exists(baselineFile) ? loadBaseline(baselineFile) : null;
+        long seed = baseline != null ? Long.parseLong(baseline.getProperty("seed")) : config.getRegressionSeed();
+        int numEditors = baseline != null
+            ? Integer.parseInt(baseline.getProperty("num.editors")) : config.getRegressionNumEditors();
+
+        Map<String, String> settings = new LinkedHashMap<>();
+        settings.put("seed", String.valueOf(seed));
+        settings.put("num.editors", String.valueOf(numEditors));
+        settings.put("load.strategy", config.getLoadStrategy().getKey());
+        settings.put("sync.mode", config.getSyncMode().getKey());
+        settings.put("fast.start", String.valueOf(config.isFastStart()));
+        settings.put("profile.file", config.getProfileFile());
+
+        List<Metric> metrics = measureLoad(seed, numEditors);
+
+        boolean passed = true;
+        List<String> mismatches = new ArrayList<>();
+        if (baseline != null) {
+            for (String setting : SETTINGS) {
+                String expected = baseline.getProperty(setting, "");
+                if (!expected.equals(settings.get(setting))) {
+                    mismatches.add(setting + ": baseline " + expected + ", run " + settings.get(setting));
+                }
+            }
+            if (mismatches.isEmpty()) {
+                for (Metric metric : metrics) {
+                    metric.compare(baseline);
+                    passed &= metric.status != Status.REGRESSED && metric.status != Status.MISMATCH;
+                }
+            } else {
+                passed = false;
+            }
+        }
+
+        printResults(baselineFile, metrics, mismatches);
+        Path output = Path.of(config.getRegressionOutput());
+        writeJson(output, baselineFile, settings, metrics, passed);
+        System.out.println("Regression results written to " + output.toAbsolutePath());
+
+        if (baseline == null || update) {
+            writeBaseline(baselineFile, settings, metrics);
+            System.out.println("Baseline written to " + baselineFile.toAbsolutePath() + " (commit it)\n");
+            return true;
+        }
+        System.out.println(passed ? "No performance regression\n" : "PERFORMANCE REGRESSION DETECTED\n");
+        return passed;
+    }
+
+    /**
+     * Run the seeded load on empty databases and collect its metrics
+     */
+    private List<Metric> measureLoad(long seed, int numEditors) throws SQLException {
+        config.setNumEditors(numEditors);
+        FakerProvider.getInstance().reseed(seed);
+        dbConnection.truncateAllTables();
+        dbConnection.commitAll();
+        StageMetrics.getInstance().reset();
+        LoadMetrics.getInstance().reset();
+
+        long gcMillisBefore = ProcessMetrics.gcTimeMillis();
+        long gcCountBefore = ProcessMetrics.gcCount();
+        long start = System.nanoTime();
+
+        EditorDbLoader editorDbLoader = new EditorDbLoader(dbConnection);
+        editorDbLoader.loadData();
+        PlatformDbLoader platformDbLoader = new PlatformDbLoader(dbConnection);
+        platformDbLoader.loadData(
+            editorDbLoader.getGameGenerator(),
+            editorDbLoader.getDlcGenerator(),
+            editorDbLoader.getPatchGenerator()
+        );
+        dbConnection.commitAll();
+
+        long wallNanos = System.nanoTime() - start;
+        long gcMillis = ProcessMetrics.gcTimeMillis() - gcMillisBefore;
+        long gcCount = ProcessMetrics.gcCount() - gcCountBefore;
+        long peakRss = ProcessMetrics.peakRssBytes();
+
+        List<Metric> metrics = new ArrayList<>();
+        metrics.add(new Metric("wall.seconds", "s", wallNanos / 1e9, false, WALL_SLACK_SECONDS));
+        for (StageMetrics.Stage stage : StageMetrics.getInstance().getStages()) {
+            Connection connection = DatasetLayout.EDITOR_DB.equals(stage.database())
+                ? dbConnection.getEditorDbConnection() : dbConnection.getPlatformDbConnection();
+            long rows = 0;
+            for (String table : stage.tables()) {
+                rows += countRows(connection, table);
+            }
+            double seconds = stage.nanos() / 1e9;
+            Metric rowsMetric = new Metric("stage." + stage.key() + ".rows", "rows", rows, true, 0);
+            rowsMetric.exact = true;
+            metrics.add(rowsMetric);
+            Metric rate = new Metric("stage." + stage.key() + ".rows_per_second", "rows/s", rows / seconds, true, 0);
+            rate.seconds = seconds;
+            metrics.add(rate);
+        }
+        if (peakRss >= 0) {
+            metrics.add(new Metric("peak.rss.mb", "MB", peakRss / (1024.0 * 1024.0), false, RSS_SLACK_MB));
+        }
+        metrics.add(new Metric("gc.seconds", "s", gcMillis / 1000.0, false, GC_SLACK_SECONDS));
+        Metric collections = new Metric("gc.count", "", gcCount, false, 0);
+        collections.informational = true;
+        metrics.add(collections);
+        return metrics;
+    }
+
+    private long countRows(Connection connection, String table) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT count(*) FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private Properties loadBaseline(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        }
+        return properties;
+    }
+
+    /**
+     * Write the baseline as sorted "key=value" lines so that updates diff cleanly
+     */
+    private void writeBaseline(Path file, Map<String, String> settings, List<Metric> metrics) throws IOException {
+        Map<String, String> values = new TreeMap<>(settings);
+        for (Metric metric : metrics) {
+            if (!metric.informational) {
+                values.put(metric.name, metric.format(metric.value));
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("# Loader performance baseline, recorded by \"java Main regression --update\"\n");
+        sb.append("# ").append(Instant.now()).append(", ").append(System.getProperty("os.name")).append(", ")
+            .append(Runtime.getRuntime().availableProcessors()).append(" CPUs, Java ")
+            .append(System.getProperty("java.version")).append('\n');
+        values.forEach((key, value) -> sb.append(key).append('=').append(value).append('\n'));
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.writeString(file, sb);
+    }
+
+    private void printResults(Path baselineFile, List<Metric> metrics, List<String> mismatches) {
+        System.out.println("=".repeat(96));
+        System.out.println("REGRESSION CHECK - baseline " + baselineFile + ", tolerance " +
+            config.getRegressionTolerancePercent() + "%");
+        System.out.println("=".repeat(96));
+        for (String mismatch : mismatches) {
+            System.out.println("Settings differ from the baseline - " + mismatch);
+        }
+        System.out.printf("%-46s %14s %14s %9s  %s%n", "metric", "baseline", "current", "change", "status");
+        for (Metric metric : metrics) {
+            System.out.printf("%-46s %14s %14s %9s  %s%n", metric.name,
+                Double.isNaN(metric.baseline) ? "-" : metric.format(metric.baseline),
+                metric.format(metric.value) + (metric.unit.isEmpty() ? "" : " " + metric.unit),
+                Double.isNaN(metric.changePercent) ? "-" : String.format("%+.1f%%", metric.changePercent),
+                metric.status.name().toLowerCase());
+        }
+        if (metrics.stream().anyMatch(metric -> metric.status == Status.MISMATCH)) {
+            System.out.println("Row counts differ from the baseline: the seeded dataset changed, " +
+                "record a new baseline with --update");
+        }
+        System.out.println();
+    }
+
+    private void writeJson(Path outputFile, Path baselineFile, Map<String, String> settings, List<Metric> metrics,
+                           boolean passed) throws IOException {
+        JsonWriter json = new JsonWriter().beginObject()
+            .name("generated_at").value(Instant.now().toString())
+            .name("baseline").value(baselineFile.toString())
+            .name("tolerance_percent").value(config.getRegressionTolerancePercent())
+            .name("passed").value(passed)
+            .name("settings").beginObject();
+        settings.forEach((key, value) -> json.name(key).value(value));
+        json.endObject().name("metrics").beginArray();
+        for (Metric metric : metrics) {
+            json.beginObject()
+                .name("name").value(metric.name)
+                .name("unit").value(metric.unit)
+                .name("value").value(metric.value)
+                .name("baseline").value(metric.baseline)
+                .name("change_percent").value(metric.changePercent)
+                .name("status").value(metric.status.name().toLowerCase())
+                .endObject();
+        }
+        json.endArray().endObject();
+
+        Path parent = outputFile.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.writeString(outputFile, json + "\n");
+    }
+
+    private enum Status { NEW, OK, IMPROVED, REGRESSED, MISMATCH, SKIPPED, INFO }
+
+    private class Metric {
+        final String name;
+        final String unit;
+        final double value;
+        final boolean higherIsBetter;
+        final double slack;
+        // Row counts must be identical, otherwise the seed no longer reproduces the baseline dataset
+        boolean exact;
+        // Reported only, never compared
+        boolean informational;
+        // Duration of the stage behind a rows/s metric (NaN for other metrics)
+        double seconds = Double.NaN;
+
+        double baseline = Double.NaN;
+        double changePercent = Double.NaN;
+        Status status = Status.NEW;
+
+        Metric(String name, String unit, double value, boolean higherIsBetter, double slack) {
+            this.name = name;
+            this.unit = unit;
+            this.value = value;
+            this.higherIsBetter = higherIsBetter;
+            this.slack = slack;
+        }
+
+        void compare(Properties baselineValues) {
+            if (informational) {
+                status = Status.INFO;
+                return;
+            }
+            String recorded = baselineValues.getProperty(name);
+            if (recorded == null) {
+                return;
+            }
+            baseline = Double.parseDouble(recorded);
+            changePercent = baseline == 0 ? (value == 0 ? 0 : Double.NaN) : (value - baseline) / baseline * 100;
+            if (exact) {
+                status = value == baseline ? Status.OK : Status.MISMATCH;
+                return;
+            }
+
+            double worse = higherIsBetter ? baseline - value : value - baseline;
+            double tolerance = Math.max(Math.abs(baseline) * config.getRegressionTolerancePercent() / 100, slack);
+            if (worse > tolerance) {
+                status = !Double.isNaN(seconds) && baseline > 0 && stageMillis() < config.getRegressionMinStageMs()
+                    ? Status.SKIPPED : Status.REGRESSED;
+            } else {
+                status = -worse > tolerance ? Status.IMPROVED : Status.OK;
+            }
+        }
+
+        /**
+         * Baseline duration of the stage, derived from its row count and baseline rate
+         */
+        private double stageMillis() {
+            return value / baseline * seconds * 1000;
+        }
+
+        String format(double number) {
+            if (exact || name.equals("gc.count")) {
+                return String.valueOf((long) number);
+            }
+            if (unit.equals("rows/s")) {
+                return String.format("%.0f", number);
+            }
+            return String.format(unit.equals("MB") ? "%.1f" : "%.3f", number);
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package loaders;
+
+import config.DatabaseConfig;
+import connection.DatabaseConnection;
+import connection.ShardRing;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyOut;
+import sinks.PartitionedRowSinks;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.UUID;
+
+/**
+ * Moves the players of platform_db to the shard the ring assigns them (java Main rebalance), after
+ * a shard was added to platform.shards. A new, empty shard first gets a copy of the catalog from
+ * the first shard; a shard that already has games keeps its catalog, which only the sync (java Main
+ * load, run on every shard) brings up to date. Then every shard is scanned for the players it holds
+ * but no longer owns, which are moved by batches of rebalance.batch.players: their rows are copied
+ * into the target shard (after deleting any leftover of an interrupted run) and committed, then
+ * deleted from the source. There is no transaction across shards: a player is on both shards between
+ * the two commits, and a run interrupted there is completed by the next one. Merged review pages
+ * read the player's rows once; the rating summaries of both shards, which follow through their
+ * triggers, count the batch twice until the source commits.
+ */
+public class ShardRebalancer {
+    // Catalog tables in foreign key order, copied as a whole to an empty shard
+    private static final String[] CATALOG_TABLES = {
+        "editor", "text_blob", "game", "publication_event_editeur", "dlc", "patch", "game_platforms", "game_genres"
+    };
+
+    // Rows of a player, in foreign key order, with the column holding the player
+    private static final String[][] PLAYER_TABLES = {
+        {"player", "id"}, {"possession_game", "player_id"}, {"possession_dlc", "player_id"},
+        {"player_follows", "id_player"}, {"evaluation", "player_id"}, {"bug_report", "player_id"}
+    };
+
+    private final DatabaseConfig config;
+    private final ShardRing ring;
+    private final List<Connection> shards;
+
+    public ShardRebalancer(DatabaseConnection dbConnection) {
+        this.config = DatabaseConfig.getInstance();
+        this.ring = dbConnection.getShardRing();
+        this.shards = dbConnection.getShardConnections();
+    }
+
+    public void run(boolean dryRun) throws SQLException {
+        System.out.println("==================================================");
+        System.out.println((dryRun ? "Checking" : "Rebalancing") + " players over " + ring.size() + " shards: " +
+            String.join(", ", ring.getShards()));
+        System.out.println("==================================================\n");
+
+        if (!dryRun) {
+            for (int shard = 1; shard < ring.size(); shard++) {
+                copyCatalog(shard);
+            }
+            createReportPartitions();
+        }
+
+        long start = System.nanoTime();
+        long[][] moved = new long[ring.size()][ring.size()];
+        for (int source = 0; source < ring.size(); source++) {
+            List<List<UUID>> misplaced = misplacedPlayers(source);
+            for (int target = 0; target < ring.size(); target++) {
+                List<UUID> players = misplaced.get(target);
+                if (!dryRun) {
+                    int batch = config.getRebalanceBatchPlayers();
+                    for (int from = 0; from < players.size(); from += batch) {
+                        movePlayers(source, target, players.subList(from, Math.min(from + batch, players.size())));
+                    }
+                }
+                moved[source][target] = players.size();
+            }
+        }
+
+        printResults(moved, dryRun, System.nanoTime() - start);
+    }
+
+    /**
+     * Copy the catalog of the first shard into a shard that has none yet; its game pages are built
+     * once at the end instead of by the triggers of every table. A shard with a catalog is left as it
+     * is, with a warning if its game count differs from the first shard's.
+     */
+    private void copyCatalog(int shard) throws SQLException {
+        Connection target = shards.get(shard);
+        long games = count(target, "SELECT count(*) FROM game");
+        long firstGames = count(shards.get(0), "SELECT count(*) FROM game");
+        if (games > 0 && games != firstGames) {
+            System.out.println("Warning: " + ring.getShardName(shard) + " has " + games + " games, " +
+                ring.getShardName(0) + " " + firstGames + "; only the sync (Main load) updates its catalog\n");
+        }
+        if (games > 0 || firstGames == 0) {
+            return;
+        }
+        try (Statement stmt = target.createStatement()) {
+            stmt.execute("SET LOCAL game_page.deferred = on");
+        }
+        long rows = 0;
+        for (String table : CATALOG_TABLES) {
+            rows += copy(shards.get(0), target, "TABLE " + table, table);
+        }
+        try (Statement stmt = target.createStatement()) {
+            stmt.execute("SELECT game_page_refresh(NULL)");
+        }
+        target.commit();
+        System.out.println("Copied the catalog of " + ring.getShardName(0) + " to " + ring.getShardName(shard) +
+            " (" + rows + " rows)\n");
+    }
+
+    /**
+     * Monthly bug_report partitions covering the reports of every shard, on every shard
+     */
+    private void createReportPartitions() throws SQLException {
+        Timestamp first = null;
+        Timestamp last = null;
+        for (Connection connection : shards) {
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT min(created_at), max(created_at) FROM bug_report")) {
+                rs.next();
+                if (rs.getTimestamp(1) != null) {
+                    first = first == null || rs.getTimestamp(1).before(first) ? rs.getTimestamp(1) : first;
+                    last = last == null || rs.getTimestamp(2).after(last) ? rs.getTimestamp(2) : last;
+                }
+            }
+        }
+        if (first == null) {
+            return;
+        }
+        for (Connection connection : shards) {
+            PartitionedRowSinks.createRangePartitions(connection, "bug_report", first.toLocalDateTime(),
+                last.toLocalDateTime());
+            connection.commit();
+        }
+    }
+
+    /**
+     * Players of a shard owned by another one, by target shard
+     */
+    private List<List<UUID>> misplacedPlayers(int source) throws SQLException {
+        List<List<UUID>> misplaced = new ArrayList<>();
+        for (int shard = 0; shard < ring.size(); shard++) {
+            misplaced.add(new ArrayList<>());
+        }
+        Connection connection = shards.get(source);
+        try (Statement stmt = connection.createStatement()) {
+            stmt.setFetchSize(10_000);
+            try (ResultSet rs = stmt.executeQuery("SELECT id FROM player")) {
+                while (rs.next()) {
+                    UUID playerId = rs.getObject(1, UUID.class);
+                    int target = ring.shardOf(playerId);
+                    if (target != source) {
+                        misplaced.get(target).add(playerId);
+                    }
+                }
+            }
+        }
+        connection.commit();
+        return misplaced;
+    }
+
+    /**
+     * Copy a batch of players with their rows to their shard, commit, then delete them from the source
+     */
+    private void movePlayers(int source, int target, List<UUID> players) throws SQLException {
+        StringJoiner ids = new StringJoiner(",", "'{", "}'::uuid[]");
+        for (UUID playerId : players) {
+            ids.add(playerId.toString());
+        }
+
+        Connection to = shards.get(target);
+        deletePlayers(to, ids.toString());
+        for (String[] table : PLAYER_TABLES) {
+            copy(shards.get(source), to, "SELECT * FROM " + table[0] + " WHERE " + table[1] + " = ANY(" + ids + ")",
+                table[0]);
+        }
+        to.commit();
+
+        Connection from = shards.get(source);
+        deletePlayers(from, ids.toString());
+        from.commit();
+
+        if (config.isVerbose()) {
+            System.out.println("  - Moved " + players.size() + " players from " + ring.getShardName(source) + " to " +
+                ring.getShardName(target));
+        }
+    }
+
+    /**
+     * Delete the rows of players, referencing tables first
+     */
+    private static void deletePlayers(Connection connection, String ids) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            for (int i = PLAYER_TABLES.length - 1; i >= 0; i--) {
+                stmt.executeUpdate("DELETE FROM " + PLAYER_TABLES[i][0] + " WHERE " + PLAYER_TABLES[i][1] +
+                    " = ANY(" + ids + ")");
+            }
+        }
+    }
+
+    /**
+     * Stream the rows of a query on one shard into a table of another, in COPY text format
+     */
+    private static long copy(Connection from, Connection to, String query, String table) throws SQLException {
+        CopyOut copyOut = from.unwrap(PGConnection.class).getCopyAPI().copyOut("COPY (" + query + ") TO STDOUT");
+        CopyIn copyIn = null;
+        try {
+            copyIn = to.unwrap(PGConnection.class).getCopyAPI().copyIn("COPY " + table + " FROM STDIN");
+            byte[] row;
+            while ((row = copyOut.readFromCopy()) != null) {
+                copyIn.writeToCopy(row, 0, row.length);
+            }
+            return copyIn.endCopy();
+        } finally {
+            if (copyIn != null && copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+            if (copyOut.isActive()) {
+                copyOut.cancelCopy();
+            }
+        }
+    }
+
+    private static long count(Connection connection, String sql) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private void printResults(long[][] moved, boolean dryRun, long nanos) throws SQLException {
+        System.out.printf("%n%-24s %-24s %12s%n", "from", "to", dryRun ? "misplaced" : "moved");
+        long total = 0;
+        for (int source = 0; source < ring.size(); source++) {
+            for (int target = 0; target < ring.size(); target++) {
+                if (moved[source][target] > 0) {
+                    System.out.printf("%-24s %-24s %12d%n", ring.getShardName(source), ring.getShardName(target),
+                        moved[source][target]);
+                    total += moved[source][target];
+                }
+            }
+        }
+        System.out.printf("%n%d players %s in %.2f s%n%n", total, dryRun ? "to move" : "moved", nanos / 1e9);
+
+        System.out.printf("%-24s %12s %12s %12s%n", "shard", "players", "reviews", "owned");
+        for (int shard = 0; shard < ring.size(); shard++) {
+            Connection connection = shards.get(shard);
+            System.out.printf("%-24s %12d %12d %12d%n", ring.getShardName(shard),
+                count(connection, "SELECT count(*) FROM player"), count(connection, "SELECT count(*) FROM evaluation"),
+                count(connection, "SELECT count(*) FROM possession_game"));
+            connection.commit();
+        }
+        System.out.println();
+    }
+}
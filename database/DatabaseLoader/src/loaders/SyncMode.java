@@ -0,0 +1,35 @@
+package loaders;
+
+/**
+ * How published data is copied from editor_db to platform_db (sync.mode).
+ */
+public enum SyncMode {
+    /** One SELECT/INSERT pair per row, platforms and genres queried per game */
+    ROW("row"),
+    /** One SELECT per table, rows written through a RowSink with the configured load strategy */
+    SINK("sink"),
+    /** COPY (SELECT ...) TO STDOUT on editor_db piped into COPY FROM STDIN on platform_db */
+    COPY_STREAM("copy_stream");
+
+    private final String key;
+
+    SyncMode(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Parse a sync mode from its configuration key
+     */
+    public static SyncMode fromKey(String key) {
+        for (SyncMode mode : values()) {
+            if (mode.key.equalsIgnoreCase(key.trim())) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unknown sync mode: " + key);
+    }
+}
@@ -0,0 +1,154 @@
+package profile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Shape of an existing dataset: table cardinalities, per-parent child-count histograms,
+ * text-length histograms and boolean ratios. Produced by {@link DatasetProfiler} and loaded
+ * by the generators (profile.file) to reproduce a production-like dataset at any scale.
+ * Stored as a properties file.
+ */
+public class DatasetProfile {
+    // Child-count histograms
+    public static final String GAMES_PER_EDITOR = "games_per_editor";
+    public static final String DLCS_PER_GAME = "dlcs_per_game";
+    public static final String PATCHES_PER_GAME = "patches_per_game";
+    public static final String BUG_REPORTS_PER_GAME = "bug_reports_per_game";
+    public static final String EVALUATIONS_PER_GAME = "evaluations_per_game";
+
+    // Value histograms
+    public static final String EVALUATION_NOTE = "evaluation.note";
+    public static final String EDITOR_DESCRIPTION_LENGTH = "editor.description.length";
+    public static final String PATCH_MODIFICATIONS_LENGTH = "patch.modifications.length";
+    public static final String BUG_REPORT_DESCRIPTION_LENGTH = "bug_report.description.length";
+    public static final String EVALUATION_DESCRIPTION_LENGTH = "evaluation.description.length";
+
+    // Ratios
+    public static final String EDITOR_ENTERPRISE = "editor.enterprise";
+    public static final String GAME_PUBLISH = "game.publish";
+    public static final String DLC_PUBLISH = "dlc.publish";
+    public static final String PATCH_PUBLISH = "patch.publish";
+
+    private final Map<String, Long> cardinalities = new TreeMap<>();
+    private final Map<String, Histogram> histograms = new TreeMap<>();
+    private final Map<String, Double> ratios = new TreeMap<>();
+    private String source = "";
+
+    /**
+     * Record the row count of a table ("database.table")
+     */
+    public void setCardinality(String table, long count) {
+        cardinalities.put(table, count);
+    }
+
+    public long getCardinality(String table) {
+        return cardinalities.getOrDefault(table, 0L);
+    }
+
+    /**
+     * Cardinality of a table multiplied by the scale factor (at least 1)
+     */
+    public int scaledCardinality(String table, double scale) {
+        return (int) Math.max(1, Math.round(getCardinality(table) * scale));
+    }
+
+    public void setHistogram(String name, Histogram histogram) {
+        histograms.put(name, histogram);
+    }
+
+    /**
+     * Get a histogram, or null if it was not profiled (or is empty)
+     */
+    public Histogram getHistogram(String name) {
+        Histogram histogram = histograms.get(name);
+        return histogram == null || histogram.isEmpty() ? null : histogram;
+    }
+
+    public void setRatio(String name, double ratio) {
+        ratios.put(name, ratio);
+    }
+
+    /**
+     * Get a ratio (0-1), or null if it was not profiled
+     */
+    public Double getRatio(String name) {
+        return ratios.get(name);
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    /**
+     * Write the profile to a properties file
+     */
+    public void save(Path file) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("source", source);
+        cardinalities.forEach((table, count) -> properties.setProperty("cardinality." + table, String.valueOf(count)));
+        histograms.forEach((name, histogram) -> {
+            properties.setProperty("histogram." + name, histogram.encode());
+            properties.setProperty("histogram." + name + ".bucket", String.valueOf(histogram.getBucketWidth()));
+            if (!histogram.isEmpty()) {
+                properties.setProperty("histogram." + name + ".max", String.valueOf(histogram.max()));
+            }
+        });
+        ratios.forEach((name, ratio) -> properties.setProperty("ratio." + name, String.valueOf(ratio)));
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (OutputStream out = Files.newOutputStream(file)) {
+            properties.store(out, "Dataset profile generated by DatasetProfiler");
+        }
+    }
+
+    /**
+     * Read a profile written by {@link #save(Path)}
+     */
+    public static DatasetProfile load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        }
+
+        DatasetProfile profile = new DatasetProfile();
+        profile.setSource(properties.getProperty("source", ""));
+        for (String key : properties.stringPropertyNames()) {
+            String value = properties.getProperty(key);
+            if (key.startsWith("cardinality.")) {
+                profile.setCardinality(key.substring("cardinality.".length()), Long.parseLong(value));
+            } else if (key.startsWith("ratio.")) {
+                profile.setRatio(key.substring("ratio.".length()), Double.parseDouble(value));
+            } else if (key.startsWith("histogram.") && !key.endsWith(".bucket") && !key.endsWith(".max")) {
+                int bucketWidth = Integer.parseInt(properties.getProperty(key + ".bucket", "1"));
+                Histogram histogram = Histogram.decode(value, bucketWidth);
+                // Profiles written before the maximum was recorded sample up to the end of the last bucket
+                String max = properties.getProperty(key + ".max");
+                if (max != null && !histogram.isEmpty()) {
+                    histogram.setMax(Integer.parseInt(max));
+                }
+                profile.setHistogram(key.substring("histogram.".length()), histogram);
+            }
+        }
+        return profile;
+    }
+
+    /**
+     * Print a short description of the profile
+     */
+    public void print() {
+        System.out.println("Profile source: " + source);
+        cardinalities.forEach((table, count) -> System.out.println("  " + table + ": " + count + " rows"));
+        histograms.forEach((name, histogram) -> System.out.printf("  %s: mean %.1f%n", name, histogram.mean()));
+        ratios.forEach((name, ratio) -> System.out.printf("  %s: %.1f%%%n", name, ratio * 100));
+    }
+}
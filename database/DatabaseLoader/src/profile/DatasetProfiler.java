@@ -0,0 +1,178 @@
+package profile;
+
+import config.DatabaseConfig;
+import connection.DatabaseConnection;
+import loaders.DatasetLayout;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Profiles an existing editor_db/platform_db to fit the generator distributions.
+ * Child-count histograms and ratios are computed with aggregates; text lengths are
+ * measured on a Bernoulli sample of about profile.sample.size rows per column.
+ */
+public class DatasetProfiler {
+    private final DatabaseConfig config;
+    private final DatabaseConnection dbConnection;
+
+    public DatasetProfiler(DatabaseConnection dbConnection) {
+        this.config = DatabaseConfig.getInstance();
+        this.dbConnection = dbConnection;
+    }
+
+    /**
+     * Profile both databases and write the result to the given file
+     */
+    public DatasetProfile profile(Path outputFile) throws SQLException, IOException {
+        if (config.isVerbose()) {
+            System.out.println("==================================================");
+            System.out.println("Profiling editor_db and platform_db...");
+            System.out.println("==================================================\n");
+        }
+
+        Connection editor = dbConnection.getEditorDbConnection();
+        Connection platform = dbConnection.getPlatformDbConnection();
+        DatasetProfile profile = new DatasetProfile();
+        profile.setSource(config.getDbUrl());
+
+        // Cardinalities
+        collectCardinalities(profile, editor, DatasetLayout.EDITOR_DB);
+        collectCardinalities(profile, platform, DatasetLayout.PLATFORM_DB);
+
+        // Per-parent child counts (parents without children count as 0)
+        profile.setHistogram(DatasetProfile.GAMES_PER_EDITOR,
+            childCounts(editor, "editor", "id", "game", "editor_id"));
+        profile.setHistogram(DatasetProfile.DLCS_PER_GAME,
+            childCounts(editor, "game", "id", "dlc", "game_id"));
+        profile.setHistogram(DatasetProfile.PATCHES_PER_GAME,
+            childCounts(editor, "game", "id", "patch", "game_id"));
+        profile.setHistogram(DatasetProfile.BUG_REPORTS_PER_GAME,
+            childCounts(editor, "game", "id", "bug_report", "id_game"));
+        profile.setHistogram(DatasetProfile.EVALUATIONS_PER_GAME,
+            childCounts(editor, "game", "id", "evaluation", "id_game"));
+
+        // Value distributions
+        profile.setHistogram(DatasetProfile.EVALUATION_NOTE,
+            valueHistogram(editor, "SELECT note, count(*) FROM evaluation WHERE note IS NOT NULL GROUP BY note", 1));
+        int bucket = config.getProfileTextBucket();
+        profile.setHistogram(DatasetProfile.EDITOR_DESCRIPTION_LENGTH,
+            textLengths(editor, profile, "editor", "description", bucket));
+        // Patch notes: short ones inline, long ones once per distinct text (TABLESAMPLE needs a table, not the view)
+        Histogram notes = textLengths(editor, profile, "patch", "modifications", bucket);
+        addTextLengths(notes, editor, profile, "text_blob", "body");
+        profile.setHistogram(DatasetProfile.PATCH_MODIFICATIONS_LENGTH, notes);
+        profile.setHistogram(DatasetProfile.BUG_REPORT_DESCRIPTION_LENGTH,
+            textLengths(editor, profile, "bug_report", "description", bucket));
+        profile.setHistogram(DatasetProfile.EVALUATION_DESCRIPTION_LENGTH,
+            textLengths(editor, profile, "evaluation", "description", bucket));
+
+        // Ratios
+        setRatio(profile, editor, DatasetProfile.EDITOR_ENTERPRISE,
+            "SELECT avg(CASE WHEN type = 'entreprise' THEN 1.0 ELSE 0.0 END) FROM editor");
+        setRatio(profile, editor, DatasetProfile.GAME_PUBLISH,
+            "SELECT avg(CASE WHEN is_publish THEN 1.0 ELSE 0.0 END) FROM game");
+        setRatio(profile, editor, DatasetProfile.DLC_PUBLISH,
+            "SELECT avg(CASE WHEN is_publish THEN 1.0 ELSE 0.0 END) FROM dlc");
+        setRatio(profile, editor, DatasetProfile.PATCH_PUBLISH,
+            "SELECT avg(CASE WHEN is_publish THEN 1.0 ELSE 0.0 END) FROM patch");
+
+        profile.save(outputFile);
+
+        if (config.isVerbose()) {
+            profile.print();
+        }
+        System.out.println("Profile written to " + outputFile.toAbsolutePath() + "\n");
+        return profile;
+    }
+
+    /**
+     * Count the rows of every table of a database
+     */
+    private void collectCardinalities(DatasetProfile profile, Connection connection, String database)
+            throws SQLException {
+        for (String[] wave : DatasetLayout.wavesFor(database)) {
+            for (String table : wave) {
+                profile.setCardinality(database + "." + table, queryLong(connection, "SELECT count(*) FROM " + table));
+            }
+        }
+    }
+
+    /**
+     * Histogram of the number of children per parent row
+     */
+    private Histogram childCounts(Connection connection, String parent, String parentKey,
+                                  String child, String childKey) throws SQLException {
+        String sql = "SELECT children, count(*) FROM (" +
+                     "SELECT p." + parentKey + ", count(c." + childKey + ") AS children " +
+                     "FROM " + parent + " p LEFT JOIN " + child + " c ON c." + childKey + " = p." + parentKey + " " +
+                     "GROUP BY p." + parentKey + ") t GROUP BY children";
+        return valueHistogram(connection, sql, 1);
+    }
+
+    /**
+     * Histogram of the text lengths of a column, on a sample of the table
+     */
+    private Histogram textLengths(Connection connection, DatasetProfile profile, String table, String column,
+                                  int bucketWidth) throws SQLException {
+        Histogram histogram = new Histogram(bucketWidth);
+        addTextLengths(histogram, connection, profile, table, column);
+        return histogram;
+    }
+
+    /**
+     * Add the text lengths of a column, on a sample of the table, to a histogram
+     */
+    private void addTextLengths(Histogram histogram, Connection connection, DatasetProfile profile, String table,
+                                String column) throws SQLException {
+        long rows = profile.getCardinality(DatasetLayout.EDITOR_DB + "." + table);
+        double percent = rows == 0 ? 100 : Math.min(100.0, 100.0 * config.getProfileSampleSize() / rows);
+        String sql = "SELECT length(" + column + "), count(*) FROM " + table +
+                     " TABLESAMPLE BERNOULLI (" + percent + ") WHERE " + column + " IS NOT NULL GROUP BY 1";
+        addValues(histogram, connection, sql);
+    }
+
+    /**
+     * Build a histogram from a "value, count" query
+     */
+    private Histogram valueHistogram(Connection connection, String sql, int bucketWidth) throws SQLException {
+        Histogram histogram = new Histogram(bucketWidth);
+        addValues(histogram, connection, sql);
+        return histogram;
+    }
+
+    /**
+     * Add the rows of a "value, count" query to a histogram
+     */
+    private void addValues(Histogram histogram, Connection connection, String sql) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                histogram.add(rs.getInt(1), rs.getLong(2));
+            }
+        }
+    }
+
+    private void setRatio(DatasetProfile profile, Connection connection, String name, String sql)
+            throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            if (rs.next() && rs.getObject(1) != null) {
+                profile.setRatio(name, rs.getDouble(1));
+            }
+        }
+    }
+
+    private long queryLong(Connection connection, String sql) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
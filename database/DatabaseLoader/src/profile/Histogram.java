@@ -0,0 +1,156 @@
+package profile;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Frequency histogram of integer values, used to reproduce an observed distribution.
+ * Values are grouped in buckets of a fixed width; sampling picks a bucket proportionally
+ * to its count, then a uniform value inside the bucket, never above the highest value recorded.
+ */
+public class Histogram {
+    private final int bucketWidth;
+    private final TreeMap<Integer, Long> counts;
+    private int max = Integer.MIN_VALUE;
+
+    // Cumulative view built lazily for sampling
+    private int[] bucketStarts;
+    private long[] cumulativeCounts;
+
+    public Histogram(int bucketWidth) {
+        if (bucketWidth < 1) {
+            throw new IllegalArgumentException("Bucket width must be positive: " + bucketWidth);
+        }
+        this.bucketWidth = bucketWidth;
+        this.counts = new TreeMap<>();
+    }
+
+    /**
+     * Record a value observed count times
+     */
+    public void add(int value, long count) {
+        int bucketStart = Math.floorDiv(value, bucketWidth) * bucketWidth;
+        counts.merge(bucketStart, count, Long::sum);
+        max = Math.max(max, value);
+        bucketStarts = null;
+    }
+
+    /**
+     * Highest recorded value (the end of the last bucket for a histogram decoded without it)
+     */
+    public int max() {
+        return max;
+    }
+
+    void setMax(int max) {
+        this.max = max;
+    }
+
+    /**
+     * Check whether no value has been recorded
+     */
+    public boolean isEmpty() {
+        return counts.isEmpty();
+    }
+
+    /**
+     * Total number of recorded values
+     */
+    public long totalCount() {
+        long total = 0;
+        for (long count : counts.values()) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Mean of the recorded values (bucket midpoints)
+     */
+    public double mean() {
+        long total = totalCount();
+        if (total == 0) {
+            return 0;
+        }
+        double sum = 0;
+        for (Map.Entry<Integer, Long> entry : counts.entrySet()) {
+            sum += (entry.getKey() + (bucketWidth - 1) / 2.0) * entry.getValue();
+        }
+        return sum / total;
+    }
+
+    /**
+     * Draw a value following the recorded distribution
+     */
+    public int sample(Random random) {
+        if (counts.isEmpty()) {
+            throw new IllegalStateException("Cannot sample an empty histogram");
+        }
+        if (bucketStarts == null) {
+            buildCumulative();
+        }
+        long target = (long) (random.nextDouble() * cumulativeCounts[cumulativeCounts.length - 1]);
+        int low = 0;
+        int high = cumulativeCounts.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulativeCounts[mid] <= target) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return bucketWidth == 1 ? bucketStarts[low] : Math.min(max, bucketStarts[low] + random.nextInt(bucketWidth));
+    }
+
+    private void buildCumulative() {
+        bucketStarts = new int[counts.size()];
+        cumulativeCounts = new long[counts.size()];
+        int i = 0;
+        long cumulative = 0;
+        for (Map.Entry<Integer, Long> entry : counts.entrySet()) {
+            cumulative += entry.getValue();
+            bucketStarts[i] = entry.getKey();
+            cumulativeCounts[i] = cumulative;
+            i++;
+        }
+    }
+
+    public int getBucketWidth() {
+        return bucketWidth;
+    }
+
+    /**
+     * Serialize as "start:count,start:count,..."
+     */
+    public String encode() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<Integer, Long> entry : counts.entrySet()) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(entry.getKey()).append(':').append(entry.getValue());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Parse a histogram serialized with {@link #encode()}; its values may reach the end of the last bucket
+     */
+    public static Histogram decode(String encoded, int bucketWidth) {
+        Histogram histogram = new Histogram(bucketWidth);
+        if (encoded == null || encoded.isBlank()) {
+            return histogram;
+        }
+        for (String pair : encoded.split(",")) {
+            int separator = pair.indexOf(':');
+            histogram.add(Integer.parseInt(pair.substring(0, separator).trim()),
+                Long.parseLong(pair.substring(separator + 1).trim()));
+        }
+        if (!histogram.isEmpty()) {
+            histogram.max = histogram.counts.lastKey() + bucketWidth - 1;
+        }
+        return histogram;
+    }
+}
@@ -0,0 +1,146 @@
+package repository;
+
+import java.util.Arrays;
+import java.util.StringJoiner;
+
+/**
+ * An ordered listing of platform_db paged by keyset: each page seeks past the keys of the last row
+ * of the previous one ((k1, k2, ...) > (?, ?, ...), an index range start), instead of counting rows
+ * with OFFSET, so that every page costs the same whatever its depth.
+ * The keys must make the order total; only the leading one may be NULL. A row comparison never
+ * matches NULL, so rows with a NULL leading key form a segment of their own, seeked on the other
+ * keys, placed where ORDER BY puts them (last ascending, first descending): the pages go through
+ * the same sequence as the OFFSET query.
+ */
+final class Listing {
+    /**
+     * Where the rows of a listing live once platform_db is sharded by player
+     */
+    enum Placement {
+        // Catalog rows, replicated: any shard serves the listing
+        REPLICATED,
+        // Rows of the player of the scope: its shard serves the listing
+        SCOPE_SHARD,
+        // Rows of every player: each shard serves its part, merged in key order
+        ALL_SHARDS
+    }
+
+    /**
+     * Sort key: column, its label in the select list and the SQL type its token value is cast to
+     */
+    record Key(String column, String label, String type) {
+    }
+
+    final String name;
+    final Placement placement;
+    final boolean customPlans;
+    private final String select;
+    private final String filter;
+    private final boolean descending;
+    private final Key[] keys;
+    private final Key[][] segmentKeys;
+    private final String[][] seekSql;
+
+    /**
+     * select is the statement up to its FROM clause, filter the scope predicate with its single
+     * parameter (null for an unscoped listing). customPlans when the best plan depends on the scope,
+     * so that every page is planned with its parameters instead of reusing a generic plan.
+     */
+    Listing(String name, Placement placement, String select, String filter, boolean descending, boolean customPlans,
+            Key... keys) {
+        this.name = name;
+        this.placement = placement;
+        this.customPlans = customPlans;
+        this.select = select;
+        this.filter = filter;
+        this.descending = descending;
+        this.keys = keys;
+
+        Key[] nonNullKeys = keys;
+        Key[] nullKeys = Arrays.copyOfRange(keys, 1, keys.length);
+        this.segmentKeys = descending ? new Key[][] {nullKeys, nonNullKeys} : new Key[][] {nonNullKeys, nullKeys};
+        this.seekSql = new String[2][2];
+        for (int segment = 0; segment < 2; segment++) {
+            boolean nullSegment = segmentKeys[segment] == nullKeys;
+            seekSql[segment][0] = buildSeekSql(segmentKeys[segment], nullSegment, false);
+            seekSql[segment][1] = buildSeekSql(segmentKeys[segment], nullSegment, true);
+        }
+    }
+
+    boolean isScoped() {
+        return filter != null;
+    }
+
+    boolean isDescending() {
+        return descending;
+    }
+
+    Key[] keys() {
+        return keys;
+    }
+
+    int segments() {
+        return segmentKeys.length;
+    }
+
+    Key[] segmentKeys(int segment) {
+        return segmentKeys[segment];
+    }
+
+    int[] keyCounts() {
+        return new int[] {segmentKeys[0].length, segmentKeys[1].length};
+    }
+
+    /**
+     * Rows of a segment, after the keys (or from its start), LIMIT bound last. The keys are bound
+     * twice: all but the last one, then all of them.
+     */
+    String seekSql(int segment, boolean after) {
+        return seekSql[segment][after ? 1 : 0];
+    }
+
+    /**
+     * The same sequence paged with LIMIT ? OFFSET ?, for comparison: the skipped rows are still read
+     */
+    String offsetSql() {
+        return select + (filter != null ? " WHERE " + filter : "") + orderBy(keys) + " LIMIT ? OFFSET ?";
+    }
+
+    private String buildSeekSql(Key[] seekKeys, boolean nullSegment, boolean after) {
+        StringBuilder sql = new StringBuilder(select).append(" WHERE ");
+        if (filter != null) {
+            sql.append(filter).append(" AND ");
+        }
+        sql.append(keys[0].column()).append(nullSegment ? " IS NULL" : " IS NOT NULL");
+        if (after) {
+            // Redundant bound on all keys but the last: when the last one comes from a joined table
+            // (the platform of a library row), the others still seek into the index of theirs
+            if (seekKeys.length > 1) {
+                sql.append(" AND ").append(row(seekKeys, seekKeys.length - 1, false)).append(descending ? " <= " : " >= ")
+                    .append(row(seekKeys, seekKeys.length - 1, true));
+            }
+            sql.append(" AND ").append(row(seekKeys, seekKeys.length, false)).append(descending ? " < " : " > ")
+                .append(row(seekKeys, seekKeys.length, true));
+        }
+        return sql.append(orderBy(seekKeys)).append(" LIMIT ?").toString();
+    }
+
+    /**
+     * (k1, ..., kn) of the first n keys, or the matching (?::t1, ..., ?::tn) placeholders
+     */
+    private static String row(Key[] rowKeys, int n, boolean placeholders) {
+        StringJoiner row = new StringJoiner(", ", "(", ")");
+        for (int i = 0; i < n; i++) {
+            row.add(placeholders ? "?::" + rowKeys[i].type() : rowKeys[i].column());
+        }
+        return row.toString();
+    }
+
+    private String orderBy(Key[] orderKeys) {
+        StringJoiner order = new StringJoiner(", ", " ORDER BY ", "");
+        for (Key key : orderKeys) {
+            order.add(descending ? key.column() + " DESC" : key.column());
+        }
+        return order.toString();
+    }
+}
@@ -0,0 +1,82 @@
+package repository;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+
+/**
+ * Continuation token of a listing: where the next page starts.
+ * It holds the listing and scope it was issued for (a token of one game's reviews is refused for
+ * another game), the segment (rows with a NULL leading key are a segment of their own) and the keys
+ * of the last row returned, or none at the start of a segment. Encoded as URL-safe base64 so that
+ * clients pass it back as is; its content is not part of the API.
+ */
+final class PageToken {
+    private static final int VERSION = 1;
+
+    final int segment;
+    final String[] keys;
+
+    PageToken(int segment, String[] keys) {
+        this.segment = segment;
+        this.keys = keys;
+    }
+
+    String encode(String listing, String scope) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeUTF(listing);
+            out.writeUTF(scope);
+            out.writeByte(segment);
+            out.writeByte(keys == null ? 0 : keys.length);
+            if (keys != null) {
+                for (String key : keys) {
+                    out.writeUTF(key);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot encode a page token", e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * Decode a token issued for this listing and scope; keyCounts[s] is the number of keys of a
+     * position in segment s
+     */
+    static PageToken decode(String token, String listing, String scope, int segments, int[] keyCounts) {
+        byte[] raw;
+        try {
+            raw = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page token", e);
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw))) {
+            if (in.readUnsignedByte() != VERSION || !in.readUTF().equals(listing) || !in.readUTF().equals(scope)) {
+                throw new IllegalArgumentException("Page token was not issued for this " + listing + " listing");
+            }
+            int segment = in.readUnsignedByte();
+            int count = in.readUnsignedByte();
+            if (segment >= segments || (count != 0 && count != keyCounts[segment])) {
+                throw new IllegalArgumentException("Invalid page token");
+            }
+            String[] keys = null;
+            if (count > 0) {
+                keys = new String[count];
+                for (int i = 0; i < count; i++) {
+                    keys[i] = in.readUTF();
+                }
+            }
+            if (in.available() > 0) {
+                throw new IllegalArgumentException("Invalid page token");
+            }
+            return new PageToken(segment, keys);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid page token", e);
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package repository;
+
+import config.DatabaseConfig;
+import connection.DatabaseConnection;
+import generators.PlayerGenerator;
+import loaders.DatasetLayout;
+import utils.JsonWriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Latency of the listings of {@link PlatformRepository} by page depth, OFFSET against keyset pages.
+ * Every listing is walked to its end pages.rounds times with each method, and each page reports its
+ * median. The catalog is walked as loaded; the reviews of the most reviewed game and the library of
+ * the best-stocked player are first brought to pages.list.rows rows inside the benchmark transaction,
+ * which is rolled back at the end: platform_db is left as it was. A warm-up walk checks that both
+ * methods return the same sequence of rows.
+ */
+public class PaginationBenchmark {
+    private static final int BANDS = 5;
+
+    private final DatabaseConfig config;
+    private final DatabaseConnection dbConnection;
+
+    /**
+     * Median latency of every page of a listing, by method
+     */
+    private record Result(String listing, UUID scope, long rows, double[] offsetMillis, double[] keysetMillis) {
+    }
+
+    public PaginationBenchmark(DatabaseConnection dbConnection) {
+        this.config = DatabaseConfig.getInstance();
+        this.dbConnection = dbConnection;
+    }
+
+    public void run(Path outputFile) throws SQLException, IOException {
+        preparePlayers();
+        System.out.println("==================================================");
+        System.out.println("Pagination benchmark: " + config.getPagesSize() + " rows per page, " +
+            config.getPagesRounds() + " rounds, lists of up to " + config.getPagesListRows() + " rows");
+        System.out.println("==================================================\n");
+
+        List<Result> results = new ArrayList<>();
+        try (Connection connection = dbConnection.openConnection(DatasetLayout.PLATFORM_DB)) {
+            try (PlatformRepository repository = new PlatformRepository(connection)) {
+                UUID gameId = deepenReviews(connection);
+                UUID playerId = deepenLibrary(connection);
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.execute("ANALYZE evaluation, possession_game");
+                }
+                results.add(measure(repository, PlatformRepository.CATALOG, null, PlatformRepository.CATALOG_GAME));
+                results.add(measure(repository, PlatformRepository.REVIEWS, gameId, PlatformRepository.REVIEW));
+                results.add(measure(repository, PlatformRepository.LIBRARY, playerId, PlatformRepository.OWNED_GAME));
+            } finally {
+                DatabaseConnection.rollback(connection);
+            }
+        }
+
+        printResults(results);
+        writeJson(outputFile, results);
+        System.out.println("Pagination benchmark results written to " + outputFile.toAbsolutePath() + "\n");
+    }
+
+    private void preparePlayers() throws SQLException {
+        Connection connection = dbConnection.getPlatformDbConnection();
+        if (queryUuid(connection, "SELECT id FROM player LIMIT 1") != null) {
+            return;
+        }
+        Map<UUID, String[]> gamePlatforms = PlayerGenerator.loadGamePlatforms(connection);
+        if (gamePlatforms.isEmpty()) {
+            throw new SQLException("No published games found in platform_db, load a dataset first");
+        }
+        new PlayerGenerator().generatePlayers(connection, gamePlatforms);
+        connection.commit();
+    }
+
+    /**
+     * Reviews of the most reviewed game by every player who has none yet, up to pages.list.rows in
+     * all; one in twelve has no note, so that the NULL segment is walked too
+     */
+    private UUID deepenReviews(Connection connection) throws SQLException {
+        UUID gameId = queryUuid(connection,
+            "SELECT id_game FROM evaluation GROUP BY id_game ORDER BY count(*) DESC, id_game LIMIT 1");
+        if (gameId == null) {
+            gameId = queryUuid(connection, "SELECT id FROM game ORDER BY id LIMIT 1");
+        }
+        try (PreparedStatement stmt = connection.prepareStatement(
+                 "INSERT INTO evaluation (id_game, player_id, description, plateforme, note) " +
+                 "SELECT ?, p.id, 'Pagination benchmark review', " +
+                 "coalesce((SELECT min(gp.platform) FROM game_platforms gp WHERE gp.game_id = ?), 'PC'), " +
+                 "nullif(abs(hashtext(p.id::text)) % 12, 11) FROM player p " +
+                 "WHERE NOT EXISTS (SELECT 1 FROM evaluation ev WHERE ev.id_game = ? AND ev.player_id = p.id) " +
+                 "LIMIT greatest(? - (SELECT count(*) FROM evaluation ev WHERE ev.id_game = ?), 0)")) {
+            stmt.setObject(1, gameId);
+            stmt.setObject(2, gameId);
+            stmt.setObject(3, gameId);
+            stmt.setInt(4, config.getPagesListRows());
+            stmt.setObject(5, gameId);
+            stmt.executeUpdate();
+        }
+        return gameId;
+    }
+
+    /**
+     * Games of the best-stocked player's library, on their first platform, up to pages.list.rows
+     */
+    private UUID deepenLibrary(Connection connection) throws SQLException {
+        UUID playerId = queryUuid(connection,
+            "SELECT player_id FROM possession_game GROUP BY player_id ORDER BY count(*) DESC, player_id LIMIT 1");
+        if (playerId == null) {
+            playerId = queryUuid(connection, "SELECT id FROM player ORDER BY id LIMIT 1");
+        }
+        try (PreparedStatement stmt = connection.prepareStatement(
+                 "INSERT INTO possession_game (player_id, temp, game_id, platform) " +
+                 "SELECT ?, 0, g.id, coalesce((SELECT min(gp.platform) FROM game_platforms gp WHERE gp.game_id = g.id), 'PC') " +
+                 "FROM game g WHERE NOT EXISTS " +
+                 "(SELECT 1 FROM possession_game pg WHERE pg.player_id = ? AND pg.game_id = g.id) " +
+                 "LIMIT greatest(? - (SELECT count(*) FROM possession_game pg WHERE pg.player_id = ?), 0)")) {
+            stmt.setObject(1, playerId);
+            stmt.setObject(2, playerId);
+            stmt.setInt(3, config.getPagesListRows());
+            stmt.setObject(4, playerId);
+            stmt.executeUpdate();
+        }
+        return playerId;
+    }
+
+    private <T> Result measure(PlatformRepository repository, Listing listing, UUID scope,
+                               PlatformRepository.RowMapper<T> mapper) throws SQLException {
+        int size = config.getPagesSize();
+        System.out.println(">>> " + listing.name + (scope != null ? " of " + scope : ""));
+
+        // Warm-up walks: the row sequences must match, row for row
+        List<String> keysetRows = new ArrayList<>();
+        String token = null;
+        do {
+            token = repository.fetch(listing, scope, token, size, rs -> rowKey(rs, listing), keysetRows::add);
+        } while (token != null);
+        List<String> offsetRows = new ArrayList<>();
+        for (long offset = 0; offset == offsetRows.size(); offset += size) {
+            repository.fetchAtOffset(listing, scope, offset, size, rs -> rowKey(rs, listing), offsetRows::add);
+        }
+        if (!keysetRows.equals(offsetRows)) {
+            throw new SQLException("Keyset pages of " + listing.name + " differ from its OFFSET pages (" +
+                keysetRows.size() + " rows against " + offsetRows.size() + ")");
+        }
+
+        int pages = Math.max(1, (keysetRows.size() + size - 1) / size);
+        long[][] offsetNanos = new long[pages][config.getPagesRounds()];
+        long[][] keysetNanos = new long[pages][config.getPagesRounds()];
+        for (int round = 0; round < config.getPagesRounds(); round++) {
+            for (int page = 0; page < pages; page++) {
+                long start = System.nanoTime();
+                repository.fetchAtOffset(listing, scope, (long) page * size, size, mapper, row -> { });
+                offsetNanos[page][round] = System.nanoTime() - start;
+            }
+            token = null;
+            for (int page = 0; page < pages; page++) {
+                long start = System.nanoTime();
+                token = repository.fetch(listing, scope, token, size, mapper, row -> { });
+                keysetNanos[page][round] = System.nanoTime() - start;
+            }
+        }
+        return new Result(listing.name, scope, keysetRows.size(), medians(offsetNanos), medians(keysetNanos));
+    }
+
+    private static String rowKey(ResultSet rs, Listing listing) throws SQLException {
+        StringBuilder key = new StringBuilder();
+        for (Listing.Key column : listing.keys()) {
+            key.append(rs.getString(column.label())).append('|');
+        }
+        return key.toString();
+    }
+
+    private static double[] medians(long[][] nanos) {
+        double[] millis = new double[nanos.length];
+        for (int page = 0; page < nanos.length; page++) {
+            millis[page] = median(Arrays.stream(nanos[page]).mapToDouble(n -> n / 1e6).toArray());
+        }
+        return millis;
+    }
+
+    private static double median(double[] values) {
+        if (values.length == 0) {
+            return Double.NaN;
+        }
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int middle = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+    }
+
+    /**
+     * Pages [from, to) of band b of BANDS equal bands of depth
+     */
+    private static int bandStart(int pages, int band) {
+        return (int) ((long) pages * band / BANDS);
+    }
+
+    private void printResults(List<Result> results) {
+        System.out.println("==================================================");
+        System.out.println("Median page latency (ms) by depth");
+        System.out.println("==================================================");
+        System.out.printf("%-10s %8s %13s %12s %12s %9s%n", "listing", "rows", "pages", "OFFSET", "keyset", "ratio");
+        for (Result result : results) {
+            int pages = result.offsetMillis().length;
+            for (int band = 0; band < BANDS; band++) {
+                int from = bandStart(pages, band);
+                int to = bandStart(pages, band + 1);
+                if (from == to) {
+                    continue;
+                }
+                double offset = median(Arrays.copyOfRange(result.offsetMillis(), from, to));
+                double keyset = median(Arrays.copyOfRange(result.keysetMillis(), from, to));
+                System.out.printf("%-10s %8s %13s %12.3f %12.3f %8.1fx%n", band == 0 ? result.listing() : "",
+                    band == 0 ? Long.toString(result.rows()) : "", (from + 1) + "-" + to, offset, keyset, offset / keyset);
+            }
+        }
+        System.out.println();
+    }
+
+    private void writeJson(Path outputFile, List<Result> results) throws IOException {
+        JsonWriter json = new JsonWriter().beginObject()
+            .name("generated_at").value(Instant.now().toString())
+            .name("page_size").value(config.getPagesSize())
+            .name("rounds").value(config.getPagesRounds())
+            .name("listings").beginArray();
+        for (Result result : results) {
+            int pages = result.offsetMillis().length;
+            json.beginObject()
+                .name("listing").value(result.listing())
+                .name("scope").value(result.scope() != null ? result.scope().toString() : "")
+                .name("rows").value(result.rows())
+                .name("pages").value(pages)
+                .name("bands").beginArray();
+            for (int band = 0; band < BANDS; band++) {
+                int from = bandStart(pages, band);
+                int to = bandStart(pages, band + 1);
+                if (from == to) {
+                    continue;
+                }
+                json.beginObject()
+                    .name("first_page").value(from + 1)
+                    .name("last_page").value(to)
+                    .name("offset_p50_ms").value(median(Arrays.copyOfRange(result.offsetMillis(), from, to)))
+                    .name("keyset_p50_ms").value(median(Arrays.copyOfRange(result.keysetMillis(), from, to)))
+                    .endObject();
+            }
+            json.endArray().name("offset_page_ms").beginArray();
+            for (double millis : result.offsetMillis()) {
+                json.value(millis);
+            }
+            json.endArray().name("keyset_page_ms").beginArray();
+            for (double millis : result.keysetMillis()) {
+                json.value(millis);
+            }
+            json.endArray().endObject();
+        }
+        json.endArray().endObject();
+
+        Path parent = outputFile.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.writeString(outputFile, json + "\n");
+    }
+
+    private static UUID queryUuid(Connection connection, String sql) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getObject(1, UUID.class) : null;
+        }
+    }
+}
@@ -0,0 +1,486 @@
+package repository;
+
+import connection.ShardRing;
+import org.postgresql.PGStatement;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Read access to the paged listings of platform_db: the catalog, the reviews of a game and the
+ * library of a player, and to the game pages. Pages are seeked by keyset ({@link Listing}), so that the last page of the
+ * catalog costs what the first one does; the next page is named by an opaque continuation token,
+ * null once the listing is exhausted. Rows are handed to the consumer as the ResultSet is read,
+ * without building a list (the Page variants collect them for callers that want one).
+ * With a sharded platform_db (platform.shards), the catalog is read from the first shard (it is
+ * replicated), a library from the shard of its player ({@link ShardRing}), and the reviews of a game
+ * from every shard: each returns its next rows from the same keys, merged in key order. A game page
+ * is read from the first shard with the rating summaries of every shard added up.
+ * One repository per set of connections: the statements are prepared once and reused, so that the
+ * driver switches them to server-side prepared statements. Not thread-safe, as the connections.
+ */
+public class PlatformRepository implements AutoCloseable {
+    static final Listing CATALOG = new Listing("catalog", Listing.Placement.REPLICATED,
+        "SELECT g.id, g.name, g.editor_id, g.price, g.num_version FROM game g", null, false, false,
+        new Listing.Key("g.name", "name", "text"),
+        new Listing.Key("g.id", "id", "uuid"));
+    // Best first, as ORDER BY note DESC: the reviews without a note come first
+    static final Listing REVIEWS = new Listing("reviews", Listing.Placement.ALL_SHARDS,
+        "SELECT ev.player_id, p.pseudo, ev.plateforme, ev.note, ev.description, ev.created_at " +
+        "FROM evaluation ev JOIN player p ON p.id = ev.player_id", "ev.id_game = ?", true, false,
+        new Listing.Key("ev.note", "note", "int4"),
+        new Listing.Key("ev.player_id", "player_id", "uuid"),
+        new Listing.Key("ev.plateforme", "plateforme", "platform_enum"));
+    // The name is in game: a small library is read whole and sorted, a large one is walked from the
+    // catalog name index, probing the player's rows; which one depends on the player, hence custom plans
+    static final Listing LIBRARY = new Listing("library", Listing.Placement.SCOPE_SHARD,
+        "SELECT g.id, g.name, pg.platform, pg.temp FROM possession_game pg JOIN game g ON g.id = pg.game_id",
+        "pg.player_id = ?", false, true,
+        new Listing.Key("g.name", "name", "text"),
+        new Listing.Key("g.id", "id", "uuid"),
+        new Listing.Key("pg.platform", "platform", "platform_enum"));
+
+    private static final String GAME_PAGE_SQL = "SELECT document::text FROM game_page WHERE id_game = ?";
+    private static final String RATING_SUMMARY_SQL =
+        "SELECT platform::text, ratings, note_sum, histogram FROM game_rating_summary WHERE id_game = ?";
+    // The document with its ratings section replaced by summaries added up over the shards, in the
+    // form of game_page_ratings (02_platform.sql)
+    private static final String MERGED_GAME_PAGE_SQL =
+        "SELECT jsonb_set(page.document, '{ratings}', (" +
+        "SELECT coalesce(jsonb_agg(jsonb_build_object('platform', r.platform, 'ratings', r.ratings, " +
+        "'average', round((r.note_sum::double precision / nullif(r.ratings, 0))::numeric, 2), " +
+        "'histogram', to_jsonb(r.histogram::int[])) ORDER BY r.platform), '[]') " +
+        "FROM unnest(?::platform_enum[], ?::int[], ?::int[], ?::text[]) AS r(platform, ratings, note_sum, histogram)" +
+        "))::text FROM game_page page WHERE page.id_game = ?";
+
+    /**
+     * Rows of a page and the token of the next one (null on the last page)
+     */
+    public record Page<T>(List<T> rows, String next) {
+        public boolean hasNext() {
+            return next != null;
+        }
+    }
+
+    public record CatalogGame(UUID id, String name, UUID editorId, Double price, Double version) {
+    }
+
+    public record Review(UUID playerId, String pseudo, String platform, Integer note, String description,
+                         LocalDateTime createdAt) {
+    }
+
+    public record OwnedGame(UUID gameId, String name, String platform, Double hoursPlayed) {
+    }
+
+    @FunctionalInterface
+    interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    static final RowMapper<CatalogGame> CATALOG_GAME = rs -> new CatalogGame(
+        rs.getObject("id", UUID.class), rs.getString("name"), rs.getObject("editor_id", UUID.class),
+        rs.getObject("price", Double.class), rs.getObject("num_version", Double.class));
+    static final RowMapper<Review> REVIEW = rs -> new Review(
+        rs.getObject("player_id", UUID.class), rs.getString("pseudo"), rs.getString("plateforme"),
+        rs.getObject("note", Integer.class), rs.getString("description"),
+        rs.getObject("created_at", LocalDateTime.class));
+    static final RowMapper<OwnedGame> OWNED_GAME = rs -> new OwnedGame(
+        rs.getObject("id", UUID.class), rs.getString("name"), rs.getString("platform"),
+        rs.getObject("temp", Double.class));
+
+    /**
+     * A row read for a merge: its segment and keys, with the mapped value
+     */
+    private record Row<T>(int segment, String[] keys, T value) {
+    }
+
+    private final List<Shard> shards = new ArrayList<>();
+    private final ShardRing ring;
+    private final Map<String, Map<String, Integer>> enumOrders = new HashMap<>();
+
+    public PlatformRepository(Connection connection) throws SQLException {
+        this(List.of(connection), new ShardRing(List.of(connection.getCatalog()), 1));
+    }
+
+    /**
+     * Connections of the shards, in the order of the ring
+     */
+    public PlatformRepository(List<Connection> connections, ShardRing ring) {
+        if (connections.size() != ring.size()) {
+            throw new IllegalArgumentException(connections.size() + " connections for " + ring.size() + " shards");
+        }
+        for (Connection connection : connections) {
+            shards.add(new Shard(connection));
+        }
+        this.ring = ring;
+    }
+
+    /**
+     * Games by name; token is null for the first page. Returns the token of the next page.
+     */
+    public String catalog(String token, int limit, Consumer<? super CatalogGame> consumer) throws SQLException {
+        return fetch(CATALOG, null, token, limit, CATALOG_GAME, consumer);
+    }
+
+    public Page<CatalogGame> catalog(String token, int limit) throws SQLException {
+        List<CatalogGame> rows = new ArrayList<>(limit);
+        return new Page<>(rows, catalog(token, limit, rows::add));
+    }
+
+    /**
+     * Reviews of a game, best first
+     */
+    public String reviews(UUID gameId, String token, int limit, Consumer<? super Review> consumer) throws SQLException {
+        return fetch(REVIEWS, gameId, token, limit, REVIEW, consumer);
+    }
+
+    public Page<Review> reviews(UUID gameId, String token, int limit) throws SQLException {
+        List<Review> rows = new ArrayList<>(limit);
+        return new Page<>(rows, reviews(gameId, token, limit, rows::add));
+    }
+
+    /**
+     * Games owned by a player (one row per platform), by name
+     */
+    public String library(UUID playerId, String token, int limit, Consumer<? super OwnedGame> consumer)
+            throws SQLException {
+        return fetch(LIBRARY, playerId, token, limit, OWNED_GAME, consumer);
+    }
+
+    public Page<OwnedGame> library(UUID playerId, String token, int limit) throws SQLException {
+        List<OwnedGame> rows = new ArrayList<>(limit);
+        return new Page<>(rows, library(playerId, token, limit, rows::add));
+    }
+
+    /**
+     * Document of the page of a game (game_page), null for an unknown game. With several shards, its
+     * ratings section is rebuilt from the rating summaries of every shard added up: each shard only
+     * counts the reviews of its own players.
+     */
+    public String gamePage(UUID gameId) throws SQLException {
+        if (shards.size() > 1) {
+            return mergedGamePage(gameId);
+        }
+        PreparedStatement stmt = shards.get(0).statement(GAME_PAGE_SQL, false);
+        stmt.setObject(1, gameId);
+        try (ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getString(1) : null;
+        }
+    }
+
+    private String mergedGamePage(UUID gameId) throws SQLException {
+        // Per platform: ratings, note sum, then the 11 buckets of the histogram
+        Map<String, int[]> summaries = new HashMap<>();
+        for (Shard shard : shards) {
+            PreparedStatement stmt = shard.statement(RATING_SUMMARY_SQL, false);
+            stmt.setObject(1, gameId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    int[] summary = summaries.computeIfAbsent(rs.getString(1), platform -> new int[13]);
+                    summary[0] += rs.getInt(2);
+                    summary[1] += rs.getInt(3);
+                    Integer[] histogram = (Integer[]) rs.getArray(4).getArray();
+                    for (int i = 0; i < histogram.length; i++) {
+                        summary[2 + i] += histogram[i];
+                    }
+                }
+            }
+        }
+
+        String[] platforms = new String[summaries.size()];
+        Integer[] ratings = new Integer[summaries.size()];
+        Integer[] noteSums = new Integer[summaries.size()];
+        String[] histograms = new String[summaries.size()];
+        int row = 0;
+        for (Map.Entry<String, int[]> summary : summaries.entrySet()) {
+            int[] values = summary.getValue();
+            platforms[row] = summary.getKey();
+            ratings[row] = values[0];
+            noteSums[row] = values[1];
+            StringJoiner histogram = new StringJoiner(",", "{", "}");
+            for (int i = 2; i < values.length; i++) {
+                histogram.add(Integer.toString(values[i]));
+            }
+            histograms[row++] = histogram.toString();
+        }
+
+        Connection connection = shards.get(0).connection;
+        PreparedStatement stmt = shards.get(0).statement(MERGED_GAME_PAGE_SQL, false);
+        stmt.setArray(1, connection.createArrayOf("text", platforms));
+        stmt.setArray(2, connection.createArrayOf("int4", ratings));
+        stmt.setArray(3, connection.createArrayOf("int4", noteSums));
+        stmt.setArray(4, connection.createArrayOf("text", histograms));
+        stmt.setObject(5, gameId);
+        try (ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getString(1) : null;
+        }
+    }
+
+    /**
+     * One page of a listing: limit + 1 rows are asked for, the extra one only tells whether a next
+     * page exists. When a segment ends before the page is full, the page goes on with the next one.
+     */
+    <T> String fetch(Listing listing, UUID scope, String token, int limit, RowMapper<T> mapper,
+                     Consumer<? super T> consumer) throws SQLException {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page size must be positive: " + limit);
+        }
+        if (listing.isScoped() != (scope != null)) {
+            throw new IllegalArgumentException("The " + listing.name + " listing " +
+                (scope == null ? "needs a scope" : "takes no scope"));
+        }
+        String scopeKey = scope == null ? "" : scope.toString();
+        PageToken position = token == null ? new PageToken(0, null) :
+            PageToken.decode(token, listing.name, scopeKey, listing.segments(), listing.keyCounts());
+        if (listing.placement == Listing.Placement.ALL_SHARDS && shards.size() > 1) {
+            return fetchMerged(listing, scope, scopeKey, position, limit, mapper, consumer);
+        }
+
+        Shard shard = shardFor(listing, scope);
+        int segment = position.segment;
+        String[] after = position.keys;
+        int remaining = limit;
+        while (true) {
+            Listing.Key[] keys = listing.segmentKeys(segment);
+            int returned = 0;
+            try (ResultSet rs = seek(shard, listing, scope, segment, after, remaining + 1).executeQuery()) {
+                while (rs.next()) {
+                    if (returned == remaining) {
+                        return new PageToken(segment, after).encode(listing.name, scopeKey);
+                    }
+                    consumer.accept(mapper.map(rs));
+                    if (++returned == remaining) {
+                        after = keysOf(rs, keys);
+                    }
+                }
+            }
+            if (segment + 1 == listing.segments()) {
+                return null;
+            }
+            // The page goes on from the start of the next segment (or ends there if it is full)
+            remaining -= returned;
+            segment++;
+            after = null;
+        }
+    }
+
+    /**
+     * One page of a listing spread over all shards: every shard returns its next limit + 1 rows from
+     * the same position, the page is the first limit rows of their merge without duplicates, and the
+     * next one starts after the last of them on every shard
+     */
+    private <T> String fetchMerged(Listing listing, UUID scope, String scopeKey, PageToken position, int limit,
+                                   RowMapper<T> mapper, Consumer<? super T> consumer) throws SQLException {
+        List<Row<T>> read = new ArrayList<>();
+        for (Shard shard : shards) {
+            read(shard, listing, scope, position, limit + 1, mapper, read);
+        }
+        Comparator<Row<T>> order = rowOrder(listing);
+        read.sort(order);
+        // A player moved by the rebalance is on both shards between the two commits: the keys name
+        // a single row, read twice, kept once
+        List<Row<T>> rows = new ArrayList<>(read.size());
+        for (Row<T> row : read) {
+            if (rows.isEmpty() || order.compare(rows.get(rows.size() - 1), row) != 0) {
+                rows.add(row);
+            }
+        }
+        for (int i = 0; i < Math.min(limit, rows.size()); i++) {
+            consumer.accept(rows.get(i).value());
+        }
+        if (rows.size() <= limit) {
+            return null;
+        }
+        Row<T> last = rows.get(limit - 1);
+        return new PageToken(last.segment(), last.keys()).encode(listing.name, scopeKey);
+    }
+
+    /**
+     * Up to count rows of one shard from a position, across segments
+     */
+    private <T> void read(Shard shard, Listing listing, UUID scope, PageToken position, int count,
+                          RowMapper<T> mapper, List<Row<T>> rows) throws SQLException {
+        int segment = position.segment;
+        String[] after = position.keys;
+        for (int remaining = count; remaining > 0 && segment < listing.segments(); segment++, after = null) {
+            Listing.Key[] keys = listing.segmentKeys(segment);
+            try (ResultSet rs = seek(shard, listing, scope, segment, after, remaining).executeQuery()) {
+                while (rs.next()) {
+                    rows.add(new Row<>(segment, keysOf(rs, keys), mapper.map(rs)));
+                    remaining--;
+                }
+            }
+        }
+    }
+
+    /**
+     * Order of merged rows: the order of the listing, compared in Java as PostgreSQL does. Integers
+     * by value, UUIDs by their canonical text (bytewise, as the uuid type), enums by declaration
+     * order; text keys depend on the collation and cannot be merged.
+     */
+    private <T> Comparator<Row<T>> rowOrder(Listing listing) throws SQLException {
+        Map<String, Map<String, Integer>> orders = new HashMap<>();
+        for (Listing.Key key : listing.keys()) {
+            switch (key.type()) {
+                case "int4", "uuid" -> { }
+                case "text" -> throw new IllegalStateException("The " + listing.name +
+                    " listing has a text key and cannot be merged across shards");
+                default -> orders.put(key.type(), enumOrder(key.type()));
+            }
+        }
+        return (a, b) -> {
+            if (a.segment() != b.segment()) {
+                return Integer.compare(a.segment(), b.segment());
+            }
+            Listing.Key[] keys = listing.segmentKeys(a.segment());
+            for (int i = 0; i < keys.length; i++) {
+                int order = switch (keys[i].type()) {
+                    case "int4" -> Integer.compare(Integer.parseInt(a.keys()[i]), Integer.parseInt(b.keys()[i]));
+                    case "uuid" -> a.keys()[i].compareTo(b.keys()[i]);
+                    default -> Integer.compare(orders.get(keys[i].type()).get(a.keys()[i]),
+                        orders.get(keys[i].type()).get(b.keys()[i]));
+                };
+                if (order != 0) {
+                    return listing.isDescending() ? -order : order;
+                }
+            }
+            return 0;
+        };
+    }
+
+    /**
+     * Position of every label of an enum type, loaded once from the first shard
+     */
+    private Map<String, Integer> enumOrder(String type) throws SQLException {
+        Map<String, Integer> order = enumOrders.get(type);
+        if (order == null) {
+            order = new HashMap<>();
+            try (Statement stmt = shards.get(0).connection.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT unnest(enum_range(NULL::" + type + "))::text")) {
+                while (rs.next()) {
+                    order.put(rs.getString(1), order.size());
+                }
+            }
+            enumOrders.put(type, order);
+        }
+        return order;
+    }
+
+    /**
+     * Same rows as the page of the listing at an offset, for comparison with the keyset pages
+     * (a single shard only: OFFSET cannot be split between shards)
+     */
+    <T> void fetchAtOffset(Listing listing, UUID scope, long offset, int limit, RowMapper<T> mapper,
+                           Consumer<? super T> consumer) throws SQLException {
+        if (listing.placement == Listing.Placement.ALL_SHARDS && shards.size() > 1) {
+            throw new IllegalStateException("OFFSET pages of the " + listing.name + " listing need a single shard");
+        }
+        PreparedStatement stmt = shardFor(listing, scope).statement(listing.offsetSql(), listing.customPlans);
+        int parameter = 1;
+        if (scope != null) {
+            stmt.setObject(parameter++, scope);
+        }
+        stmt.setInt(parameter++, limit);
+        stmt.setLong(parameter, offset);
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                consumer.accept(mapper.map(rs));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        SQLException failure = null;
+        for (Shard shard : shards) {
+            for (PreparedStatement stmt : shard.statements.values()) {
+                try {
+                    stmt.close();
+                } catch (SQLException e) {
+                    failure = e;
+                }
+            }
+            shard.statements.clear();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * The shard serving a listing that lives on one shard
+     */
+    private Shard shardFor(Listing listing, UUID scope) {
+        return listing.placement == Listing.Placement.SCOPE_SHARD ? shards.get(ring.shardOf(scope)) : shards.get(0);
+    }
+
+    /**
+     * Statement of a segment bound to its position: scope, keys (all but the last, then all), limit
+     */
+    private static PreparedStatement seek(Shard shard, Listing listing, UUID scope, int segment, String[] after,
+                                          int limit) throws SQLException {
+        PreparedStatement stmt = shard.statement(listing.seekSql(segment, after != null), listing.customPlans);
+        int parameter = 1;
+        if (scope != null) {
+            stmt.setObject(parameter++, scope);
+        }
+        if (after != null) {
+            for (int i = 0; i < after.length - 1; i++) {
+                stmt.setString(parameter++, after[i]);
+            }
+            for (String key : after) {
+                stmt.setString(parameter++, key);
+            }
+        }
+        stmt.setInt(parameter, limit);
+        return stmt;
+    }
+
+    /**
+     * Connection of a shard with its statements
+     */
+    private static final class Shard {
+        final Connection connection;
+        final Map<String, PreparedStatement> statements = new HashMap<>();
+
+        Shard(Connection connection) {
+            this.connection = connection;
+        }
+
+        /**
+         * The statement of the SQL, prepared on first use. Without server-side preparation (prepare
+         * threshold 0), the driver sends it unnamed and every execution is planned with its parameters.
+         */
+        PreparedStatement statement(String sql, boolean customPlans) throws SQLException {
+            PreparedStatement stmt = statements.get(sql);
+            if (stmt == null) {
+                stmt = connection.prepareStatement(sql);
+                if (customPlans) {
+                    stmt.unwrap(PGStatement.class).setPrepareThreshold(0);
+                }
+                statements.put(sql, stmt);
+            }
+            return stmt;
+        }
+    }
+
+    private static String[] keysOf(ResultSet rs, Listing.Key[] keys) throws SQLException {
+        String[] values = new String[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            values[i] = rs.getString(keys[i].label());
+        }
+        return values;
+    }
+}
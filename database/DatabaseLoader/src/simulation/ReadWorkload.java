@@ -0,0 +1,361 @@
+package simulation;
+
+import config.DatabaseConfig;
+import connection.DatabaseConnection;
+import connection.ShardRing;
+import generators.PlayerGenerator;
+import repository.PlatformRepository;
+import utils.LatencyHistogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read workload driver for the player-side queries of platform_db (planning/fonctionalities.md):
+ * catalog listing, catalog filtered by platform and genres, game page with its DLCs and rating, reviews of
+ * a game, player library and the "mes creations" listing of an editor.
+ *
+ * N clients run a weighted mix of these queries in a closed loop, each on its own connection.
+ * Latencies are recorded per query type after a warm-up period, and reported as percentiles
+ * and HdrHistogram percentile distributions (reads.output.dir).
+ * With a sharded platform_db (platform.shards), the queries read the first shard, except the game
+ * page: its ratings are the rating summaries of every shard added up (PlatformRepository.gamePage).
+ */
+public class ReadWorkload {
+    /**
+     * Kinds of queries in the read mix. A query may take several round trips;
+     * every statement is bound with the first parameters of the query.
+     */
+    public enum QueryType {
+        CATALOG("catalog",
+            "SELECT g.id, g.name, g.price, g.num_version, e.name, " +
+            "array(SELECT gp.platform FROM game_platforms gp WHERE gp.game_id = g.id) " +
+            "FROM game g JOIN editor e ON e.id = g.editor_id ORDER BY g.name, g.id LIMIT ? OFFSET ?"),
+        // One platform and any of a set of genres, e.g. PS5 and (RPG or STRATEGY): bitwise predicates on game
+        CATALOG_FILTER("catalog_filter",
+            "SELECT g.id, g.name, g.price, g.num_version FROM game g " +
+            "WHERE g.platform_mask & ? <> 0 AND g.genre_mask & ? <> 0 ORDER BY g.name, g.id LIMIT ?"),
+        // The precomputed document: game, editor, platforms, genres, DLCs, latest patches and ratings
+        GAME_PAGE("game_page",
+            "SELECT document FROM game_page WHERE id_game = ?"),
+        REVIEWS("reviews",
+            "SELECT p.pseudo, ev.note, ev.plateforme, ev.description FROM evaluation ev " +
+            "JOIN player p ON p.id = ev.player_id WHERE ev.id_game = ? ORDER BY ev.note DESC LIMIT ?"),
+        LIBRARY("library",
+            "SELECT g.id, g.name, pg.platform, pg.temp FROM possession_game pg " +
+            "JOIN game g ON g.id = pg.game_id WHERE pg.player_id = ? ORDER BY g.name"),
+        CREATIONS("creations",
+            "SELECT g.id, g.name, g.price, g.num_version, (SELECT count(*) FROM dlc d WHERE d.game_id = g.id) " +
+            "FROM game g WHERE g.editor_id = ? ORDER BY g.name");
+
+        private final String key;
+        private final String[] statements;
+
+        QueryType(String key, String... statements) {
+            this.key = key;
+            this.statements = statements;
+        }
+
+        public String getKey() {
+            return key;
+        }
+    }
+
+    private final DatabaseConfig config;
+    private final DatabaseConnection dbConnection;
+
+    private final Map<QueryType, LatencyHistogram> latencies = new EnumMap<>(QueryType.class);
+    private final Map<QueryType, AtomicLong> rows = new EnumMap<>(QueryType.class);
+    private final Map<QueryType, AtomicLong> errors = new EnumMap<>(QueryType.class);
+
+    private List<UUID> gameIds;
+    private List<UUID> playerIds;
+    private List<UUID> editorIds;
+    private int catalogPages;
+
+    public ReadWorkload(DatabaseConnection dbConnection) {
+        this.config = DatabaseConfig.getInstance();
+        this.dbConnection = dbConnection;
+        for (QueryType type : QueryType.values()) {
+            latencies.put(type, new LatencyHistogram());
+            rows.put(type, new AtomicLong());
+            errors.put(type, new AtomicLong());
+        }
+    }
+
+    /**
+     * Run the workload for the given measured duration (after the warm-up)
+     */
+    public void run(int durationSeconds) throws SQLException, IOException {
+        WeightedMix<QueryType> mix = WeightedMix.parse(config.getReadsMix(), "reads.mix",
+            QueryType.class, QueryType::getKey);
+        preparePlayers();
+        loadExistingIds();
+
+        int clients = config.getReadsClients();
+        int warmup = config.getReadsWarmupSeconds();
+        System.out.println("==================================================");
+        System.out.println("Read workload on platform_db: " + clients + " clients, " + warmup + " s warm-up + " +
+            durationSeconds + " s");
+        System.out.println("Mix: " + mix + ", " + gameIds.size() + " games, " + playerIds.size() + " players");
+        System.out.println("==================================================\n");
+
+        long start = System.nanoTime();
+        long measureStart = start + warmup * 1_000_000_000L;
+        long end = measureStart + durationSeconds * 1_000_000_000L;
+
+        ShardRing ring = dbConnection.getShardRing();
+        List<Thread> threads = new ArrayList<>();
+        List<Connection> connections = new ArrayList<>();
+        try {
+            for (int i = 0; i < clients; i++) {
+                // With several shards, a client also connects to the others for the ratings of game pages
+                List<Connection> shards = new ArrayList<>();
+                for (String shard : ring.getShards()) {
+                    Connection connection = dbConnection.openConnection(shard);
+                    connection.setAutoCommit(true);
+                    connection.setReadOnly(true);
+                    connections.add(connection);
+                    shards.add(connection);
+                }
+                PlatformRepository pages = ring.size() > 1 ? new PlatformRepository(shards, ring) : null;
+                Thread thread = new Thread(() -> runClient(shards.get(0), pages, mix, measureStart, end),
+                    "read-client-" + i);
+                threads.add(thread);
+                thread.start();
+            }
+            waitForClients(threads, start, measureStart, end);
+        } finally {
+            for (Connection connection : connections) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    System.err.println("Error closing read client connection: " + e.getMessage());
+                }
+            }
+        }
+
+        printReport(durationSeconds);
+        writeDistributions(Path.of(config.getReadsOutputDir()));
+    }
+
+    /**
+     * Latencies recorded for a query type by the last run
+     */
+    public LatencyHistogram getLatency(QueryType type) {
+        return latencies.get(type);
+    }
+
+    /**
+     * Generate players, libraries and reviews if platform_db has none yet (spread over its shards)
+     */
+    private void preparePlayers() throws SQLException {
+        Connection connection = dbConnection.getPlatformDbConnection();
+        if (count(connection, "SELECT count(*) FROM player") > 0) {
+            return;
+        }
+        Map<UUID, String[]> gamePlatforms = PlayerGenerator.loadGamePlatforms(connection);
+        if (gamePlatforms.isEmpty()) {
+            throw new SQLException("No published games found in platform_db, load a dataset first");
+        }
+        new PlayerGenerator().generatePlayers(dbConnection.getShardConnections(), dbConnection.getShardRing(),
+            gamePlatforms);
+        for (Connection shard : dbConnection.getShardConnections()) {
+            shard.commit();
+        }
+    }
+
+    /**
+     * Load the ids the queries pick from
+     */
+    private void loadExistingIds() throws SQLException {
+        Connection connection = dbConnection.getPlatformDbConnection();
+        gameIds = queryIds(connection, "SELECT id FROM game");
+        playerIds = queryIds(connection, "SELECT id FROM player");
+        editorIds = queryIds(connection, "SELECT DISTINCT editor_id FROM game");
+        catalogPages = Math.max(1, (gameIds.size() + config.getReadsPageSize() - 1) / config.getReadsPageSize());
+        connection.commit();
+    }
+
+    private List<UUID> queryIds(Connection connection, String sql) throws SQLException {
+        List<UUID> ids = new ArrayList<>();
+        try (PreparedStatement stmt = connection.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                ids.add((UUID) rs.getObject(1));
+            }
+        }
+        return ids;
+    }
+
+    private long count(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    /**
+     * Closed loop of one client: pick a query, run it, record its latency once past the warm-up.
+     * pages serves the game pages of a sharded platform_db (null with a single shard).
+     */
+    private void runClient(Connection connection, PlatformRepository pages, WeightedMix<QueryType> mix,
+                           long measureStart, long end) {
+        Random random = ThreadLocalRandom.current();
+        Map<QueryType, PreparedStatement[]> statements = new EnumMap<>(QueryType.class);
+        try {
+            for (QueryType type : QueryType.values()) {
+                PreparedStatement[] prepared = new PreparedStatement[type.statements.length];
+                for (int i = 0; i < prepared.length; i++) {
+                    prepared[i] = connection.prepareStatement(type.statements[i]);
+                }
+                statements.put(type, prepared);
+            }
+        } catch (SQLException e) {
+            System.err.println("Read client could not prepare its statements: " + e.getMessage());
+            return;
+        }
+
+        long now = System.nanoTime();
+        while (now < end) {
+            QueryType type = mix.pick(random);
+            Object[] params = buildParams(type, random);
+            long sendTime = System.nanoTime();
+            long rowCount = 0;
+            try {
+                if (type == QueryType.GAME_PAGE && pages != null) {
+                    rowCount += pages.gamePage((UUID) params[0]) != null ? 1 : 0;
+                } else {
+                    for (PreparedStatement stmt : statements.get(type)) {
+                        rowCount += execute(stmt, params);
+                    }
+                }
+            } catch (SQLException e) {
+                if (errors.get(type).incrementAndGet() == 1) {
+                    System.err.println("Read " + type.getKey() + " failed: " + e.getMessage());
+                }
+            }
+            now = System.nanoTime();
+            if (sendTime >= measureStart && now <= end) {
+                latencies.get(type).record(now - sendTime);
+                rows.get(type).addAndGet(rowCount);
+            }
+        }
+    }
+
+    /**
+     * Bind the parameters a statement declares, run it and read every column of every row
+     */
+    private long execute(PreparedStatement stmt, Object[] params) throws SQLException {
+        int parameterCount = stmt.getParameterMetaData().getParameterCount();
+        for (int i = 0; i < parameterCount; i++) {
+            stmt.setObject(i + 1, params[i]);
+        }
+        long rowCount = 0;
+        try (ResultSet rs = stmt.executeQuery()) {
+            int columns = rs.getMetaData().getColumnCount();
+            while (rs.next()) {
+                for (int c = 1; c <= columns; c++) {
+                    rs.getObject(c);
+                }
+                rowCount++;
+            }
+        }
+        return rowCount;
+    }
+
+    private Object[] buildParams(QueryType type, Random random) {
+        int pageSize = config.getReadsPageSize();
+        return switch (type) {
+            case CATALOG -> new Object[] {pageSize, random.nextInt(catalogPages) * pageSize};
+            // One of the 4 platform bits, a non-empty subset of the 4 genre bits
+            case CATALOG_FILTER -> new Object[] {1 << random.nextInt(4), 1 + random.nextInt(15), pageSize};
+            case GAME_PAGE -> new Object[] {pick(gameIds, random)};
+            case REVIEWS -> new Object[] {pick(gameIds, random), pageSize};
+            case LIBRARY -> new Object[] {pick(playerIds, random)};
+            case CREATIONS -> new Object[] {pick(editorIds, random)};
+        };
+    }
+
+    private static UUID pick(List<UUID> ids, Random random) {
+        return ids.get(random.nextInt(ids.size()));
+    }
+
+    private void waitForClients(List<Thread> threads, long start, long measureStart, long end) {
+        long reportNanos = config.getReadsReportSeconds() * 1_000_000_000L;
+        long nextReport = start + reportNanos;
+        try {
+            for (Thread thread : threads) {
+                while (thread.isAlive()) {
+                    thread.join(Math.max(1, (nextReport - System.nanoTime()) / 1_000_000));
+                    long now = System.nanoTime();
+                    if (now >= nextReport && now < end) {
+                        printProgress(start, measureStart, now);
+                        nextReport += reportNanos;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void printProgress(long start, long measureStart, long now) {
+        if (now < measureStart) {
+            System.out.printf("  [%5.0fs] warming up%n", (now - start) / 1e9);
+            return;
+        }
+        LatencyHistogram all = new LatencyHistogram();
+        latencies.values().forEach(all::add);
+        double measured = (now - measureStart) / 1e9;
+        System.out.printf("  [%5.0fs] %d queries (%.0f queries/s), p99 %.2fms%n",
+            (now - start) / 1e9, all.getCount(), all.getCount() / measured, all.percentile(99) / 1e6);
+    }
+
+    private void printReport(double seconds) {
+        System.out.println("\n" + "=".repeat(60));
+        System.out.println("READ WORKLOAD SUMMARY");
+        System.out.println("=".repeat(60));
+        LatencyHistogram all = new LatencyHistogram();
+        for (QueryType type : QueryType.values()) {
+            LatencyHistogram histogram = latencies.get(type);
+            if (histogram.getCount() == 0) {
+                continue;
+            }
+            all.add(histogram);
+            System.out.printf("%-10s %8.1f queries/s  %6.1f rows/query  errors=%d  %s%n", type.getKey(),
+                histogram.getCount() / seconds, (double) rows.get(type).get() / histogram.getCount(),
+                errors.get(type).get(), histogram.summary());
+        }
+        System.out.printf("%-10s %8.1f queries/s  %s%n", "all", all.getCount() / seconds, all.summary());
+        System.out.println("=".repeat(60) + "\n");
+    }
+
+    /**
+     * Write one HdrHistogram percentile distribution file per query type
+     */
+    private void writeDistributions(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (QueryType type : QueryType.values()) {
+            LatencyHistogram histogram = latencies.get(type);
+            if (histogram.getCount() > 0) {
+                Files.writeString(directory.resolve(type.getKey() + ".hgrm"), histogram.percentileDistribution());
+            }
+        }
+        System.out.println("Latency distributions written to " + directory.toAbsolutePath() + "\n");
+    }
+}
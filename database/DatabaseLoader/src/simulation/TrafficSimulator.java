@@ -0,0 +1,313 @@
+package simulation;
+
+import config.DatabaseConfig;
+import connection.DatabaseConnection;
+import generators.BugReportGenerator;
+import generators.EvaluationGenerator;
+import generators.PatchGenerator;
+import loaders.DatasetLayout;
+import utils.FakerProvider;
+import utils.LatencyHistogram;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Live traffic simulator: applies a continuous mix of inserts and updates to an existing
+ * editor_db at a fixed target rate.
+ *
+ * The schedule is open-loop: operation i is due at start + i / rate whatever the response
+ * times are. Latency is measured from the due time (not from the actual send time), so
+ * time spent waiting for a busy worker is counted and coordinated omission is avoided.
+ */
+public class TrafficSimulator {
+    /**
+     * Kinds of operations in the traffic mix
+     */
+    public enum OperationType {
+        PATCH("patch",
+            "INSERT INTO patch (id, is_patch_of_game, game_id, platform, old_version, new_version, " +
+            "comment, modifications, modifications_hash, is_publish) " +
+            "SELECT ?, true, ?, ?::platform_enum, coalesce(max(new_version), 1.0), " +
+            "round((coalesce(max(new_version), 1.0) + ?)::numeric, 1), ?, ?, text_blob_put(?), ? " +
+            "FROM patch WHERE game_id = ?"),
+        VERSION("version",
+            "UPDATE game SET num_version = round((num_version + ?)::numeric, 1) WHERE id = ?"),
+        PUBLISH("publish",
+            "UPDATE game SET is_publish = NOT is_publish WHERE id = ?"),
+        EVALUATION("evaluation",
+            "INSERT INTO evaluation (id_game, description, plateforme, note) VALUES (?, ?, ?::platform_enum, ?)"),
+        BUG_REPORT("bug_report",
+            "INSERT INTO bug_report (id_game, id_patch, description, plateforme) VALUES (?, ?, ?, ?::platform_enum)");
+
+        private final String key;
+        private final String sql;
+
+        OperationType(String key, String sql) {
+            this.key = key;
+            this.sql = sql;
+        }
+
+        public String getKey() {
+            return key;
+        }
+    }
+
+    private static final String[] PLATFORMS = {"PC", "XBOX", "PS5", "SWITCH"};
+
+    private final DatabaseConfig config;
+    private final DatabaseConnection dbConnection;
+    private final FakerProvider fakerProvider;
+    private final Random random;
+    // Patch keys, split off the generators' key stream (no lock, no SecureRandom per key)
+    private final SplittableRandom keys;
+
+    // Content generators, only used by the dispatcher thread
+    private final PatchGenerator patchGenerator;
+    private final EvaluationGenerator evaluationGenerator;
+    private final BugReportGenerator bugReportGenerator;
+
+    private final Map<OperationType, LatencyHistogram> latencies = new EnumMap<>(OperationType.class);
+    private final Map<OperationType, AtomicLong> errors = new EnumMap<>(OperationType.class);
+    private final LatencyHistogram serviceTimes = new LatencyHistogram();
+    private final ConcurrentLinkedQueue<WorkerSession> sessions = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<WorkerSession> session = new ThreadLocal<>();
+
+    private List<UUID> gameIds;
+    private List<UUID> patchIds;
+
+    public TrafficSimulator(DatabaseConnection dbConnection) {
+        this.config = DatabaseConfig.getInstance();
+        this.dbConnection = dbConnection;
+        this.fakerProvider = FakerProvider.getInstance();
+        this.random = fakerProvider.getRandom();
+        this.keys = fakerProvider.splitKeys();
+        this.patchGenerator = new PatchGenerator();
+        this.evaluationGenerator = new EvaluationGenerator();
+        this.bugReportGenerator = new BugReportGenerator();
+        for (OperationType type : OperationType.values()) {
+            latencies.put(type, new LatencyHistogram());
+            errors.put(type, new AtomicLong());
+        }
+    }
+
+    /**
+     * Run the simulation for the given duration
+     */
+    public void run(int durationSeconds) throws SQLException {
+        double rate = config.getSimulatorRate();
+        WeightedMix<OperationType> mix = WeightedMix.parse(config.getSimulatorMix(), "simulator.mix",
+            OperationType.class, OperationType::getKey);
+        loadExistingIds();
+
+        if (gameIds.isEmpty()) {
+            throw new SQLException("No games found in editor_db, load a dataset first");
+        }
+
+        System.out.println("==================================================");
+        System.out.println("Simulating traffic on editor_db: " + rate + " ops/s for " + durationSeconds + " s");
+        System.out.println("Mix: " + mix + ", " + config.getSimulatorThreads() + " workers");
+        System.out.println("==================================================\n");
+
+        long totalOperations = (long) (rate * durationSeconds);
+
+        ThreadPoolExecutor workers = new ThreadPoolExecutor(config.getSimulatorThreads(), config.getSimulatorThreads(),
+            0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        AtomicLong completed = new AtomicLong();
+        long start = System.nanoTime();
+        reporter.scheduleAtFixedRate(() -> printProgress(start, completed.get(), workers.getQueue().size()),
+            config.getSimulatorReportSeconds(), config.getSimulatorReportSeconds(), TimeUnit.SECONDS);
+
+        try {
+            for (long i = 0; i < totalOperations; i++) {
+                long dueTime = start + (long) (i * 1e9 / rate);
+                OperationType type = mix.pick(random);
+                Object[] params = buildParams(type);
+
+                long wait = dueTime - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                workers.execute(() -> {
+                    execute(type, params, dueTime);
+                    completed.incrementAndGet();
+                });
+            }
+            workers.shutdown();
+            workers.awaitTermination(1, TimeUnit.HOURS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            workers.shutdownNow();
+            reporter.shutdownNow();
+            closeSessions();
+        }
+
+        printReport((System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Load the ids the operations pick from
+     */
+    private void loadExistingIds() throws SQLException {
+        Connection connection = dbConnection.getEditorDbConnection();
+        gameIds = queryIds(connection, "SELECT id FROM game");
+        patchIds = queryIds(connection, "SELECT id FROM patch");
+    }
+
+    private List<UUID> queryIds(Connection connection, String sql) throws SQLException {
+        List<UUID> ids = new ArrayList<>();
+        try (PreparedStatement stmt = connection.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                ids.add((UUID) rs.getObject(1));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Generate the bind values of an operation (on the dispatcher thread, Faker is not thread-safe)
+     */
+    private Object[] buildParams(OperationType type) {
+        UUID gameId = gameIds.get(random.nextInt(gameIds.size()));
+        return switch (type) {
+            case PATCH -> {
+                UUID patchId = FakerProvider.randomUuid(keys);
+                patchIds.add(patchId);
+                String platform = fakerProvider.randomElement(PLATFORMS);
+                double increment = fakerProvider.round(fakerProvider.randomDouble(0.1, 1.0), 1);
+                String comment = patchGenerator.generatePatchComment();
+                // Notes inline when short, in text_blob otherwise (text_blob_put returns null for a null text)
+                String notes = patchGenerator.generatePatchModifications();
+                boolean stored = notes.length() >= config.getTextBlobMinLength();
+                yield new Object[] {
+                    patchId, gameId, platform, increment, comment, stored ? null : notes, stored ? notes : null,
+                    fakerProvider.randomBooleanWithProbability(config.getPublishPercentage()), gameId
+                };
+            }
+            case VERSION -> new Object[] {fakerProvider.round(fakerProvider.randomDouble(0.1, 1.0), 1), gameId};
+            case PUBLISH -> new Object[] {gameId};
+            case EVALUATION -> {
+                int note = evaluationGenerator.generateRealisticRating();
+                yield new Object[] {gameId, evaluationGenerator.generateReviewDescription(note),
+                    fakerProvider.randomElement(PLATFORMS), note};
+            }
+            case BUG_REPORT -> {
+                UUID patchId = !patchIds.isEmpty() && fakerProvider.randomBooleanWithProbability(50)
+                    ? patchIds.get(random.nextInt(patchIds.size())) : null;
+                yield new Object[] {gameId, patchId, bugReportGenerator.generateBugDescription(),
+                    fakerProvider.randomElement(PLATFORMS)};
+            }
+        };
+    }
+
+    /**
+     * Execute one operation on the worker's own connection and record its latency
+     */
+    private void execute(OperationType type, Object[] params, long dueTime) {
+        long sendTime = System.nanoTime();
+        try {
+            PreparedStatement stmt = currentSession().statement(type);
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            if (errors.get(type).incrementAndGet() == 1) {
+                System.err.println("Simulated " + type.getKey() + " failed: " + e.getMessage());
+            }
+        }
+        long end = System.nanoTime();
+        serviceTimes.record(end - sendTime);
+        latencies.get(type).record(end - dueTime);
+    }
+
+    private WorkerSession currentSession() throws SQLException {
+        WorkerSession current = session.get();
+        if (current == null) {
+            Connection connection = dbConnection.openConnection(DatasetLayout.EDITOR_DB);
+            connection.setAutoCommit(true);
+            current = new WorkerSession(connection);
+            session.set(current);
+            sessions.add(current);
+        }
+        return current;
+    }
+
+    private void closeSessions() {
+        for (WorkerSession workerSession : sessions) {
+            try {
+                workerSession.connection.close();
+            } catch (SQLException e) {
+                System.err.println("Error closing simulator connection: " + e.getMessage());
+            }
+        }
+    }
+
+    private void printProgress(long start, long completed, int queueDepth) {
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        LatencyHistogram all = new LatencyHistogram();
+        latencies.values().forEach(all::add);
+        System.out.printf("  [%5.0fs] %d ops (%.0f ops/s), queue %d, p99 %.2fms%n",
+            elapsed, completed, completed / elapsed, queueDepth, all.percentile(99) / 1e6);
+    }
+
+    private void printReport(double seconds) {
+        System.out.println("\n" + "=".repeat(60));
+        System.out.println("TRAFFIC SIMULATION SUMMARY");
+        System.out.println("=".repeat(60));
+        LatencyHistogram all = new LatencyHistogram();
+        for (OperationType type : OperationType.values()) {
+            LatencyHistogram histogram = latencies.get(type);
+            if (histogram.getCount() == 0) {
+                continue;
+            }
+            all.add(histogram);
+            System.out.printf("%-11s %6.1f ops/s  errors=%d  %s%n", type.getKey(),
+                histogram.getCount() / seconds, errors.get(type).get(), histogram.summary());
+        }
+        System.out.printf("%-11s %6.1f ops/s  %s%n", "all", all.getCount() / seconds, all.summary());
+        System.out.println("Service time (without queueing): " + serviceTimes.summary());
+        System.out.println("=".repeat(60) + "\n");
+    }
+
+    /**
+     * Connection and cached statements of one worker thread
+     */
+    private static final class WorkerSession {
+        private final Connection connection;
+        private final Map<OperationType, PreparedStatement> statements = new EnumMap<>(OperationType.class);
+
+        private WorkerSession(Connection connection) {
+            this.connection = connection;
+        }
+
+        private PreparedStatement statement(OperationType type) throws SQLException {
+            PreparedStatement stmt = statements.get(type);
+            if (stmt == null) {
+                stmt = connection.prepareStatement(type.sql);
+                statements.put(type, stmt);
+            }
+            return stmt;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package simulation;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Weighted mix of operation kinds, parsed from "key=weight,key=weight,...".
+ * Kinds with a zero weight are left out of the mix.
+ */
+public final class WeightedMix<E extends Enum<E>> {
+    private final Map<E, Integer> weights;
+    private final int totalWeight;
+
+    private WeightedMix(Map<E, Integer> weights) {
+        this.weights = weights;
+        this.totalWeight = weights.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * Parse a mix; property is the configuration key, used in error messages
+     */
+    public static <E extends Enum<E>> WeightedMix<E> parse(String spec, String property, Class<E> type,
+                                                          Function<E, String> key) {
+        Map<E, Integer> weights = new EnumMap<>(type);
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid " + property + " entry: " + entry);
+            }
+            E kind = null;
+            for (E candidate : type.getEnumConstants()) {
+                if (key.apply(candidate).equals(parts[0].trim())) {
+                    kind = candidate;
+                }
+            }
+            if (kind == null) {
+                throw new IllegalArgumentException("Unknown operation in " + property + ": " + parts[0]);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(kind, weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException(property + " has no operation with a positive weight");
+        }
+        return new WeightedMix<>(weights);
+    }
+
+    /**
+     * Draw a kind proportionally to its weight
+     */
+    public E pick(Random random) {
+        int pick = random.nextInt(totalWeight);
+        for (Map.Entry<E, Integer> entry : weights.entrySet()) {
+            pick -= entry.getValue();
+            if (pick < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+
+    @Override
+    public String toString() {
+        return weights.toString();
+    }
+}
@@ -0,0 +1,162 @@
+package sinks;
+
+import events.BatchEvent;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import utils.LoadMetrics;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Buffer management shared by the COPY sinks.
+ * Rows are encoded into a reusable byte buffer which is sent with one COPY FROM STDIN each time
+ * it fills up, so several sinks can share a connection; a sink flushes its parent first so that
+ * foreign keys always point to rows that are already loaded.
+ */
+abstract class AbstractCopyRowSink implements RowSink {
+    private final CopyManager copyManager;
+    private final String table;
+    private final String copySql;
+    private final RowSink parent;
+    private final LoadMetrics.TableMetrics metrics;
+    protected final byte[] buffer;
+    protected int position;
+    protected int rowStart;
+    private long bufferedRows;
+    private long rowCount;
+
+    protected AbstractCopyRowSink(Connection connection, RowSink parent, String table, String copySql, int bufferSize)
+            throws SQLException {
+        this.copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+        this.table = table;
+        this.copySql = copySql;
+        this.parent = parent;
+        this.metrics = LoadMetrics.getInstance().table(connection.getCatalog(), table);
+        this.buffer = new byte[Math.max(bufferSize, 4096)];
+    }
+
+    /**
+     * Bytes sent before the rows of each COPY (none by default)
+     */
+    protected byte[] copyHeader() {
+        return null;
+    }
+
+    /**
+     * Bytes sent after the rows of each COPY (none by default)
+     */
+    protected byte[] copyTrailer() {
+        return null;
+    }
+
+    /**
+     * Make room for n more bytes, sending the complete rows already buffered if needed
+     */
+    protected void ensureCapacity(int bytes) throws SQLException {
+        if (position + bytes > buffer.length) {
+            if (rowStart == 0) {
+                throw new SQLException("Row larger than the COPY buffer (" + buffer.length + " bytes)");
+            }
+            flush();
+        }
+    }
+
+    /**
+     * Encode text as UTF-8, optionally applying the escapes of the COPY text format
+     */
+    protected void writeUtf8(CharSequence value, boolean copyTextEscapes) throws SQLException {
+        for (int i = 0; i < value.length(); i++) {
+            ensureCapacity(4);
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (copyTextEscapes && (c == '\\' || c == '\t' || c == '\n' || c == '\r')) {
+                    buffer[position++] = '\\';
+                    buffer[position++] = (byte) (c == '\\' ? '\\' : c == '\t' ? 't' : c == '\n' ? 'n' : 'r');
+                } else {
+                    buffer[position++] = (byte) c;
+                }
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | (c >> 6));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                       && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                buffer[position++] = '?';
+            } else {
+                buffer[position++] = (byte) (0xE0 | (c >> 12));
+                buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    /**
+     * Mark the bytes written so far as a complete row
+     */
+    protected void completeRow() {
+        rowStart = position;
+        bufferedRows++;
+        metrics.rowGenerated();
+    }
+
+    @Override
+    public void flush() throws SQLException {
+        if (rowStart == 0) {
+            return;
+        }
+        if (parent != null) {
+            parent.flush();
+        }
+        BatchEvent event = new BatchEvent();
+        event.begin();
+        long start = System.nanoTime();
+        CopyIn copyIn = copyManager.copyIn(copySql);
+        try {
+            byte[] header = copyHeader();
+            if (header != null) {
+                copyIn.writeToCopy(header, 0, header.length);
+            }
+            copyIn.writeToCopy(buffer, 0, rowStart);
+            byte[] trailer = copyTrailer();
+            if (trailer != null) {
+                copyIn.writeToCopy(trailer, 0, trailer.length);
+            }
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+        metrics.written(bufferedRows, rowStart, System.nanoTime() - start);
+        if (event.shouldCommit()) {
+            event.table = table;
+            event.sink = getClass().getSimpleName();
+            event.rows = bufferedRows;
+            event.bytes = rowStart;
+            event.commit();
+        }
+        // Keep the row being written, if any, at the start of the buffer
+        System.arraycopy(buffer, rowStart, buffer, 0, position - rowStart);
+        position -= rowStart;
+        rowStart = 0;
+        rowCount += bufferedRows;
+        bufferedRows = 0;
+    }
+
+    @Override
+    public long getRowCount() {
+        return rowCount + bufferedRows;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        flush();
+    }
+}
@@ -0,0 +1,49 @@
+package sinks;
+
+import events.BatchEvent;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Row sink adding each row to a JDBC batch, executed every batchSize rows.
+ * With reWriteBatchedInserts=true on the connection, the driver turns each batch into
+ * multi-row INSERT statements.
+ */
+public class BatchRowSink extends JdbcRowSink {
+    private final RowSink parent;
+    private final int batchSize;
+    private int pendingRows;
+
+    public BatchRowSink(Connection connection, RowSink parent, String table, String[] columns, int batchSize)
+            throws SQLException {
+        super(connection, table, columns);
+        this.parent = parent;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Override
+    public void endRow() throws SQLException {
+        statement.addBatch();
+        nextRow();
+        if (++pendingRows >= batchSize) {
+            flush();
+        }
+    }
+
+    @Override
+    public void flush() throws SQLException {
+        if (pendingRows == 0) {
+            return;
+        }
+        if (parent != null) {
+            parent.flush();
+        }
+        BatchEvent event = new BatchEvent();
+        event.begin();
+        long start = System.nanoTime();
+        statement.executeBatch();
+        roundTripDone(event, start, pendingRows);
+        pendingRows = 0;
+    }
+}
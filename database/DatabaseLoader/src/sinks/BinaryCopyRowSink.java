@@ -0,0 +1,177 @@
+package sinks;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * Row sink writing PostgreSQL COPY binary format into a reusable byte buffer.
+ * Every value is sent in its binary wire representation (16-byte UUIDs, IEEE doubles,
+ * length-prefixed UTF-8), so the server skips text parsing. Column types must match the
+ * table exactly (float8, int4, int2, bool, date, timestamp, uuid, text/varchar/enum).
+ */
+public class BinaryCopyRowSink extends AbstractCopyRowSink {
+    private static final byte[] HEADER = {
+        'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0, // signature
+        0, 0, 0, 0, // flags
+        0, 0, 0, 0  // header extension length
+    };
+    private static final byte[] TRAILER = {(byte) 0xFF, (byte) 0xFF};
+    // Binary dates are days since 2000-01-01
+    private static final long POSTGRES_EPOCH_DAY = LocalDate.of(2000, 1, 1).toEpochDay();
+    // Binary timestamps are microseconds since 2000-01-01 00:00:00
+    private static final long POSTGRES_EPOCH_SECOND = POSTGRES_EPOCH_DAY * 86_400L;
+
+    private final short columnCount;
+    private boolean firstColumn = true;
+
+    public BinaryCopyRowSink(Connection connection, RowSink parent, String table, String[] columns, int bufferSize)
+            throws SQLException {
+        super(connection, parent, table,
+            "COPY " + table + " (" + String.join(", ", columns) + ") FROM STDIN (FORMAT binary)", bufferSize);
+        this.columnCount = (short) columns.length;
+    }
+
+    @Override
+    protected byte[] copyHeader() {
+        return HEADER;
+    }
+
+    @Override
+    protected byte[] copyTrailer() {
+        return TRAILER;
+    }
+
+    @Override
+    public RowSink uuid(UUID value) throws SQLException {
+        return value == null ? nullValue() : uuid(value.getMostSignificantBits(), value.getLeastSignificantBits());
+    }
+
+    @Override
+    public RowSink uuid(long mostSigBits, long leastSigBits) throws SQLException {
+        startField(16);
+        writeLong(mostSigBits);
+        writeLong(leastSigBits);
+        return this;
+    }
+
+    @Override
+    public RowSink text(CharSequence value) throws SQLException {
+        if (value == null) {
+            return nullValue();
+        }
+        startColumn(4);
+        // Length is patched once the text is encoded; the slot is relative to the row start
+        // because the row moves to the start of the buffer if it fills up meanwhile
+        int lengthSlot = position - rowStart;
+        position += 4;
+        writeUtf8(value, false);
+        int slot = rowStart + lengthSlot;
+        int length = position - slot - 4;
+        buffer[slot] = (byte) (length >>> 24);
+        buffer[slot + 1] = (byte) (length >>> 16);
+        buffer[slot + 2] = (byte) (length >>> 8);
+        buffer[slot + 3] = (byte) length;
+        return this;
+    }
+
+    @Override
+    public RowSink enumValue(String value) throws SQLException {
+        // enum_recv takes the label as text
+        return text(value);
+    }
+
+    @Override
+    public RowSink float8(double value) throws SQLException {
+        startField(8);
+        writeLong(Double.doubleToLongBits(value));
+        return this;
+    }
+
+    @Override
+    public RowSink int4(int value) throws SQLException {
+        startField(4);
+        writeInt(value);
+        return this;
+    }
+
+    @Override
+    public RowSink int2(short value) throws SQLException {
+        startField(2);
+        buffer[position++] = (byte) (value >>> 8);
+        buffer[position++] = (byte) value;
+        return this;
+    }
+
+    @Override
+    public RowSink bool(boolean value) throws SQLException {
+        startField(1);
+        buffer[position++] = (byte) (value ? 1 : 0);
+        return this;
+    }
+
+    @Override
+    public RowSink date(LocalDate value) throws SQLException {
+        if (value == null) {
+            return nullValue();
+        }
+        startField(4);
+        writeInt((int) (value.toEpochDay() - POSTGRES_EPOCH_DAY));
+        return this;
+    }
+
+    @Override
+    public RowSink timestamp(LocalDateTime value) throws SQLException {
+        if (value == null) {
+            return nullValue();
+        }
+        startField(8);
+        writeLong((value.toEpochSecond(ZoneOffset.UTC) - POSTGRES_EPOCH_SECOND) * 1_000_000L + value.getNano() / 1000);
+        return this;
+    }
+
+    @Override
+    public RowSink nullValue() throws SQLException {
+        startColumn(4);
+        writeInt(-1);
+        return this;
+    }
+
+    /**
+     * Start a fixed-size field: length prefix followed by the value
+     */
+    private void startField(int length) throws SQLException {
+        startColumn(4 + length);
+        writeInt(length);
+    }
+
+    private void startColumn(int reserved) throws SQLException {
+        ensureCapacity(reserved + 2);
+        if (firstColumn) {
+            buffer[position++] = (byte) (columnCount >>> 8);
+            buffer[position++] = (byte) columnCount;
+            firstColumn = false;
+        }
+    }
+
+    private void writeInt(int value) {
+        buffer[position++] = (byte) (value >>> 24);
+        buffer[position++] = (byte) (value >>> 16);
+        buffer[position++] = (byte) (value >>> 8);
+        buffer[position++] = (byte) value;
+    }
+
+    private void writeLong(long value) {
+        writeInt((int) (value >>> 32));
+        writeInt((int) value);
+    }
+
+    @Override
+    public void endRow() {
+        firstColumn = true;
+        completeRow();
+    }
+}
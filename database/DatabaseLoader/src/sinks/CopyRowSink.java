@@ -0,0 +1,203 @@
+package sinks;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Row sink writing PostgreSQL COPY text format into a reusable byte buffer.
+ * Values are encoded in place (UTF-8, COPY escapes, hex UUIDs, decimal numbers) without
+ * intermediate strings.
+ */
+public class CopyRowSink extends AbstractCopyRowSink {
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+
+    private boolean firstColumn = true;
+
+    public CopyRowSink(Connection connection, RowSink parent, String table, String[] columns, int bufferSize)
+            throws SQLException {
+        super(connection, parent, table, "COPY " + table + " (" + String.join(", ", columns) + ") FROM STDIN", bufferSize);
+    }
+
+    @Override
+    public RowSink uuid(UUID value) throws SQLException {
+        return value == null ? nullValue() : uuid(value.getMostSignificantBits(), value.getLeastSignificantBits());
+    }
+
+    @Override
+    public RowSink uuid(long mostSigBits, long leastSigBits) throws SQLException {
+        startColumn(36);
+        writeHex(mostSigBits >>> 32, 8);
+        buffer[position++] = '-';
+        writeHex(mostSigBits >>> 16, 4);
+        buffer[position++] = '-';
+        writeHex(mostSigBits, 4);
+        buffer[position++] = '-';
+        writeHex(leastSigBits >>> 48, 4);
+        buffer[position++] = '-';
+        writeHex(leastSigBits, 12);
+        return this;
+    }
+
+    private void writeHex(long value, int digits) {
+        for (int i = digits - 1; i >= 0; i--) {
+            buffer[position + i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+        position += digits;
+    }
+
+    @Override
+    public RowSink text(CharSequence value) throws SQLException {
+        if (value == null) {
+            return nullValue();
+        }
+        startColumn(0);
+        writeUtf8(value, true);
+        return this;
+    }
+
+    @Override
+    public RowSink enumValue(String value) throws SQLException {
+        return text(value);
+    }
+
+    @Override
+    public RowSink float8(double value) throws SQLException {
+        // Values with at most 6 decimals (prices, versions) are written without allocating;
+        // anything else falls back to the shortest round-trip representation
+        long scaled = Math.round(value * 1_000_000);
+        if (Math.abs(scaled) < 1_000_000_000_000_000L && scaled / 1_000_000.0 == value) {
+            startColumn(28);
+            if (scaled < 0) {
+                buffer[position++] = '-';
+                scaled = -scaled;
+            }
+            writeDigits(scaled / 1_000_000);
+            long fraction = scaled % 1_000_000;
+            if (fraction != 0) {
+                buffer[position++] = '.';
+                int digits = 6;
+                while (fraction % 10 == 0) {
+                    fraction /= 10;
+                    digits--;
+                }
+                for (int i = digits - 1; i >= 0; i--) {
+                    buffer[position + i] = (byte) ('0' + fraction % 10);
+                    fraction /= 10;
+                }
+                position += digits;
+            }
+            return this;
+        }
+        return text(Double.toString(value));
+    }
+
+    @Override
+    public RowSink int4(int value) throws SQLException {
+        startColumn(11);
+        long v = value;
+        if (v < 0) {
+            buffer[position++] = '-';
+            v = -v;
+        }
+        writeDigits(v);
+        return this;
+    }
+
+    @Override
+    public RowSink int2(short value) throws SQLException {
+        return int4(value);
+    }
+
+    private void writeDigits(long value) {
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        for (int i = digits - 1; i >= 0; i--) {
+            buffer[position + i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position += digits;
+    }
+
+    @Override
+    public RowSink bool(boolean value) throws SQLException {
+        startColumn(1);
+        buffer[position++] = (byte) (value ? 't' : 'f');
+        return this;
+    }
+
+    @Override
+    public RowSink date(LocalDate value) throws SQLException {
+        if (value == null) {
+            return nullValue();
+        }
+        // ISO yyyy-mm-dd, read whatever the server DateStyle is
+        startColumn(10);
+        writePadded(value.getYear(), 4);
+        buffer[position++] = '-';
+        writePadded(value.getMonthValue(), 2);
+        buffer[position++] = '-';
+        writePadded(value.getDayOfMonth(), 2);
+        return this;
+    }
+
+    @Override
+    public RowSink timestamp(LocalDateTime value) throws SQLException {
+        if (value == null) {
+            return nullValue();
+        }
+        // ISO yyyy-mm-dd hh:mm:ss.uuuuuu
+        startColumn(26);
+        writePadded(value.getYear(), 4);
+        buffer[position++] = '-';
+        writePadded(value.getMonthValue(), 2);
+        buffer[position++] = '-';
+        writePadded(value.getDayOfMonth(), 2);
+        buffer[position++] = ' ';
+        writePadded(value.getHour(), 2);
+        buffer[position++] = ':';
+        writePadded(value.getMinute(), 2);
+        buffer[position++] = ':';
+        writePadded(value.getSecond(), 2);
+        buffer[position++] = '.';
+        writePadded(value.getNano() / 1000, 6);
+        return this;
+    }
+
+    private void writePadded(int value, int digits) {
+        for (int i = digits - 1; i >= 0; i--) {
+            buffer[position + i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position += digits;
+    }
+
+    @Override
+    public RowSink nullValue() throws SQLException {
+        startColumn(2);
+        buffer[position++] = '\\';
+        buffer[position++] = 'N';
+        return this;
+    }
+
+    private void startColumn(int reserved) throws SQLException {
+        ensureCapacity(reserved + 1);
+        if (!firstColumn) {
+            buffer[position++] = '\t';
+        }
+        firstColumn = false;
+    }
+
+    @Override
+    public void endRow() throws SQLException {
+        ensureCapacity(1);
+        buffer[position++] = '\n';
+        firstColumn = true;
+        completeRow();
+    }
+}
@@ -0,0 +1,162 @@
+package sinks;
+
+import events.BatchEvent;
+import utils.LoadMetrics;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Row sink executing one INSERT per row with a prepared statement.
+ */
+public class JdbcRowSink implements RowSink {
+    protected final String table;
+    protected final PreparedStatement statement;
+    protected final LoadMetrics.TableMetrics metrics;
+    private int parameterIndex = 1;
+    protected long rowCount;
+
+    public JdbcRowSink(Connection connection, String table, String[] columns) throws SQLException {
+        this(table, connection.prepareStatement(insertSql(table, columns, 1)));
+    }
+
+    protected JdbcRowSink(String table, PreparedStatement statement) throws SQLException {
+        this.table = table;
+        this.statement = statement;
+        this.metrics = LoadMetrics.getInstance().table(statement.getConnection().getCatalog(), table);
+    }
+
+    /**
+     * Build "INSERT INTO table (columns) VALUES (?, ...), ..." for the given number of rows
+     */
+    static String insertSql(String table, String[] columns, int rows) {
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table)
+            .append(" (").append(String.join(", ", columns)).append(") VALUES ");
+        for (int row = 0; row < rows; row++) {
+            sql.append(row == 0 ? "(" : ", (");
+            for (int i = 0; i < columns.length; i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+            }
+            sql.append(')');
+        }
+        return sql.toString();
+    }
+
+    @Override
+    public RowSink uuid(UUID value) throws SQLException {
+        statement.setObject(parameterIndex++, value);
+        return this;
+    }
+
+    @Override
+    public RowSink uuid(long mostSigBits, long leastSigBits) throws SQLException {
+        return uuid(new UUID(mostSigBits, leastSigBits));
+    }
+
+    @Override
+    public RowSink text(CharSequence value) throws SQLException {
+        statement.setString(parameterIndex++, value == null ? null : value.toString());
+        return this;
+    }
+
+    @Override
+    public RowSink enumValue(String value) throws SQLException {
+        // Sent untyped so that the server casts it to the column's enum type
+        statement.setObject(parameterIndex++, value, Types.OTHER);
+        return this;
+    }
+
+    @Override
+    public RowSink float8(double value) throws SQLException {
+        statement.setDouble(parameterIndex++, value);
+        return this;
+    }
+
+    @Override
+    public RowSink int4(int value) throws SQLException {
+        statement.setInt(parameterIndex++, value);
+        return this;
+    }
+
+    @Override
+    public RowSink int2(short value) throws SQLException {
+        statement.setShort(parameterIndex++, value);
+        return this;
+    }
+
+    @Override
+    public RowSink bool(boolean value) throws SQLException {
+        statement.setBoolean(parameterIndex++, value);
+        return this;
+    }
+
+    @Override
+    public RowSink date(LocalDate value) throws SQLException {
+        statement.setObject(parameterIndex++, value);
+        return this;
+    }
+
+    @Override
+    public RowSink timestamp(LocalDateTime value) throws SQLException {
+        statement.setObject(parameterIndex++, value);
+        return this;
+    }
+
+    @Override
+    public RowSink nullValue() throws SQLException {
+        statement.setNull(parameterIndex++, Types.NULL);
+        return this;
+    }
+
+    @Override
+    public void endRow() throws SQLException {
+        BatchEvent event = new BatchEvent();
+        event.begin();
+        long start = System.nanoTime();
+        statement.executeUpdate();
+        nextRow();
+        roundTripDone(event, start, 1);
+    }
+
+    /**
+     * Count a round trip that sent the given number of rows and emit its Flight Recorder event
+     */
+    protected void roundTripDone(BatchEvent event, long start, long rows) {
+        metrics.written(rows, 0, System.nanoTime() - start);
+        if (event.shouldCommit()) {
+            event.table = table;
+            event.sink = getClass().getSimpleName();
+            event.rows = rows;
+            event.commit();
+        }
+    }
+
+    /**
+     * Start binding the parameters of the next row
+     */
+    protected void nextRow() {
+        parameterIndex = 1;
+        rowCount++;
+        metrics.rowGenerated();
+    }
+
+    @Override
+    public void flush() throws SQLException {
+    }
+
+    @Override
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        flush();
+        statement.close();
+    }
+}
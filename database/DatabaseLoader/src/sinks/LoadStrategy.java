@@ -0,0 +1,41 @@
+package sinks;
+
+/**
+ * How generated rows are written to the database (load.strategy).
+ */
+public enum LoadStrategy {
+    /** One executeUpdate per row */
+    JDBC("jdbc"),
+    /** JDBC batch of load.batch.size rows */
+    BATCH("batch"),
+    /** Multi-row INSERT ... VALUES with load.batch.size rows per statement */
+    MULTI_VALUES("multi_values"),
+    /** JDBC batch with the driver's reWriteBatchedInserts connection option */
+    REWRITE_BATCH("rewrite_batch"),
+    /** COPY FROM STDIN in text format, rows encoded into a reusable buffer */
+    COPY("copy"),
+    /** COPY FROM STDIN in binary format, rows encoded into a reusable buffer */
+    BINARY_COPY("binary_copy");
+
+    private final String key;
+
+    LoadStrategy(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Parse a strategy from its configuration key
+     */
+    public static LoadStrategy fromKey(String key) {
+        for (LoadStrategy strategy : values()) {
+            if (strategy.key.equalsIgnoreCase(key.trim())) {
+                return strategy;
+            }
+        }
+        throw new IllegalArgumentException("Unknown load strategy: " + key);
+    }
+}
@@ -0,0 +1,180 @@
+package sinks;
+
+import events.BatchEvent;
+import utils.LoadMetrics;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Row sink sending rows as multi-row INSERT ... VALUES (...), (...) statements.
+ * Values are kept until rowsPerStatement rows are buffered, then bound to a prepared
+ * statement of that size; the remainder is sent with a statement of the exact size.
+ */
+public class MultiValuesRowSink implements RowSink {
+    // The protocol counts bind parameters on 16 bits
+    private static final int MAX_PARAMETERS = 32767;
+
+    private final Connection connection;
+    private final RowSink parent;
+    private final String table;
+    private final String[] columns;
+    private final int rowsPerStatement;
+    private final Object[] values;
+    private final int[] sqlTypes;
+    private final LoadMetrics.TableMetrics metrics;
+    private PreparedStatement fullStatement;
+    private int valueCount;
+    private int pendingRows;
+    private long rowCount;
+
+    public MultiValuesRowSink(Connection connection, RowSink parent, String table, String[] columns, int batchSize)
+            throws SQLException {
+        this.connection = connection;
+        this.parent = parent;
+        this.table = table;
+        this.columns = columns;
+        this.rowsPerStatement = Math.max(1, Math.min(batchSize, MAX_PARAMETERS / columns.length));
+        this.values = new Object[rowsPerStatement * columns.length];
+        this.sqlTypes = new int[values.length];
+        this.metrics = LoadMetrics.getInstance().table(connection.getCatalog(), table);
+    }
+
+    private RowSink add(Object value, int sqlType) {
+        values[valueCount] = value;
+        sqlTypes[valueCount++] = sqlType;
+        return this;
+    }
+
+    @Override
+    public RowSink uuid(UUID value) {
+        return value == null ? nullValue() : add(value, Types.OTHER);
+    }
+
+    @Override
+    public RowSink uuid(long mostSigBits, long leastSigBits) {
+        return add(new UUID(mostSigBits, leastSigBits), Types.OTHER);
+    }
+
+    @Override
+    public RowSink text(CharSequence value) {
+        return value == null ? nullValue() : add(value.toString(), Types.VARCHAR);
+    }
+
+    @Override
+    public RowSink enumValue(String value) {
+        // Sent untyped so that the server casts it to the column's enum type
+        return value == null ? nullValue() : add(value, Types.OTHER);
+    }
+
+    @Override
+    public RowSink float8(double value) {
+        return add(value, Types.DOUBLE);
+    }
+
+    @Override
+    public RowSink int4(int value) {
+        return add(value, Types.INTEGER);
+    }
+
+    @Override
+    public RowSink int2(short value) {
+        return add(value, Types.SMALLINT);
+    }
+
+    @Override
+    public RowSink bool(boolean value) {
+        return add(value, Types.BOOLEAN);
+    }
+
+    @Override
+    public RowSink date(LocalDate value) {
+        return value == null ? nullValue() : add(value, Types.DATE);
+    }
+
+    @Override
+    public RowSink timestamp(LocalDateTime value) {
+        return value == null ? nullValue() : add(value, Types.TIMESTAMP);
+    }
+
+    @Override
+    public RowSink nullValue() {
+        return add(null, Types.NULL);
+    }
+
+    @Override
+    public void endRow() throws SQLException {
+        pendingRows++;
+        rowCount++;
+        metrics.rowGenerated();
+        if (pendingRows == rowsPerStatement) {
+            flush();
+        }
+    }
+
+    @Override
+    public void flush() throws SQLException {
+        if (pendingRows == 0) {
+            return;
+        }
+        if (parent != null) {
+            parent.flush();
+        }
+        BatchEvent event = new BatchEvent();
+        event.begin();
+        long start = System.nanoTime();
+        if (pendingRows == rowsPerStatement) {
+            if (fullStatement == null) {
+                fullStatement = connection.prepareStatement(JdbcRowSink.insertSql(table, columns, rowsPerStatement));
+            }
+            execute(fullStatement);
+        } else {
+            try (PreparedStatement statement =
+                     connection.prepareStatement(JdbcRowSink.insertSql(table, columns, pendingRows))) {
+                execute(statement);
+            }
+        }
+        metrics.written(pendingRows, 0, System.nanoTime() - start);
+        if (event.shouldCommit()) {
+            event.table = table;
+            event.sink = getClass().getSimpleName();
+            event.rows = pendingRows;
+            event.commit();
+        }
+        valueCount = 0;
+        pendingRows = 0;
+    }
+
+    private void execute(PreparedStatement statement) throws SQLException {
+        for (int i = 0; i < valueCount; i++) {
+            Object value = values[i];
+            if (value == null) {
+                statement.setNull(i + 1, Types.NULL);
+            } else if (value instanceof UUID) {
+                statement.setObject(i + 1, value);
+            } else {
+                statement.setObject(i + 1, value, sqlTypes[i]);
+            }
+            values[i] = null;
+        }
+        statement.executeUpdate();
+    }
+
+    @Override
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        flush();
+        if (fullStatement != null) {
+            fullStatement.close();
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package sinks;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Row sinks writing straight into the partitions of a partitioned table, so that the server
+ * does not route every row through the parent. The partitions and their bounds are read from
+ * the catalog when the sinks are opened; a sink is opened per partition on first use.
+ * Range partitions are picked by timestamp, hash partitions by a key resolved beforehand
+ * with {@link #resolveHashKeys(Collection)}. A table that is not partitioned gets a single
+ * sink on the table itself.
+ */
+public final class PartitionedRowSinks implements AutoCloseable {
+    private static final Pattern RANGE_BOUND = Pattern.compile("FROM \\('([^']+)'\\) TO \\('([^']+)'\\)");
+    private static final Pattern HASH_BOUND = Pattern.compile("modulus (\\d+), remainder (\\d+)");
+    private static final DateTimeFormatter BOUND_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final Connection connection;
+    private final RowSink parent;
+    private final String table;
+    private final String[] columns;
+    private final Map<String, RowSink> sinks = new LinkedHashMap<>();
+    // Range partitions by lower bound, with their upper bound
+    private final TreeMap<LocalDateTime, RangePartition> ranges = new TreeMap<>();
+    private final Map<String, int[]> hashBounds = new LinkedHashMap<>();
+    private final Map<UUID, String> hashPartitions = new HashMap<>();
+
+    private record RangePartition(String name, LocalDateTime upper) {
+    }
+
+    private PartitionedRowSinks(Connection connection, RowSink parent, String table, String[] columns) {
+        this.connection = connection;
+        this.parent = parent;
+        this.table = table;
+        this.columns = columns;
+    }
+
+    /**
+     * Read the partitions of a table; buffered rows of the parent sink are sent first
+     */
+    public static PartitionedRowSinks open(Connection connection, RowSink parent, String table, String... columns)
+            throws SQLException {
+        PartitionedRowSinks sinks = new PartitionedRowSinks(connection, parent, table, columns);
+        for (Map.Entry<String, String> partition : partitions(connection, table).entrySet()) {
+            Matcher range = RANGE_BOUND.matcher(partition.getValue());
+            Matcher hash = HASH_BOUND.matcher(partition.getValue());
+            if (range.find()) {
+                sinks.ranges.put(LocalDateTime.parse(range.group(1), BOUND_FORMAT),
+                    new RangePartition(partition.getKey(), LocalDateTime.parse(range.group(2), BOUND_FORMAT)));
+            } else if (hash.find()) {
+                sinks.hashBounds.put(partition.getKey(),
+                    new int[] {Integer.parseInt(hash.group(1)), Integer.parseInt(hash.group(2))});
+            } else {
+                throw new SQLException("Unsupported partition bound of " + partition.getKey() + ": " +
+                    partition.getValue());
+            }
+        }
+        return sinks;
+    }
+
+    /**
+     * Leaf partitions of a table with their bound expression, in name order (empty if not partitioned)
+     */
+    public static Map<String, String> partitions(Connection connection, String table) throws SQLException {
+        Map<String, String> partitions = new LinkedHashMap<>();
+        try (PreparedStatement stmt = connection.prepareStatement(
+                 "SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) FROM pg_inherits i " +
+                 "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = ?::regclass ORDER BY c.relname")) {
+            stmt.setString(1, table);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    partitions.put(rs.getString(1), rs.getString(2));
+                }
+            }
+        }
+        return partitions;
+    }
+
+    /**
+     * Compute the hash partition of every key with the server hash function (satisfies_hash_partition),
+     * one round trip for all keys
+     */
+    public void resolveHashKeys(Collection<UUID> keys) throws SQLException {
+        if (hashBounds.isEmpty() || keys.isEmpty()) {
+            return;
+        }
+        List<String> names = new ArrayList<>(hashBounds.keySet());
+        Integer[] moduli = new Integer[names.size()];
+        Integer[] remainders = new Integer[names.size()];
+        for (int i = 0; i < names.size(); i++) {
+            moduli[i] = hashBounds.get(names.get(i))[0];
+            remainders[i] = hashBounds.get(names.get(i))[1];
+        }
+        try (PreparedStatement stmt = connection.prepareStatement(
+                 "SELECT k.key, p.name FROM unnest(?::uuid[]) AS k(key) " +
+                 "JOIN unnest(?::text[], ?::int[], ?::int[]) AS p(name, modulus, remainder) " +
+                 "ON satisfies_hash_partition(?::regclass, p.modulus, p.remainder, k.key)")) {
+            Array keyArray = connection.createArrayOf("uuid", keys.toArray());
+            stmt.setArray(1, keyArray);
+            stmt.setArray(2, connection.createArrayOf("text", names.toArray()));
+            stmt.setArray(3, connection.createArrayOf("int4", moduli));
+            stmt.setArray(4, connection.createArrayOf("int4", remainders));
+            stmt.setString(5, table);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    hashPartitions.put((UUID) rs.getObject(1), rs.getString(2));
+                }
+            }
+        }
+    }
+
+    /**
+     * Sink of the range partition holding a timestamp
+     */
+    public RowSink forTimestamp(LocalDateTime value) throws SQLException {
+        if (ranges.isEmpty()) {
+            return sink(table);
+        }
+        Map.Entry<LocalDateTime, RangePartition> entry = ranges.floorEntry(value);
+        if (entry == null || !value.isBefore(entry.getValue().upper())) {
+            throw new SQLException("No partition of " + table + " for " + value);
+        }
+        return sink(entry.getValue().name());
+    }
+
+    /**
+     * Sink of the hash partition of a key resolved with {@link #resolveHashKeys(Collection)}
+     */
+    public RowSink forHashKey(UUID key) throws SQLException {
+        if (hashBounds.isEmpty()) {
+            return sink(table);
+        }
+        String partition = hashPartitions.get(key);
+        if (partition == null) {
+            throw new SQLException("Hash partition of " + table + " not resolved for " + key);
+        }
+        return sink(partition);
+    }
+
+    private RowSink sink(String name) throws SQLException {
+        RowSink sink = sinks.get(name);
+        if (sink == null) {
+            sink = RowSinks.open(connection, parent, name, columns);
+            sinks.put(name, sink);
+        }
+        return sink;
+    }
+
+    /**
+     * Rows written over all partitions
+     */
+    public long getRowCount() {
+        long rows = 0;
+        for (RowSink sink : sinks.values()) {
+            rows += sink.getRowCount();
+        }
+        return rows;
+    }
+
+    /**
+     * Flush and close every partition sink
+     */
+    @Override
+    public void close() throws SQLException {
+        SQLException failure = null;
+        for (RowSink sink : sinks.values()) {
+            try {
+                sink.close();
+            } catch (SQLException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        sinks.clear();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Create the monthly partitions of a range-partitioned table for [from, to]
+     * through its "table_create_partitions" function, returns the number created
+     */
+    public static int createRangePartitions(Connection connection, String table, LocalDateTime from,
+                                            LocalDateTime to) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                 "SELECT " + table + "_create_partitions(?::date, ?::date)")) {
+            stmt.setObject(1, from.toLocalDate());
+            stmt.setObject(2, to.toLocalDate());
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    /**
+     * Whether the table is partitioned
+     */
+    public static boolean isPartitioned(Connection connection, String table) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT relkind = 'p' FROM pg_class WHERE oid = '" + table + "'::regclass")) {
+            return rs.next() && rs.getBoolean(1);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package sinks;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Destination of generated rows for one table.
+ * Values are appended column by column, in the order the sink was opened with, then the row
+ * is closed with {@link #endRow()}. Implementations encode values directly into their wire
+ * format so that producing a row does not need intermediate objects.
+ */
+public interface RowSink extends AutoCloseable {
+    RowSink uuid(UUID value) throws SQLException;
+
+    RowSink uuid(long mostSigBits, long leastSigBits) throws SQLException;
+
+    RowSink text(CharSequence value) throws SQLException;
+
+    /**
+     * Value of a PostgreSQL enum column (e.g. platform_enum)
+     */
+    RowSink enumValue(String value) throws SQLException;
+
+    RowSink float8(double value) throws SQLException;
+
+    RowSink int4(int value) throws SQLException;
+
+    RowSink int2(short value) throws SQLException;
+
+    RowSink bool(boolean value) throws SQLException;
+
+    RowSink date(LocalDate value) throws SQLException;
+
+    /**
+     * Value of a timestamp (without time zone) column, to the microsecond
+     */
+    RowSink timestamp(LocalDateTime value) throws SQLException;
+
+    RowSink nullValue() throws SQLException;
+
+    /**
+     * Finish the current row
+     */
+    void endRow() throws SQLException;
+
+    /**
+     * Send buffered rows to the database (no-op for unbuffered sinks)
+     */
+    void flush() throws SQLException;
+
+    /**
+     * Number of rows written so far
+     */
+    long getRowCount();
+
+    /**
+     * Flush remaining rows and release resources
+     */
+    @Override
+    void close() throws SQLException;
+}
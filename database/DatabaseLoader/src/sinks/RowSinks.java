@@ -0,0 +1,45 @@
+package sinks;
+
+import config.DatabaseConfig;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Factory for row sinks, following the configured load strategy (load.strategy).
+ */
+public final class RowSinks {
+    private RowSinks() {
+    }
+
+    /**
+     * Open a sink for a table with the configured strategy
+     */
+    public static RowSink open(Connection connection, String table, String... columns) throws SQLException {
+        return open(connection, null, table, columns);
+    }
+
+    /**
+     * Open a sink for a child table: buffered rows of the parent sink are sent first
+     */
+    public static RowSink open(Connection connection, RowSink parent, String table, String... columns)
+            throws SQLException {
+        return open(DatabaseConfig.getInstance().getLoadStrategy(), connection, parent, table, columns);
+    }
+
+    /**
+     * Open a sink with an explicit strategy
+     */
+    public static RowSink open(LoadStrategy strategy, Connection connection, RowSink parent, String table,
+                               String... columns) throws SQLException {
+        DatabaseConfig config = DatabaseConfig.getInstance();
+        return switch (strategy) {
+            case JDBC -> new JdbcRowSink(connection, table, columns);
+            case BATCH, REWRITE_BATCH -> new BatchRowSink(connection, parent, table, columns, config.getLoadBatchSize());
+            case MULTI_VALUES -> new MultiValuesRowSink(connection, parent, table, columns, config.getLoadBatchSize());
+            case COPY -> new CopyRowSink(connection, parent, table, columns, config.getLoadCopyBufferKb() * 1024);
+            case BINARY_COPY ->
+                new BinaryCopyRowSink(connection, parent, table, columns, config.getLoadCopyBufferKb() * 1024);
+        };
+    }
+}
@@ -0,0 +1,121 @@
+package sinks;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Writer of the content-addressed text store (text_blob, 01_editor.sql / 02_platform.sql).
+ * Only texts of at least a minimum length go to the store ({@link #holds}); shorter ones cost less
+ * inline than their hash, tuple and index entry, and are written in the referencing row.
+ * A text is keyed by the first 128 bits of its SHA-256 (the text_hash SQL function), and written
+ * only the first time it is seen: the hashes already in the table are read when the store is
+ * opened, so the blob sink never conflicts on the primary key whatever the load strategy.
+ * Rows referencing the store must be written through a sink opened with {@link #sink()} as
+ * parent, so that blobs reach the database before the rows pointing at them.
+ */
+public final class TextStore implements AutoCloseable {
+    private final RowSink sink;
+    private final Set<UUID> known = new HashSet<>();
+    private final MessageDigest digest;
+    private final int minLength;
+    private long references;
+
+    private TextStore(RowSink sink, MessageDigest digest, int minLength) {
+        this.sink = sink;
+        this.digest = digest;
+        this.minLength = minLength;
+    }
+
+    /**
+     * Open the store of a database, for the texts of at least minLength characters;
+     * buffered rows of the parent sink are sent first
+     */
+    public static TextStore open(Connection connection, RowSink parent, int minLength) throws SQLException {
+        TextStore store = new TextStore(RowSinks.open(connection, parent, "text_blob", "hash", "body"), sha256(),
+            minLength);
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT hash FROM text_blob")) {
+            while (rs.next()) {
+                store.known.add((UUID) rs.getObject(1));
+            }
+        }
+        return store;
+    }
+
+    /**
+     * Check whether a text belongs in the store (long enough), rather than inline
+     */
+    public boolean holds(CharSequence text) {
+        return text != null && text.length() >= minLength;
+    }
+
+    /**
+     * Store a text (once) and return its hash, null for a null text
+     */
+    public UUID put(CharSequence text) throws SQLException {
+        if (text == null) {
+            return null;
+        }
+        UUID hash = hash(digest, text);
+        references++;
+        if (known.add(hash)) {
+            sink.uuid(hash).text(text).endRow();
+        }
+        return hash;
+    }
+
+    /**
+     * Sink of the blobs, parent of the sinks of the rows referencing them
+     */
+    public RowSink sink() {
+        return sink;
+    }
+
+    /**
+     * Texts stored by this store (distinct)
+     */
+    public long getStoredCount() {
+        return sink.getRowCount();
+    }
+
+    /**
+     * Texts put into this store, duplicates included
+     */
+    public long getReferenceCount() {
+        return references;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        sink.close();
+    }
+
+    /**
+     * Hash of a text: the first 128 bits of the SHA-256 of its UTF-8 bytes, as a UUID
+     */
+    public static UUID hash(CharSequence text) {
+        return hash(sha256(), text);
+    }
+
+    private static UUID hash(MessageDigest digest, CharSequence text) {
+        ByteBuffer hash = ByteBuffer.wrap(digest.digest(text.toString().getBytes(StandardCharsets.UTF_8)));
+        return new UUID(hash.getLong(), hash.getLong());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package utils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures the heap bytes allocated by the current thread between two points.
+ * Relies on the HotSpot thread allocation counters; reports nothing where they are unavailable.
+ */
+public final class AllocationMeter {
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+
+    private final long startBytes;
+
+    private AllocationMeter() {
+        this.startBytes = currentThreadAllocatedBytes();
+    }
+
+    /**
+     * Start measuring on the current thread
+     */
+    public static AllocationMeter start() {
+        return new AllocationMeter();
+    }
+
+    /**
+     * Bytes allocated by the current thread since start, or -1 if unsupported
+     */
+    public long allocatedBytes() {
+        long now = currentThreadAllocatedBytes();
+        return now < 0 || startBytes < 0 ? -1 : now - startBytes;
+    }
+
+    /**
+     * Allocation per row, formatted for progress lines (e.g. "38 B/row allocated")
+     */
+    public String perRow(long rows) {
+        long bytes = allocatedBytes();
+        if (bytes < 0 || rows <= 0) {
+            return "allocation not measured";
+        }
+        return String.format("%.0f B/row allocated", (double) bytes / rows);
+    }
+
+    private static long currentThreadAllocatedBytes() {
+        return THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean hotspot && hotspot.isThreadAllocatedMemorySupported()) {
+            hotspot.setThreadAllocatedMemoryEnabled(true);
+            return hotspot;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,215 @@
+package utils;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reader of the Avro object container files written by {@link AvroFileWriter} (null or deflate codec).
+ * Blocks are read by offset, so that an index can point at the only blocks worth decoding;
+ * the records of a block are then decoded field by field in schema order.
+ */
+public class AvroFileReader implements Closeable {
+    private static final byte[] MAGIC = {'O', 'b', 'j', 1};
+
+    private final RandomAccessFile file;
+    private final Map<String, String> metadata = new HashMap<>();
+    private final byte[] sync = new byte[16];
+    private final long dataOffset;
+    private final boolean deflate;
+    private final Inflater inflater = new Inflater(true);
+
+    private byte[] block = new byte[64 * 1024];
+    private int blockLength;
+    private int cursor;
+    private long remaining;
+
+    public AvroFileReader(Path path) throws IOException {
+        this.file = new RandomAccessFile(path.toFile(), "r");
+        byte[] magic = new byte[MAGIC.length];
+        file.readFully(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            file.close();
+            throw new IOException("Not an Avro object container file: " + path);
+        }
+        for (long count = readFileLong(); count != 0; count = readFileLong()) {
+            if (count < 0) {
+                readFileLong(); // block size in bytes
+                count = -count;
+            }
+            for (long i = 0; i < count; i++) {
+                String key = new String(readFileBytes(), StandardCharsets.UTF_8);
+                metadata.put(key, new String(readFileBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        file.readFully(sync);
+        this.dataOffset = file.getFilePointer();
+        String codec = metadata.getOrDefault("avro.codec", "null");
+        if (!codec.equals("null") && !codec.equals("deflate")) {
+            file.close();
+            throw new IOException("Unsupported Avro codec " + codec + ": " + path);
+        }
+        this.deflate = codec.equals("deflate");
+    }
+
+    /**
+     * Writer schema (JSON) of the file
+     */
+    public String getSchema() {
+        return metadata.get("avro.schema");
+    }
+
+    /**
+     * Offset of the first block
+     */
+    public long getDataOffset() {
+        return dataOffset;
+    }
+
+    /**
+     * Load the block at an offset; returns its number of records, then {@link #hasNext()} walks them
+     */
+    public long readBlock(long offset) throws IOException {
+        file.seek(offset);
+        long count = readFileLong();
+        int size = (int) readFileLong();
+        byte[] raw = new byte[size];
+        file.readFully(raw);
+        byte[] marker = new byte[sync.length];
+        file.readFully(marker);
+        if (!Arrays.equals(marker, sync)) {
+            throw new IOException("Sync marker mismatch after the block at offset " + offset);
+        }
+        if (deflate) {
+            inflate(raw);
+        } else {
+            block = raw;
+            blockLength = size;
+        }
+        cursor = 0;
+        remaining = count;
+        return count;
+    }
+
+    /**
+     * Offset of the block following the last one read, -1 at the end of the file
+     */
+    public long nextBlockOffset() throws IOException {
+        return file.getFilePointer() < file.length() ? file.getFilePointer() : -1;
+    }
+
+    /**
+     * Move to the next record of the current block, false once all were read
+     */
+    public boolean hasNext() {
+        if (remaining == 0) {
+            return false;
+        }
+        remaining--;
+        return true;
+    }
+
+    public String string() throws IOException {
+        int size = (int) readLong();
+        if (cursor + size > blockLength) {
+            throw new EOFException("String past the end of the block");
+        }
+        String value = new String(block, cursor, size, StandardCharsets.UTF_8);
+        cursor += size;
+        return value;
+    }
+
+    public int int4() throws IOException {
+        return (int) readLong();
+    }
+
+    public long int8() throws IOException {
+        return readLong();
+    }
+
+    public int enumIndex() throws IOException {
+        return (int) readLong();
+    }
+
+    public int unionIndex() throws IOException {
+        return (int) readLong();
+    }
+
+    public String nullableString() throws IOException {
+        return readLong() == 0 ? null : string();
+    }
+
+    public Integer nullableInt4() throws IOException {
+        return readLong() == 0 ? null : int4();
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        file.close();
+    }
+
+    private void inflate(byte[] raw) throws IOException {
+        inflater.reset();
+        inflater.setInput(raw);
+        blockLength = 0;
+        try {
+            while (!inflater.finished()) {
+                if (blockLength == block.length) {
+                    block = Arrays.copyOf(block, block.length * 2);
+                }
+                int inflated = inflater.inflate(block, blockLength, block.length - blockLength);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated deflate block");
+                }
+                blockLength += inflated;
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt deflate block", e);
+        }
+    }
+
+    // Zig-zag variable-length decoding, from the current block
+    private long readLong() throws IOException {
+        long n = 0;
+        for (int shift = 0; ; shift += 7) {
+            if (cursor >= blockLength) {
+                throw new EOFException("Value past the end of the block");
+            }
+            int b = block[cursor++] & 0xFF;
+            n |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (n >>> 1) ^ -(n & 1);
+            }
+        }
+    }
+
+    // Same decoding, from the file (header and block headers)
+    private long readFileLong() throws IOException {
+        long n = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = file.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            n |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (n >>> 1) ^ -(n & 1);
+            }
+        }
+    }
+
+    private byte[] readFileBytes() throws IOException {
+        byte[] bytes = new byte[(int) readFileLong()];
+        file.readFully(bytes);
+        return bytes;
+    }
+}
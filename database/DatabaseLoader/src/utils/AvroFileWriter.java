@@ -0,0 +1,236 @@
+package utils;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * Minimal writer of Avro object container files (deflate codec), readable by any Avro library.
+ * The caller encodes each record field by field in schema order, then ends it with its index key.
+ * Records are grouped in blocks of blockRows, each compressed on its own and followed by the sync
+ * marker, so that a reader can seek to a block; the blocks are described (offset, rows, first and
+ * last key) for the caller's index. The file is synced to disk on close.
+ */
+public class AvroFileWriter implements Closeable {
+    private static final byte[] MAGIC = {'O', 'b', 'j', 1};
+
+    /**
+     * One written block: file offset of its header, number of records, keys of its first and last record
+     */
+    public record Block(long offset, int rows, String firstKey, String lastKey) {
+    }
+
+    private final FileOutputStream file;
+    private final OutputStream out;
+    private final int blockRows;
+    private final byte[] sync = new byte[16];
+    private final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+    private final List<Block> blocks = new ArrayList<>();
+
+    private byte[] buffer = new byte[64 * 1024];
+    private int length;
+    private byte[] compressed = new byte[64 * 1024];
+    private long position;
+    private int rows;
+    private long totalRows;
+    private String firstKey;
+    private String lastKey;
+    private boolean closed;
+
+    public AvroFileWriter(Path path, String schema, int blockRows) throws IOException {
+        this.file = new FileOutputStream(path.toFile());
+        this.out = new BufferedOutputStream(file, 64 * 1024);
+        this.blockRows = blockRows;
+        new SecureRandom().nextBytes(sync);
+
+        // Header: magic, metadata map (schema and codec), sync marker
+        writeRaw(MAGIC, MAGIC.length);
+        writeLong(2);
+        string("avro.schema");
+        writeBytes(schema.getBytes(StandardCharsets.UTF_8));
+        string("avro.codec");
+        writeBytes("deflate".getBytes(StandardCharsets.US_ASCII));
+        writeLong(0);
+        writeRaw(sync, sync.length);
+        flushBuffer();
+    }
+
+    public AvroFileWriter string(CharSequence value) {
+        byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+        writeBytes(bytes);
+        return this;
+    }
+
+    public AvroFileWriter int4(int value) {
+        writeLong(value);
+        return this;
+    }
+
+    public AvroFileWriter int8(long value) {
+        writeLong(value);
+        return this;
+    }
+
+    /**
+     * Enum symbol by its index in the schema
+     */
+    public AvroFileWriter enumIndex(int index) {
+        writeLong(index);
+        return this;
+    }
+
+    /**
+     * Branch of a union, by its index in the schema; the value (if not null) follows
+     */
+    public AvroFileWriter unionIndex(int branch) {
+        writeLong(branch);
+        return this;
+    }
+
+    /**
+     * ["null", "string"] union
+     */
+    public AvroFileWriter nullableString(CharSequence value) {
+        if (value == null) {
+            writeLong(0);
+            return this;
+        }
+        writeLong(1);
+        return string(value);
+    }
+
+    /**
+     * ["null", "int"] union
+     */
+    public AvroFileWriter nullableInt4(Integer value) {
+        if (value == null) {
+            writeLong(0);
+            return this;
+        }
+        writeLong(1);
+        return int4(value);
+    }
+
+    /**
+     * End the current record; key is recorded in the block index
+     */
+    public void endRecord(String key) throws IOException {
+        if (rows == 0) {
+            firstKey = key;
+        }
+        lastKey = key;
+        rows++;
+        totalRows++;
+        if (rows >= blockRows) {
+            writeBlock();
+        }
+    }
+
+    public List<Block> getBlocks() {
+        return blocks;
+    }
+
+    public long getRowCount() {
+        return totalRows;
+    }
+
+    /**
+     * Bytes written so far (the file size once closed)
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * Write the last block, then flush and sync the file; closing again does nothing
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            writeBlock();
+            out.flush();
+            file.getFD().sync();
+        } finally {
+            deflater.end();
+            out.close();
+        }
+    }
+
+    /**
+     * Block: record count, compressed size, deflated records, sync marker
+     */
+    private void writeBlock() throws IOException {
+        if (rows == 0) {
+            return;
+        }
+        deflater.reset();
+        deflater.setInput(buffer, 0, length);
+        deflater.finish();
+        int size = 0;
+        while (!deflater.finished()) {
+            if (size == compressed.length) {
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            }
+            size += deflater.deflate(compressed, size, compressed.length - size);
+        }
+
+        long offset = position;
+        length = 0;
+        writeLong(rows);
+        writeLong(size);
+        flushBuffer();
+        out.write(compressed, 0, size);
+        position += size;
+        out.write(sync);
+        position += sync.length;
+        blocks.add(new Block(offset, rows, firstKey, lastKey));
+        rows = 0;
+    }
+
+    private void flushBuffer() throws IOException {
+        out.write(buffer, 0, length);
+        position += length;
+        length = 0;
+    }
+
+    private void writeBytes(byte[] bytes) {
+        writeLong(bytes.length);
+        writeRaw(bytes, bytes.length);
+    }
+
+    // Zig-zag variable-length encoding of int and long
+    private void writeLong(long value) {
+        ensure(10);
+        long n = (value << 1) ^ (value >> 63);
+        while ((n & ~0x7FL) != 0) {
+            buffer[length++] = (byte) ((n & 0x7F) | 0x80);
+            n >>>= 7;
+        }
+        buffer[length++] = (byte) n;
+    }
+
+    private void writeRaw(byte[] bytes, int count) {
+        ensure(count);
+        System.arraycopy(bytes, 0, buffer, length, count);
+        length += count;
+    }
+
+    private void ensure(int extra) {
+        if (length + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+        }
+    }
+}
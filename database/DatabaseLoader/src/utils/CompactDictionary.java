@@ -0,0 +1,167 @@
+package utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Dictionary loaded from the compact binary file produced by {@link DictionaryCompiler}.
+ * Opening it only reads the file and its index; the values of an entry are decoded the first
+ * time the entry is used. No YAML parsing and no Datafaker initialization is involved.
+ *
+ * File format: magic, version, entry count, then per entry (name, value count, byte length),
+ * followed by the values of every entry in the same order (modified UTF-8).
+ */
+public class CompactDictionary implements TextDictionary {
+    public static final int MAGIC = 0x53444943; // "SDIC"
+    public static final int VERSION = 1;
+    public static final String DEFAULT_RESOURCE = "faker-dictionary.bin";
+
+    private static final char[] PASSWORD_CHARS =
+        "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789".toCharArray();
+
+    private final byte[] data;
+    private final Random random;
+    private final Map<DictionaryKey, int[]> index = new EnumMap<>(DictionaryKey.class); // {offset, count}
+    private final String[][] values = new String[DictionaryKey.values().length][];
+    private long decodeNanos;
+
+    private CompactDictionary(byte[] data, Random random) throws IOException {
+        this.data = data;
+        this.random = random;
+        readIndex();
+    }
+
+    /**
+     * Open the dictionary from a file, or from the classpath resource when file is empty.
+     * Returns null if the dictionary cannot be found.
+     */
+    public static CompactDictionary open(String file, Random random) throws IOException {
+        byte[] data;
+        if (file != null && !file.isEmpty()) {
+            Path path = Path.of(file);
+            if (!Files.exists(path)) {
+                return null;
+            }
+            data = Files.readAllBytes(path);
+        } else {
+            try (InputStream in = CompactDictionary.class.getClassLoader().getResourceAsStream(DEFAULT_RESOURCE)) {
+                if (in == null) {
+                    return null;
+                }
+                data = in.readAllBytes();
+            }
+        }
+        return new CompactDictionary(data, random);
+    }
+
+    private void readIndex() throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Not a compact dictionary (or unsupported version)");
+        }
+        int entries = in.readInt();
+        String[] names = new String[entries];
+        int[] counts = new int[entries];
+        int[] lengths = new int[entries];
+        for (int i = 0; i < entries; i++) {
+            names[i] = in.readUTF();
+            counts[i] = in.readInt();
+            lengths[i] = in.readInt();
+        }
+        int offset = data.length - in.available();
+        for (int i = 0; i < entries; i++) {
+            index.put(DictionaryKey.valueOf(names[i]), new int[] {offset, counts[i]});
+            offset += lengths[i];
+        }
+        for (DictionaryKey key : DictionaryKey.values()) {
+            if (!index.containsKey(key)) {
+                throw new IOException("Compact dictionary has no entry for " + key + ", recompile it");
+            }
+        }
+    }
+
+    /**
+     * Decode the values of an entry on first use
+     */
+    private synchronized String[] values(DictionaryKey key) {
+        String[] entryValues = values[key.ordinal()];
+        if (entryValues == null) {
+            long start = System.nanoTime();
+            int[] location = index.get(key);
+            entryValues = new String[location[1]];
+            try {
+                DataInputStream in = new DataInputStream(
+                    new ByteArrayInputStream(data, location[0], data.length - location[0]));
+                for (int i = 0; i < entryValues.length; i++) {
+                    entryValues[i] = in.readUTF();
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Corrupted compact dictionary entry " + key, e);
+            }
+            values[key.ordinal()] = entryValues;
+            decodeNanos += System.nanoTime() - start;
+        }
+        return entryValues;
+    }
+
+    @Override
+    public String get(DictionaryKey key) {
+        String[] entryValues = values(key);
+        return entryValues[random.nextInt(entryValues.length)];
+    }
+
+    @Override
+    public String sentence(int wordCount) {
+        StringBuilder sb = new StringBuilder(wordCount * 10);
+        appendSentence(sb, wordCount);
+        return sb.toString();
+    }
+
+    @Override
+    public void appendSentence(StringBuilder sb, int wordCount) {
+        // Same shape as Datafaker: wordCount plus up to 5 extra words, capitalized, ending with a period
+        String[] words = values(DictionaryKey.LOREM_WORD);
+        int count = wordCount + random.nextInt(6);
+        int start = sb.length();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(words[random.nextInt(words.length)]);
+        }
+        if (sb.length() > start) {
+            sb.setCharAt(start, Character.toUpperCase(sb.charAt(start)));
+        }
+        sb.append('.');
+    }
+
+    @Override
+    public String password(int minLength, int maxLength) {
+        int length = minLength + random.nextInt(maxLength - minLength + 1);
+        char[] password = new char[length];
+        for (int i = 0; i < length; i++) {
+            password[i] = PASSWORD_CHARS[random.nextInt(PASSWORD_CHARS.length)];
+        }
+        return new String(password);
+    }
+
+    /**
+     * Total time spent decoding entries so far
+     */
+    public synchronized long getDecodeNanos() {
+        return decodeNanos;
+    }
+
+    @Override
+    public String describe() {
+        return String.format("compact dictionary (%d entries, %d KB, %.1f ms lazy decoding)",
+            index.size(), data.length / 1024, getDecodeNanos() / 1e6);
+    }
+}
@@ -0,0 +1,81 @@
+package utils;
+
+import net.datafaker.Faker;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Build step that precompiles the Datafaker subset used by the generators into a compact
+ * binary dictionary (see {@link CompactDictionary}).
+ * Every {@link DictionaryKey} is materialized by sampling its Datafaker expression.
+ *
+ * Usage: java -cp "out:lib/*" utils.DictionaryCompiler out/faker-dictionary.bin [samples]
+ */
+public class DictionaryCompiler {
+    private static final int DEFAULT_SAMPLES = 2000;
+    // Give up on an entry after this many draws without a new value
+    private static final int MAX_MISSES = 2000;
+
+    public static void main(String[] args) throws IOException {
+        Path output = Path.of(args.length > 0 ? args[0] : "out/" + CompactDictionary.DEFAULT_RESOURCE);
+        int samples = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SAMPLES;
+
+        long start = System.nanoTime();
+        FakerDictionary faker = new FakerDictionary(new Faker(Locale.ENGLISH));
+
+        List<byte[]> blocks = new ArrayList<>();
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        DataOutputStream headerOut = new DataOutputStream(header);
+        headerOut.writeInt(CompactDictionary.MAGIC);
+        headerOut.writeInt(CompactDictionary.VERSION);
+        headerOut.writeInt(DictionaryKey.values().length);
+
+        int totalValues = 0;
+        for (DictionaryKey key : DictionaryKey.values()) {
+            Set<String> distinct = new LinkedHashSet<>();
+            int misses = 0;
+            while (distinct.size() < samples && misses < MAX_MISSES) {
+                misses = distinct.add(faker.get(key)) ? 0 : misses + 1;
+            }
+
+            ByteArrayOutputStream block = new ByteArrayOutputStream();
+            DataOutputStream blockOut = new DataOutputStream(block);
+            for (String value : distinct) {
+                blockOut.writeUTF(value);
+            }
+            blockOut.flush();
+            blocks.add(block.toByteArray());
+            totalValues += distinct.size();
+
+            headerOut.writeUTF(key.name());
+            headerOut.writeInt(distinct.size());
+            headerOut.writeInt(block.size());
+        }
+        headerOut.flush();
+
+        Path parent = output.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (OutputStream out = Files.newOutputStream(output)) {
+            out.write(header.toByteArray());
+            for (byte[] block : blocks) {
+                out.write(block);
+            }
+        }
+
+        System.out.printf("Compiled %d values for %d entries into %s (%d KB) in %.1f s%n",
+            totalValues, DictionaryKey.values().length, output, Files.size(output) / 1024,
+            (System.nanoTime() - start) / 1e9);
+    }
+}
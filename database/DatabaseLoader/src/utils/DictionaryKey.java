@@ -0,0 +1,31 @@
+package utils;
+
+/**
+ * Dictionary entries used by the generators.
+ * Each key maps to one Datafaker expression (see {@link FakerDictionary}); the same keys index
+ * the precompiled compact dictionary used in fast-start mode.
+ */
+public enum DictionaryKey {
+    COMPANY_NAME,
+    COMPANY_CATCH_PHRASE,
+    COMPANY_BS,
+    FIRST_NAME,
+    LAST_NAME,
+    FULL_NAME,
+    ANCIENT_GOD,
+    ANCIENT_HERO,
+    ANCIENT_PRIMORDIAL,
+    VIDEO_GAME_TITLE,
+    ELDER_SCROLLS_CITY,
+    SPACE_GALAXY,
+    SPACE_PLANET,
+    ANIMAL_NAME,
+    SUPERHERO_NAME,
+    ESPORTS_GAME,
+    MUSIC_GENRE,
+    APP_NAME,
+    COLOR_NAME,
+    BOOK_TITLE,
+    HOBBIT_QUOTE,
+    LOREM_WORD
+}
@@ -0,0 +1,57 @@
+package utils;
+
+import net.datafaker.Faker;
+
+/**
+ * Dictionary backed by a full Datafaker instance.
+ */
+public class FakerDictionary implements TextDictionary {
+    private final Faker faker;
+
+    public FakerDictionary(Faker faker) {
+        this.faker = faker;
+    }
+
+    @Override
+    public String get(DictionaryKey key) {
+        return switch (key) {
+            case COMPANY_NAME -> faker.company().name();
+            case COMPANY_CATCH_PHRASE -> faker.company().catchPhrase();
+            case COMPANY_BS -> faker.company().bs();
+            case FIRST_NAME -> faker.name().firstName();
+            case LAST_NAME -> faker.name().lastName();
+            case FULL_NAME -> faker.name().fullName();
+            case ANCIENT_GOD -> faker.ancient().god();
+            case ANCIENT_HERO -> faker.ancient().hero();
+            case ANCIENT_PRIMORDIAL -> faker.ancient().primordial();
+            case VIDEO_GAME_TITLE -> faker.videoGame().title();
+            case ELDER_SCROLLS_CITY -> faker.elderScrolls().city();
+            case SPACE_GALAXY -> faker.space().galaxy();
+            case SPACE_PLANET -> faker.space().planet();
+            case ANIMAL_NAME -> faker.animal().name();
+            case SUPERHERO_NAME -> faker.superhero().name();
+            case ESPORTS_GAME -> faker.esports().game();
+            case MUSIC_GENRE -> faker.music().genre();
+            case APP_NAME -> faker.app().name();
+            case COLOR_NAME -> faker.color().name();
+            case BOOK_TITLE -> faker.book().title();
+            case HOBBIT_QUOTE -> faker.hobbit().quote();
+            case LOREM_WORD -> faker.lorem().word();
+        };
+    }
+
+    @Override
+    public String sentence(int wordCount) {
+        return faker.lorem().sentence(wordCount);
+    }
+
+    @Override
+    public String password(int minLength, int maxLength) {
+        return faker.internet().password(minLength, maxLength);
+    }
+
+    @Override
+    public String describe() {
+        return "Datafaker";
+    }
+}
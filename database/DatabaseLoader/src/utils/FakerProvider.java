@@ -1,9 +1,17 @@
 package utils;
 
+import config.DatabaseConfig;
 import net.datafaker.Faker;
+import profile.DatasetProfile;
+import profile.Histogram;
 
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.security.SecureRandom;
 import java.util.Locale;
 import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.UUID;
 
 /**
  * Centralized Faker provider for consistent data generation.
@@ -11,12 +19,47 @@ import java.util.Random;
  */
 public class FakerProvider {
     private static FakerProvider instance;
-    private final Faker faker;
+    private Faker faker;
     private final Random random;
+    // Primary keys: a stream of their own, never the 48-bit generator of the data
+    private SplittableRandom keys;
+    private final DatasetProfile profile;
+    private final TextDictionary dictionary;
+    private final long startupNanos;
 
     private FakerProvider() {
-        this.faker = new Faker(Locale.ENGLISH);
-        this.random = new Random();
+        long start = System.nanoTime();
+        DatabaseConfig config = DatabaseConfig.getInstance();
+        this.random = config.getRandomSeed() != null ? new Random(config.getRandomSeed()) : new Random();
+        // Seeded runs (benchmarks, regression and plan baselines) get the same keys every time, on
+        // cleared tables; otherwise the key stream is seeded from the system's secure source
+        this.keys = config.getRandomSeed() != null ? keyStream(config.getRandomSeed())
+            : new SplittableRandom(new SecureRandom().nextLong());
+        this.profile = config.getDatasetProfile();
+
+        // Fast start: use the precompiled dictionary and never build a Faker unless asked for
+        CompactDictionary compact = null;
+        if (config.isFastStart()) {
+            try {
+                compact = CompactDictionary.open(config.getDictionaryFile(), random);
+            } catch (IOException e) {
+                System.err.println("Could not read compact dictionary: " + e.getMessage());
+            }
+            if (compact == null) {
+                System.err.println("Compact dictionary not found, falling back to Datafaker " +
+                    "(run utils.DictionaryCompiler to build it)");
+            }
+        }
+        if (compact != null) {
+            this.dictionary = compact;
+        } else {
+            this.faker = new Faker(Locale.ENGLISH, random);
+            this.dictionary = new FakerDictionary(faker);
+        }
+
+        // First lookup included: Datafaker loads its YAML files lazily
+        dictionary.get(DictionaryKey.LOREM_WORD);
+        this.startupNanos = System.nanoTime() - start;
     }
 
     /**
@@ -30,12 +73,44 @@ public class FakerProvider {
     }
 
     /**
-     * Get the Faker instance
+     * Get the Faker instance (built on first call in fast-start mode)
      */
-    public Faker getFaker() {
+    public synchronized Faker getFaker() {
+        if (faker == null) {
+            faker = new Faker(Locale.ENGLISH, random);
+        }
         return faker;
     }
 
+    /**
+     * Get the dictionary the generators draw names and words from
+     */
+    public TextDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Print how long the text dictionary took to become usable
+     */
+    public void printStartupReport() {
+        System.out.printf("Text dictionary: %s, ready in %.1f ms (JVM uptime %d ms)%n",
+            dictionary.describe(), startupNanos / 1e6, ManagementFactory.getRuntimeMXBean().getUptime());
+    }
+
+    /**
+     * Restart the random sequence (Faker and the dictionary share it) and the key stream, so that
+     * the next generation produces the same dataset as a previous one started with the same seed
+     */
+    public synchronized void reseed(long seed) {
+        random.setSeed(seed);
+        keys = keyStream(seed);
+    }
+
+    // Key stream of a seed, distinct from the data sequence of the same seed
+    private static SplittableRandom keyStream(long seed) {
+        return new SplittableRandom(~seed);
+    }
+
     /**
      * Get the Random instance
      */
@@ -65,6 +140,93 @@ public class FakerProvider {
         return min + (max - min) * random.nextDouble();
     }
 
+    /**
+     * Draw a child count from the profiled histogram if available, otherwise uniformly between min and max
+     */
+    public int randomCount(String histogramName, int min, int max) {
+        Histogram histogram = profile != null ? profile.getHistogram(histogramName) : null;
+        return histogram != null ? histogram.sample(random) : randomInt(min, max);
+    }
+
+    /**
+     * Expected value of randomCount: mean of the profiled histogram, otherwise the middle of min and max
+     */
+    public double meanCount(String histogramName, int min, int max) {
+        Histogram histogram = profile != null ? profile.getHistogram(histogramName) : null;
+        return histogram != null ? histogram.mean() : (min + max) / 2.0;
+    }
+
+    /**
+     * Draw a boolean using the profiled ratio if available, otherwise the given percentage (0-100)
+     */
+    public boolean randomWithRatio(String ratioName, int defaultPercentage) {
+        Double ratio = profile != null ? profile.getRatio(ratioName) : null;
+        return ratio != null ? random.nextDouble() < ratio : randomBooleanWithProbability(defaultPercentage);
+    }
+
+    /**
+     * Probability (0-1) that randomWithRatio returns true
+     */
+    public double meanRatio(String ratioName, int defaultPercentage) {
+        Double ratio = profile != null ? profile.getRatio(ratioName) : null;
+        return ratio != null ? ratio : defaultPercentage / 100.0;
+    }
+
+    /**
+     * Stretch or cut a text in place to a length drawn from the profiled histogram (unchanged without profile)
+     */
+    public void fitTextLength(String histogramName, StringBuilder text) {
+        fitTextLength(histogramName, text, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Same, for a column of at most maxLength characters
+     */
+    public void fitTextLength(String histogramName, StringBuilder text, int maxLength) {
+        Histogram histogram = profile != null ? profile.getHistogram(histogramName) : null;
+        if (histogram == null) {
+            return;
+        }
+        int targetLength = Math.max(1, Math.min(maxLength, histogram.sample(random)));
+        while (text.length() < targetLength) {
+            text.append(' ');
+            dictionary.appendSentence(text, 10);
+        }
+        text.setLength(targetLength);
+        int end = text.length();
+        while (end > 1 && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        text.setLength(end);
+    }
+
+    /**
+     * Generate a random (version 4) UUID for a primary key, cheaper than UUID.randomUUID(): drawn
+     * from a SplittableRandom seeded once from SecureRandom (from random.seed in seeded runs).
+     * Not thread-safe, like the data sequence: a caller on another thread draws from its own
+     * {@link #splitKeys()} stream
+     */
+    public UUID randomUuid() {
+        return randomUuid(keys);
+    }
+
+    /**
+     * Split an independent key stream off this one, for a caller generating keys on its own thread
+     * (to be split on the thread using this provider, then handed over)
+     */
+    public SplittableRandom splitKeys() {
+        return keys.split();
+    }
+
+    /**
+     * Generate a random (version 4) UUID from a key stream of {@link #splitKeys()}
+     */
+    public static UUID randomUuid(SplittableRandom keys) {
+        long mostSigBits = (keys.nextLong() & ~0xF000L) | 0x4000L;
+        long leastSigBits = (keys.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
     /**
      * Round a double to specified decimal places
      */
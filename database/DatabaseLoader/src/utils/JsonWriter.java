@@ -0,0 +1,143 @@
+package utils;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Minimal streaming JSON writer for the reports (pretty-printed, two-space indent).
+ * Usage: beginObject().name("rows").value(42).endObject().toString()
+ */
+public class JsonWriter {
+    private final StringBuilder out = new StringBuilder();
+    // One entry per open object/array: true until its first element is written
+    private final Deque<Boolean> scopes = new ArrayDeque<>();
+    private boolean afterName;
+
+    public JsonWriter beginObject() {
+        return open('{');
+    }
+
+    public JsonWriter endObject() {
+        return close('}');
+    }
+
+    public JsonWriter beginArray() {
+        return open('[');
+    }
+
+    public JsonWriter endArray() {
+        return close(']');
+    }
+
+    /**
+     * Write the name of the next object member
+     */
+    public JsonWriter name(String name) {
+        separate();
+        quote(name);
+        out.append(": ");
+        afterName = true;
+        return this;
+    }
+
+    public JsonWriter value(String value) {
+        separate();
+        if (value == null) {
+            out.append("null");
+        } else {
+            quote(value);
+        }
+        return this;
+    }
+
+    public JsonWriter value(long value) {
+        separate();
+        out.append(value);
+        return this;
+    }
+
+    /**
+     * Write a number (NaN and infinities are written as null)
+     */
+    public JsonWriter value(double value) {
+        separate();
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            out.append("null");
+        } else {
+            out.append(value);
+        }
+        return this;
+    }
+
+    public JsonWriter value(boolean value) {
+        separate();
+        out.append(value);
+        return this;
+    }
+
+    private JsonWriter open(char bracket) {
+        separate();
+        out.append(bracket);
+        scopes.push(true);
+        return this;
+    }
+
+    private JsonWriter close(char bracket) {
+        boolean empty = scopes.pop();
+        if (!empty) {
+            newline();
+        }
+        out.append(bracket);
+        return this;
+    }
+
+    /**
+     * Write the comma and indentation before a value, unless it follows a member name
+     */
+    private void separate() {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (scopes.isEmpty()) {
+            return;
+        }
+        if (!scopes.pop()) {
+            out.append(',');
+        }
+        scopes.push(false);
+        newline();
+    }
+
+    private void newline() {
+        out.append('\n');
+        out.append("  ".repeat(scopes.size()));
+    }
+
+    private void quote(String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        out.append('"');
+    }
+
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+}
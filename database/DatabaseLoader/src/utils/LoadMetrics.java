@@ -0,0 +1,164 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Live counters of a load, read by the metrics endpoint (MetricsServer).
+ * Row sinks count the rows they generate and write per table, with the latency of every round
+ * trip; loaders declare how many rows they expect per table so that progress and ETA can be derived.
+ * Updates are lock-free so that the hot path of the sinks stays cheap.
+ */
+public final class LoadMetrics {
+    private static LoadMetrics instance;
+
+    private final Map<String, TableMetrics> tables = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> commits = new ConcurrentHashMap<>();
+    private final Map<String, Gauge> gauges = new ConcurrentHashMap<>();
+
+    private LoadMetrics() {
+    }
+
+    public static synchronized LoadMetrics getInstance() {
+        if (instance == null) {
+            instance = new LoadMetrics();
+        }
+        return instance;
+    }
+
+    /**
+     * Counters of one table, created on first use
+     */
+    public TableMetrics table(String database, String table) {
+        return tables.computeIfAbsent(database + "." + table, key -> new TableMetrics(database, table));
+    }
+
+    public Collection<TableMetrics> getTables() {
+        List<TableMetrics> sorted = new ArrayList<>(tables.values());
+        sorted.sort((a, b) -> (a.database + "." + a.table).compareTo(b.database + "." + b.table));
+        return sorted;
+    }
+
+    /**
+     * Declare (or refine) the number of rows a load will write into a table
+     */
+    public void expect(String database, String table, long rows) {
+        table(database, table).expected = rows;
+    }
+
+    /**
+     * Record the duration of a commit or rollback
+     */
+    public void recordCommit(String database, long nanos) {
+        commits.computeIfAbsent(database, key -> new LatencyHistogram()).record(nanos);
+    }
+
+    public Map<String, LatencyHistogram> getCommits() {
+        return commits;
+    }
+
+    /**
+     * Register a value sampled at each scrape (queue depths and the like); replaces any gauge of that name
+     */
+    public void gauge(String name, String help, LongSupplier value) {
+        gauges.put(name, new Gauge(name, help, value));
+    }
+
+    public void removeGauge(String name) {
+        gauges.remove(name);
+    }
+
+    public Collection<Gauge> getGauges() {
+        return gauges.values();
+    }
+
+    /**
+     * Forget every counter (between the runs of a benchmark)
+     */
+    public void reset() {
+        tables.clear();
+        commits.clear();
+    }
+
+    public record Gauge(String name, String help, LongSupplier value) {
+    }
+
+    /**
+     * Rows generated (handed to a sink) and written (sent to the database) for one table
+     */
+    public static final class TableMetrics {
+        private final String database;
+        private final String table;
+        private final LongAdder generated = new LongAdder();
+        private final AtomicLong written = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+        private final LatencyHistogram roundTrips = new LatencyHistogram();
+        private volatile long expected;
+
+        private TableMetrics(String database, String table) {
+            this.database = database;
+            this.table = table;
+        }
+
+        public void rowGenerated() {
+            generated.increment();
+        }
+
+        /**
+         * Rows that bypass the sinks (streamed straight from another database)
+         */
+        public void rowsGenerated(long rows) {
+            generated.add(rows);
+        }
+
+        /**
+         * One round trip that wrote rows (and bytes, 0 when the driver encodes them)
+         */
+        public void written(long rows, long byteCount, long nanos) {
+            written.addAndGet(rows);
+            bytes.addAndGet(byteCount);
+            roundTrips.record(nanos);
+        }
+
+        public String getDatabase() {
+            return database;
+        }
+
+        public String getTable() {
+            return table;
+        }
+
+        public long getGenerated() {
+            return generated.sum();
+        }
+
+        public long getWritten() {
+            return written.get();
+        }
+
+        public long getBytes() {
+            return bytes.get();
+        }
+
+        /**
+         * Rows generated but still buffered in a sink, waiting for their round trip
+         */
+        public long getBuffered() {
+            return Math.max(0, generated.sum() - written.get());
+        }
+
+        public long getExpected() {
+            return expected;
+        }
+
+        public LatencyHistogram getRoundTrips() {
+            return roundTrips;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package utils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Embedded HTTP endpoint serving LoadMetrics in the Prometheus text format on /metrics.
+ * Written rows are sampled every second so that current rates (over the last RATE_WINDOW_SECONDS)
+ * and the estimated time to completion can be served without a Prometheus server doing the math.
+ */
+public final class MetricsServer implements AutoCloseable {
+    private static final int RATE_WINDOW_SECONDS = 10;
+    private static final double[] BUCKETS_SECONDS = {
+        0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30
+    };
+
+    private final HttpServer server;
+    private final ScheduledExecutorService sampler;
+    private final LoadMetrics metrics = LoadMetrics.getInstance();
+    private final Deque<Sample> samples = new ArrayDeque<>();
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * Written rows of every table at one point in time
+     */
+    private record Sample(long nanos, Map<String, Long> written) {
+    }
+
+    private MetricsServer(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/metrics", this::handle);
+        server.setExecutor(Executors.newSingleThreadExecutor(r -> daemon(r, "metrics-http")));
+        sampler = Executors.newSingleThreadScheduledExecutor(r -> daemon(r, "metrics-sampler"));
+    }
+
+    /**
+     * Start the endpoint on the given port; returns null when disabled (port 0) or if the port is taken
+     */
+    public static MetricsServer start(int port) {
+        if (port <= 0) {
+            return null;
+        }
+        try {
+            MetricsServer metricsServer = new MetricsServer(port);
+            metricsServer.sampler.scheduleAtFixedRate(metricsServer::sample, 0, 1, TimeUnit.SECONDS);
+            metricsServer.server.start();
+            return metricsServer;
+        } catch (IOException e) {
+            System.err.println("Metrics endpoint disabled, cannot listen on port " + port + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private void sample() {
+        Map<String, Long> written = new HashMap<>();
+        for (LoadMetrics.TableMetrics table : metrics.getTables()) {
+            written.put(key(table), table.getWritten());
+        }
+        synchronized (samples) {
+            samples.addLast(new Sample(System.nanoTime(), written));
+            while (samples.size() > RATE_WINDOW_SECONDS + 1) {
+                samples.removeFirst();
+            }
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        byte[] body = render().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Current metrics in the Prometheus text exposition format
+     */
+    String render() {
+        StringBuilder sb = new StringBuilder(8192);
+        Sample oldest;
+        synchronized (samples) {
+            oldest = samples.peekFirst();
+        }
+        long now = System.nanoTime();
+
+        header(sb, "databaseloader_rows_generated_total", "counter", "Rows handed to a row sink");
+        for (LoadMetrics.TableMetrics table : metrics.getTables()) {
+            line(sb, "databaseloader_rows_generated_total", labels(table), table.getGenerated());
+        }
+        header(sb, "databaseloader_rows_written_total", "counter", "Rows sent to the database");
+        for (LoadMetrics.TableMetrics table : metrics.getTables()) {
+            line(sb, "databaseloader_rows_written_total", labels(table), table.getWritten());
+        }
+        header(sb, "databaseloader_bytes_written_total", "counter", "Bytes encoded by the COPY sinks");
+        for (LoadMetrics.TableMetrics table : metrics.getTables()) {
+            line(sb, "databaseloader_bytes_written_total", labels(table), table.getBytes());
+        }
+        header(sb, "databaseloader_rows_buffered", "gauge", "Rows generated and waiting in a sink buffer");
+        for (LoadMetrics.TableMetrics table : metrics.getTables()) {
+            line(sb, "databaseloader_rows_buffered", labels(table), table.getBuffered());
+        }
+        header(sb, "databaseloader_rows_expected", "gauge", "Rows the load is expected to write (estimate)");
+        for (LoadMetrics.TableMetrics table : metrics.getTables()) {
+            if (table.getExpected() > 0) {
+                line(sb, "databaseloader_rows_expected", labels(table), table.getExpected());
+            }
+        }
+
+        header(sb, "databaseloader_rows_written_per_second", "gauge",
+            "Rows written per second over the last " + RATE_WINDOW_SECONDS + " seconds");
+        double expectedRate = 0;
+        long expected = 0;
+        long done = 0;
+        for (LoadMetrics.TableMetrics table : metrics.getTables()) {
+            double rate = rate(table, oldest, now);
+            line(sb, "databaseloader_rows_written_per_second", labels(table), rate);
+            if (table.getExpected() > 0) {
+                expected += table.getExpected();
+                done += Math.min(table.getWritten(), table.getExpected());
+                expectedRate += rate;
+            }
+        }
+
+        // Stages run one after the other: the rows still expected go at the rate of the current one
+        long remaining = expected - done;
+        header(sb, "databaseloader_progress_ratio", "gauge", "Share of the expected rows already written");
+        line(sb, "databaseloader_progress_ratio", "", expected == 0 ? 0 : (double) done / expected);
+        header(sb, "databaseloader_eta_seconds", "gauge",
+            "Estimated time to write the remaining expected rows at the current rate (-1 when unknown)");
+        line(sb, "databaseloader_eta_seconds", "",
+            remaining == 0 ? 0 : expectedRate > 0 ? remaining / expectedRate : -1);
+
+        header(sb, "databaseloader_round_trip_seconds", "histogram",
+            "Duration of the round trips of the row sinks (COPY, batch or INSERT)");
+        for (LoadMetrics.TableMetrics table : metrics.getTables()) {
+            histogram(sb, "databaseloader_round_trip_seconds", labels(table), table.getRoundTrips());
+        }
+        header(sb, "databaseloader_commit_seconds", "histogram", "Duration of commits and rollbacks");
+        for (Map.Entry<String, LatencyHistogram> entry : metrics.getCommits().entrySet()) {
+            histogram(sb, "databaseloader_commit_seconds", "database=\"" + entry.getKey() + "\"", entry.getValue());
+        }
+
+        header(sb, "databaseloader_stage_seconds", "gauge", "Wall time of the completed load stages");
+        for (StageMetrics.Stage stage : StageMetrics.getInstance().getStages()) {
+            line(sb, "databaseloader_stage_seconds",
+                "database=\"" + stage.database() + "\",stage=\"" + stage.name() + "\"", stage.nanos() / 1e9);
+        }
+        for (LoadMetrics.Gauge gauge : metrics.getGauges()) {
+            header(sb, gauge.name(), "gauge", gauge.help());
+            line(sb, gauge.name(), "", gauge.value().getAsLong());
+        }
+
+        header(sb, "databaseloader_uptime_seconds", "gauge", "Time since the metrics endpoint started");
+        line(sb, "databaseloader_uptime_seconds", "", (now - startNanos) / 1e9);
+        header(sb, "databaseloader_gc_seconds_total", "counter", "Time spent in garbage collection");
+        line(sb, "databaseloader_gc_seconds_total", "", ProcessMetrics.gcTimeMillis() / 1000.0);
+        Runtime runtime = Runtime.getRuntime();
+        header(sb, "databaseloader_heap_used_bytes", "gauge", "Java heap in use");
+        line(sb, "databaseloader_heap_used_bytes", "", runtime.totalMemory() - runtime.freeMemory());
+        return sb.toString();
+    }
+
+    private double rate(LoadMetrics.TableMetrics table, Sample oldest, long now) {
+        if (oldest == null || now - oldest.nanos() < 500_000_000L) {
+            return 0;
+        }
+        long before = oldest.written().getOrDefault(key(table), 0L);
+        return (table.getWritten() - before) / ((now - oldest.nanos()) / 1e9);
+    }
+
+    /**
+     * Cumulative le buckets from the log-linear buckets of the latency histogram
+     */
+    private static void histogram(StringBuilder sb, String name, String labels, LatencyHistogram histogram) {
+        long[] cumulative = new long[BUCKETS_SECONDS.length];
+        for (int i = 0; i < histogram.bucketCount(); i++) {
+            long count = histogram.bucketCount(i);
+            if (count == 0) {
+                continue;
+            }
+            double seconds = LatencyHistogram.highestEquivalentValue(i) / 1e9;
+            for (int b = 0; b < BUCKETS_SECONDS.length; b++) {
+                if (seconds <= BUCKETS_SECONDS[b]) {
+                    cumulative[b] += count;
+                }
+            }
+        }
+        String prefix = labels.isEmpty() ? "" : labels + ",";
+        for (int b = 0; b < BUCKETS_SECONDS.length; b++) {
+            line(sb, name + "_bucket", prefix + "le=\"" + BUCKETS_SECONDS[b] + "\"", cumulative[b]);
+        }
+        line(sb, name + "_bucket", prefix + "le=\"+Inf\"", histogram.getCount());
+        line(sb, name + "_sum", labels, histogram.getTotalNanos() / 1e9);
+        line(sb, name + "_count", labels, histogram.getCount());
+    }
+
+    private static String key(LoadMetrics.TableMetrics table) {
+        return table.getDatabase() + "." + table.getTable();
+    }
+
+    private static String labels(LoadMetrics.TableMetrics table) {
+        return "database=\"" + table.getDatabase() + "\",table=\"" + table.getTable() + "\"";
+    }
+
+    private static void header(StringBuilder sb, String name, String type, String help) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void line(StringBuilder sb, String name, String labels, long value) {
+        sb.append(name);
+        if (!labels.isEmpty()) {
+            sb.append('{').append(labels).append('}');
+        }
+        sb.append(' ').append(value).append('\n');
+    }
+
+    private static void line(StringBuilder sb, String name, String labels, double value) {
+        sb.append(name);
+        if (!labels.isEmpty()) {
+            sb.append('{').append(labels).append('}');
+        }
+        sb.append(' ').append(String.format(Locale.ROOT, "%.6g", value)).append('\n');
+    }
+
+    @Override
+    public void close() {
+        sampler.shutdownNow();
+        server.stop(0);
+    }
+}
@@ -0,0 +1,57 @@
+package utils;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Process-wide resource counters: peak resident set size and cumulated GC activity.
+ * Peak RSS is read from /proc/self/status (VmHWM), so it is only available on Linux.
+ */
+public final class ProcessMetrics {
+    private static final Path PROC_STATUS = Path.of("/proc/self/status");
+
+    private ProcessMetrics() {
+    }
+
+    /**
+     * Peak resident set size of the JVM process in bytes, or -1 if unavailable
+     */
+    public static long peakRssBytes() {
+        try {
+            for (String line : Files.readAllLines(PROC_STATUS)) {
+                if (line.startsWith("VmHWM:")) {
+                    String kb = line.substring("VmHWM:".length()).replace("kB", "").trim();
+                    return Long.parseLong(kb) * 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Not Linux, or an unexpected format
+        }
+        return -1;
+    }
+
+    /**
+     * Total time spent in garbage collections since JVM start, in milliseconds
+     */
+    public static long gcTimeMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+
+    /**
+     * Total number of garbage collections since JVM start
+     */
+    public static long gcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionCount());
+        }
+        return total;
+    }
+}
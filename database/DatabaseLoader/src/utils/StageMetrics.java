@@ -0,0 +1,85 @@
+package utils;
+
+import events.StageEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the wall time of the load stages (one per generator or sync step).
+ * Usage: try (StageMetrics.Timer timer = StageMetrics.getInstance().start("editor_db", "game", "game")) { ... }
+ * The tables written by a stage are kept so that callers can turn the timing into rows/s.
+ * Each stage is also emitted as a Flight Recorder event (events.StageEvent).
+ */
+public final class StageMetrics {
+    private static StageMetrics instance;
+
+    private final List<Stage> stages = new ArrayList<>();
+
+    private StageMetrics() {
+    }
+
+    public static synchronized StageMetrics getInstance() {
+        if (instance == null) {
+            instance = new StageMetrics();
+        }
+        return instance;
+    }
+
+    /**
+     * Start timing a stage; it is recorded when the timer is closed
+     */
+    public Timer start(String database, String stage, String... tables) {
+        return new Timer(database, stage, List.of(tables));
+    }
+
+    /**
+     * Stages recorded so far, in completion order
+     */
+    public synchronized List<Stage> getStages() {
+        return new ArrayList<>(stages);
+    }
+
+    public synchronized void reset() {
+        stages.clear();
+    }
+
+    private synchronized void record(Stage stage) {
+        stages.add(stage);
+    }
+
+    /**
+     * A completed stage: database, stage name, tables written and wall time
+     */
+    public record Stage(String database, String name, List<String> tables, long nanos) {
+        public String key() {
+            return database + "." + name;
+        }
+    }
+
+    public final class Timer implements AutoCloseable {
+        private final String database;
+        private final String stage;
+        private final List<String> tables;
+        private final StageEvent event = new StageEvent();
+        private final long start = System.nanoTime();
+
+        private Timer(String database, String stage, List<String> tables) {
+            this.database = database;
+            this.stage = stage;
+            this.tables = tables;
+            event.begin();
+        }
+
+        @Override
+        public void close() {
+            record(new Stage(database, stage, tables, System.nanoTime() - start));
+            if (event.shouldCommit()) {
+                event.database = database;
+                event.stage = stage;
+                event.tables = String.join(",", tables);
+                event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package utils;
+
+/**
+ * Source of the words and names the generators are built from.
+ */
+public interface TextDictionary {
+    /**
+     * Get a random value for the given entry
+     */
+    String get(DictionaryKey key);
+
+    /**
+     * Generate a lorem ipsum sentence of about wordCount words
+     */
+    String sentence(int wordCount);
+
+    /**
+     * Append a sentence to a builder (implementations may avoid the intermediate string)
+     */
+    default void appendSentence(StringBuilder sb, int wordCount) {
+        sb.append(sentence(wordCount));
+    }
+
+    /**
+     * Generate a random password
+     */
+    String password(int minLength, int maxLength);
+
+    /**
+     * Short description of the implementation, for reports
+     */
+    String describe();
+}
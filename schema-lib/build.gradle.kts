@@ -4,6 +4,7 @@ import java.net.URLClassLoader
 plugins {
     `java-library`
     kotlin("jvm") version "2.3.0"
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "com.monprojet"
@@ -114,4 +115,56 @@ tasks.named("compileKotlin") {
 
 kotlin {
     jvmToolchain(21)
-}
\ No newline at end of file
+}
+
+// Les sources Java (jmh, loadgen) contiennent des textes accentués : sans encodage explicite, javac
+// les lit avec celui de la locale (US-ASCII sous POSIX) et compile des messages corrompus
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+// Benchmarks JMH d'encodage/décodage Avro (src/jmh/java) : gradle jmh
+// Filtrer avec -PjmhIncludes=<regex>, ex. -PjmhIncludes='decodeSpecific.*'
+jmh {
+    jmhVersion.set("1.37")
+    profilers.set(listOf("gc"))
+    resultFormat.set("JSON")
+    (project.findProperty("jmhIncludes") as String?)?.let { includes.set(listOf(it)) }
+    (project.findProperty("jmhMessages") as String?)?.let { benchmarkParameters.put("message", project.objects.listProperty(String::class.java).value(it.split(","))) }
+}
+
+tasks.named("compileJmhJava") {
+    dependsOn("generateAvro")
+}
+
+// Taille sur le fil de chaque message d'exemple
+tasks.register<JavaExec>("avroWireSizes") {
+    group = "benchmark"
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("com.steam_v2_better_du_pauvre.bench.AvroWireSizes")
+}
+// Générateur de charge Kafka en boucle ouverte (src/loadgen/java) : gradle loadgen
+// Options passées par -PloadgenArgs, ex. -PloadgenArgs="--transport=kafka --rate=2000"
+val loadgen: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets["main"].output + sourceSets["jmh"].output
+    runtimeClasspath += sourceSets["main"].output + sourceSets["jmh"].output
+}
+
+configurations[loadgen.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[loadgen.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
+dependencies {
+    "loadgenImplementation"("org.apache.kafka:kafka-clients:3.6.0")
+    "loadgenImplementation"("org.hdrhistogram:HdrHistogram:2.1.12")
+}
+
+tasks.named("compileLoadgenJava") {
+    dependsOn("generateAvro")
+}
+
+tasks.register<JavaExec>("loadgen") {
+    group = "benchmark"
+    classpath = loadgen.runtimeClasspath
+    mainClass.set("com.steam_v2_better_du_pauvre.loadgen.LoadGenerator")
+    (project.findProperty("loadgenArgs") as String?)?.let { args(it.split(" ").filter(String::isNotBlank)) }
+}
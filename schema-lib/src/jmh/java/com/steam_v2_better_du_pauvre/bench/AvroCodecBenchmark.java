@@ -0,0 +1,126 @@
+package com.steam_v2_better_du_pauvre.bench;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.apache.avro.specific.SpecificRecordBase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Débit d'encodage et de décodage Avro binaire pour chaque message de schema-lib.
+ * Compare les chemins GenericRecord et SpecificRecord, et côté lecture un décodeur
+ * et un enregistrement réutilisés d'un message à l'autre avec un décodeur neuf par message.
+ * L'allocation par message est donnée par le profiler gc (gc.alloc.rate.norm),
+ * la taille sur le fil par {@link AvroWireSizes}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AvroCodecBenchmark {
+
+    @Param({
+        "BugReport", "BuyGameRequest", "BuyGameResponse", "Dlc", "Editor", "Evaluation", "Game",
+        "LoginRequest", "LoginResponse", "Ownership", "Patch", "Player",
+        "PublishRequest.Game", "PublishRequest.Dlc", "PublishRequest.Patch", "PublishResponse",
+        "RegisterRequest", "RegisterResponse", "RegisterPlayerRequest", "RegisterPlayerResponse"
+    })
+    public String message;
+
+    private byte[] bytes;
+
+    private GenericRecord genericRecord;
+    private SpecificRecordBase specificRecord;
+
+    private GenericDatumWriter<GenericRecord> genericWriter;
+    private GenericDatumReader<GenericRecord> genericReader;
+    private SpecificDatumWriter<SpecificRecordBase> specificWriter;
+    private SpecificDatumReader<SpecificRecordBase> specificReader;
+
+    // Objets réutilisés d'un message à l'autre
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+    private BinaryEncoder encoder;
+    private BinaryDecoder decoder;
+    private GenericRecord genericReuse;
+    private SpecificRecordBase specificReuse;
+
+    @Setup
+    public void setup() throws IOException {
+        Schema schema = AvroFixtures.schema(message);
+        bytes = AvroFixtures.encoded(message);
+        genericRecord = AvroFixtures.generic(message);
+
+        genericWriter = new GenericDatumWriter<>(schema);
+        genericReader = new GenericDatumReader<>(schema);
+        specificWriter = new SpecificDatumWriter<>(schema);
+        specificReader = new SpecificDatumReader<>(schema);
+        specificRecord = specificReader.read(null, DecoderFactory.get().binaryDecoder(bytes, null));
+
+        genericReuse = genericReader.read(null, DecoderFactory.get().binaryDecoder(bytes, null));
+        specificReuse = specificReader.read(null, DecoderFactory.get().binaryDecoder(bytes, null));
+        encoder = EncoderFactory.get().binaryEncoder(out, null);
+    }
+
+    @Benchmark
+    public int encodeGeneric() throws IOException {
+        out.reset();
+        genericWriter.write(genericRecord, encoder);
+        encoder.flush();
+        return out.size();
+    }
+
+    @Benchmark
+    public int encodeSpecific() throws IOException {
+        out.reset();
+        specificWriter.write(specificRecord, encoder);
+        encoder.flush();
+        return out.size();
+    }
+
+    @Benchmark
+    public GenericRecord decodeGenericReused() throws IOException {
+        decoder = DecoderFactory.get().binaryDecoder(bytes, decoder);
+        genericReuse = genericReader.read(genericReuse, decoder);
+        return genericReuse;
+    }
+
+    @Benchmark
+    public GenericRecord decodeGenericFresh() throws IOException {
+        return genericReader.read(null, DecoderFactory.get().binaryDecoder(bytes, null));
+    }
+
+    @Benchmark
+    public SpecificRecordBase decodeSpecificReused() throws IOException {
+        decoder = DecoderFactory.get().binaryDecoder(bytes, decoder);
+        specificReuse = specificReader.read(specificReuse, decoder);
+        return specificReuse;
+    }
+
+    @Benchmark
+    public SpecificRecordBase decodeSpecificFresh() throws IOException {
+        return specificReader.read(null, DecoderFactory.get().binaryDecoder(bytes, null));
+    }
+}
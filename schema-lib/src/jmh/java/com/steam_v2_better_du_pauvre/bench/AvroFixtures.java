@@ -0,0 +1,225 @@
+package com.steam_v2_better_du_pauvre.bench;
+
+import com.steam_v2_better_du_pauvre.auth.LoginRequest;
+import com.steam_v2_better_du_pauvre.auth.LoginResponse;
+import com.steam_v2_better_du_pauvre.auth.RegisterPlayerRequest;
+import com.steam_v2_better_du_pauvre.auth.RegisterPlayerResponse;
+import com.steam_v2_better_du_pauvre.auth.RegisterRequest;
+import com.steam_v2_better_du_pauvre.auth.RegisterResponse;
+import com.steam_v2_better_du_pauvre.bugreport.BugReport;
+import com.steam_v2_better_du_pauvre.commerce.BuyGameRequest;
+import com.steam_v2_better_du_pauvre.commerce.BuyGameResponse;
+import com.steam_v2_better_du_pauvre.dlc.Dlc;
+import com.steam_v2_better_du_pauvre.editor.Editor;
+import com.steam_v2_better_du_pauvre.evaluation.Evaluation;
+import com.steam_v2_better_du_pauvre.game.Game;
+import com.steam_v2_better_du_pauvre.library.Ownership;
+import com.steam_v2_better_du_pauvre.patch.Patch;
+import com.steam_v2_better_du_pauvre.player.Player;
+import com.steam_v2_better_du_pauvre.workflow.PublishRequest;
+import com.steam_v2_better_du_pauvre.workflow.PublishResponse;
+import org.apache.avro.LogicalType;
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificRecordBase;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Messages d'exemple pour les benchmarks : un enregistrement rempli aléatoirement
+ * (graine fixe) pour chaque schéma de schema-lib, plus une variante de PublishRequest
+ * par branche de l'union payload.
+ * Les champs optionnels sont toujours renseignés pour mesurer le message le plus lourd.
+ */
+public final class AvroFixtures {
+    private static final long SEED = 42L;
+
+    private static final Map<String, Class<? extends SpecificRecordBase>> RECORDS = new LinkedHashMap<>();
+
+    static {
+        RECORDS.put("BugReport", BugReport.class);
+        RECORDS.put("BuyGameRequest", BuyGameRequest.class);
+        RECORDS.put("BuyGameResponse", BuyGameResponse.class);
+        RECORDS.put("Dlc", Dlc.class);
+        RECORDS.put("Editor", Editor.class);
+        RECORDS.put("Evaluation", Evaluation.class);
+        RECORDS.put("Game", Game.class);
+        RECORDS.put("LoginRequest", LoginRequest.class);
+        RECORDS.put("LoginResponse", LoginResponse.class);
+        RECORDS.put("Ownership", Ownership.class);
+        RECORDS.put("Patch", Patch.class);
+        RECORDS.put("Player", Player.class);
+        RECORDS.put("PublishRequest.Game", PublishRequest.class);
+        RECORDS.put("PublishRequest.Dlc", PublishRequest.class);
+        RECORDS.put("PublishRequest.Patch", PublishRequest.class);
+        RECORDS.put("PublishResponse", PublishResponse.class);
+        RECORDS.put("RegisterRequest", RegisterRequest.class);
+        RECORDS.put("RegisterResponse", RegisterResponse.class);
+        RECORDS.put("RegisterPlayerRequest", RegisterPlayerRequest.class);
+        RECORDS.put("RegisterPlayerResponse", RegisterPlayerResponse.class);
+    }
+
+    private AvroFixtures() {
+    }
+
+    /**
+     * Noms des messages disponibles ("PublishRequest.Dlc" = union payload sur la branche Dlc)
+     */
+    public static List<String> names() {
+        return new ArrayList<>(RECORDS.keySet());
+    }
+
+    /**
+     * Classe générée correspondant à un message
+     */
+    public static Class<? extends SpecificRecordBase> recordClass(String name) {
+        Class<? extends SpecificRecordBase> type = RECORDS.get(name);
+        if (type == null) {
+            throw new IllegalArgumentException("Message inconnu : " + name + " (attendu : " + RECORDS.keySet() + ")");
+        }
+        return type;
+    }
+
+    public static Schema schema(String name) {
+        return newInstance(recordClass(name)).getSchema();
+    }
+
+    /**
+     * Message d'exemple sous forme de GenericRecord (toujours le même pour un nom donné)
+     */
+    public static GenericRecord generic(String name) {
+        int dot = name.indexOf('.');
+        String branch = dot < 0 ? null : name.substring(dot + 1);
+        return (GenericRecord) fill(schema(name), new Random(SEED + name.hashCode()), branch);
+    }
+
+    /**
+     * Encodage binaire Avro brut (sans en-tête) d'un message d'exemple
+     */
+    public static byte[] encoded(String name) {
+        GenericRecord record = generic(name);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+        try {
+            new GenericDatumWriter<GenericRecord>(record.getSchema()).write(record, encoder);
+            encoder.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static Object fill(Schema schema, Random random, String branch) {
+        LogicalType logicalType = schema.getLogicalType();
+        switch (schema.getType()) {
+            case RECORD:
+                GenericData.Record record = new GenericData.Record(schema);
+                for (Schema.Field field : schema.getFields()) {
+                    record.put(field.pos(), fill(field.schema(), random, branch));
+                }
+                return record;
+            case UNION:
+                return fill(pickBranch(schema, random, branch), random, branch);
+            case ARRAY:
+                int size = 1 + random.nextInt(3);
+                List<Object> items = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    items.add(fill(schema.getElementType(), random, branch));
+                }
+                return new GenericData.Array<>(schema, items);
+            case MAP:
+                Map<String, Object> values = new LinkedHashMap<>();
+                values.put(word(random, 8), fill(schema.getValueType(), random, branch));
+                return values;
+            case ENUM:
+                List<String> symbols = schema.getEnumSymbols();
+                return new GenericData.EnumSymbol(schema, symbols.get(random.nextInt(symbols.size())));
+            case STRING:
+                if (logicalType != null && "uuid".equals(logicalType.getName())) {
+                    return new UUID(random.nextLong(), random.nextLong()).toString();
+                }
+                return word(random, 8 + random.nextInt(24));
+            case BYTES:
+                if (logicalType instanceof LogicalTypes.Decimal) {
+                    int scale = ((LogicalTypes.Decimal) logicalType).getScale();
+                    BigDecimal price = BigDecimal.valueOf(random.nextInt(10_000), 2).setScale(scale);
+                    return ByteBuffer.wrap(price.unscaledValue().toByteArray());
+                }
+                byte[] bytes = new byte[16];
+                random.nextBytes(bytes);
+                return ByteBuffer.wrap(bytes);
+            case FIXED:
+                byte[] fixed = new byte[schema.getFixedSize()];
+                random.nextBytes(fixed);
+                return new GenericData.Fixed(schema, fixed);
+            case INT:
+                if (logicalType != null && "date".equals(logicalType.getName())) {
+                    return 18_000 + random.nextInt(2_000);
+                }
+                return random.nextInt(1_000);
+            case LONG:
+                if (logicalType != null && logicalType.getName().startsWith("timestamp")) {
+                    return 1_700_000_000_000L + (long) random.nextInt(Integer.MAX_VALUE);
+                }
+                return random.nextLong();
+            case FLOAT:
+                return 1 + random.nextInt(20) / 10f;
+            case DOUBLE:
+                return random.nextDouble();
+            case BOOLEAN:
+                return random.nextBoolean();
+            case NULL:
+                return null;
+            default:
+                throw new IllegalArgumentException("Type Avro non géré : " + schema.getType());
+        }
+    }
+
+    /**
+     * Branche non nulle d'une union, ou la branche demandée ("Game", "Dlc", "Patch")
+     */
+    private static Schema pickBranch(Schema union, Random random, String branch) {
+        List<Schema> candidates = new ArrayList<>();
+        for (Schema type : union.getTypes()) {
+            if (type.getType() == Schema.Type.NULL) {
+                continue;
+            }
+            if (branch != null && type.getType() == Schema.Type.RECORD && type.getName().equals(branch)) {
+                return type;
+            }
+            candidates.add(type);
+        }
+        return candidates.get(random.nextInt(candidates.size()));
+    }
+
+    private static String word(Random random, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + random.nextInt(26)));
+        }
+        return sb.toString();
+    }
+
+    private static SpecificRecordBase newInstance(Class<? extends SpecificRecordBase> type) {
+        try {
+            return type.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Impossible d'instancier " + type.getName(), e);
+        }
+    }
+}
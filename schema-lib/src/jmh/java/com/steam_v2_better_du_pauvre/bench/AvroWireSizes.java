@@ -0,0 +1,23 @@
+package com.steam_v2_better_du_pauvre.bench;
+
+/**
+ * Taille sur le fil de chaque message d'exemple : encodage binaire brut, trame Confluent
+ * (KafkaAvroSerializer : octet magique + id de schéma sur 4 octets) et encodage
+ * "single object" d'Avro (BinaryMessageEncoder : marqueur de 2 octets + empreinte de 8 octets).
+ * Lancé par la tâche gradle avroWireSizes.
+ */
+public final class AvroWireSizes {
+    private static final int CONFLUENT_HEADER = 5;
+    private static final int SINGLE_OBJECT_HEADER = 10;
+
+    private AvroWireSizes() {
+    }
+
+    public static void main(String[] args) {
+        System.out.printf("%-24s %10s %12s %14s%n", "Message", "Avro (o)", "Confluent (o)", "Single obj (o)");
+        for (String name : AvroFixtures.names()) {
+            int size = AvroFixtures.encoded(name).length;
+            System.out.printf("%-24s %10d %12d %14d%n", name, size, size + CONFLUENT_HEADER, size + SINGLE_OBJECT_HEADER);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.steam_v2_better_du_pauvre.loadgen;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Encodage binaire Avro brut (sans en-tête) des messages échangés sur les topics.
+ * Lecteurs, écrivains et encodeurs sont réutilisés : une instance par thread.
+ */
+final class AvroCodec {
+    private final Map<Schema, GenericDatumWriter<GenericRecord>> writers = new HashMap<>();
+    private final Map<Schema, GenericDatumReader<GenericRecord>> readers = new HashMap<>();
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+    private BinaryEncoder encoder;
+    private BinaryDecoder decoder;
+
+    byte[] encode(GenericRecord record) {
+        out.reset();
+        encoder = EncoderFactory.get().binaryEncoder(out, encoder);
+        try {
+            writers.computeIfAbsent(record.getSchema(), GenericDatumWriter::new).write(record, encoder);
+            encoder.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    GenericRecord decode(Schema schema, byte[] bytes) {
+        decoder = DecoderFactory.get().binaryDecoder(bytes, decoder);
+        try {
+            return readers.computeIfAbsent(schema, GenericDatumReader::new).read(null, decoder);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.steam_v2_better_du_pauvre.loadgen;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transport sans broker : les requêtes passent par une file en mémoire vers un
+ * StandInResponder, qui tourne sur son propre thread. Mesure le client et le codec Avro seuls.
+ */
+final class InProcessTransport implements RequestTransport {
+    private final ExecutorService service = Executors.newSingleThreadExecutor(r -> new Thread(r, "stand-in"));
+    private final StandInResponder responder;
+    private final AvroCodec codec = new AvroCodec();
+    private Listener listener;
+
+    InProcessTransport(long serviceNanos) {
+        this.responder = new StandInResponder(serviceNanos);
+    }
+
+    @Override
+    public void start(Listener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void send(RequestType type, String requestId, byte[] payload) {
+        service.execute(() -> {
+            try {
+                byte[] response = responder.respond(type, payload);
+                String id = response == null
+                    ? requestId
+                    : StandInResponder.correlationId(codec, type.responseSchema(), response);
+                listener.completed(type, id);
+            } catch (RuntimeException e) {
+                listener.failed(type, requestId, e);
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        service.shutdownNow();
+        try {
+            service.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.steam_v2_better_du_pauvre.loadgen;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Transport Kafka : requêtes produites sur leur topic avec le requestId pour clé, réponses lues
+ * sur les topics *-response par un groupe de consommateurs propre au run.
+ * Avec standIn, un StandInResponder branché sur le même broker joue le rôle des services.
+ */
+final class KafkaTransport implements RequestTransport {
+    private static final Duration POLL = Duration.ofMillis(100);
+    private static final long ASSIGNMENT_TIMEOUT_SECONDS = 30;
+
+    private final String bootstrapServers;
+    private final boolean standIn;
+    private final long standInServiceNanos;
+    private final List<KafkaConsumer<String, byte[]>> consumers = new ArrayList<>();
+    private final List<Thread> threads = new ArrayList<>();
+    private CountDownLatch assigned;
+    private KafkaProducer<String, byte[]> producer;
+    private Listener listener;
+    private volatile boolean running = true;
+
+    KafkaTransport(String bootstrapServers, boolean standIn, long standInServiceNanos) {
+        this.bootstrapServers = bootstrapServers;
+        this.standIn = standIn;
+        this.standInServiceNanos = standInServiceNanos;
+    }
+
+    @Override
+    public void start(Listener listener) throws InterruptedException {
+        this.listener = listener;
+        this.assigned = new CountDownLatch(standIn ? 2 : 1);
+        producer = new KafkaProducer<>(producerProperties());
+
+        List<String> requestTopics = new ArrayList<>();
+        List<String> responseTopics = new ArrayList<>();
+        for (RequestType type : RequestType.values()) {
+            requestTopics.add(type.getRequestTopic());
+            if (type.expectsResponse()) {
+                responseTopics.add(type.getResponseTopic());
+            }
+        }
+
+        AvroCodec responseCodec = new AvroCodec();
+        startConsumer("response-consumer", "loadgen-" + UUID.randomUUID(), responseTopics, record -> {
+            RequestType type = RequestType.fromResponseTopic(record.topic());
+            listener.completed(type, StandInResponder.correlationId(responseCodec, type.responseSchema(), record.value()));
+        });
+        if (standIn) {
+            StandInResponder responder = new StandInResponder(standInServiceNanos);
+            startConsumer("stand-in", "loadgen-stand-in", requestTopics, record -> {
+                RequestType type = RequestType.fromRequestTopic(record.topic());
+                byte[] response = responder.respond(type, record.value());
+                if (response != null) {
+                    producer.send(new ProducerRecord<>(type.getResponseTopic(), record.key(), response));
+                }
+            });
+        }
+
+        // Sans partitions assignées, les premières réponses seraient perdues (auto.offset.reset=latest)
+        if (!assigned.await(ASSIGNMENT_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Aucune partition assignée après " + ASSIGNMENT_TIMEOUT_SECONDS +
+                " s, broker injoignable ? (" + bootstrapServers + ")");
+        }
+    }
+
+    @Override
+    public void send(RequestType type, String requestId, byte[] payload) {
+        producer.send(new ProducerRecord<>(type.getRequestTopic(), requestId, payload), (metadata, error) -> {
+            if (error != null) {
+                listener.failed(type, requestId, error);
+            } else if (!type.expectsResponse()) {
+                listener.completed(type, requestId);
+            }
+        });
+    }
+
+    /**
+     * Consommateur sur son propre thread ; décompte le latch à sa première assignation
+     */
+    private void startConsumer(String name, String groupId, List<String> topics,
+                               Consumer<ConsumerRecord<String, byte[]>> handler) {
+        KafkaConsumer<String, byte[]> consumer = new KafkaConsumer<>(consumerProperties(groupId));
+        consumers.add(consumer);
+        Thread thread = new Thread(() -> {
+            boolean[] first = {true};
+            consumer.subscribe(topics, new ConsumerRebalanceListener() {
+                @Override
+                public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+                }
+
+                @Override
+                public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+                    if (first[0] && !partitions.isEmpty()) {
+                        first[0] = false;
+                        assigned.countDown();
+                    }
+                }
+            });
+            try {
+                while (running) {
+                    for (ConsumerRecord<String, byte[]> record : consumer.poll(POLL)) {
+                        handler.accept(record);
+                    }
+                }
+            } catch (WakeupException e) {
+                // close()
+            } finally {
+                consumer.close();
+            }
+        }, name);
+        thread.setDaemon(true);
+        threads.add(thread);
+        thread.start();
+    }
+
+    private Properties consumerProperties(String groupId) {
+        Properties props = new Properties();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class.getName());
+        return props;
+    }
+
+    private Properties producerProperties() {
+        Properties props = new Properties();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class.getName());
+        props.put(ProducerConfig.LINGER_MS_CONFIG, 1);
+        return props;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        consumers.forEach(KafkaConsumer::wakeup);
+        for (Thread thread : threads) {
+            try {
+                thread.join(5_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (producer != null) {
+            producer.close(Duration.ofSeconds(5));
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.steam_v2_better_du_pauvre.loadgen;
+
+import com.steam_v2_better_du_pauvre.bench.AvroFixtures;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.apache.avro.generic.GenericRecord;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Générateur de charge en boucle ouverte pour les messages requête/réponse de schema-lib.
+ *
+ * La requête i part à start + i / rate, quels que soient les temps de réponse. La latence est
+ * mesurée depuis cette date prévue et non depuis l'envoi effectif : l'attente derrière un
+ * service ou un producteur saturé est comptée (pas d'omission coordonnée). La latence depuis
+ * l'envoi effectif est aussi relevée, pour montrer l'écart.
+ *
+ * Options (--clé=valeur) : transport (in-process | kafka), bootstrap, stand-in (true | false),
+ * service-micros, rate, duration, warmup, mix, timeout-ms, output, seed.
+ * Lancé par la tâche gradle loadgen.
+ */
+public final class LoadGenerator implements RequestTransport.Listener {
+    private static final String DEFAULT_MIX =
+        "buy_game=25,login=30,register_player=10,publish=5,evaluation=20,bug_report=10";
+    private static final long HIGHEST_TRACKABLE_NANOS = 3_600_000_000_000L;
+
+    /**
+     * Requête en vol : type, date d'envoi prévue et date d'envoi effective
+     */
+    private record Pending(RequestType type, long intendedNanos, long sentNanos) {
+    }
+
+    private final Map<String, String> options;
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    private final Map<RequestType, Histogram> latencies = new EnumMap<>(RequestType.class);
+    private final Map<RequestType, Histogram> serviceTimes = new EnumMap<>(RequestType.class);
+    private final Map<RequestType, AtomicLong> sent = new EnumMap<>(RequestType.class);
+    private final Map<RequestType, AtomicLong> errors = new EnumMap<>(RequestType.class);
+    private final Map<RequestType, AtomicLong> timeouts = new EnumMap<>(RequestType.class);
+    private volatile long measureStart;
+    private volatile long measureEnd;
+
+    private LoadGenerator(Map<String, String> options) {
+        this.options = options;
+        for (RequestType type : RequestType.values()) {
+            latencies.put(type, new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3));
+            serviceTimes.put(type, new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3));
+            sent.put(type, new AtomicLong());
+            errors.put(type, new AtomicLong());
+            timeouts.put(type, new AtomicLong());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Option attendue sous la forme --clé=valeur : " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        new LoadGenerator(options).run();
+    }
+
+    private void run() throws Exception {
+        double rate = Double.parseDouble(option("rate", "1000"));
+        int duration = Integer.parseInt(option("duration", "30"));
+        int warmup = Integer.parseInt(option("warmup", "5"));
+        long timeoutNanos = Long.parseLong(option("timeout-ms", "5000")) * 1_000_000L;
+        long serviceNanos = Long.parseLong(option("service-micros", "100")) * 1_000L;
+        List<RequestType> mix = parseMix(option("mix", DEFAULT_MIX));
+        Map<RequestType, List<GenericRecord>> templates = templates();
+        Random random = new Random(Long.parseLong(option("seed", "42")));
+        AvroCodec codec = new AvroCodec();
+
+        String transportName = option("transport", "in-process");
+        try (RequestTransport transport = switch (transportName) {
+            case "in-process" -> new InProcessTransport(serviceNanos);
+            case "kafka" -> new KafkaTransport(option("bootstrap", "localhost:9092"),
+                Boolean.parseBoolean(option("stand-in", "true")), serviceNanos);
+            default -> throw new IllegalArgumentException("Transport inconnu : " + transportName);
+        }) {
+            transport.start(this);
+            System.out.printf("Charge en boucle ouverte : %.0f req/s, %d s de chauffe + %d s, transport %s%n",
+                rate, warmup, duration, transportName);
+
+            long periodNanos = (long) (1_000_000_000L / rate);
+            long start = System.nanoTime();
+            measureStart = start + warmup * 1_000_000_000L;
+            measureEnd = measureStart + duration * 1_000_000_000L;
+            long nextReport = start + 5_000_000_000L;
+
+            for (long i = 0; ; i++) {
+                long intended = start + i * periodNanos;
+                if (intended >= measureEnd) {
+                    break;
+                }
+                for (long wait = intended - System.nanoTime(); wait > 0; wait = intended - System.nanoTime()) {
+                    LockSupport.parkNanos(wait);
+                }
+
+                RequestType type = mix.get(random.nextInt(mix.size()));
+                List<GenericRecord> candidates = templates.get(type);
+                GenericRecord request = candidates.get(random.nextInt(candidates.size()));
+                String requestId = new UUID(random.nextLong(), random.nextLong()).toString();
+                if (type.expectsResponse()) {
+                    request.put("requestId", requestId);
+                }
+                byte[] payload = codec.encode(request);
+
+                pending.put(requestId, new Pending(type, intended, System.nanoTime()));
+                if (intended >= measureStart) {
+                    sent.get(type).incrementAndGet();
+                }
+                transport.send(type, requestId, payload);
+
+                long now = System.nanoTime();
+                if (now >= nextReport) {
+                    printProgress(start, now);
+                    nextReport += 5_000_000_000L;
+                }
+            }
+
+            // Attente des dernières réponses ; celles qui manquent comptent comme expirées
+            long deadline = System.nanoTime() + timeoutNanos;
+            while (!pending.isEmpty() && System.nanoTime() < deadline) {
+                LockSupport.parkNanos(1_000_000);
+            }
+        }
+
+        for (Pending request : pending.values()) {
+            if (request.intendedNanos() >= measureStart) {
+                timeouts.get(request.type()).incrementAndGet();
+            }
+        }
+        printReport(duration);
+        writeDistributions(Path.of(option("output", "build/loadgen")));
+    }
+
+    @Override
+    public void completed(RequestType type, String requestId) {
+        long now = System.nanoTime();
+        Pending request = pending.remove(requestId);
+        if (request == null || request.intendedNanos() < measureStart || request.intendedNanos() >= measureEnd) {
+            return;
+        }
+        latencies.get(type).recordValue(Math.min(now - request.intendedNanos(), HIGHEST_TRACKABLE_NANOS));
+        serviceTimes.get(type).recordValue(Math.min(now - request.sentNanos(), HIGHEST_TRACKABLE_NANOS));
+    }
+
+    @Override
+    public void failed(RequestType type, String requestId, Exception error) {
+        Pending request = pending.remove(requestId);
+        if (request != null && errors.get(type).incrementAndGet() == 1) {
+            System.err.println("Échec " + type.getKey() + " : " + error.getMessage());
+        }
+    }
+
+    /**
+     * Modèles de message par type : une copie de chaque message d'exemple, dont seul le requestId change
+     */
+    private static Map<RequestType, List<GenericRecord>> templates() {
+        Map<RequestType, List<GenericRecord>> templates = new EnumMap<>(RequestType.class);
+        for (RequestType type : RequestType.values()) {
+            List<GenericRecord> records = new ArrayList<>();
+            for (String fixture : type.getRequestFixtures()) {
+                records.add(AvroFixtures.generic(fixture));
+            }
+            templates.put(type, records);
+        }
+        return templates;
+    }
+
+    /**
+     * Mix "type=poids,..." déplié en une liste où chaque type apparaît poids fois
+     */
+    private static List<RequestType> parseMix(String spec) {
+        List<RequestType> mix = new ArrayList<>();
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Entrée de mix invalide : " + entry);
+            }
+            RequestType type = RequestType.fromKey(parts[0].trim());
+            for (int i = Integer.parseInt(parts[1].trim()); i > 0; i--) {
+                mix.add(type);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("Le mix ne contient aucun type de poids positif");
+        }
+        return mix;
+    }
+
+    private void printProgress(long start, long now) {
+        if (now < measureStart) {
+            System.out.printf("  [%4.0fs] chauffe, %d en vol%n", (now - start) / 1e9, pending.size());
+            return;
+        }
+        long completed = 0;
+        for (Histogram histogram : latencies.values()) {
+            completed += histogram.getTotalCount();
+        }
+        System.out.printf("  [%4.0fs] %d réponses (%.0f/s), %d en vol%n",
+            (now - start) / 1e9, completed, completed / ((now - measureStart) / 1e9), pending.size());
+    }
+
+    private void printReport(int duration) {
+        System.out.println();
+        System.out.printf("%-16s %8s %9s %9s %9s %9s %9s %9s %8s %7s%n", "Type", "Envoyés", "Débit/s",
+            "p50 ms", "p99 ms", "p99.9 ms", "max ms", "p99 env.", "Expirés", "Erreurs");
+        Histogram all = new Histogram(HIGHEST_TRACKABLE_NANOS, 3);
+        Histogram allService = new Histogram(HIGHEST_TRACKABLE_NANOS, 3);
+        long allSent = 0;
+        long allTimeouts = 0;
+        long allErrors = 0;
+        for (RequestType type : RequestType.values()) {
+            if (sent.get(type).get() == 0) {
+                continue;
+            }
+            all.add(latencies.get(type));
+            allService.add(serviceTimes.get(type));
+            allSent += sent.get(type).get();
+            allTimeouts += timeouts.get(type).get();
+            allErrors += errors.get(type).get();
+            printLine(type.getKey(), sent.get(type).get(), latencies.get(type), serviceTimes.get(type),
+                duration, timeouts.get(type).get(), errors.get(type).get());
+        }
+        printLine("all", allSent, all, allService, duration, allTimeouts, allErrors);
+        System.out.println("(p99 env. : p99 mesuré depuis l'envoi effectif, sans correction de l'omission coordonnée)");
+    }
+
+    private static void printLine(String name, long sentCount, Histogram latency, Histogram service, int duration,
+                                  long timeoutCount, long errorCount) {
+        System.out.printf("%-16s %8d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f %8d %7d%n", name, sentCount,
+            latency.getTotalCount() / (double) duration,
+            latency.getValueAtPercentile(50) / 1e6, latency.getValueAtPercentile(99) / 1e6,
+            latency.getValueAtPercentile(99.9) / 1e6, latency.getMaxValue() / 1e6,
+            service.getValueAtPercentile(99) / 1e6, timeoutCount, errorCount);
+    }
+
+    /**
+     * Distribution des percentiles (format .hgrm, en ms) de chaque type, latence corrigée
+     */
+    private void writeDistributions(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (RequestType type : RequestType.values()) {
+            Histogram histogram = latencies.get(type);
+            if (histogram.getTotalCount() > 0) {
+                try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(type.getKey() + ".hgrm")))) {
+                    histogram.outputPercentileDistribution(out, 1e6);
+                }
+            }
+        }
+        System.out.println("Distributions écrites dans " + directory.toAbsolutePath());
+    }
+
+    private String option(String key, String defaultValue) {
+        return options.getOrDefault(key, defaultValue);
+    }
+}
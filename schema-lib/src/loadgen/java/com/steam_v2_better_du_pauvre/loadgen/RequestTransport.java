@@ -0,0 +1,29 @@
+package com.steam_v2_better_du_pauvre.loadgen;
+
+/**
+ * Acheminement des requêtes et des réponses : broker Kafka ou service en mémoire.
+ * Les messages sont identifiés par leur requestId (clé Kafka du message).
+ */
+interface RequestTransport extends AutoCloseable {
+    /**
+     * Fin d'une requête : réponse reçue, ou acquittement pour un événement sans réponse
+     */
+    interface Listener {
+        void completed(RequestType type, String requestId);
+
+        void failed(RequestType type, String requestId, Exception error);
+    }
+
+    /**
+     * Prêt à recevoir les réponses avant l'envoi de la première requête
+     */
+    void start(Listener listener) throws Exception;
+
+    /**
+     * Envoi sans attendre la réponse ; ne doit bloquer que si le transport est saturé
+     */
+    void send(RequestType type, String requestId, byte[] payload);
+
+    @Override
+    void close();
+}
@@ -0,0 +1,96 @@
+package com.steam_v2_better_du_pauvre.loadgen;
+
+import com.steam_v2_better_du_pauvre.bench.AvroFixtures;
+import org.apache.avro.Schema;
+
+import java.util.List;
+
+/**
+ * Types de messages envoyés par le générateur de charge.
+ * Les requêtes attendent une réponse dont le correlationId reprend leur requestId ;
+ * Evaluation et BugReport sont des événements sans réponse : leur latence s'arrête à
+ * l'acquittement du broker (ou du service de substitution).
+ */
+public enum RequestType {
+    BUY_GAME("buy_game", "buy-game-request", "buy-game-response", "BuyGameResponse", "BuyGameRequest"),
+    LOGIN("login", "login-request", "login-response", "LoginResponse", "LoginRequest"),
+    REGISTER_PLAYER("register_player", "register-player-request", "register-player-response",
+        "RegisterPlayerResponse", "RegisterPlayerRequest"),
+    PUBLISH("publish", "publish-request", "publish-response", "PublishResponse",
+        "PublishRequest.Game", "PublishRequest.Dlc", "PublishRequest.Patch"),
+    EVALUATION("evaluation", "evaluation", null, null, "Evaluation"),
+    BUG_REPORT("bug_report", "bugReport", null, null, "BugReport");
+
+    private final String key;
+    private final String requestTopic;
+    private final String responseTopic;
+    private final String responseFixture;
+    private final List<String> requestFixtures;
+
+    RequestType(String key, String requestTopic, String responseTopic, String responseFixture,
+                String... requestFixtures) {
+        this.key = key;
+        this.requestTopic = requestTopic;
+        this.responseTopic = responseTopic;
+        this.responseFixture = responseFixture;
+        this.requestFixtures = List.of(requestFixtures);
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getRequestTopic() {
+        return requestTopic;
+    }
+
+    public String getResponseTopic() {
+        return responseTopic;
+    }
+
+    public boolean expectsResponse() {
+        return responseTopic != null;
+    }
+
+    /**
+     * Messages d'exemple (AvroFixtures) utilisés comme modèles, un par branche pour PublishRequest
+     */
+    public List<String> getRequestFixtures() {
+        return requestFixtures;
+    }
+
+    public Schema requestSchema() {
+        return AvroFixtures.schema(requestFixtures.get(0));
+    }
+
+    public Schema responseSchema() {
+        return AvroFixtures.schema(responseFixture);
+    }
+
+    public static RequestType fromKey(String key) {
+        for (RequestType type : values()) {
+            if (type.key.equals(key)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Type de requête inconnu : " + key);
+    }
+
+    public static RequestType fromResponseTopic(String topic) {
+        for (RequestType type : values()) {
+            if (topic.equals(type.responseTopic)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Topic de réponse inconnu : " + topic);
+    }
+
+    public static RequestType fromRequestTopic(String topic) {
+        for (RequestType type : values()) {
+            if (topic.equals(type.requestTopic)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Topic de requête inconnu : " + topic);
+    }
+}
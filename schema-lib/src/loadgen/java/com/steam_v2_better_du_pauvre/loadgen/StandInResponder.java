@@ -0,0 +1,58 @@
+package com.steam_v2_better_du_pauvre.loadgen;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Service de substitution utilisé tant que platform / game-editor / player ne répondent pas :
+ * décode chaque requête, attend un temps de service fixe puis répond avec succès
+ * (correlationId = requestId). Un seul thread de traitement, comme un consommateur Kafka
+ * sur une partition : au-delà de sa capacité, les requêtes font la queue.
+ */
+final class StandInResponder {
+    private final AvroCodec codec = new AvroCodec();
+    private final Map<RequestType, GenericRecord> responses = new EnumMap<>(RequestType.class);
+    private final long serviceNanos;
+
+    StandInResponder(long serviceNanos) {
+        this.serviceNanos = serviceNanos;
+        for (RequestType type : RequestType.values()) {
+            if (type.expectsResponse()) {
+                GenericRecord response = new GenericData.Record(type.responseSchema());
+                response.put("isSuccess", true);
+                responses.put(type, response);
+            }
+        }
+    }
+
+    /**
+     * Traite une requête ; renvoie la réponse encodée, ou null pour un événement sans réponse
+     */
+    byte[] respond(RequestType type, byte[] request) {
+        GenericRecord decoded = codec.decode(type.requestSchema(), request);
+        if (serviceNanos > 0) {
+            long end = System.nanoTime() + serviceNanos;
+            for (long left = serviceNanos; left > 0; left = end - System.nanoTime()) {
+                LockSupport.parkNanos(left);
+            }
+        }
+        if (!type.expectsResponse()) {
+            return null;
+        }
+        GenericRecord response = responses.get(type);
+        response.put("correlationId", decoded.get("requestId"));
+        return codec.encode(response);
+    }
+
+    /**
+     * correlationId d'une réponse encodée
+     */
+    static String correlationId(AvroCodec codec, Schema responseSchema, byte[] response) {
+        return codec.decode(responseSchema, response).get("correlationId").toString();
+    }
+}